@@ -0,0 +1,80 @@
+package hex.tree;
+
+import hex.createframe.recipes.SimpleCreateFrameRecipe;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.Frame;
+
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Histogram building (ScoreBuildHistogram2) dominated GBM training on a wide and a tall synthetic dataset.
+ * The block size of the column blocks can be tuned with -Dsys.ai.h2o.tree.histoBlockBytes.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Timeout(time = 15, timeUnit = TimeUnit.MINUTES)
+public class HistogramBuildBench {
+
+  @Param({"wide", "tall"})
+  private String shape;
+
+  private Frame _train;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(HistogramBuildBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+
+    SimpleCreateFrameRecipe cf = new SimpleCreateFrameRecipe();
+    boolean wide = "wide".equals(shape);
+    cf.nrows = wide ? 20000 : 2000000;
+    cf.ncols_real = wide ? 400 : 8;
+    cf.ncols_int = wide ? 50 : 1;
+    cf.ncols_enum = wide ? 50 : 1;
+    cf.missing_fraction = 0.05;
+    cf.response_type = SimpleCreateFrameRecipe.ResponseType.REAL;
+    cf.seed = 0xB10C;
+    _train = cf.exec().get();
+  }
+
+  @Benchmark
+  public GBMModel measureGbmTraining() {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = _train._key;
+    parms._response_column = "response";
+    parms._ntrees = 5;
+    parms._max_depth = 10;
+    parms._seed = 42;
+    parms._score_tree_interval = Integer.MAX_VALUE;
+    GBMModel model = new GBM(parms).trainModel().get();
+    model.delete();
+    return model;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (_train != null) _train.delete();
+  }
+
+}
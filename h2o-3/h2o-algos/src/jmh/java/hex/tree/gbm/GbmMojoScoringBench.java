@@ -25,8 +25,12 @@ public class GbmMojoScoringBench {
   @Param({"1000", "100000"})
   private int rows;
 
+  private static final int BLOCK_SIZE = 1024;
+
   private SharedTreeMojoModel _mojo;
+  private SharedTreeMojoModel _compiledMojo;
   private double[][] _data;
+  private double[][] _cols;
 
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
@@ -39,7 +43,13 @@ public class GbmMojoScoringBench {
   @Setup(Level.Invocation)
   public void setup() throws IOException {
     _mojo = (SharedTreeMojoModel) ClasspathReaderBackend.loadMojo("prostate");
+    _compiledMojo = (SharedTreeMojoModel) ClasspathReaderBackend.loadMojo("prostate");
+    _compiledMojo.compileTrees();
     _data = ProstateData.ROWS;
+    _cols = new double[_data[0].length][BLOCK_SIZE];
+    for (int i = 0; i < BLOCK_SIZE; i++)
+      for (int c = 0; c < _cols.length; c++)
+        _cols[c][i] = _data[i % _data.length][c];
   }
 
   @Benchmark
@@ -54,10 +64,37 @@ public class GbmMojoScoringBench {
     return sum;
   }
 
+  @Benchmark
+  public double measureGbmScore0Compiled() throws Exception {
+    double sum = 0;
+    double[] pred = new double[3];
+    for (int i = 0; i < rows; i++) {
+      double[] row = _data[i % _data.length];
+      pred[0] = 0.0; pred[1] = 0.0; pred[2] = 0.0;
+      sum += _compiledMojo.score0(row, pred)[1];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double measureGbmScoreBlock() throws Exception {
+    double sum = 0;
+    double[] preds = new double[BLOCK_SIZE * 3];
+    for (int i = 0; i < rows; i += BLOCK_SIZE) {
+      int n = Math.min(BLOCK_SIZE, rows - i);
+      _mojo.scoreBlock(_cols, null, n, preds);
+      for (int r = 0; r < n; r++)
+        sum += preds[r * 3 + 1];
+    }
+    return sum;
+  }
+
   @TearDown(Level.Invocation)
   public void tearDown() {
     _mojo = null;
+    _compiledMojo = null;
     _data = null;
+    _cols = null;
   }
 
 
@@ -1076,6 +1076,162 @@ public class DataInfo extends Keyed<DataInfo> {
       row.offset = chunks[offsetChunkId()].atd(rid);
     return row;
   }
+  /**
+   * Bulk version of {@link #extractDenseRow}: extracts rows [from, to) of the chunks into {@code rows[0 .. to-from)}
+   * (made by {@link #newDenseRow()}), decoding a column at a time with the bulk Chunk accessors instead of value by
+   * value. The rows get the same content as from extractDenseRow.
+   */
+  public final Row[] extractDenseRows(Chunk[] chunks, int from, int to, Row[] rows) {
+    return extractDenseRows(chunks, from, to, null, rows);
+  }
+  /**
+   * Gathering version of {@link #extractDenseRows(Chunk[], int, int, Row[])}: extracts the rows {@code ids} (chunk
+   * relative, in increasing order) into {@code rows[0 .. ids.length)}.
+   */
+  public final Row[] extractDenseRows(Chunk[] chunks, int[] ids, Row[] rows) {
+    return extractDenseRows(chunks, 0, ids.length, ids, rows);
+  }
+
+  private Row[] extractDenseRows(Chunk[] chunks, int from, int to, int[] ids, Row[] rows) {
+    final int n = ids == null ? to - from : ids.length;
+    if (_interactionVecs != null) { // interactions are expanded value by value
+      for (int r = 0; r < n; ++r)
+        extractDenseRow(chunks, ids == null ? from + r : ids[r], rows[r]);
+      return rows;
+    }
+    final long start = chunks[0].start();
+    final double[] ds = MemoryManager.malloc8d(n);
+    final boolean[] skip = new boolean[n]; // rows extractDenseRow returns early from
+    if (_weights)
+      getDoubles(chunks[weightChunkId()], from, to, ids, ds);
+    for (int r = 0; r < n; ++r) {
+      Row row = rows[r];
+      row.predictors_bad = false;
+      row.response_bad = false;
+      row.cid = ids == null ? from + r : ids[r];
+      row.rid = start + row.cid;
+      row.nBins = 0;
+      if (_weights) row.weight = ds[r];
+      skip[r] = row.weight == 0;
+    }
+    if (_skipMissing) {
+      final long[] nas = MemoryManager.malloc8((n + 63) >> 6);
+      for (int i = 0; i < _cats + _nums; ++i) {
+        if (ids == null) {
+          if (chunks[i].getNAs(nas, from, to) == 0) continue;
+        } else { // gathered values come NaN for NAs
+          chunks[i].getDoubles(ds, ids);
+          Arrays.fill(nas, 0);
+          for (int r = 0; r < n; ++r)
+            if (Double.isNaN(ds[r])) nas[r >> 6] |= 1L << r;
+        }
+        for (int r = 0; r < n; ++r)
+          if (!skip[r] && (nas[r >> 6] & (1L << r)) != 0) {
+            rows[r].predictors_bad = true;
+            skip[r] = true;
+          }
+      }
+    }
+    final int[] is = MemoryManager.malloc4(n);
+    for (int i = 0; i < _cats; ++i) {
+      if (ids == null)
+        chunks[i].getIntegers(is, from, to, Integer.MIN_VALUE);
+      else {
+        chunks[i].getDoubles(ds, ids);
+        for (int r = 0; r < n; ++r)
+          is[r] = Double.isNaN(ds[r]) ? Integer.MIN_VALUE : (int) ds[r];
+      }
+      for (int r = 0; r < n; ++r) {
+        if (skip[r]) continue;
+        int cid = getCategoricalId(i, is[r] == Integer.MIN_VALUE ? _catNAFill[i] : is[r]);
+        if (cid >= 0)
+          rows[r].binIds[rows[r].nBins++] = cid;
+      }
+    }
+    for (int i = 0; i < _nums; ++i) {
+      if (ids == null)
+        chunks[_cats + i].getDoubles(ds, from, to, _numMeans[i]); // can be NA if skipMissing() == false
+      else {
+        chunks[_cats + i].getDoubles(ds, ids);
+        for (int r = 0; r < n; ++r)
+          if (Double.isNaN(ds[r])) ds[r] = _numMeans[i];
+      }
+      final boolean norm = _normMul != null && _normSub != null;
+      for (int r = 0; r < n; ++r) {
+        if (skip[r]) continue;
+        rows[r].numVals[i] = norm ? (ds[r] - _normSub[i]) * _normMul[i] : ds[r];
+      }
+    }
+    for (int i = 0; i < _responses; ++i) {
+      getDoubles(chunks[responseChunkId(i)], from, to, ids, ds);
+      for (int r = 0; r < n; ++r) {
+        Row row = rows[r];
+        if (skip[r] || row.response_bad) continue;
+        row.response[i] = ds[r];
+        if (Double.isNaN(ds[r]))
+          row.response_bad = true;
+        else if (_normRespMul != null)
+          row.response[i] = (ds[r] - _normRespSub[i]) * _normRespMul[i];
+      }
+    }
+    if (_offset) {
+      getDoubles(chunks[offsetChunkId()], from, to, ids, ds);
+      for (int r = 0; r < n; ++r)
+        if (!skip[r]) rows[r].offset = ds[r];
+    }
+    return rows;
+  }
+
+  private static double[] getDoubles(Chunk c, int from, int to, int[] ids, double[] ds) {
+    return ids == null ? c.getDoubles(ds, from, to) : c.getDoubles(ds, ids);
+  }
+
+  /**
+   * Dense rows of a chunk served from blocks of rows extracted in bulk (see {@link #extractDenseRows}); pays off
+   * when the rows are visited in increasing order, a row visited again is extracted again.
+   * With an order (a permutation of the chunk rows, e.g. a shuffle), {@code row(p)} serves row {@code order[p]} and
+   * the blocks gather the rows of consecutive positions instead.
+   */
+  public final class DenseRows {
+    private final Chunk[] _chks;
+    private final int[] _order;
+    private final int[] _ids; // sorted chunk rows of the current block, with an order
+    private final Row[] _block;
+    private int _from, _to, _last = -1;
+
+    public DenseRows(Chunk[] chks) {
+      this(chks, null);
+    }
+
+    public DenseRows(Chunk[] chks, int[] order) {
+      _chks = chks;
+      _order = order;
+      // keeps the block within ~512KB of values
+      int width = numNums() + _cats + _responses + 1;
+      _block = new Row[Math.max(1, Math.min(chks[0]._len, Math.max(16, Math.min(1024, (1 << 16) / width))))];
+      for (int i = 0; i < _block.length; ++i)
+        _block[i] = newDenseRow();
+      _ids = order == null ? null : new int[_block.length];
+    }
+
+    public Row row(int r) {
+      if (r < _from || r >= _to || r <= _last) {
+        _from = r;
+        _to = Math.min(r + _block.length, _chks[0]._len);
+        if (_order == null)
+          extractDenseRows(_chks, _from, _to, _block);
+        else {
+          int n = _to - _from;
+          System.arraycopy(_order, _from, _ids, 0, n);
+          Arrays.sort(_ids, 0, n); // chunks decode in row order
+          extractDenseRows(_chks, Arrays.copyOf(_ids, n), _block);
+        }
+      }
+      _last = r;
+      return _order == null ? _block[r - _from] : _block[Arrays.binarySearch(_ids, 0, _to - _from, _order[r])];
+    }
+  }
+
   public int getInteractionOffset(Chunk[] chunks, int cid, int rid) {
     boolean useAllFactors = ((InteractionWrappedVec)chunks[cid].vec())._useAllFactorLevels;
     InteractionWrappedVec.InteractionWrappedChunk c = (InteractionWrappedVec.InteractionWrappedChunk)chunks[cid];
@@ -1092,26 +1248,23 @@ public class DataInfo extends Keyed<DataInfo> {
 
   public final class Rows {
     public final int _nrows;
-    private final Row _denseRow;
+    private final DenseRows _denseRows;
     private final Row [] _sparseRows;
     public final boolean _sparse;
-    private final Chunk [] _chks;
 
     private Rows(Chunk [] chks, boolean sparse) {
       _nrows = chks[0]._len;
       _sparse = sparse;
       long start = chks[0].start();
       if(sparse) {
-        _denseRow = null;
-        _chks = null;
+        _denseRows = null;
         _sparseRows = extractSparseRows(chks);
       } else {
-        _denseRow = DataInfo.this.newDenseRow();
-        _chks = chks;
+        _denseRows = new DenseRows(chks);
         _sparseRows = null;
       }
     }
-    public Row row(int i) {return _sparse?_sparseRows[i]:extractDenseRow(_chks,i,_denseRow);}
+    public Row row(int i) {return _sparse?_sparseRows[i]:_denseRows.row(i);}
   }
 
   public Rows rows(Chunk [] chks) {
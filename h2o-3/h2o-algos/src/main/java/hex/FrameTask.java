@@ -113,10 +113,14 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
 
     DataInfo.Row row = null;
     DataInfo.Row[] rows = null;
+    DataInfo.Row denseRow = null;
+    DataInfo.DenseRows denseRows = null; // in-order access, extracted in bulk
     if (_sparse)
       rows = _dinfo.extractSparseRows(chunks);
-    else
-      row = _dinfo.newDenseRow();
+    else {
+      denseRow = _dinfo.newDenseRow();
+      denseRows = _dinfo.new DenseRows(chunks);
+    }
     double[] weight_map = null;
     double relative_chunk_weight = 1;
     //TODO: store node-local helper arrays in _dinfo -> avoid re-allocation and construction
@@ -124,7 +128,7 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
       weight_map = new double[nrows];
       double weight_sum = 0;
       for (int i = 0; i < nrows; ++i) {
-        row = _sparse ? rows[i] : _dinfo.extractDenseRow(chunks, i, row);
+        row = _sparse ? rows[i] : denseRows.row(i);
         weight_sum += row.weight;
         weight_map[i] = weight_sum;
         assert (i == 0 || row.weight == 0 || weight_map[i] > weight_map[i - 1]);
@@ -153,6 +157,10 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
       for (int i = 0; i < nrows; ++i) shufIdx[i] = i;
       ArrayUtils.shuffleArray(shufIdx, skip_rng);
     }
+    // shuffled scan without importance sampling visits the rows in shufIdx order, extracted in bulk as well
+    // (unless most of them are sampled out)
+    final DataInfo.DenseRows shuffledRows = !_sparse && shufIdx != null && !obs_weights && fraction >= 0.5
+        ? _dinfo.new DenseRows(chunks, shufIdx) : null;
 
     double[] responses = new double[getMiniBatchSize()];
     double[] offsets   = new double[getMiniBatchSize()];
@@ -187,7 +195,8 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
         }
         assert(r >= 0 && r<=nrows);
 
-        row = _sparse ? rows[r] : _dinfo.extractDenseRow(chunks, r, row);
+        row = _sparse ? rows[r] : !sample ? denseRows.row(r)
+            : shuffledRows != null ? shuffledRows.row(row_idx) : _dinfo.extractDenseRow(chunks, r, denseRow);
         if(row.isBad() || row.weight == 0) {
           num_skipped_rows++;
           continue;
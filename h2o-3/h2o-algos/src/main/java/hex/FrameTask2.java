@@ -61,9 +61,9 @@ public abstract class FrameTask2<T extends FrameTask2<T>> extends MRTask<T> {
           processRow(r);
       }
     } else {
-      Row row = _dinfo.newDenseRow();
+      DataInfo.DenseRows rows = _dinfo.new DenseRows(chks);
       for(int r = 0 ; r < chks[0]._len; ++r) {
-        _dinfo.extractDenseRow(chks, r, row);
+        Row row = rows.row(r);
         if(!row.isBad() && row.weight != 0)
           processRow(row);
       }
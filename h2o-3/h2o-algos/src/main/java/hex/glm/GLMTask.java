@@ -1852,10 +1852,10 @@ public abstract class GLMTask  {
       Chunk wChunk = chunks[cnt++];
       Chunk zChunk = chunks[cnt++];
       Chunk filterChunk = chunks[cnt++];
-      Row r = _dinfo.newDenseRow();
+      DataInfo.DenseRows rows = _dinfo.new DenseRows(chunks);
       for(int i = 0; i < chunks[0]._len; ++i) {
         if(filterChunk.atd(i)==1) continue;
-        _dinfo.extractDenseRow(chunks,i,r);
+        Row r = rows.row(i);
         _temp = wChunk.at8(i)* (zChunk.atd(i)- r.innerProduct(_betaold) );
       }
 
@@ -1892,9 +1892,9 @@ public abstract class GLMTask  {
       chunks = Arrays.copyOf(chunks,chunks.length-3);
       denums = new double[_dinfo.fullN()+1]; // full N is expanded variables with categories
 
-      Row r = _dinfo.newDenseRow();
+      DataInfo.DenseRows rows = _dinfo.new DenseRows(chunks);
       for(int i = 0; i < chunks[0]._len; ++i) {
-        _dinfo.extractDenseRow(chunks,i,r);
+        Row r = rows.row(i);
         if (r.isBad() || r.weight == 0) {
           wChunk.set(i,0);
           zChunk.set(i,0);
@@ -678,12 +678,22 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       Chunk assignment = cs[cs.length-1];
       // Find closest cluster center for each row
       double[] values = new double[N]; // Temp data to hold row as doubles
+      // Rows are decoded a block at a time, column by column
+      final int blockSize = Math.min(cs[0]._len, Math.max(16, Math.min(1024, (1 << 16) / Math.max(N, 1))));
+      double[][] block = new double[N][blockSize];
+      double[] weights = _hasWeight ? new double[blockSize] : null;
       ClusterDist cd = new ClusterDist();
       for( int row = 0; row < cs[0]._len; row++ ) {
-        double weight = _hasWeight ? cs[N].atd(row) : 1;
+        final int b = row % blockSize;
+        if (b == 0) {
+          int to = Math.min(row + blockSize, cs[0]._len);
+          data(block, cs, row, to, _means, _mults, _modes);
+          if (_hasWeight) cs[N].getDoubles(weights, row, to);
+        }
+        double weight = _hasWeight ? weights[b] : 1;
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
-        data(values, cs, row, _means, _mults, _modes); // Load row as doubles
+        for( int col = 0; col < N; col++ ) values[col] = block[col][b]; // Load row as doubles
         closest(_centers, values, _isCats, cd); // Find closest cluster center
         if (cd._cluster != assignment.at8(row)) {
           _reassigned_count+=weight;
@@ -858,6 +868,15 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
   }
 
+  // Bulk version of the above: rows [from, to) of the columns into cols[column][row - from]
+  private static void data(double[][] cols, Chunk[] chks, int from, int to, double[] means, double[] mults, int[] modes) {
+    for( int i = 0; i < cols.length; i++ ) {
+      chks[i].getDoubles(cols[i], from, to);
+      for( int r = 0; r < to - from; r++ )
+        cols[i][r] = Kmeans_preprocessData(cols[i][r], i, means, mults, modes);
+    }
+  }
+
 
   /**
    * This helper creates a ModelMetricsClustering from a trained model
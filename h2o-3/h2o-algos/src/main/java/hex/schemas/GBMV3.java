@@ -60,6 +60,9 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "histogram_type",
       "max_abs_leafnode_pred",
       "pred_noise_bandwidth",
+      "goss_top_rate",
+      "goss_other_rate",
+      "exclusive_feature_bundling",
       "categorical_encoding",
       "calibrate_model",
       "calibration_frame",
@@ -87,6 +90,15 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help="Bandwidth (sigma) of Gaussian multiplicative noise ~N(1,sigma) for tree node predictions", level = API.Level.expert, gridable = true)
     public double pred_noise_bandwidth;
 
+    @API(help="Gradient-based One-Side Sampling: fraction of rows with the largest absolute gradients kept for each tree (0 disables GOSS, from 0.0 to 1.0)", level = API.Level.expert, gridable = true)
+    public double goss_top_rate;
+
+    @API(help="Gradient-based One-Side Sampling: fraction of rows randomly sampled (and up-weighted) from the rows with smaller gradients", level = API.Level.expert, gridable = true)
+    public double goss_other_rate;
+
+    @API(help="Bundle mutually exclusive sparse binary columns to build their histograms in a single pass", level = API.Level.expert, gridable = true)
+    public boolean exclusive_feature_bundling;
+
 //    // TODO debug only, remove!
 //    @API(help="Internal flag, use new version of histo tsk if set", level = API.Level.expert, gridable = false)
 //    public boolean use_new_histo_tsk;
@@ -0,0 +1,150 @@
+package hex.tree;
+
+import water.H2O;
+import water.Key;
+import water.Keyed;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Quantized representation of the predictor columns for histogram building.
+ *
+ * A column with few distinct values is encoded once per training as the index of each row's value among the sorted
+ * distinct values of the column (NA stays NA). The codes fit into 1 or 2 bytes, which NewChunk compression stores as
+ * C1Chunk/C2Chunk, so the histogram build reads 1-2 bytes per row instead of up to 8 and bins the rows through a
+ * per-histogram lookup table (code to bin) instead of {@link DHistogram#bin(double)}. The encoding is lossless -
+ * every code maps back to its exact value - so the histograms, and hence the models, are the same as without it.
+ *
+ * Enabled with {@link #BIN_CODES_PROPERTY}. The encoding (fetched once per node by the histogram tasks) and the code
+ * Vecs live in DKV for the whole training and are shared by all the trees.
+ */
+public class BinCodes extends Keyed<BinCodes> {
+  /** Enables the bin-code cache (system property, boolean). */
+  public static final String BIN_CODES_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.binCodes";
+  /** Columns with more distinct values are not encoded (keeps codes within 2 bytes and the lookup tables small). */
+  static final int MAX_CODES = H2O.OptArgs.getSysPropInt("tree.binCodes.maxCodes", 4096);
+
+  final int [] _cols;          // encoded columns
+  final double [][] _values;   // per encoded column: the sorted distinct values, value of code i is _values[c][i]
+
+  private BinCodes(Key<BinCodes> key, int [] cols, double [][] values) {
+    super(key);
+    _cols = cols;
+    _values = values;
+  }
+
+  public static boolean enabled() { return Boolean.getBoolean(BIN_CODES_PROPERTY); }
+
+  public int size() { return _cols.length; }
+
+  public int col(int i) { return _cols[i]; }
+
+  public double [] values(int i) { return _values[i]; }
+
+  /**
+   * Collects the distinct values of the first {@code ncols} columns of {@code fr}.
+   * @return the encoding of the columns with at most {@link #MAX_CODES} distinct values, null if there are none
+   */
+  public static BinCodes find(Frame fr, int ncols, Key<BinCodes> key) {
+    int [] cands = new int[ncols];
+    int len = 0;
+    for (int c = 0; c < ncols; c++) {
+      Vec v = fr.vec(c);
+      if (v.isConst() || v.isBad() || !(v.isNumeric() || v.isCategorical())) continue;
+      if (v.isCategorical() && v.cardinality() > MAX_CODES) continue;
+      cands[len++] = c;
+    }
+    if (len == 0) return null;
+    cands = Arrays.copyOf(cands, len);
+    Vec [] vecs = new Vec[len];
+    for (int i = 0; i < len; i++) vecs[i] = fr.vec(cands[i]);
+    double [][] uniques = new CollectDistinct().doAll(vecs)._uniques;
+
+    int [] cols = new int[len];
+    double [][] values = new double[len][];
+    int n = 0;
+    for (int i = 0; i < len; i++) {
+      if (uniques[i] == null || uniques[i].length == 0) continue;
+      cols[n] = cands[i];
+      values[n++] = uniques[i];
+    }
+    if (n == 0) return null;
+    Log.info("Bin codes: " + n + " out of " + ncols + " columns encoded.");
+    return new BinCodes(key, Arrays.copyOf(cols, n), Arrays.copyOf(values, n));
+  }
+
+  /**
+   * @return the code Vec of every encoded column, in the order of {@link #col(int)}
+   */
+  public Vec [] makeCodeVecs(Frame fr) {
+    Vec [] vecs = new Vec[_cols.length];
+    for (int i = 0; i < vecs.length; i++) vecs[i] = fr.vec(_cols[i]);
+    return new Encode(_values).doAll(_values.length, Vec.T_NUM, new Frame(vecs)).outputFrame().vecs();
+  }
+
+  // Sorted distinct non-NA values per column, null once there are more than MAX_CODES
+  private static class CollectDistinct extends MRTask<CollectDistinct> {
+    double [][] _uniques;
+
+    @Override public void map(Chunk [] cs) {
+      _uniques = new double[cs.length][];
+      double [] vals = new double[cs[0]._len];
+      for (int c = 0; c < cs.length; c++) {
+        cs[c].getDoubles(vals, 0, vals.length);
+        for (int i = 0; i < vals.length; i++) vals[i] += 0.0; // -0.0 -> 0.0, they fall into the same bins
+        Arrays.sort(vals); // NaNs sort last
+        int n = 0;
+        for (int i = 0; i < vals.length && !Double.isNaN(vals[i]); i++) {
+          if (n > 0 && vals[i] == vals[n - 1]) continue;
+          if (n == MAX_CODES) { n = -1; break; }
+          vals[n++] = vals[i];
+        }
+        _uniques[c] = n < 0 ? null : Arrays.copyOf(vals, n);
+      }
+    }
+
+    @Override public void reduce(CollectDistinct mrt) {
+      if (_uniques == null) { _uniques = mrt._uniques; return; }
+      if (mrt._uniques == null) return;
+      for (int c = 0; c < _uniques.length; c++)
+        _uniques[c] = _uniques[c] == null || mrt._uniques[c] == null ? null : merge(_uniques[c], mrt._uniques[c]);
+    }
+
+    private static double [] merge(double [] a, double [] b) {
+      double [] res = new double[Math.min(a.length + b.length, MAX_CODES + 1)];
+      int i = 0, j = 0, n = 0;
+      while ((i < a.length || j < b.length) && n <= MAX_CODES) {
+        double v = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+        if (n == 0 || res[n - 1] != v) {
+          if (n == MAX_CODES) return null;
+          res[n++] = v;
+        }
+      }
+      return Arrays.copyOf(res, n);
+    }
+  }
+
+  private static class Encode extends MRTask<Encode> {
+    final double [][] _values;
+
+    Encode(double [][] values) { _values = values; }
+
+    @Override public void map(Chunk [] cs, NewChunk [] ncs) {
+      for (int c = 0; c < cs.length; c++) {
+        double [] values = _values[c];
+        for (int r = 0; r < cs[c]._len; r++) {
+          double v = cs[c].atd(r);
+          if (Double.isNaN(v)) ncs[c].addNA();
+          else ncs[c].addNum(Arrays.binarySearch(values, v + 0.0), 0);
+        }
+      }
+    }
+  }
+
+}
@@ -95,6 +95,7 @@ public final class DHistogram extends Iced {
   public final long _seed;
   public transient boolean _hasQuantiles;
   public Key _globalQuantilesKey; //key under which original top-level quantiles are stored;
+  private transient boolean _binsReady; // split points computed (see initBins)
 
 
 
@@ -240,6 +241,18 @@ public final class DHistogram extends Iced {
   public void init() { init(null);}
   public void init(double [] vals) {
     assert _vals == null;
+    initBins();
+    _vals = vals == null?MemoryManager.malloc8d(3*_nbin+3):vals;
+  }
+
+  /**
+   * Computes the split points (and final bin count) of this histogram, without allocating the bins.
+   * After this call {@link #bin(double)} and {@link #nbins()} can be used, e.g. to accumulate into private arrays of
+   * size {@code 3*nbins()+3} that are later added to this histogram with {@link #add(double[], double, double)}.
+   */
+  void initBins() {
+    if (_binsReady) return;
+    _binsReady = true;
     if (_histoType==SharedTreeModel.SharedTreeParameters.HistogramType.Random) {
       // every node makes the same split points
       Random rng = RandomUtils.getRNG((Double.doubleToRawLongBits(((_step+0.324)*_min+8.3425)+89.342*_maxEx) + 0xDECAF*_nbin + 0xC0FFEE*_isInt + _seed));
@@ -278,7 +291,6 @@ public final class DHistogram extends Iced {
     else assert(_histoType== SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive);
     //otherwise AUTO/UniformAdaptive
     assert(_nbin>0);
-    _vals = vals == null?MemoryManager.malloc8d(3*_nbin+3):vals;
   }
 
   // Add one row to a bin found via simple linear interpolation.
@@ -306,12 +318,66 @@ public final class DHistogram extends Iced {
     assert (_vals == null || dsh._vals == null) || (_isInt == dsh._isInt && _nbin == dsh._nbin && _step == dsh._step &&
       _min == dsh._min && _maxEx == dsh._maxEx);
     if( dsh._vals == null ) return;
+    add(dsh._vals, dsh._min2, dsh._maxIn);
+  }
+
+  // Merge bins accumulated privately (see updateHisto(double[], double[], int, ...)).  Not thread safe.
+  void add( double[] vals, double min, double maxIn ) {
     if(_vals == null)
-      init(dsh._vals);
+      init(vals);
     else
-      ArrayUtils.add(_vals,dsh._vals);
-    if (_min2 > dsh._min2) _min2 = dsh._min2;
-    if (_maxIn < dsh._maxIn) _maxIn = dsh._maxIn;
+      ArrayUtils.add(_vals,vals);
+    if (_min2 > min) _min2 = min;
+    if (_maxIn < maxIn) _maxIn = maxIn;
+  }
+
+  /**
+   * Whether this histogram has exactly the same bins as {@code h}, so that one can be added to or subtracted from the
+   * other (see {@link #setToDifference}). Computes the split points of both when their ranges agree.
+   */
+  boolean sameBins(DHistogram h) {
+    if (_isInt != h._isInt || _min != h._min || _maxEx != h._maxEx)
+      return false;
+    initBins();
+    h.initBins();
+    return _histoType == h._histoType && _nbin == h._nbin && _step == h._step && Arrays.equals(_splitPts, h._splitPts);
+  }
+
+  /**
+   * Fills this (not yet populated) histogram with the difference of the histogram of the parent node and the
+   * histogram of the sibling node, all three having the same bins (see {@link #sameBins}). Bins left with no weight
+   * (up to rounding) are cleared. Min/max cannot be subtracted: they are bounded by the non-empty bins (and the
+   * parent's min/max) instead.
+   */
+  void setToDifference(DHistogram parent, DHistogram sibling) {
+    assert _vals == null && parent._vals != null;
+    assert sameBins(parent);
+    double[] vals = parent._vals.clone();
+    if (sibling._vals != null) {
+      assert sibling._vals.length == vals.length;
+      for (int i = 0; i < vals.length; i += 3) {
+        vals[i+0] -= sibling._vals[i+0];
+        vals[i+1] -= sibling._vals[i+1];
+        vals[i+2] -= sibling._vals[i+2];
+        if (vals[i] <= 1e-12 * parent._vals[i])
+          vals[i] = vals[i+1] = vals[i+2] = 0;
+      }
+    }
+    init(vals);
+    reducePrecision();
+    for (int b = 0; b < _nbin; b++)
+      if (w(b) > 0) {
+        _min2 = Math.max(parent._min2, binAt(b));
+        break;
+      }
+    for (int b = _nbin - 1; b >= 0; b--)
+      if (w(b) > 0) {
+        if (_isInt > 0 && _step == 1 && _splitPts == null) // one integer per bin
+          _maxIn = Math.min(parent._maxIn, binAt(b));
+        else
+          _maxIn = b == _nbin - 1 ? parent._maxIn : Math.min(parent._maxIn, binAt(b + 1));
+        break;
+      }
   }
 
   // Inclusive min & max
@@ -425,6 +491,106 @@ public final class DHistogram extends Iced {
     }
   }
 
+  /**
+   * Same as {@link #updateHisto(double[], double[], double[], int[], int, int)}, except that the bins are accumulated
+   * into {@code vals} (laid out as {@link #_vals}) and min/max into {@code minMax[2*mm]}, {@code minMax[2*mm+1]};
+   * the histogram itself is only read. Lets every thread use its own accumulators, merged later via
+   * {@link #add(double[], double, double)}. Requires {@link #initBins()}.
+   */
+  void updateHisto(double[] vals, double[] minMax, int mm, double[] ws, double[] cs, double[] ys, int [] rows, int hi, int lo){
+    double min = minMax[2*mm], max = minMax[2*mm+1];
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double weight = ws[k];
+      if (weight == 0) continue;
+      double col_data = cs[k];
+      if (col_data < min) min = col_data;
+      if (col_data > max) max = col_data;
+      double y = ys[k];
+      assert (!Double.isNaN(y));
+      double wy = weight * y;
+      double wyy = wy * y;
+      int b = bin(col_data);
+      vals[3*b + 0] += weight;
+      vals[3*b + 1] += wy;
+      vals[3*b + 2] += wyy;
+    }
+    minMax[2*mm] = min;
+    minMax[2*mm+1] = max;
+  }
+
+  /**
+   * Same as {@link #updateHisto(double[], double[], int, double[], double[], double[], int[], int, int)} for a column
+   * encoded by {@link BinCodes}: {@code codes} holds the codes of the rows (negative for NA), the bin of code {@code i}
+   * is {@code bins[i - codeLo]} (see {@link #binsOf}) and its value {@code values[i]}. The rows are expected within the
+   * range of this histogram, values out of it (by roundoff) go to its first or last bin.
+   */
+  void updateHisto(double[] vals, double[] minMax, int mm, double[] ws, int[] codes, int[] bins, int codeLo, double[] values, double[] ys, int [] rows, int hi, int lo){
+    int minCode = Integer.MAX_VALUE, maxCode = -1;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double weight = ws[k];
+      if (weight == 0) continue;
+      int code = codes[k];
+      int b;
+      if (code < 0) b = _nbin; // NA bucket
+      else {
+        if (code < minCode) minCode = code;
+        if (code > maxCode) maxCode = code;
+        int i = code - codeLo;
+        b = i >= 0 && i < bins.length ? bins[i] : -1;
+        assert b >= 0 : "Code " + code + " of value " + values[code] + " out of range " + this;
+        if (b < 0) b = clampedBin(values[code]); // as bin() does for roundoff
+      }
+      double y = ys[k];
+      assert (!Double.isNaN(y));
+      double wy = weight * y;
+      double wyy = wy * y;
+      vals[3*b + 0] += weight;
+      vals[3*b + 1] += wy;
+      vals[3*b + 2] += wyy;
+    }
+    if (maxCode >= 0) { // codes are ordered as their values
+      if (values[minCode] < minMax[2*mm]) minMax[2*mm] = values[minCode];
+      if (values[maxCode] > minMax[2*mm+1]) minMax[2*mm+1] = values[maxCode];
+    }
+  }
+
+  // Bin of a value that may be just out of range: the first or last bin then
+  private int clampedBin(double v) {
+    if (v < _min) return 0;
+    if (v >= _maxEx) return _nbin - 1;
+    return bin(v);
+  }
+
+  /**
+   * Lookup table from the codes of a {@link BinCodes}-encoded column to the bins of this histogram. Only covers the
+   * codes of the values within the range of this histogram (the only ones its rows can have), starting at code
+   * {@code codeLo[0]} (set by this call); entries of values out of range are -1. Requires {@link #initBins()}.
+   */
+  int[] binsOf(double[] values, int[] codeLo) {
+    int lo = values[0] == Double.NEGATIVE_INFINITY ? 0 : lowerBound(values, _min);
+    int hi = values[values.length - 1] == Double.POSITIVE_INFINITY ? values.length : lowerBound(values, _maxEx);
+    int[] bins = new int[Math.max(hi - lo, 0)];
+    for (int i = 0; i < bins.length; i++) {
+      double v = values[lo + i];
+      bins[i] = Double.isInfinite(v) || (_min <= v && v < _maxEx) ? bin(v) : -1;
+    }
+    codeLo[0] = lo;
+    return bins;
+  }
+
+  // Index of the first value >= v
+  private static int lowerBound(double[] values, double v) {
+    int lo = 0, hi = values.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (values[mid] < v) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
   /**
    * Cast bin values *except for sums of weights and Na-bucket counters to floats to drop least significant bits.
    * Improves reproducibility (drop bits most affected by floating point error).
@@ -40,6 +40,15 @@ public class DTree extends Iced {
   public final transient int[] _cols; // Per-tree selection of columns to consider for splits
   public transient SharedTreeModel.SharedTreeParameters _parms;
 
+  /** Enables the histogram subtraction mode, see {@link UndecidedNode#_parentHs}. */
+  public static final String HISTO_SUBTRACTION_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.histoSubtraction";
+  /** Cap on the bytes of parent histograms retained per tree level in histogram subtraction mode (default 10% of the heap). */
+  public static final String HISTO_SUBTRACTION_MAX_BYTES_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.histoSubtraction.maxBytes";
+  final transient boolean _histoSubtraction;
+  private final transient long _maxRetainedHistoBytes;
+  private transient long _retainedHistoBytes; // reserved for the level _retainedDepth
+  private transient int _retainedDepth;
+
 
   // compute the effective number of columns to sample
   public int actual_mtries() {
@@ -73,6 +82,29 @@ public class DTree extends Iced {
       activeCols = Arrays.copyOfRange(activeCols,len,activeCols.length);
     }
     _cols = activeCols;
+    _histoSubtraction = Boolean.getBoolean(HISTO_SUBTRACTION_PROPERTY);
+    _maxRetainedHistoBytes = Long.getLong(HISTO_SUBTRACTION_MAX_BYTES_PROPERTY, MemoryManager.MEM_MAX / 10);
+  }
+
+  private static long histoBytes(DHistogram[] hs) {
+    long bytes = 0;
+    for (DHistogram h : hs)
+      if (h != null && h._vals != null)
+        bytes += 8L * h._vals.length;
+    return bytes;
+  }
+
+  // Reserve memory for keeping the histograms of a split node until its children are built; false if over the cap.
+  // Reservations of the previous level go away with its undecided nodes.
+  private boolean retainHistos(long bytes) {
+    if (_retainedDepth != _depth) {
+      _retainedDepth = _depth;
+      _retainedHistoBytes = 0;
+    }
+    if (_retainedHistoBytes + bytes > _maxRetainedHistoBytes)
+      return false;
+    _retainedHistoBytes += bytes;
+    return true;
   }
 
   public final Node root() { return _ns[0]; }
@@ -301,6 +333,10 @@ public class DTree extends Iced {
   public static class UndecidedNode extends Node {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    // Histogram subtraction mode: histograms of the parent, retained when this node is the larger child of the split.
+    // Then (the columns of) its histograms are not built from the data but derived as parent minus sibling.
+    transient DHistogram[] _parentHs;
+    transient int _siblingNid;
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
@@ -510,15 +546,35 @@ public class DTree extends Iced {
         return;
       }
       _splat = _split._nasplit != DHistogram.NASplitDir.NAvsREST && (_split._equal == 0 || _split._equal == 1) ? _split.splat(hs) : -1f; // Split-at value (-1 for group-wise splits)
+      DHistogram nhists[][] = new DHistogram[2][];
       for(int way = 0; way <2; way++ ) { // left / right
         // Create children histograms, not yet populated, but the ranges are set
-        DHistogram nhists[] = _split.nextLevelHistos(hs, way,_splat, _tree._parms); //maintains the full range for NAvsREST
-        assert nhists==null || nhists.length==_tree._ncols;
+        nhists[way] = _split.nextLevelHistos(hs, way,_splat, _tree._parms); //maintains the full range for NAvsREST
+        assert nhists[way]==null || nhists[way].length==_tree._ncols;
+      }
+      for(int way = 0; way <2; way++ ) // left / right
         // Assign a new (yet undecided) node to each child, and connect this (the parent) decided node and the newly made histograms to it
-        _nids[way] = nhists == null ? ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID : makeUndecidedNode(nhists)._nid;
+        _nids[way] = nhists[way] == null ? ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID : makeUndecidedNode(nhists[way])._nid;
+      // Histogram subtraction: keep this node's histograms on the larger child if some column is binned exactly the
+      // same in this node and both children. Not done below the root: its histograms also count the out-of-bag rows
+      // (see ScoreBuildHistogram2.setupLocal), its children's do not.
+      if( _tree._histoSubtraction && !isRootNode(this) && nhists[0] != null && nhists[1] != null &&
+          anySameBins(hs, nhists[0], nhists[1]) && _tree.retainHistos(histoBytes(hs)) ) {
+        int larger = _split._n1 > _split._n0 ? 1 : 0;
+        UndecidedNode child = _tree.undecided(_nids[larger]);
+        child._parentHs = hs;
+        child._siblingNid = _nids[1 - larger];
       }
     }
 
+    private static boolean anySameBins(DHistogram[] hs, DHistogram[] left, DHistogram[] right) {
+      for (int c = 0; c < hs.length; c++)
+        if (hs[c] != null && hs[c]._vals != null && left[c] != null && right[c] != null &&
+            left[c].sameBins(hs[c]) && right[c].sameBins(hs[c]))
+          return true;
+      return false;
+    }
+
     public int getChildNodeID(Chunk [] chks, int row ) {
       double d = chks[_split._col].atd(row);
       int bin = -1;
@@ -0,0 +1,183 @@
+package hex.tree;
+
+import water.Iced;
+import water.MRTask;
+import water.MemoryManager;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Exclusive Feature Bundling (EFB, see "LightGBM: A Highly Efficient Gradient Boosting Decision Tree", Ke et al. 2017).
+ *
+ * Sparse binary columns (0/1 numeric or two-level categorical, without NAs) that are never non-zero in the same row
+ * are grouped into bundles. Each bundle is encoded as a single column holding, for every row, 0 if all members are
+ * zero or {@code i+1} if the {@code i}-th member is the non-zero one. {@link ScoreBuildHistogram2} reads the bundle
+ * column once per chunk instead of every member column and unbundles the result into the members' 2-bin histograms,
+ * the trees still split on the original columns.
+ */
+public class ExclusiveFeatureBundles extends Iced<ExclusiveFeatureBundles> {
+  // Columns considered for bundling must be at most this sparse
+  static final double MAX_NONZERO_FRACTION = 0.1;
+  // At most this many columns are considered for bundling (the conflict matrix is quadratic)
+  static final int MAX_CANDIDATES = 1024;
+  // Keeps the bundle codes within a byte
+  static final int MAX_BUNDLE_SIZE = 255;
+
+  final int [][] _members; // Member columns of every bundle, in the order of their codes
+
+  ExclusiveFeatureBundles(int [][] members) { _members = members; }
+
+  public int size() { return _members.length; }
+
+  public int [] members(int bundle) { return _members[bundle]; }
+
+  /**
+   * Finds the bundles among the first {@code ncols} columns of {@code fr}.
+   * @return the bundles, or null if no two columns can be bundled
+   */
+  public static ExclusiveFeatureBundles find(Frame fr, int ncols) {
+    int [] cands = candidates(fr, ncols);
+    if (cands.length < 2) return null;
+    Vec [] vecs = new Vec[cands.length];
+    for (int i = 0; i < cands.length; i++) vecs[i] = fr.vec(cands[i]);
+    long [] conflicts = new FindConflicts(cands.length).doAll(vecs)._conflicts;
+
+    // Greedy assignment, densest columns first, into the first bundle without a conflict
+    Integer [] order = new Integer[cands.length];
+    final long [] nzs = new long[cands.length];
+    for (int i = 0; i < cands.length; i++) {
+      order[i] = i;
+      nzs[i] = vecs[i].nzCnt();
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) { return Long.compare(nzs[b], nzs[a]); }
+    });
+    ArrayList<ArrayList<Integer>> bundles = new ArrayList<>();
+    for (int i : order) {
+      ArrayList<Integer> target = null;
+      for (ArrayList<Integer> b : bundles) {
+        if (b.size() == MAX_BUNDLE_SIZE) continue;
+        boolean exclusive = true;
+        for (int j : b)
+          if (conflict(conflicts, cands.length, i, j)) { exclusive = false; break; }
+        if (exclusive) { target = b; break; }
+      }
+      if (target == null) bundles.add(target = new ArrayList<>());
+      target.add(i);
+    }
+    ArrayList<int[]> members = new ArrayList<>();
+    for (ArrayList<Integer> b : bundles) {
+      if (b.size() < 2) continue; // nothing to gain
+      int [] cols = new int[b.size()];
+      for (int i = 0; i < cols.length; i++) cols[i] = cands[b.get(i)];
+      members.add(cols);
+    }
+    if (members.isEmpty()) return null;
+    Log.info("Exclusive feature bundling: " + cands.length + " sparse binary columns grouped into " + members.size() + " bundles.");
+    return new ExclusiveFeatureBundles(members.toArray(new int[members.size()][]));
+  }
+
+  private static int [] candidates(Frame fr, int ncols) {
+    int [] cands = new int[ncols];
+    int len = 0;
+    for (int c = 0; c < ncols && len < MAX_CANDIDATES; c++) {
+      Vec v = fr.vec(c);
+      boolean binary = v.isCategorical() ? v.cardinality() == 2 : v.isInt() && v.min() == 0 && v.max() == 1;
+      if (binary && v.naCnt() == 0 && v.nzCnt() > 0 && v.nzCnt() <= MAX_NONZERO_FRACTION * v.length())
+        cands[len++] = c;
+    }
+    return Arrays.copyOf(cands, len);
+  }
+
+  private static boolean conflict(long [] conflicts, int n, int i, int j) {
+    long bit = (long) i * n + j;
+    return (conflicts[(int) (bit >> 6)] & (1L << bit)) != 0;
+  }
+
+  /**
+   * @return one column of bundle codes per bundle, computed from the columns of {@code fr}
+   */
+  public Vec [] makeBundleVecs(Frame fr) {
+    ArrayList<Vec> vecs = new ArrayList<>();
+    for (int [] m : _members)
+      for (int c : m) vecs.add(fr.vec(c));
+    return new EncodeBundles(_members).doAll(_members.length, Vec.T_NUM, new Frame(vecs.toArray(new Vec[vecs.size()]))).outputFrame().vecs();
+  }
+
+  // Symmetric bit matrix of the candidate pairs that are non-zero in the same row
+  private static class FindConflicts extends MRTask<FindConflicts> {
+    final int _n;
+    long [] _conflicts;
+
+    FindConflicts(int n) { _n = n; }
+
+    @Override public void map(Chunk [] cs) {
+      _conflicts = MemoryManager.malloc8((int) (((long) _n * _n + 63) >> 6));
+      final int len = cs[0]._len;
+      // Per row, a linked list of the candidates non-zero in it
+      int [] head = new int[len];
+      Arrays.fill(head, -1);
+      int [] next = new int[16];
+      int [] col = new int[16];
+      int [] nzs = new int[len];
+      int cnt = 0;
+      for (int i = 0; i < cs.length; i++) {
+        int nnz = cs[i].nonzeros(nzs);
+        for (int k = 0; k < nnz; k++) {
+          int r = nzs[k];
+          for (int e = head[r]; e != -1; e = next[e])
+            set(col[e], i);
+          if (cnt == next.length) {
+            next = Arrays.copyOf(next, cnt << 1);
+            col = Arrays.copyOf(col, cnt << 1);
+          }
+          col[cnt] = i;
+          next[cnt] = head[r];
+          head[r] = cnt++;
+        }
+      }
+    }
+
+    private void set(int i, int j) {
+      long a = (long) i * _n + j, b = (long) j * _n + i;
+      _conflicts[(int) (a >> 6)] |= 1L << a;
+      _conflicts[(int) (b >> 6)] |= 1L << b;
+    }
+
+    @Override public void reduce(FindConflicts mrt) {
+      if (_conflicts == null) { _conflicts = mrt._conflicts; return; }
+      if (mrt._conflicts == null) return;
+      for (int i = 0; i < _conflicts.length; i++) _conflicts[i] |= mrt._conflicts[i];
+    }
+  }
+
+  private static class EncodeBundles extends MRTask<EncodeBundles> {
+    final int [][] _members;
+
+    EncodeBundles(int [][] members) { _members = members; }
+
+    @Override public void map(Chunk [] cs, NewChunk [] ncs) {
+      final int len = cs[0]._len;
+      int [] codes = new int[len];
+      int [] nzs = new int[len];
+      for (int b = 0, c = 0; b < _members.length; b++) {
+        Arrays.fill(codes, 0);
+        for (int i = 0; i < _members[b].length; i++, c++) {
+          int nnz = cs[c].nonzeros(nzs);
+          for (int k = 0; k < nnz; k++)
+            codes[nzs[k]] = i + 1;
+        }
+        for (int r = 0; r < len; r++)
+          ncs[b].addNum(codes[r], 0);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,128 @@
+package hex.tree;
+
+import water.MRTask;
+import water.fvec.C4VolatileChunk;
+import water.fvec.C8DVolatileChunk;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+import water.util.RandomUtils;
+
+import java.util.Random;
+
+/**
+ * Deterministic Gradient-based One-Side Sampling (GOSS, see "LightGBM: A Highly Efficient Gradient Boosting Decision
+ * Tree", Ke et al. 2017). Rows with an absolute gradient of at least the threshold are always kept, the other rows are
+ * kept with probability {@code otherRate/(1-topRate)} and up-weighted by {@code (1-topRate)/otherRate} to keep the
+ * sums of gradients unbiased. Like in {@link Sample}, the rows sampled away are flagged as OUT_OF_BAG in the NIDs.
+ *
+ * Expects the frame: absolute gradient, response, tree weights (written), observation weights (optional), NIDs of the
+ * trees to sample for. The tree weights are the observation weights, up-weighted for all rows with small gradients.
+ */
+public class GossSample extends MRTask<GossSample> {
+  final DTree _tree;
+  final double _threshold;
+  final float _otherProb;
+  final double _amplify;
+  final boolean _hasWeights;
+
+  public GossSample(DTree tree, double threshold, double topRate, double otherRate, boolean hasWeights) {
+    _tree = tree;
+    _threshold = threshold;
+    _otherProb = (float) (otherRate / (1 - topRate));
+    _amplify = (1 - topRate) / otherRate;
+    _hasWeights = hasWeights;
+  }
+
+  @Override
+  protected boolean modifiesVolatileVecs() {
+    return true;
+  }
+
+  @Override
+  public void map(Chunk[] chks) {
+    final Chunk grad = chks[0];
+    final Chunk ys = chks[1];
+    final double[] tws = ((C8DVolatileChunk) chks[2]).getValues();
+    final Chunk ws = _hasWeights ? chks[3] : null;
+    final int nids0 = _hasWeights ? 4 : 3;
+    Random rand = RandomUtils.getRNG(_tree._seed);
+    for (int row = 0; row < grad._len; row++) {
+      double w = ws == null ? 1 : ws.atd(row);
+      boolean skip = ys.isNA(row);
+      if (!skip && grad.atd(row) < _threshold) {
+        rand.setSeed(_tree._seed + row + grad.start()); //seeding is independent of chunking
+        skip = rand.nextFloat() >= _otherProb;
+        w *= _amplify;
+      }
+      tws[row] = w;
+      if (skip)
+        for (int k = nids0; k < chks.length; k++)
+          ((C4VolatileChunk) chks[k]).getValues()[row] = ScoreBuildHistogram.OUT_OF_BAG; // Flag row as being ignored by sampling
+    }
+  }
+
+  private static final int THRESHOLD_BINS = 1024;
+  private static final int THRESHOLD_PASSES = 2;
+
+  /**
+   * The threshold of the rows with the {@code topRate} largest (weighted) absolute gradients, NAs are ignored. The
+   * gradients are binned over their range, then the bin holding the threshold is binned again. The threshold is the
+   * lower end of that finer bin: the top rows may include the rest of it (at most 1/1024^2 of the range).
+   */
+  public static double threshold(Vec grad, Vec weights, double topRate) {
+    double lo = grad.min(), hi = grad.max();
+    boolean hiIn = true; // the last bin includes the maximum
+    double target = -1;  // weight to take from the top, down to lo
+    for (int pass = 0; pass < THRESHOLD_PASSES && lo < hi; pass++) {
+      Frame fr = weights == null ? new Frame(grad) : new Frame(grad, weights);
+      double[] ws = new ThresholdHisto(lo, hi, hiIn).doAll(fr)._ws;
+      if (ws == null) break; // no rows
+      if (target < 0) target = topRate * ArrayUtils.sum(ws);
+      int b = THRESHOLD_BINS - 1;
+      while (b > 0 && ws[b] < target)
+        target -= ws[b--];
+      double step = (hi - lo) / THRESHOLD_BINS;
+      if (b < THRESHOLD_BINS - 1) {
+        hi = lo + (b + 1) * step;
+        hiIn = false;
+      }
+      lo = lo + b * step;
+    }
+    return lo;
+  }
+
+  // Weights of the gradients in [_lo,_hi] (or [_lo,_hi)), in THRESHOLD_BINS equal bins
+  private static class ThresholdHisto extends MRTask<ThresholdHisto> {
+    final double _lo, _hi;
+    final boolean _hiIn;
+    double[] _ws;
+
+    ThresholdHisto(double lo, double hi, boolean hiIn) {
+      _lo = lo;
+      _hi = hi;
+      _hiIn = hiIn;
+    }
+
+    @Override
+    public void map(Chunk[] chks) {
+      final Chunk grad = chks[0];
+      final Chunk ws = chks.length > 1 ? chks[1] : null;
+      final double scale = THRESHOLD_BINS / (_hi - _lo);
+      _ws = new double[THRESHOLD_BINS];
+      for (int row = 0; row < grad._len; row++) {
+        double g = grad.atd(row);
+        if (Double.isNaN(g) || g < _lo || g > _hi || (g == _hi && !_hiIn)) continue;
+        double w = ws == null ? 1 : ws.atd(row);
+        if (!(w > 0)) continue;
+        _ws[Math.min((int) ((g - _lo) * scale), THRESHOLD_BINS - 1)] += w;
+      }
+    }
+
+    @Override
+    public void reduce(ThresholdHisto mrt) {
+      if (mrt._ws != null) _ws = ArrayUtils.add(_ws, mrt._ws);
+    }
+  }
+}
@@ -8,6 +8,7 @@ import water.util.ArrayUtils;
 import water.util.IcedBitSet;
 import water.util.VecUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -49,12 +50,31 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * Sharing the histograms proved to be a performance problem on larger multi-cpu machines with many running threads, CAS was the bottleneck.
  *
- * To remove the CAS while minimizing the memory overhead (private copies of histograms), phase 2 is paralellized both over columns (primary) and rows (secondary).
- * Parallelization over different columns precedes paralellization within each column to reduce number of extra histogram copies made.
+ * To remove the CAS while minimizing the memory overhead (private copies of histograms), phase 2 is paralellized both over blocks of columns (primary) and rows (secondary).
+ * Parallelization over different column blocks precedes paralellization within each block to reduce number of extra accumulator copies made.
+ * Each worker accumulates into its own plain arrays (bins and min/max per column and leaf), the copies are merged pairwise along the LocalMR tree
+ * and only the final result is added to the shared histograms.
  *
- * Expected number of per-column tasks running in parallel (and hence histogram copies) is given by
+ * Expected number of per-block tasks running in parallel (and hence accumulator copies) is given by
  *
- *    exp(nthreads-pre-column) = max(1,H2O.NUMCPUS - num_cols)
+ *    exp(nthreads-pre-block) = max(1,H2O.NUMCPUS - num_blocks)
+ *
+ * Columns are grouped into blocks (see columnBlocks) so that the sorted rows, responses and weights of a chunk are reused across the columns of the block.
+ *
+ * Histogram subtraction (optional, see {@link DTree#HISTO_SUBTRACTION_PROPERTY}):
+ *
+ * The histograms of a split node are the sum of the histograms of its two children, provided they all use the same bins. In this mode the parent's histograms
+ * are retained (up to a memory cap) and only the smaller child is built from the data; the larger one is derived as parent minus sibling in postGlobal.
+ *
+ * Bin codes (optional, see {@link BinCodes}):
+ *
+ * Columns with few distinct values are read from their (1-2 byte) code columns instead of the raw data and binned through a lookup table built once
+ * per histogram (see ComputeHistoThread).
+ *
+ * Exclusive feature bundles (optional, see {@link ExclusiveFeatureBundles}):
+ *
+ * The 2-bin histograms of bundled sparse binary columns are built from their bundle columns by a separate task (ComputeBundleThread) instead of being
+ * part of the column blocks: one pass over a bundle column yields the non-zero bins of all its members, the zero bins follow from the leaf totals.
  *
  */
 public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
@@ -66,11 +86,36 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   transient int [][] _rss;
   Frame _fr2;
   final int _numLeafs;
+  // Target size of the histograms of one block of columns, see columnBlocks
+  static final int BLOCK_BYTES = H2O.OptArgs.getSysPropInt("tree.histoBlockBytes", 256*1024);
   final IcedBitSet _activeCols;
+  // Histogram subtraction: per leaf, the (sorted) columns derived from the parent and sibling histograms instead of
+  // being built, null if none
+  final int [][] _derived;
+  transient DHistogram [][] _parentHs;
+  transient int [] _siblings;
+  // Exclusive feature bundles (or null), their encoded columns start at _bundle0Idx
+  final ExclusiveFeatureBundles _bundles;
+  final int _bundle0Idx;
+  // [col][leaf] histograms built from the bundle columns, null for columns without any
+  transient boolean [][] _viaBundle;
+  // Bin codes (or null), their code columns start at _code0Idx
+  final Key<BinCodes> _binCodesKey;
+  final int _code0Idx;
+  transient BinCodes _binCodes;
+  transient int [] _codeOf; // [col] index of the column's codes in _binCodes, -1 if not encoded
 
   public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int weightIdx, int workIdx, int nidIdxs) {
+    this(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs, null, -1, null, -1);
+  }
+
+  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int weightIdx, int workIdx, int nidIdxs, ExclusiveFeatureBundles bundles, int bundle0Idx, Key<BinCodes> binCodes, int code0Idx) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
+    _bundles = bundles;
+    _bundle0Idx = bundle0Idx;
+    _binCodesKey = binCodes;
+    _code0Idx = code0Idx;
 
     int hcslen = _hcs.length;
     IcedBitSet activeCols = new IcedBitSet(ncols);
@@ -85,9 +130,74 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       }
     }
     _activeCols = activeCols;
+    _derived = derivedColumns();
     _hcs = ArrayUtils.transpose(_hcs);
   }
 
+  // Columns of the larger children of the previous splits that can be obtained by histogram subtraction: the
+  // parent's histogram is filled, the sibling builds the column, and all three histograms have the same bins.
+  private int [][] derivedColumns() {
+    int [][] derived = null;
+    for (int n = 0; n < _numLeafs; n++) {
+      DTree.UndecidedNode u = _tree.undecided(n + _leaf);
+      if (u._parentHs == null) continue;
+      DTree.UndecidedNode sib = _tree.undecided(u._siblingNid);
+      assert u._siblingNid >= _leaf;
+      int [] cols = new int[_ncols];
+      int len = 0;
+      for (int c = 0; c < _ncols; c++) {
+        DHistogram p = u._parentHs[c];
+        if (p == null || p._vals == null || _hcs[n][c] == null || sib._hs[c] == null) continue;
+        if (scores(u, c) && scores(sib, c) && _hcs[n][c].sameBins(p) && sib._hs[c].sameBins(p))
+          cols[len++] = c;
+      }
+      if (len == 0) continue;
+      if (derived == null) {
+        derived = new int[_numLeafs][];
+        _parentHs = new DHistogram[_numLeafs][];
+        _siblings = new int[_numLeafs];
+      }
+      derived[n] = Arrays.copyOf(cols, len);
+      _parentHs[n] = u._parentHs;
+      _siblings[n] = u._siblingNid - _leaf;
+    }
+    return derived;
+  }
+
+  private static boolean scores(DTree.UndecidedNode u, int col) {
+    return u._scoreCols == null || ArrayUtils.find(u._scoreCols, col) >= 0;
+  }
+
+  private boolean isDerived(int leaf, int col) {
+    return _derived != null && _derived[leaf] != null && Arrays.binarySearch(_derived[leaf], col) >= 0;
+  }
+
+  private boolean isBundled(int leaf, int col) {
+    return _viaBundle != null && _viaBundle[col] != null && _viaBundle[col][leaf];
+  }
+
+  // The histograms of bundle members that can be built from the bundle columns: built from the data at all, and
+  // binning exactly the 0/1 values into bins 0/1 (anything else, e.g. a coarser binning, uses the member column)
+  private boolean [][] bundledHistos() {
+    if (_bundles == null) return null;
+    boolean [][] res = null;
+    for (int b = 0; b < _bundles.size(); b++)
+      for (int col : _bundles.members(b)) {
+        if (_activeCols != null && !_activeCols.contains(col)) continue;
+        DHistogram [] lh = histos(col);
+        for (int n = 0; n < lh.length; n++) {
+          DHistogram h = lh[n];
+          if (h == null || !scores(_tree.undecided(n + _leaf), col) || isDerived(n, col)) continue;
+          h.initBins();
+          if (h.nbins() != 2 || h._min != 0 || h._maxEx != 2 || h.bin(0) != 0 || h.bin(1) != 1) continue;
+          if (res == null) res = new boolean[_ncols][];
+          if (res[col] == null) res[col] = new boolean[lh.length];
+          res[col][n] = true;
+        }
+      }
+    return res;
+  }
+
   @Override
   public ScoreBuildHistogram dfork2(byte[] types, Frame fr, boolean run_local) {
     _fr2 = fr;
@@ -151,6 +261,12 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     addToPendingCount(1);
     // Init all the internal tree fields after shipping over the wire
     _tree.init_tree();
+    if (_binCodesKey != null) {
+      _binCodes = DKV.getGet(_binCodesKey); // cached on this node after the first layer
+      _codeOf = new int[_ncols];
+      Arrays.fill(_codeOf, -1);
+      for (int i = 0; i < _binCodes.size(); i++) _codeOf[_binCodes.col(i)] = i;
+    }
     Vec v = _fr2.anyVec();
     assert(v!=null);
     _cids = VecUtils.getLocalChunkIds(v);
@@ -231,107 +347,357 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       }
     },new H2O.H2OCountedCompleter(this){
       public void onCompletion(CountedCompleter cc){
-        final int ncols = _ncols;
-        final int [] active_cols = _activeCols == null?null:new int[Math.max(1,_activeCols.cardinality())];
-        int nactive_cols = active_cols == null?ncols:active_cols.length;
-        final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/nactive_cols,1));
-        final int rem = H2O.NUMCPUS-numWrks*ncols;
-        ScoreBuildHistogram2.this.addToPendingCount(1+nactive_cols);
-        if(active_cols != null) {
-          int j = 0;
-          for (int i = 0; i < ncols; ++i)
-            if (_activeCols.contains(i))
-              active_cols[j++] = i;
-        }
-        // MRTask (over columns) launching MrTasks (over number of workers) for each column.
-        // We want FJ to start processing all the columns before parallelizing within column to reduce memory overhead.
-        // (running single column in n threads means n-copies of the histogram)
+        _viaBundle = bundledHistos();
+        final int [][] blocks = columnBlocks(activeColumns());
+        final int ntasks = blocks.length + (_viaBundle != null ? 1 : 0); // bundles are processed by an extra task
+        int nactive_cols = 0;
+        for (int [] b : blocks) nactive_cols += b.length;
+        final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/ntasks,1));
+        final int rem = H2O.NUMCPUS-numWrks*ntasks;
+        ScoreBuildHistogram2.this.addToPendingCount(1+ntasks);
+        // LocalMR (over column blocks) launching LocalMRs (over number of workers) for each block.
+        // We want FJ to start processing all the blocks before parallelizing within block to reduce memory overhead.
+        // (running single block in n threads means n-copies of its accumulators)
         // This is how it works:
-        //    1) Outer MRTask walks down it's tree, forking tasks with exponentially decreasing number of columns until reaching its left most leaf for columns 0.
-        //       At this point, the local fjq for this thread has a task for processing half of columns at the bottom, followed by task for 1/4 of columns and so on.
+        //    1) Outer LocalMR walks down it's tree, forking tasks with exponentially decreasing number of blocks until reaching its left most leaf for block 0.
+        //       At this point, the local fjq for this thread has a task for processing half of blocks at the bottom, followed by task for 1/4 of blocks and so on.
         //       Other threads start stealing work from the bottom.
-        //    2) forks the leaf task and (because its polling from the top) executes the LocalMr for the column 0.
-        // This way we should have columns as equally distributed as possible without resorting to shared priority queue
+        //    2) forks the leaf task and (because its polling from the top) executes the LocalMr for the block 0.
+        // This way we should have blocks as equally distributed as possible without resorting to shared priority queue
         new LocalMR(new MrFun() {
           @Override
-          protected void map(int c) {
-            c = active_cols == null?c:active_cols[c];
-            new LocalMR(new ComputeHistoThread(_hcs.length == 0?new DHistogram[0]:_hcs[c],c,fLargestChunkSz,new AtomicInteger()),numWrks + (c < rem?1:0),ScoreBuildHistogram2.this).fork();
+          protected void map(int b) {
+            if (b == blocks.length) {
+              final ComputeBundleThread cbt = new ComputeBundleThread(fLargestChunkSz,new AtomicInteger());
+              new LocalMR(cbt,numWrks,new H2O.H2OCountedCompleter(ScoreBuildHistogram2.this){
+                @Override public void onCompletion(CountedCompleter caller){ cbt.publish(); }
+              }).fork();
+              return;
+            }
+            final ComputeHistoThread cht = new ComputeHistoThread(blocks[b],fLargestChunkSz,new AtomicInteger());
+            new LocalMR(cht,numWrks + (b < rem?1:0),new H2O.H2OCountedCompleter(ScoreBuildHistogram2.this){
+              @Override public void onCompletion(CountedCompleter caller){ cht.publish(); }
+            }).fork();
           }
-        },nactive_cols,ScoreBuildHistogram2.this).fork();
+        },ntasks,ScoreBuildHistogram2.this).fork();
       }
     }).fork();
   }
 
-  private static void mergeHistos(DHistogram [] hcs, DHistogram [] hcs2){
-    // Distributed histograms need a little work
-    for( int i=0; i< hcs.length; i++ ) {
-      DHistogram hs1 = hcs[i], hs2 = hcs2[i];
-      if( hs1 == null ) hcs[i] = hs2;
-      else if( hs2 != null )
-        hs1.add(hs2);
+  private DHistogram [] histos(int col) {
+    return _hcs.length == 0 ? new DHistogram[0] : _hcs[col];
+  }
+
+  // Active columns, except for the ones entirely built from bundle columns
+  private int [] activeColumns() {
+    int [] cols = new int[_ncols];
+    int len = 0;
+    for (int i = 0; i < _ncols; ++i)
+      if ((_activeCols == null || _activeCols.contains(i)) && !fullyBundled(i))
+        cols[len++] = i;
+    return len == cols.length ? cols : Arrays.copyOf(cols, len);
+  }
+
+  private boolean fullyBundled(int col) {
+    if (_viaBundle == null || _viaBundle[col] == null) return false;
+    DHistogram [] lh = histos(col);
+    for (int n = 0; n < lh.length; n++)
+      if (lh[n] != null && !_viaBundle[col][n]) return false;
+    return true;
+  }
+
+  /**
+   * Groups the columns into blocks processed by the same workers: a block is histogrammed one chunk at a time, so the
+   * rows, responses and weights of a chunk are visited once per block instead of once per column. Blocks are sized so
+   * that the per-thread accumulators of a block stay around {@link #BLOCK_BYTES} and so that wide data still yields
+   * at least as many blocks as there are cores (each core then working on its own block, without private copies).
+   * Always returns at least one (possibly empty) block.
+   */
+  private int [][] columnBlocks(int [] cols) {
+    final int maxBlockCols = Math.max(1, (cols.length + H2O.NUMCPUS - 1) / H2O.NUMCPUS);
+    ArrayList<int[]> blocks = new ArrayList<>();
+    int start = 0;
+    long bytes = 0;
+    for (int i = 0; i < cols.length; ++i) {
+      long colBytes = 0;
+      for (DHistogram h : histos(cols[i])) {
+        if (h == null) continue;
+        colBytes += 8L*(3*h.nbins()+3); // estimate: quantile binning may still change the number of bins
+      }
+      if (i > start && (i - start == maxBlockCols || bytes + colBytes > BLOCK_BYTES)) {
+        blocks.add(Arrays.copyOfRange(cols, start, i));
+        start = i;
+        bytes = 0;
+      }
+      bytes += colBytes;
     }
+    blocks.add(Arrays.copyOfRange(cols, start, cols.length));
+    return blocks.toArray(new int[blocks.size()][]);
   }
 
+  /**
+   * Builds the histograms of a block of columns over the chunks it grabs. Every worker accumulates into its own
+   * (lazily allocated) arrays, one per column and leaf, so no atomics are needed; the copies are then added up
+   * pairwise along the LocalMR tree and the result is published into the shared {@link DHistogram}s.
+   */
   private class ComputeHistoThread extends MrFun<ComputeHistoThread> {
     final int _maxChunkSz;
-    final int _col;
-    final DHistogram [] _lh;
+    final int [] _cols;
+    final DHistogram [][] _lh; // shared histograms of the block, used for binning only until published
+    final double [][] _vals;   // private accumulators, [col*_numLeafs + leaf]
+    final double [] _minMax;   // private min/max, [2*(col*_numLeafs + leaf)]
+    final boolean [][] _build; // [col][leaf] histogram built from the data (scored and not derived by subtraction)
+    final int [][][] _binsOf;  // [col][leaf] code -> bin lookup for columns with bin codes (see DHistogram.binsOf)
+    final int [][] _codeLo;    // [col][leaf] first code of the lookup
+    final boolean _hasCodes;
 
     AtomicInteger _cidx;
-    private boolean _done;
-
-    public boolean isDone(){return _done || (_done = _cidx.get() >= _cids.length);}
 
-    ComputeHistoThread(DHistogram [] hcs, int col, int maxChunkSz,AtomicInteger cidx){
-      _lh = hcs; _col = col; _maxChunkSz = maxChunkSz;
+    ComputeHistoThread(int [] cols, int maxChunkSz, AtomicInteger cidx){
+      _cols = cols; _maxChunkSz = maxChunkSz;
       _cidx = cidx;
+      _lh = new DHistogram[cols.length][];
+      _build = new boolean[cols.length][];
+      _binsOf = new int[cols.length][][];
+      _codeLo = new int[cols.length][];
+      boolean hasCodes = false;
+      int [] codeLo = new int[1];
+      for (int i = 0; i < cols.length; ++i) {
+        _lh[i] = histos(cols[i]);
+        // Fix the bins before any worker of the block starts binning; blocks set up in parallel,
+        // each for its own columns
+        for (DHistogram h : _lh[i])
+          if (h != null) h.initBins();
+        _build[i] = new boolean[_lh[i].length];
+        for (int n = 0; n < _build[i].length; n++)
+          _build[i][n] = scores(_tree.undecided(n + _leaf), cols[i]) && !isDerived(n, cols[i]) && !isBundled(n, cols[i]);
+        if (_codeOf != null && _codeOf[cols[i]] >= 0) {
+          hasCodes = true;
+          _binsOf[i] = new int[_lh[i].length][];
+          _codeLo[i] = new int[_lh[i].length];
+          double [] values = _binCodes.values(_codeOf[cols[i]]);
+          for (int n = 0; n < _build[i].length; n++) {
+            if (!_build[i][n] || _lh[i][n] == null) continue;
+            _binsOf[i][n] = _lh[i][n].binsOf(values, codeLo);
+            _codeLo[i][n] = codeLo[0];
+          }
+        }
+      }
+      _hasCodes = hasCodes;
+      _vals = new double[cols.length*_numLeafs][];
+      _minMax = new double[2*_vals.length];
+      for (int i = 0; i < _minMax.length; i += 2) {
+        _minMax[i] = Double.MAX_VALUE;
+        _minMax[i+1] = -Double.MAX_VALUE;
+      }
+    }
+
+    private ComputeHistoThread(ComputeHistoThread src) {
+      _cols = src._cols; _maxChunkSz = src._maxChunkSz;
+      _cidx = src._cidx;
+      _lh = src._lh;
+      _build = src._build;
+      _binsOf = src._binsOf;
+      _codeLo = src._codeLo;
+      _hasCodes = src._hasCodes;
+      _vals = new double[src._vals.length][];
+      _minMax = src._minMax.clone();
     }
 
     @Override
     public ComputeHistoThread makeCopy() {
-      return new ComputeHistoThread(ArrayUtils.deepClone(_lh),_col,_maxChunkSz,_cidx);
+      return new ComputeHistoThread(this);
     }
 
     @Override
     protected void map(int id){
       double [] cs = null;
+      int [] is = null;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
-        if(cs == null) cs = MemoryManager.malloc8d(_maxChunkSz);
-        computeChunk(i,cs,_ws[i]);
+        if(cs == null) {
+          cs = MemoryManager.malloc8d(_maxChunkSz);
+          if (_hasCodes) is = MemoryManager.malloc4(_maxChunkSz);
+        }
+        computeChunk(i,cs,is,_ws[i]);
       }
     }
 
-    private void computeChunk(int id, double [] cs, double [] ws){
+    private void computeChunk(int id, double [] cs, int [] is, double [] ws){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
       int len = resChk._len;
       double [] ys = ScoreBuildHistogram2.this._ys[id];
       if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
-      final int hcslen = _lh.length;
-      boolean extracted = false;
-      for (int n = 0; n < hcslen; n++) {
-        int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
-        if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
-          DHistogram h = _lh[n];
+      for (int c = 0; c < _cols.length; c++) {
+        final int col = _cols[c];
+        final DHistogram [] lh = _lh[c];
+        final int [][] binsOf = _binsOf[c];
+        boolean extracted = false;
+        for (int n = 0; n < lh.length; n++) {
+          if (_build[c][n]) {
+            DHistogram h = lh[n];
+            int hi = nh[n];
+            int lo = (n == 0 ? 0 : nh[n - 1]);
+            if (hi == lo || h == null) continue; // Ignore untracked columns in this split
+            final int idx = c*_numLeafs + n;
+            if (_vals[idx] == null) _vals[idx] = MemoryManager.malloc8d(3*h.nbins()+3);
+            if (!extracted) {
+              if (binsOf != null) _chks[id][_code0Idx + _codeOf[col]].getIntegers(is,0,len,-1);
+              else _chks[id][col].getDoubles(cs,0,len);
+              extracted = true;
+            }
+            if (binsOf != null)
+              h.updateHisto(_vals[idx], _minMax, idx, ws, is, binsOf[n], _codeLo[c][n], _binCodes.values(_codeOf[col]), ys, rs, hi, lo);
+            else
+              h.updateHisto(_vals[idx], _minMax, idx, ws, cs, ys, rs, hi, lo);
+          }
+        }
+      }
+    }
+
+    @Override
+    protected void reduce(ComputeHistoThread cc) {
+      assert _vals != cc._vals;
+      for (int i = 0; i < _vals.length; ++i) {
+        if (cc._vals[i] == null) continue;
+        if (_vals[i] == null) _vals[i] = cc._vals[i];
+        else ArrayUtils.add(_vals[i], cc._vals[i]);
+        if (cc._minMax[2*i] < _minMax[2*i]) _minMax[2*i] = cc._minMax[2*i];
+        if (cc._minMax[2*i+1] > _minMax[2*i+1]) _minMax[2*i+1] = cc._minMax[2*i+1];
+      }
+    }
+
+    // Add the fully reduced accumulators to the shared histograms; the columns of a block are not touched by any
+    // other block, so this needs no synchronization either.
+    void publish() {
+      for (int c = 0; c < _cols.length; ++c)
+        for (int n = 0; n < _lh[c].length; ++n) {
+          final int idx = c*_numLeafs + n;
+          if (_vals[idx] != null)
+            _lh[c][n].add(_vals[idx], _minMax[2*idx], _minMax[2*idx+1]);
+        }
+    }
+  }
+
+  /**
+   * Builds the histograms of the bundled columns (see {@link #bundledHistos()}) from the bundle columns. Per leaf, the
+   * totals over all its rows are accumulated once, and per member of a bundle the sums over the rows where the member
+   * is 1 - a single pass over the bundle column covers all its members. Bin 0 of a member is the leaf total minus its
+   * bin 1. Accumulates privately like {@link ComputeHistoThread}.
+   */
+  private class ComputeBundleThread extends MrFun<ComputeBundleThread> {
+    final int _maxChunkSz;
+    final int [] _offs; // start of the accumulators of each bundle in _vals, [_offs[b] + 3*(member*_numLeafs + leaf)]
+    double [] _tot;     // w, wY, wYY of all rows, [3*leaf]
+    double [] _vals;    // w, wY, wYY of the rows where the member is 1
+
+    AtomicInteger _cidx;
+
+    ComputeBundleThread(int maxChunkSz, AtomicInteger cidx) {
+      _maxChunkSz = maxChunkSz;
+      _cidx = cidx;
+      _offs = new int[_bundles.size() + 1];
+      for (int b = 0; b < _bundles.size(); b++)
+        _offs[b + 1] = _offs[b] + 3*_bundles.members(b).length*_numLeafs;
+    }
+
+    private ComputeBundleThread(ComputeBundleThread src) {
+      _maxChunkSz = src._maxChunkSz;
+      _offs = src._offs;
+      _cidx = src._cidx;
+    }
+
+    @Override
+    public ComputeBundleThread makeCopy() {
+      return new ComputeBundleThread(this);
+    }
+
+    @Override
+    protected void map(int id){
+      double [] cs = null;
+      for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
+        if(cs == null) {
+          cs = MemoryManager.malloc8d(_maxChunkSz);
+          _tot = MemoryManager.malloc8d(3*_numLeafs);
+          _vals = MemoryManager.malloc8d(_offs[_offs.length - 1]);
+        }
+        computeChunk(i,cs,_ws[i]);
+      }
+    }
+
+    private void computeChunk(int id, double [] cs, double [] ws){
+      int [] nh = _nhs[id];
+      int [] rs = _rss[id];
+      int len = _chks[id][_workIdx]._len;
+      double [] ys = ScoreBuildHistogram2.this._ys[id];
+      for (int n = 0; n < _numLeafs; n++) {
+        int hi = nh[n];
+        int lo = (n == 0 ? 0 : nh[n - 1]);
+        for (int r = lo; r < hi; ++r) {
+          int k = rs[r];
+          double w = ws[k];
+          if (w == 0) continue;
+          double wy = w * ys[k];
+          _tot[3*n + 0] += w;
+          _tot[3*n + 1] += wy;
+          _tot[3*n + 2] += wy * ys[k];
+        }
+      }
+      for (int b = 0; b < _bundles.size(); b++) {
+        _chks[id][_bundle0Idx + b].getDoubles(cs, 0, len);
+        for (int n = 0; n < _numLeafs; n++) {
           int hi = nh[n];
           int lo = (n == 0 ? 0 : nh[n - 1]);
-          if (hi == lo || h == null) continue; // Ignore untracked columns in this split
-          if (h._vals == null) h.init();
-          if (!extracted) {
-            _chks[id][_col].getDoubles(cs,0,len);
-            extracted = true;
+          for (int r = lo; r < hi; ++r) {
+            int k = rs[r];
+            int code = (int) cs[k];
+            if (code == 0) continue;
+            double w = ws[k];
+            if (w == 0) continue;
+            double wy = w * ys[k];
+            int idx = _offs[b] + 3*((code - 1)*_numLeafs + n);
+            _vals[idx + 0] += w;
+            _vals[idx + 1] += wy;
+            _vals[idx + 2] += wy * ys[k];
           }
-          h.updateHisto(ws, cs, ys, rs, hi, lo);
         }
       }
     }
 
     @Override
-    protected void reduce(ComputeHistoThread cc) {
-      assert _lh != cc._lh;
-      mergeHistos(_lh, cc._lh);
+    protected void reduce(ComputeBundleThread cc) {
+      if (cc._tot == null) return;
+      if (_tot == null) {
+        _tot = cc._tot;
+        _vals = cc._vals;
+      } else {
+        ArrayUtils.add(_tot, cc._tot);
+        ArrayUtils.add(_vals, cc._vals);
+      }
+    }
+
+    // Unbundle into the histograms of the members
+    void publish() {
+      if (_tot == null) return;
+      for (int b = 0; b < _bundles.size(); b++) {
+        int [] members = _bundles.members(b);
+        for (int i = 0; i < members.length; i++) {
+          final int col = members[i];
+          for (int n = 0; n < _numLeafs; n++) {
+            if (!isBundled(n, col) || _tot[3*n] == 0) continue;
+            int idx = _offs[b] + 3*(i*_numLeafs + n);
+            double [] vals = MemoryManager.malloc8d(3*2+3);
+            for (int j = 0; j < 3; j++) {
+              vals[3 + j] = _vals[idx + j];
+              vals[j] = _tot[3*n + j] - _vals[idx + j];
+            }
+            if (vals[0] <= 1e-12 * _tot[3*n]) // all rows are 1, drop the roundoff
+              vals[0] = vals[1] = vals[2] = 0;
+            histos(col)[n].add(vals, vals[0] > 0 ? 0 : 1, vals[3] > 0 ? 1 : 0);
+          }
+        }
+      }
     }
   }
 
@@ -342,5 +708,11 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
         if(dh == null) continue;
         dh.reducePrecision();
       }
+    // Histogram subtraction, once the built histograms are complete
+    if (_derived != null)
+      for (int n = 0; n < _derived.length; n++)
+        if (_derived[n] != null)
+          for (int c : _derived[n])
+            _hcs[n][c].setToDifference(_parentHs[n][c], _hcs[_siblings[n]][c]);
   }
 }
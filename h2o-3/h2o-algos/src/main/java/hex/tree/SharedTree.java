@@ -62,6 +62,18 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
 
   protected Random _rand;
 
+  // Row weights the trees of the current iteration are grown with, if they differ from the observation weights
+  // (e.g. the up-weighted rows of GOSS sampling), null otherwise
+  protected transient Vec _treeWeights;
+
+  // Optional bundles of mutually exclusive sparse columns and their encoded columns, see ExclusiveFeatureBundles
+  protected transient ExclusiveFeatureBundles _bundles;
+  protected transient Vec[] _bundleVecs;
+
+  // Optional quantized predictors for the histogram building and their code columns, see BinCodes
+  protected transient BinCodes _binCodes;
+  protected transient Vec[] _binCodeVecs;
+
   protected final Frame calib() { return _calib; }
   protected transient Frame _calib;
 
@@ -312,6 +324,15 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
           DKV.remove(rndKey);
         }
 
+        // Quantized predictors, shared by all the trees
+        if (BinCodes.enabled()) {
+          _binCodes = BinCodes.find(_train, _ncols, Key.<BinCodes>makeSystem(_model._key + "_bin_codes"));
+          if (_binCodes != null) {
+            _binCodeVecs = _binCodes.makeCodeVecs(_train);
+            DKV.put(_binCodes);
+          }
+        }
+
         // Also add to the basic working Frame these sets:
         //   nclass Vecs of current forest results (sum across all trees)
         //   nclass Vecs of working/temp data
@@ -370,6 +391,22 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
           _trainPredsCache.remove();
           _trainPredsCache = null;
         }
+        if (_bundleVecs != null) {
+          for (Vec v : _bundleVecs) v.remove();
+          _bundleVecs = null;
+        }
+        if (_treeWeights != null) {
+          _treeWeights.remove();
+          _treeWeights = null;
+        }
+        if (_binCodes != null) {
+          _binCodes.remove();
+          _binCodes = null;
+        }
+        if (_binCodeVecs != null) {
+          for (Vec v : _binCodeVecs) v.remove();
+          _binCodeVecs = null;
+        }
       }
     }
 
@@ -469,13 +506,24 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]);                              //tree predictions
       int workIdx = fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  = fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
+      if (_treeWeights != null) {
+        weightIdx = fr2.numCols(); fr2.add("Tree_weights", _treeWeights);                 //sampling weights override observation weights
+      }
+      int bundle0Idx = fr2.numCols();
+      if (_bundleVecs != null) {
+        for (int b = 0; b < _bundleVecs.length; b++) fr2.add("Bundle_" + b, _bundleVecs[b]); //encoded exclusive feature bundles
+      }
+      int code0Idx = fr2.numCols();
+      if (_binCodeVecs != null) {
+        for (int i = 0; i < _binCodeVecs.length; i++) fr2.add("Codes_" + i, _binCodeVecs[i]);  //quantized predictors
+      }
       if (DEV_DEBUG) {
         System.out.println("Building a layer for class " + k + ":\n" + fr2.toTwoDimTable());
       }
       // Async tree building
       // step 1: build histograms
       // step 2: split nodes
-      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, weightIdx, workIdx, nidIdx));
+      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, weightIdx, workIdx, nidIdx, _bundleVecs == null ? null : _bundles, bundle0Idx, _binCodeVecs == null ? null : _binCodes._key, code0Idx));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -514,10 +562,14 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     final int _weightIdx;
     final int _workIdx;
     final int _nidIdx;
+    final ExclusiveFeatureBundles _bundles;
+    final int _bundle0Idx;
+    final Key<BinCodes> _binCodes;
+    final int _code0Idx;
 
     boolean _did_split;
 
-    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int weightIdx, int workIdx, int nidIdx) {
+    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int weightIdx, int workIdx, int nidIdx, ExclusiveFeatureBundles bundles, int bundle0Idx, Key<BinCodes> binCodes, int code0Idx) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -532,6 +584,10 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       _weightIdx = weightIdx;
       _workIdx = workIdx;
       _nidIdx = nidIdx;
+      _bundles = bundles;
+      _bundle0Idx = bundle0Idx;
+      _binCodes = binCodes;
+      _code0Idx = code0Idx;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -543,7 +599,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx, _bundles, _bundle0Idx, _binCodes, _code0Idx).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
@@ -148,6 +148,16 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._goss_top_rate != 0) {
+      if (!(0. < _parms._goss_top_rate && _parms._goss_top_rate < 1.0))
+        error("_goss_top_rate", "goss_top_rate must be between 0 and 1");
+      if (!(0. < _parms._goss_other_rate && _parms._goss_top_rate + _parms._goss_other_rate <= 1.0))
+        error("_goss_other_rate", "goss_other_rate must be larger than 0 and goss_top_rate + goss_other_rate must not exceed 1");
+      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null)
+        error("_goss_top_rate", "GOSS cannot be combined with sample_rate or sample_rate_per_class");
+      if (_parms._distribution == DistributionFamily.laplace || _parms._distribution == DistributionFamily.quantile || _parms._distribution == DistributionFamily.huber)
+        error("_goss_top_rate", "GOSS is not supported for " + _parms._distribution + " distribution");
+    }
   }
 
   // ----------------------
@@ -172,6 +182,11 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       _mtry = Math.max(1, (int)(_parms._col_sample_rate * _parms._col_sample_rate_per_tree * _ncols)); //per-split
       if (!(1 <= _mtry && _mtry <= _ncols)) throw new IllegalArgumentException("Computed mtry should be in interval <1,"+_ncols+"> but it is " + _mtry);
 
+      if (_parms._exclusive_feature_bundling) {
+        _bundles = ExclusiveFeatureBundles.find(_train, _ncols);
+        if (_bundles != null) _bundleVecs = _bundles.makeBundleVecs(_train);
+      }
+
       // for Bernoulli, we compute the initial value with Newton-Raphson iteration, otherwise it might be NaN here
       DistributionFamily distr = _parms._distribution;
       _initialPrediction = _nclass > 2 || distr == DistributionFamily.laplace || distr == DistributionFamily.huber || distr == DistributionFamily.quantile ? 0 : getInitialValue();
@@ -354,8 +369,17 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b iii.  Compute the gammas (leaf node predictions === fit best constant), and store them back
       // into the tree leaves.  Includes learn_rate.
-      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, new Distribution(_parms), _nclass);
-      gp.doAll(_train);
+      // With GOSS the leaf values are fit to the up-weighted sample
+      FrameMap gammaMap = frameMap;
+      Frame gammaFrame = _train;
+      if (_treeWeights != null) {
+        gammaMap = new FrameMap(GBM.this);
+        gammaMap.weightIndex = _train.numCols();
+        gammaFrame = new Frame(_train);
+        gammaFrame.add("Tree_weights", _treeWeights);
+      }
+      GammaPass gp = new GammaPass(gammaMap, ktrees, leaves, new Distribution(_parms), _nclass);
+      gp.doAll(gammaFrame);
       if (_parms._distribution == DistributionFamily.laplace) {
         fitBestConstantsQuantile(ktrees, leaves[0], 0.5); //special case for Laplace: compute the median for each leaf node and store that as prediction
       } else if (_parms._distribution == DistributionFamily.quantile) {
@@ -382,6 +406,10 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       new AddTreeContributions(
           frameMap, ktrees, _parms._pred_noise_bandwidth, _parms._seed, _parms._ntrees, _model._output._ntrees
       ).doAll(_train);
+      if (_treeWeights != null) {
+        _treeWeights.remove();
+        _treeWeights = null;
+      }
 
       // sanity check
       for (int k = 0; k < _nclass; k++) {
@@ -432,7 +460,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
 
       // Sample - mark the lines by putting 'OUT_OF_BAG' into nid(<klass>) vector
-      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
+      if (_parms._goss_top_rate > 0) {
+        gossSample(ktrees);
+      } else if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
         Sample ss[] = new Sample[_nclass];
         for (int k = 0; k < _nclass; k++)
           if (ktrees[k] != null)
@@ -488,6 +518,33 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     }
 
 
+    /**
+     * GOSS: keeps the rows with the goss_top_rate largest absolute gradients (summed over the classes, so all class
+     * trees share one sample), samples goss_other_rate of all rows from the rest and up-weights those, see
+     * {@link GossSample}. The weights the trees are grown with are left in {@code _treeWeights}.
+     */
+    private void gossSample(DTree[] ktrees) {
+      DTree tree = null;
+      for (DTree t : ktrees) if (t != null) tree = t;
+      if (tree == null) return;
+      Vec grad = new ComputeAbsGradient(frameMap, _nclass).doAll(1, Vec.T_NUM, _train).outputFrame().anyVec();
+      try {
+        double threshold = GossSample.threshold(grad, _weights, _parms._goss_top_rate);
+        _treeWeights = _response.makeVolatileDoubles(1)[0];
+        Frame fr = new Frame(new String[]{"grad", "response", "tree_weights"}, new Vec[]{grad, _response, _treeWeights});
+        if (hasWeightCol()) fr.add("weights", _weights);
+        for (int k = 0; k < _nclass; k++)
+          if (ktrees[k] != null) fr.add("NIDs_" + k, vec_nids(_train, k));
+        new GossSample(tree, threshold, _parms._goss_top_rate, _parms._goss_other_rate, hasWeightCol())
+            .doAll(fr, _parms._build_tree_one_node);
+        if (DEV_DEBUG) {
+          System.out.println("GOSS threshold: " + threshold + ", sampled OOB rows. NIDS:\n" + new Frame(vec_nids(_train, 0)).toTwoDimTable());
+        }
+      } finally {
+        grad.remove();
+      }
+    }
+
     private void fitBestConstantsQuantile(DTree[] ktrees, int firstLeafIndex, double quantile) {
       if (firstLeafIndex == ktrees[0]._len) return; // no splits happened - nothing to do
       assert(_nclass==1);
@@ -805,6 +862,27 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
   }
 
 
+  private static class ComputeAbsGradient extends MRTask<ComputeAbsGradient> {
+    private FrameMap fm;
+    private int nclass;
+
+    public ComputeAbsGradient(FrameMap frameMap, int nClasses) {
+      fm = frameMap;
+      nclass = nClasses;
+    }
+
+    @Override
+    public void map(Chunk[] chks, NewChunk[] nc) {
+      for (int i = 0; i < chks[0].len(); ++i) {
+        double g = 0;
+        for (int k = 0; k < nclass; k++)
+          g += Math.abs(chks[fm.work0Index + k].atd(i));
+        nc[0].addNum(g);
+      }
+    }
+  }
+
+
   private static class ComputeAbsDiff extends MRTask<ComputeAbsDiff> {
     private FrameMap fm;
 
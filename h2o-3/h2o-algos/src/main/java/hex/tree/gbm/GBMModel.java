@@ -25,6 +25,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
     public double _col_sample_rate;
     public double _max_abs_leafnode_pred;
     public double _pred_noise_bandwidth;
+    public double _goss_top_rate;         // GOSS: fraction of rows with the largest gradients always kept, 0 disables GOSS
+    public double _goss_other_rate;       // GOSS: fraction of rows sampled from the rest
+    public boolean _exclusive_feature_bundling;
 
     public GBMParameters() {
       super();
@@ -36,6 +39,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
       _pred_noise_bandwidth =0;
+      _goss_top_rate = 0;
+      _goss_other_rate = 0.1;
+      _exclusive_feature_bundling = false;
     }
 
     public String algoName() { return "GBM"; }
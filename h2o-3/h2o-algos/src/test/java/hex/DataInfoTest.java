@@ -5,8 +5,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import water.*;
 import water.fvec.*;
+import water.util.ArrayUtils;
 
 import java.util.Arrays;
+import java.util.Random;
 
 
 // test cases:
@@ -537,6 +539,74 @@ public class DataInfoTest extends TestUtil {
     }
   }
 
+  @Test public void testDenseRowsBulk() {  // test that rows extracted in bulk are the same as rows extracted one by one
+    Scope.enter();
+    try {
+      final int n = 2500;
+      String[] cats = new String[n];
+      double[] nums = new double[n], ints = new double[n], resp = new double[n], ws = new double[n];
+      for (int i = 0; i < n; ++i) {
+        cats[i] = i % 17 == 0 ? null : "L" + (i % 5);
+        nums[i] = i % 13 == 0 ? Double.NaN : i * 0.37 - 100;
+        ints[i] = i % 11 == 0 ? Double.NaN : i % 7;
+        resp[i] = i % 29 == 0 ? Double.NaN : i % 3;
+        ws[i] = i % 19 == 0 ? 0 : 1 + i % 2;
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withName("dense_rows")
+              .withColNames("cat", "num", "int", "w", "resp")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, cats)
+              .withDataForCol(1, nums)
+              .withDataForCol(2, ints)
+              .withDataForCol(3, ws)
+              .withDataForCol(4, resp)
+              .withChunkLayout(1000, 1000, 500)
+              .build());
+      for (boolean skipMissing : new boolean[]{true, false}) {
+        final DataInfo di = new DataInfo(fr.clone(), null, 1, false, DataInfo.TransformType.STANDARDIZE,
+                DataInfo.TransformType.NONE, skipMissing, !skipMissing, false, true, false, false);
+        try {
+          new MRTask() {
+            @Override public void map(Chunk[] cs) {
+              DataInfo.DenseRows rows = di.new DenseRows(cs);
+              DataInfo.Row r = di.newDenseRow();
+              for (int i = 0; i < cs[0]._len; ++i)
+                assertSameRow(di.extractDenseRow(cs, i, r), rows.row(i));
+              for (int i = cs[0]._len - 1; i >= 0; i -= 7) // revisited rows are extracted again
+                assertSameRow(di.extractDenseRow(cs, i, r), rows.row(i));
+              int[] order = new int[cs[0]._len]; // shuffled scan
+              for (int i = 0; i < order.length; ++i) order[i] = i;
+              ArrayUtils.shuffleArray(order, new Random(cs[0].cidx()));
+              DataInfo.DenseRows shuffled = di.new DenseRows(cs, order);
+              for (int p = 0; p < order.length; ++p)
+                assertSameRow(di.extractDenseRow(cs, order[p], r), shuffled.row(p));
+            }
+          }.doAll(di._adaptedFrame);
+        } finally {
+          di.remove();
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static void assertSameRow(DataInfo.Row expected, DataInfo.Row actual) {
+    Assert.assertEquals(expected.rid, actual.rid);
+    Assert.assertEquals(expected.weight, actual.weight, 0);
+    if (expected.weight == 0) return;
+    Assert.assertEquals(expected.predictors_bad, actual.predictors_bad);
+    if (expected.predictors_bad) return;
+    Assert.assertEquals(expected.response_bad, actual.response_bad);
+    Assert.assertEquals(expected.nBins, actual.nBins);
+    for (int i = 0; i < expected.nBins; ++i)
+      Assert.assertEquals(expected.binIds[i], actual.binIds[i]);
+    Assert.assertArrayEquals(expected.numVals, actual.numVals, 0);
+    if (!expected.response_bad)
+      Assert.assertArrayEquals(expected.response, actual.response, 0);
+  }
+
   private static void checker(final DataInfo di, final boolean standardize) {
     new MRTask() {
       @Override public void map(Chunk[] cs) {
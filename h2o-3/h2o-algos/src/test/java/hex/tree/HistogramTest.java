@@ -205,6 +205,129 @@ public class HistogramTest extends TestUtil {
     k.remove();
   }
 
+  @Test public void testPrivateAccumulators() {
+    int N = 10000;
+    Random rnd = RandomUtils.getRNG(0xC01B10C);
+    double[] cs = new double[N], ys = new double[N], ws = new double[N];
+    int[] rows = new int[N];
+    for (int i = 0; i < N; ++i) {
+      cs[i] = rnd.nextInt(20) == 0 ? Double.NaN : 1 + rnd.nextDouble() * 5;
+      ys[i] = rnd.nextGaussian();
+      ws[i] = rnd.nextInt(10) == 0 ? 0 : 1;
+      rows[i] = i;
+    }
+    for (SharedTreeModel.SharedTreeParameters.HistogramType histoType : new SharedTreeModel.SharedTreeParameters.HistogramType[]{
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, SharedTreeModel.SharedTreeParameters.HistogramType.Random}) {
+      DHistogram expected = new DHistogram("myhisto", 20, 20, (byte) 0, 1, 6, 0, histoType, 1234, null);
+      expected.init();
+      expected.updateHisto(ws, cs, ys, rows, N, 0);
+
+      // two "threads" accumulating half of the rows each, merged into a shared histogram
+      DHistogram shared = new DHistogram("myhisto", 20, 20, (byte) 0, 1, 6, 0, histoType, 1234, null);
+      shared.initBins();
+      double[][] vals = new double[2][3 * shared.nbins() + 3];
+      double[] minMax = new double[]{Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+      shared.updateHisto(vals[0], minMax, 0, ws, cs, ys, rows, N / 2, 0);
+      shared.updateHisto(vals[1], minMax, 1, ws, cs, ys, rows, N, N / 2);
+      Assert.assertNull(shared._vals);
+      shared.add(vals[0], minMax[0], minMax[1]);
+      shared.add(vals[1], minMax[2], minMax[3]);
+
+      Assert.assertEquals(expected.find_min(), shared.find_min(), 0);
+      Assert.assertEquals(expected.find_maxIn(), shared.find_maxIn(), 0);
+      Assert.assertEquals(expected._vals.length, shared._vals.length);
+      for (int i = 0; i < expected._vals.length; ++i)
+        Assert.assertEquals(expected._vals[i], shared._vals[i], 1e-9);
+    }
+  }
+
+  @Test public void testBinCodesNarrowedRange() {
+    // distinct values of an encoded column, the histogram of a child node only covers part of them
+    double[] values = new double[]{-5, -3, 0, 0.37, 0.74, 1.11, 1.48, 2, 5, 7.5, 9};
+    int N = 10000;
+    Random rnd = RandomUtils.getRNG(0xB1C0DE);
+    double[] ws = new double[N], ys = new double[N];
+    int[] rows = new int[N];
+    for (int i = 0; i < N; ++i) {
+      ys[i] = rnd.nextGaussian();
+      ws[i] = rnd.nextInt(10) == 0 ? 0 : 1;
+      rows[i] = i;
+    }
+    for (double[] range : new double[][]{{0.37, 7.5}, {0.74, 1.48}, {-3, 2}}) {
+      int[] codes = new int[N];
+      double[] cs = new double[N];
+      for (int i = 0; i < N; ++i) { // the rows of the node: NAs, values within its range
+        int code;
+        do code = rnd.nextInt(values.length); while (values[code] < range[0] || values[code] >= range[1]);
+        if (rnd.nextInt(20) == 0) code = -1;
+        codes[i] = code;
+        cs[i] = code < 0 ? Double.NaN : values[code];
+      }
+      DHistogram expected = new DHistogram("myhisto", 20, 20, (byte) 0, range[0], range[1], 0, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 1234, null);
+      expected.initBins();
+      double[] expVals = new double[3 * expected.nbins() + 3];
+      double[] expMinMax = new double[]{Double.MAX_VALUE, -Double.MAX_VALUE};
+      expected.updateHisto(expVals, expMinMax, 0, ws, cs, ys, rows, N, 0);
+
+      DHistogram coded = new DHistogram("myhisto", 20, 20, (byte) 0, range[0], range[1], 0, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 1234, null);
+      coded.initBins();
+      int[] codeLo = new int[1];
+      int[] bins = coded.binsOf(values, codeLo);
+      Assert.assertTrue(bins.length < values.length);
+      double[] vals = new double[3 * coded.nbins() + 3];
+      double[] minMax = new double[]{Double.MAX_VALUE, -Double.MAX_VALUE};
+      coded.updateHisto(vals, minMax, 0, ws, codes, bins, codeLo[0], values, ys, rows, N, 0);
+
+      Assert.assertArrayEquals(expMinMax, minMax, 0);
+      Assert.assertArrayEquals(expVals, vals, 1e-9);
+    }
+  }
+
+  @Test public void testSubtraction() {
+    int N = 10000;
+    Random rnd = RandomUtils.getRNG(0x5B7AC7);
+    double[] cs = new double[N], ys = new double[N], ws = new double[N];
+    int[] rows = new int[N];
+    int nleft = 0;
+    for (int i = 0; i < N; ++i) {
+      cs[i] = rnd.nextInt(20) == 0 ? Double.NaN : 1 + rnd.nextDouble() * 5;
+      ys[i] = rnd.nextGaussian();
+      ws[i] = 1;
+      if (rnd.nextInt(3) == 0) rows[nleft++] = i;
+    }
+    for (int i = 0, r = nleft; i < N; ++i) // right rows follow the left ones
+      if (Arrays.binarySearch(rows, 0, nleft, i) < 0) rows[r++] = i;
+    DHistogram parent = subtractionHisto(1, 6);
+    parent.init();
+    parent.updateHisto(ws, cs, ys, rows, N, 0);
+    DHistogram left = subtractionHisto(1, 6), right = subtractionHisto(1, 6), derived = subtractionHisto(1, 6);
+    left.init();
+    left.updateHisto(ws, cs, ys, rows, nleft, 0);
+    right.init();
+    right.updateHisto(ws, cs, ys, rows, N, nleft);
+
+    derived.setToDifference(parent, left);
+    Assert.assertEquals(right._vals.length, derived._vals.length);
+    for (int i = 0; i < right._vals.length; ++i)
+      Assert.assertEquals(right._vals[i], derived._vals[i], 1e-3);
+    Assert.assertTrue(derived.find_min() <= right.find_min());
+    Assert.assertTrue(derived.find_maxIn() >= right.find_maxIn());
+  }
+
+  @Test public void testSameBins() {
+    DHistogram h = subtractionHisto(1, 6);
+    Assert.assertTrue(h.sameBins(subtractionHisto(1, 6)));
+    Assert.assertFalse(h.sameBins(subtractionHisto(1, 5))); // narrowed range of a child: re-binned
+    Assert.assertFalse(h.sameBins(new DHistogram("myhisto", 10, 20, (byte) 0, 1, 6, 0, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 1234, null)));
+    DHistogram r = new DHistogram("myhisto", 20, 20, (byte) 0, 1, 6, 0, SharedTreeModel.SharedTreeParameters.HistogramType.Random, 1234, null);
+    Assert.assertFalse(h.sameBins(r));
+    Assert.assertFalse(r.sameBins(new DHistogram("myhisto", 20, 20, (byte) 0, 1, 6, 0, SharedTreeModel.SharedTreeParameters.HistogramType.Random, 1234*0xDECAF+1, null)));
+  }
+
+  private static DHistogram subtractionHisto(double min, double maxEx) {
+    return new DHistogram("myhisto", 20, 20, (byte) 0, min, maxEx, 0, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 1234, null);
+  }
+
   @Test public void testShrinking() {
     double[] before = new double[]{0.2,0.28,0.31,0.32,0.32,0.4,0.7,0.81,0.84};
     double[] after = ArrayUtils.makeUniqueAndLimitToRange(before, 0.3,0.8);
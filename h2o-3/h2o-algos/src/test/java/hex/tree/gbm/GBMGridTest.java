@@ -4,6 +4,7 @@ import hex.Model;
 import hex.genmodel.utils.DistributionFamily;
 import hex.grid.Grid;
 import hex.grid.GridSearch;
+import hex.grid.HyperSpaceSearchCriteria;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -328,4 +329,38 @@ public class GBMGridTest extends TestUtil {
       if (gbmRebuilt != null) gbmRebuilt.remove();
     }
   }
+
+  @Test
+  public void testParallelGrid() {
+    Grid<GBMModel.GBMParameters> grid = null;
+    Frame fr = null;
+    try {
+      fr = generate_int_only(5, 500, 10, 0);
+      HashMap<String, Object[]> hyperParms = new HashMap<String, Object[]>() {{
+        put("_ntrees", new Integer[]{1, 2, 3});
+        put("_max_depth", new Integer[]{1, 2, 3});
+      }};
+      GBMModel.GBMParameters params = new GBMModel.GBMParameters();
+      params._train = fr._key;
+      params._response_column = fr.name(fr.numCols() - 1);
+
+      HyperSpaceSearchCriteria.CartesianSearchCriteria criteria = new HyperSpaceSearchCriteria.CartesianSearchCriteria();
+      criteria.set_parallelism(4);
+      Job<Grid> gs = GridSearch.startGridSearch(null, params, hyperParms,
+              new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(), criteria);
+      grid = (Grid<GBMModel.GBMParameters>) gs.get();
+
+      Assert.assertEquals(9, grid.getModelCount());
+      Assert.assertEquals(0, grid.getFailureCount());
+      Set<String> built = new HashSet<>();
+      for (Model m : grid.getModels()) {
+        GBMModel.GBMParameters p = (GBMModel.GBMParameters) m._parms;
+        built.add(p._ntrees + "/" + p._max_depth);
+      }
+      Assert.assertEquals(9, built.size());
+    } finally {
+      if (fr != null) fr.remove();
+      if (grid != null) grid.remove();
+    }
+  }
 }
@@ -4,6 +4,9 @@ import hex.*;
 import hex.genmodel.algos.tree.SharedTreeNode;
 import hex.genmodel.algos.tree.SharedTreeSubgraph;
 import hex.genmodel.utils.DistributionFamily;
+import hex.tree.BinCodes;
+import hex.tree.ExclusiveFeatureBundles;
+import hex.tree.GossSample;
 import hex.tree.SharedTreeModel;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -27,11 +30,13 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
 
 import static hex.genmodel.utils.DistributionFamily.*;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static water.fvec.FVecTest.makeByteVec;
 
@@ -3279,4 +3284,192 @@ public class GBMTest extends TestUtil {
 
   }
 
+  // Training frame of columns x0..x(ncols-1) and y = sum (c+1)*xc + noise. The xc are Gaussian, or for intRange > 0
+  // integers in [0,intRange) with a few NAs.
+  private static Frame linearFrame(long seed, int ncols, int intRange) {
+    Random rnd = RandomUtils.getRNG(seed);
+    int nrows = 10000;
+    double[][] data = new double[ncols + 1][nrows];
+    String[] names = new String[ncols + 1];
+    for (int r = 0; r < nrows; r++) {
+      for (int c = 0; c < ncols; c++) {
+        data[c][r] = intRange == 0 ? rnd.nextGaussian() : rnd.nextInt(50) == 0 ? Double.NaN : rnd.nextInt(intRange);
+        if (!Double.isNaN(data[c][r])) data[ncols][r] += (c + 1) * data[c][r];
+      }
+      data[ncols][r] += 0.1 * rnd.nextGaussian();
+    }
+    for (int c = 0; c <= ncols; c++)
+      names[c] = c == ncols ? "y" : "x" + c;
+    return trainingFrame(names, data);
+  }
+
+  // Frame of the given columns in a vector group of their own, tracked by the current Scope
+  private static Frame trainingFrame(String[] names, double[][] data) {
+    Vec.VectorGroup vg = new Vec.VectorGroup();
+    Vec[] vecs = new Vec[data.length];
+    for (int c = 0; c < data.length; c++)
+      vecs[c] = Vec.makeVec(data[c], vg.addVec());
+    Frame fr = new Frame(Key.<Frame>make(), names, vecs);
+    DKV.put(fr);
+    return Scope.track(fr);
+  }
+
+  // Training MSE of a model built with the given parameters, the model is deleted
+  private static double trainingMSE(GBMModel.GBMParameters parms) {
+    GBMModel model = new GBM(parms).trainModel().get();
+    try {
+      return model._output._training_metrics.mse();
+    } finally {
+      model.delete();
+    }
+  }
+
+  @Test public void testHistogramSubtraction() {
+    Scope.enter();
+    try {
+      // small integers: the children of most splits keep the bins of their parent, so they can be subtracted
+      Frame fr = linearFrame(0xD1FF, 8, 15);
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._sample_rate = 0.8;
+      parms._seed = 0xD1FF;
+      double mse = trainingMSE(parms);
+
+      System.setProperty(hex.tree.DTree.HISTO_SUBTRACTION_PROPERTY, "true");
+      // Subtracted histograms equal the built ones up to rounding, hence the same model
+      assertEquals(mse, trainingMSE(parms), 1e-6 * mse);
+    } finally {
+      System.clearProperty(hex.tree.DTree.HISTO_SUBTRACTION_PROPERTY);
+      Scope.exit();
+    }
+  }
+
+  @Test public void testGoss() {
+    Scope.enter();
+    try {
+      Frame fr = linearFrame(0x6055, 8, 0);
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 20;
+      parms._max_depth = 5;
+      parms._seed = 0x6055;
+      double mse = trainingMSE(parms);
+
+      parms._goss_top_rate = 0.2;
+      parms._goss_other_rate = 0.1;
+      // Trees are fit to 30% of the rows, the model is still close
+      assertEquals(mse, trainingMSE(parms), 0.25 * mse);
+
+      parms._sample_rate = 0.5;
+      try {
+        trainingMSE(parms);
+        Assert.fail("GOSS cannot be combined with row sampling");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("GOSS cannot be combined with sample_rate"));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testGossThreshold() {
+    Scope.enter();
+    try {
+      Vec grad = Scope.track(Vec.makeSeq(1, 1000)); // 1..1000, the top 20% are 801..1000
+      double threshold = GossSample.threshold(grad, null, 0.2);
+      assertTrue(threshold > 800 && threshold <= 801);
+      Vec weights = Scope.track(grad.makeCon(2));
+      assertEquals(threshold, GossSample.threshold(grad, weights, 0.2), 0);
+      assertEquals(7, GossSample.threshold(Scope.track(Vec.makeCon(7, 100)), null, 0.2), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testExclusiveFeatureBundling() {
+    Scope.enter();
+    try {
+      Random rnd = RandomUtils.getRNG(0xEFB);
+      // one-hot encoded levels (mutually exclusive and sparse) and a dense column
+      int nrows = 10000, nlevels = 40, ncols = nlevels + 1;
+      String[] names = new String[ncols + 1];
+      double[][] data = new double[ncols + 1][nrows];
+      for (int r = 0; r < nrows; r++) {
+        int level = rnd.nextInt(nlevels + 5); // some rows have no level set
+        if (level < nlevels) {
+          data[level][r] = 1;
+          data[ncols][r] = level % 7;
+        }
+        data[nlevels][r] = rnd.nextGaussian();
+        data[ncols][r] += data[nlevels][r] + 0.1 * rnd.nextGaussian();
+      }
+      for (int c = 0; c <= ncols; c++)
+        names[c] = c == ncols ? "y" : "x" + c;
+      Frame fr = trainingFrame(names, data);
+
+      ExclusiveFeatureBundles bundles = ExclusiveFeatureBundles.find(fr, ncols);
+      assertNotNull(bundles);
+      assertEquals(1, bundles.size());
+      assertEquals(nlevels, bundles.members(0).length);
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._seed = 0xEFB;
+      double mse = trainingMSE(parms);
+
+      parms._exclusive_feature_bundling = true;
+      // Same histograms up to the roundoff of deriving the zero bins
+      assertEquals(mse, trainingMSE(parms), 1e-4 * mse);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testBinCodes() {
+    Scope.enter();
+    try {
+      Random rnd = RandomUtils.getRNG(0xB1C);
+      // few distinct integers, few distinct reals (with -0.0 and infinities), a categorical and a dense real column
+      int nrows = 10000;
+      double[][] data = new double[5][nrows];
+      for (int r = 0; r < nrows; r++) {
+        data[0][r] = rnd.nextInt(20) == 0 ? Double.NaN : rnd.nextInt(50) - 10;
+        int k = rnd.nextInt(12);
+        data[1][r] = k == 0 ? -0.0 : k == 1 ? Double.NEGATIVE_INFINITY : k == 2 ? Double.POSITIVE_INFINITY : k * 0.37;
+        data[2][r] = rnd.nextInt(6);
+        data[3][r] = rnd.nextGaussian();
+        data[4][r] = data[0][r] * 0.1 + (Double.isInfinite(data[1][r]) ? 1 : data[1][r]) + data[2][r] % 3 + data[3][r];
+        if (Double.isNaN(data[4][r])) data[4][r] = 0;
+      }
+      Frame fr = trainingFrame(new String[]{"i", "r", "c", "d", "y"}, data);
+      fr.replace(2, Scope.track(fr.vec(2).toCategoricalVec()));
+      DKV.put(fr);
+
+      BinCodes codes = BinCodes.find(fr, 4, null);
+      assertNotNull(codes);
+      assertEquals(3, codes.size()); // the dense column has too many distinct values
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 5;
+      parms._max_depth = 6;
+      parms._seed = 0xB1C;
+      double mse = trainingMSE(parms);
+
+      System.setProperty(BinCodes.BIN_CODES_PROPERTY, "true");
+      // Lossless encoding, same histograms
+      assertEquals(mse, trainingMSE(parms), 0);
+    } finally {
+      System.clearProperty(BinCodes.BIN_CODES_PROPERTY);
+      Scope.exit();
+    }
+  }
 }
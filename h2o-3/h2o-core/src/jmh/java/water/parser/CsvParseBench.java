@@ -0,0 +1,108 @@
+package water.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.Iced;
+import water.util.StringUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenization speed of the CSV parser over synthetic data, with and without the 8-bytes-at-a-time scans.
+ * Parses one chunk of about 4MB into a writer which only sums up the tokens.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvParseBench {
+
+  @Param({"tall", "wide"})
+  private String shape;
+  @Param({"ints", "doubles", "strings", "mixed"})
+  private String content;
+  @Param({"true", "false"})
+  private boolean swar;
+
+  private byte[] data;
+  private CsvParser parser;
+
+  @Setup
+  public void setup() {
+    final int cols = shape.equals("tall") ? 8 : 1000;
+    final Random r = new Random(0xCAFE);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < (4 << 20)) {
+      for (int c = 0; c < cols; c++) {
+        if (c > 0) sb.append(',');
+        String kind = content.equals("mixed") ? (c % 3 == 0 ? "ints" : c % 3 == 1 ? "doubles" : "strings") : content;
+        switch (kind) {
+          case "ints":    sb.append(r.nextInt(Integer.MAX_VALUE) - (1 << 30)); break;
+          case "doubles": sb.append(r.nextGaussian() * 1e6); break;
+          default:        sb.append("level_").append(Long.toHexString(r.nextLong()));
+        }
+      }
+      sb.append('\n');
+    }
+    data = StringUtils.bytesOf(sb);
+
+    ParseSetup ps = new ParseSetup();
+    ps._parse_type = DefaultParserProviders.CSV_INFO;
+    ps._check_header = ParseSetup.NO_HEADER;
+    ps._separator = ',';
+    ps._number_columns = cols;
+    ps._single_quotes = false;
+    parser = new CsvParser(ps, null);
+    parser._swar = swar;
+  }
+
+  @Benchmark
+  public double parse() {
+    SummingWriter w = new SummingWriter();
+    parser.parseChunk(0, new Parser.ByteAryData(data, 0), w);
+    return w._sum + w._lines;
+  }
+
+  private static final class SummingWriter extends Iced implements ParseWriter {
+    double _sum;
+    long _lines;
+    @Override public void setColumnNames(String[] names) {}
+    @Override public void newLine() { _lines++; }
+    @Override public boolean isString(int colIdx) { return false; }
+    @Override public void addNumCol(int colIdx, long number, int exp) { _sum += number + exp; }
+    @Override public void addNumCol(int colIdx, double d) { _sum += d; }
+    @Override public void addInvalidCol(int colIdx) { _sum++; }
+    @Override public void addNAs(int colIdx, int nrow) { _sum += nrow; }
+    @Override public void addStrCol(int colIdx, BufferedString str) { _sum += str.length(); }
+    @Override public void rollbackLine() { _lines--; }
+    @Override public void invalidLine(ParseErr err) {}
+    @Override public void addError(ParseErr err) {}
+    @Override public void setIsAllASCII(int colIdx, boolean b) {}
+    @Override public boolean hasErrors() { return false; }
+    @Override public ParseErr[] removeErrors() { return new ParseErr[0]; }
+    @Override public long lineNum() { return _lines; }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CsvParseBench.class.getSimpleName())
+        .build();
+    new Runner(opt).run();
+  }
+}
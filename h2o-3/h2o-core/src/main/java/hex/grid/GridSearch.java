@@ -14,6 +14,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayDeque;
 import java.util.Map;
 
 /**
@@ -30,8 +31,10 @@ import java.util.Map;
  *
  * The job is started by the <code>startGridSearch</code> method which create a new grid search, put
  * representation of Grid into distributed KV store, and for each parameter in hyper space of
- * possible parameters, it launches a separated model building job. The launch of jobs is sequential
- * and blocking. So after finish the last model, whole grid search job is done as well.
+ * possible parameters, it launches a separated model building job. By default the launch of jobs is
+ * sequential and blocking, so after finish the last model, whole grid search job is done as well.
+ * With {@link HyperSpaceSearchCriteria#parallelism()} above 1, several model builders run at the
+ * same time, as long as the cluster has enough free memory.
  *
  * By default, the grid search invokes cartezian grid search, but it can be
  * modified by passing explicit hyper space walk strategy via the
@@ -160,7 +163,9 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
   /**
    * Invokes grid search based on specified hyper space walk strategy.
    *
-   * It updates passed grid object in distributed store.
+   * It updates passed grid object in distributed store.  Up to {@link
+   * HyperSpaceSearchCriteria#parallelism()} models are built at the same time;
+   * the hyper space itself is always walked sequentially by this thread.
    *
    * @param grid grid object to save results; grid already locked
    */
@@ -171,12 +176,16 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     //                       ? grid._key + "_model_"
     //                       : _hyperSpaceWalker.getParams()._model_id.toString() + H2O.calcNextUniqueModelId("") + "_";
     String protoModelKey = grid._key + "_model_";
+    final int parallelism = Math.max(1, _hyperSpaceWalker.search_criteria().parallelism());
+    // Model builds in flight, oldest first
+    final ArrayDeque<ModelBuildTask> running = new ArrayDeque<>();
 
     try {
       // Get iterator to traverse hyper space
       HyperSpaceWalker.HyperSpaceIterator<MP> it = _hyperSpaceWalker.iterator();
       // Number of traversed model parameters
       int counter = grid.getModelCount();
+      walk:
       while (it.hasNext(model)) {
         if (_job.stop_requested()) throw new Job.JobCancelledException();  // Handle end-user cancel request
         double max_runtime_secs = it.max_runtime_secs();
@@ -190,14 +199,20 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
           }
         }
 
+        // Admission control: wait for a free slot, and do not start another
+        // model while the cluster is short on memory
+        while (!running.isEmpty() && (running.size() >= parallelism || !hasMemoryHeadroom())) {
+          ModelBuildTask done = running.poll();
+          done.join();
+          model = done._model;
+          if (stopEarly(model, grid)) break walk;
+        }
+
         MP params;
         try {
           // Get parameters for next model
           params = it.nextModelParameters(model);
 
-          // Sequential model building, should never propagate
-          // exception up, just mark combination of model parameters as wrong
-
           // Do we need to limit the model build time?
           if (max_runtime_secs > 0) {
             Log.info("Grid time is limited to: " + max_runtime_secs + " for grid: " + grid._key + ". Remaining time is: " + time_remaining_secs);
@@ -211,53 +226,132 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
               Log.info("Due to the grid time limit, changing model max runtime from: " + was + " secs to: " + params._max_runtime_secs + " secs.");
             }
           }
-
-          try {
-            ScoringInfo scoringInfo = new ScoringInfo();
-            scoringInfo.time_stamp_ms = System.currentTimeMillis();
-
-            //// build the model!
-            model = buildModel(params, grid, counter++, protoModelKey);
-
-            if (model!=null) {
-              model.fillScoringInfo(scoringInfo);
-              grid.setScoringInfos(ScoringInfo.prependScoringInfo(scoringInfo, grid.getScoringInfos()));
-              ScoringInfo.sort(grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric()); // Currently AUTO for Cartesian and user-specified for RandomDiscrete
-            }
-          } catch (RuntimeException e) { // Catch everything
-            if (!Job.isCancelledException(e)) {
-              StringWriter sw = new StringWriter();
-              PrintWriter pw = new PrintWriter(sw);
-              e.printStackTrace(pw);
-              Log.warn("Grid search: model builder for parameters " + params + " failed! Exception: ", e, sw.toString());
-            }
-            grid.appendFailedModelParameters(params, e);
-          }
         } catch (IllegalArgumentException e) {
           Log.warn("Grid search: construction of model parameters failed! Exception: ", e);
           // Model parameters cannot be constructed for some reason
           it.modelFailed(model);
           Object[] rawParams = it.getCurrentRawParameters();
-          grid.appendFailedModelParameters(rawParams, e);
-        } finally {
-          // Update progress by 1 increment
-          _job.update(1);
-          // Always update grid in DKV after model building attempt
-          grid.update(_job);
-        } // finally
+          synchronized (grid) {
+            grid.appendFailedModelParameters(rawParams, e);
+            // Update progress by 1 increment
+            _job.update(1);
+            // Always update grid in DKV after model building attempt
+            grid.update(_job);
+          }
+          continue;
+        }
 
-        if (model != null && grid.getScoringInfos() != null && // did model build and scoringInfo creation succeed?
-            _hyperSpaceWalker.stopEarly(model, grid.getScoringInfos())) {
-          Log.info("Convergence detected based on simple moving average of the loss function. Grid building completed.");
-          break;
+        ModelBuildTask task = new ModelBuildTask(params, grid, counter++, protoModelKey);
+        if (parallelism == 1) {
+          // Sequential model building, blocks until the model is done
+          task.compute2();
+          model = task._model;
+          if (stopEarly(model, grid)) break;
+        } else {
+          running.add(H2O.submitTask(task));
         }
       } // while (it.hasNext(model))
+      // Wait for the models still being built
+      while (!running.isEmpty())
+        running.poll().join();
       Log.info("For grid: " + grid._key + " built: " + grid.getModelCount() + " models.");
     } finally {
+      if (!running.isEmpty()) {
+        // Cancelled or failed: the builds are nested in the grid job, so
+        // stopping it stops them.  They still update the grid as they wind
+        // down, so wait for every one of them before unlocking the grid.
+        if (!_job.stop_requested()) _job.stop();
+        for (ModelBuildTask task : running) {
+          try { task.join(); } catch (RuntimeException ignore) { }
+        }
+      }
       grid.unlock(_job);
     }
   }
 
+  // Did the given model build and scoringInfo creation succeed, and has the search converged?
+  private boolean stopEarly(Model model, Grid<MP> grid) {
+    synchronized (grid) {
+      if (model != null && grid.getScoringInfos() != null &&
+          _hyperSpaceWalker.stopEarly(model, grid.getScoringInfos())) {
+        Log.info("Convergence detected based on simple moving average of the loss function. Grid building completed.");
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Only start another model build while the local node is not blocking
+  // allocations and the cluster had at least a quarter of its heap free as
+  // of the last heartbeats.
+  private static boolean hasMemoryHeadroom() {
+    if (!MemoryManager.canAlloc()) return false;
+    long free = 0, total = 0;
+    for (H2ONode node : H2O.CLOUD.members()) {
+      HeartBeat hb = node._heartbeat;
+      free += hb.get_free_mem();
+      total += hb.get_kv_mem() + hb.get_pojo_mem() + hb.get_free_mem();
+    }
+    return total == 0 || free >= total / 4;
+  }
+
+  /**
+   * Builds one model of the grid and records the outcome in the grid.  Never
+   * completes exceptionally: a failed build is recorded in the grid as a
+   * failed model parameters combination.  Several of these may run at once,
+   * so every update of the grid is done under the grid lock.
+   */
+  private class ModelBuildTask extends H2O.H2OCountedCompleter<ModelBuildTask> {
+    final MP _params;
+    final Grid<MP> _grid;
+    final int _paramsIdx;
+    final String _protoModelKey;
+    Model _model;
+
+    ModelBuildTask(MP params, Grid<MP> grid, int paramsIdx, String protoModelKey) {
+      _params = params;
+      _grid = grid;
+      _paramsIdx = paramsIdx;
+      _protoModelKey = protoModelKey;
+    }
+
+    @Override public void compute2() {
+      try {
+        ScoringInfo scoringInfo = new ScoringInfo();
+        scoringInfo.time_stamp_ms = System.currentTimeMillis();
+
+        //// build the model!
+        _model = buildModel(_params, _grid, _paramsIdx, _protoModelKey);
+
+        if (_model != null) {
+          _model.fillScoringInfo(scoringInfo);
+          synchronized (_grid) {
+            _grid.setScoringInfos(ScoringInfo.prependScoringInfo(scoringInfo, _grid.getScoringInfos()));
+            ScoringInfo.sort(_grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric()); // Currently AUTO for Cartesian and user-specified for RandomDiscrete
+          }
+        }
+      } catch (RuntimeException e) { // Catch everything
+        if (!Job.isCancelledException(e)) {
+          StringWriter sw = new StringWriter();
+          PrintWriter pw = new PrintWriter(sw);
+          e.printStackTrace(pw);
+          Log.warn("Grid search: model builder for parameters " + _params + " failed! Exception: ", e, sw.toString());
+        }
+        synchronized (_grid) {
+          _grid.appendFailedModelParameters(_params, e);
+        }
+      } finally {
+        synchronized (_grid) {
+          // Update progress by 1 increment
+          _job.update(1);
+          // Always update grid in DKV after model building attempt
+          _grid.update(_job);
+        }
+      }
+      tryComplete();
+    }
+  }
+
   /**
    * Build a model based on specified parameters and save it to resulting Grid object.
    *
@@ -337,8 +431,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     // Note: Cannot create it before checking the cache since checksum would differ for each model
     Key<Model> result = Key.make(protoModelKey + paramsIdx);
     // Build a new model
-    // THIS IS BLOCKING call since we do not have enough information about free resources
-    // FIXME: we should allow here any launching strategy (not only sequential)
+    // THIS IS BLOCKING call; parallel grids run several buildModel calls at once (see ModelBuildTask)
     Model m = (Model)startBuildModel(result,params, grid).dest().get();
     grid.putModel(checksum, result);
     return m;
@@ -16,6 +16,18 @@ public class HyperSpaceSearchCriteria extends Iced {
 
   public ScoreKeeper.StoppingMetric stopping_metric() { return ScoreKeeper.StoppingMetric.AUTO; }
 
+  private int _parallelism = 1;
+
+  /**
+   * Max number of models built at the same time. The default of 1 builds models one after another.
+   * Further models are only started while the cluster has enough free memory.
+   */
+  public int parallelism() { return _parallelism; }
+
+  public void set_parallelism(int parallelism) {
+    this._parallelism = parallelism;
+  }
+
 
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
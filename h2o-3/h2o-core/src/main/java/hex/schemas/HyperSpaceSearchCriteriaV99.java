@@ -16,6 +16,9 @@ public class HyperSpaceSearchCriteriaV99<I extends HyperSpaceSearchCriteria, S e
   @API(help = "Hyperparameter space search strategy.", required = true, values = { "Unknown", "Cartesian", "RandomDiscrete" }, direction = API.Direction.INOUT)
   public HyperSpaceSearchCriteria.Strategy strategy;
 
+  @API(help = "Maximum number of models to build at the same time; further models are started only while the cluster has enough free memory (optional, 1 builds models sequentially).", required = false, level = API.Level.secondary, direction = API.Direction.INOUT)
+  public int parallelism;
+
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
   /**
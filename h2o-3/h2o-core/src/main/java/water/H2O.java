@@ -99,6 +99,15 @@ final public class H2O {
             "    -ice_root <fileSystemPath>\n" +
             "          The directory where H2O spills temporary data to disk.\n" +
             "\n" +
+            "    -ice_mmap\n" +
+            "          Spill data into memory-mapped segment files in ice_root instead of\n" +
+            "          one file per spilled value.  Requires -cleaner.\n" +
+            "\n" +
+            "    -offheap_mb <megabytes>\n" +
+            "          Keep up to this much spilled data in native (off-heap) memory\n" +
+            "          before falling back to ice_root.  Requires -cleaner.\n" +
+            "          (The default is 0, no off-heap tier.)\n" +
+            "\n" +
             "    -log_dir <fileSystemPath>\n" +
             "          The directory where H2O writes logs to disk.\n" +
             "          (This usually has a good default that you need not change.)\n" +
@@ -299,6 +308,12 @@ final public class H2O {
     /** -cleaner; enable user-mode spilling of big data to disk in ice_root */
     public boolean cleaner = false;
 
+    /** -ice_mmap; spill to memory-mapped segment files in ice_root */
+    public boolean ice_mmap = false;
+
+    /** -offheap_mb=offheap_mb; native memory budget (in MB) for spilled data before it goes to ice_root */
+    public int offheap_mb = 0;
+
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     public short nthreads= (short)Runtime.getRuntime().availableProcessors();
 
@@ -565,6 +580,15 @@ final public class H2O {
       else if(s.matches("cleaner")) {
         trgt.cleaner = true;
       }
+      else if (s.matches("ice_mmap")) {
+        trgt.ice_mmap = true;
+      }
+      else if (s.matches("offheap_mb")) {
+        i = s.incrementAndCheck(i, args);
+        int offheap_mb = s.parseInt(args[i]);
+        if (offheap_mb < 0) parseFailed("Argument " + s + " must be a non-negative integer");
+        trgt.offheap_mb = offheap_mb;
+      }
       else if (s.matches("jks")) {
         i = s.incrementAndCheck(i, args);
         trgt.jks = args[i];
@@ -4,6 +4,7 @@ import jsr166y.CountedCompleter;
 import jsr166y.ForkJoinPool;
 import water.fvec.*;
 import water.util.DistributedException;
+import water.util.Log;
 import water.util.PrettyPrint;
 import water.fvec.Vec.VectorGroup;
 
@@ -179,6 +180,56 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** If true, run entirely local - which will pull all the data locally. */
   protected boolean _run_local;
 
+  /** How the results of the nodes are brought together on the calling node. */
+  public enum ReduceTopology {
+    /** Every node reduces the results of the 2 nodes it launched the task on into its own (the default). */
+    TREE,
+    /** For tasks with an array-shaped result ({@link ArrayReduction}): the arrays are reduce-scattered across
+     *  the nodes, then the summed segments are concatenated on the calling node; the rest of the result is
+     *  reduced as with {@link #TREE}.  Pays off for big arrays on big clouds. */
+    SCATTER
+  }
+
+  /** Default reduction topology of the tasks supporting {@link ReduceTopology#SCATTER}. */
+  public static final ReduceTopology DEFAULT_REDUCE_TOPOLOGY = defaultReduceTopology();
+
+  // -Dsys.ai.h2o.mrtask.reduceTopology; TREE when not a valid topology, rather than failing every MRTask
+  private static ReduceTopology defaultReduceTopology() {
+    String name = System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.reduceTopology", "TREE");
+    try {
+      return ReduceTopology.valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      Log.warn("Unknown MRTask reduce topology " + name + ", using " + ReduceTopology.TREE);
+      return ReduceTopology.TREE;
+    }
+  }
+
+  /** A task whose result holds a big array summed element-wise by reduce(); lets the array be reduced with
+   *  {@link ReduceTopology#SCATTER}.  With SCATTER, reduce() is given results without the array (the array
+   *  getter returns null there), the full array is set back into the final result before postGlobal(). */
+  public interface ArrayReduction {
+    /** @return the array-shaped part of this result, null if none */
+    double[] reduceArray();
+    /** Replaces the array-shaped part of this result. */
+    void setReduceArray(double[] ary);
+  }
+
+  transient private ReduceTopology _reduceTopology = DEFAULT_REDUCE_TOPOLOGY;
+
+  /** Sets the topology used to reduce the results of the nodes; {@link ReduceTopology#SCATTER} only applies to
+   *  tasks implementing {@link ArrayReduction}. */
+  public T withReduceTopology(ReduceTopology topology) { _reduceTopology = topology; return self(); }
+
+  /** Id of the reduce-scatter this task takes part in, null when reduced as a tree */
+  String _scatterId;
+  /** Index of the calling node, where the summed segments go */
+  short _scatterRoot;
+  transient private boolean _scattered;
+
+  /** Id of the trace recorded by {@link MRTaskTelemetry}, 0 when not recorded */
+  long _traceId;
+  transient MRTaskTelemetry.Recorder _rec; // Shared by the tasks of this node
+
   public String profString() { return _profile != null ? _profile.toString() : "Profiling turned off"; }
   MRProfile _profile;
 
@@ -406,6 +457,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _topGlobal = true;
     _keys = keys;
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
+    _scatterId = scatterId();
+    _scatterRoot = _nlo;
+    _traceId = MRTaskTelemetry.traceId(this);
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
   }
@@ -446,6 +500,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  for any length.
    */
   public final T dfork( byte[] types, Frame fr, boolean run_local) {
+    fr = LazyVec.materialize(fr); // map calls only see plain Vecs
     _topGlobal = true;
     _output_types = types;
     if( types != null && types.length > 0 )
@@ -453,6 +508,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _fr = fr;                   // Record vectors to work on
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
+    _scatterId = scatterId();
+    _scatterRoot = _nlo;
+    _traceId = MRTaskTelemetry.traceId(this);
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
     return self();
@@ -495,6 +553,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     return true;
   }
 
+  // Every node of the cloud takes part in a reduce-scatter, so not from a client nor when running local
+  private String scatterId() {
+    return _reduceTopology == ReduceTopology.SCATTER && this instanceof ArrayReduction && !_run_local && !H2O.ARGS.client
+        ? Key.rand() : null;
+  }
+
   /** Called once on remote at top level, probably with a subset of the cloud.
    *  Called internal by D/F/J.  Not expected to be user-called.  */
   @Override public final void dinvoke(H2ONode sender) {
@@ -511,6 +575,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void setupLocal0() {
     if(_profile != null)
       (_profile = new MRProfile(this))._localstart = System.currentTimeMillis();
+    if( _traceId != 0 ) _rec = MRTaskTelemetry.start(this, _traceId, _scatterRoot);
     // Make a blockable Futures for both internal and user work to block on.
     _fs = new Futures();
     if(modifiesVolatileVecs() && _fr != null){
@@ -598,7 +663,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _hi > _lo && _keys[_lo].home() ) {
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
+        final long t0 = _rec != null ? System.nanoTime() : 0;
         if( _keys != null ) map(_keys[_lo]);
+        if( _rec != null && _keys != null ) _rec.mapped(System.nanoTime() - t0, 0);
         _res = self();        // Save results since called map() at least once!
         if(_profile!=null) _profile._closestart = System.currentTimeMillis();
       }
@@ -630,6 +697,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         // Call all the various map() calls that apply
         if(_profile!=null)
           _profile._userstart = System.currentTimeMillis();
+        final long t0 = _rec != null ? System.nanoTime() : 0;
 
         int num_fr_vecs = _fr.vecs().length;
         int num_outputs = _output_types == null? 0 : _output_types.length;
@@ -655,6 +723,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         }
         if (num_outputs >= 0)
           map(bvs, appendableChunks);
+        if( _rec != null ) _rec.mapped(System.nanoTime() - t0, v0.chunkLen(_lo));
 
         _res = self();          // Save results since called map() at least once!
         // Further D/K/V put any new vec results.
@@ -705,13 +774,19 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    if( _rec != null && (_nleft != null || _nrite != null) ) _rec.remoteDone(); // Remote results are in
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
+    if( _scatterId != null ) scatter(); // Reduce-scatter the local array, before the (now smaller) remote results
     reduce3(_nleft);            // Reduce global results from neighbors.
     reduce3(_nrite);
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
+    if( _topGlobal && _scatterId != null ) { // Wait for the segments summed by every node, put the full array back
+      final double[][] segs = ReduceScatter.gather(_scatterId);
+      if( _res != null ) ((ArrayReduction)_res).setReduceArray(segs == null ? null : ReduceScatter.assemble(segs));
+    }
     // Finally, must return all results in 'this' because that is the API -
     // what the user expects
     if( _res == null ) _nhi=-1; // Flag for no local results *at all*
@@ -724,7 +799,19 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _fr.postWrite(_fs).blockForPending();
       postGlobal();             // User's continuation work
     }
+    if( _rec != null ) _rec.done(false);
+
+  }
 
+  // Send the segments of the local array to their nodes, which send their
+  // sums on to the calling node.  The array is dropped from the local result,
+  // so the tree only carries the rest of the result.  Nothing waits here, only
+  // the calling node waits for the sums, once all the nodes are done.
+  private void scatter() {
+    final double[] ary = _res == null ? null : ((ArrayReduction)_res).reduceArray();
+    if( ary != null ) ((ArrayReduction)_res).setReduceArray(null);
+    ReduceScatter.scatter(_scatterId, H2O.CLOUD._memary[_scatterRoot], ary, _fs);
+    _scattered = true;
   }
 
   // Block for RPCs to complete, then reduce global results into self results
@@ -737,6 +824,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // blocks.  Not much can be asserted there.
     if(_profile!=null)
       _profile.gather(mrt._profile, rpc.size_rez());
+    if( _rec != null ) _rec.received(rpc.size_rez());
     // Unlike reduce2, results are in mrt directly not mrt._res.
     if( mrt._nhi != -1L ) {     // Any results at all?
       if( _res == null ) _res = mrt;
@@ -753,7 +841,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _appendables[i].reduce(mrt._appendables[i]);
     if( _ex == null ) _ex = mrt._ex;
     // User's reduction
+    final long t0 = _rec != null ? System.nanoTime() : 0;
     reduce(mrt);
+    if( _rec != null ) _rec.reduced(System.nanoTime() - t0);
   }
 
   // Full local work-tree cancellation
@@ -768,6 +858,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  expected to be user-called.  */
   @Override public final boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
     self_cancel1();
+    if( _topLocal && _rec != null ) _rec.done(true);
+    // Do not leave the other nodes waiting for the segments of this node
+    if( _topLocal && _scatterId != null && !_scattered ) {
+      _scattered = true;
+      ReduceScatter.abort(_scatterId);
+    } else if( _topGlobal && _scatterId != null ) // Nobody gathers the sums still on their way
+      ReduceScatter.release(_scatterId);
     // Block for completion - we don't want the work, but we want all the
     // workers stopped before we complete this task.  Otherwise this task quits
     // early and begins post-task processing (generally cleanup from the
@@ -0,0 +1,236 @@
+package water;
+
+import water.util.ArrayUtils;
+import water.util.PrettyPrint;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flight recorder of {@link MRTask} executions.
+ *
+ * When turned on (with {@code -Dsys.ai.h2o.mrtask.telemetry=true}, or at runtime with {@link #setEnabledAll}),
+ * every node taking part in an MRTask records the time spent in map() and reduce(), the time spent waiting for the
+ * results of the remote nodes once done with its own work (slower remote work, serialization and network), the
+ * bytes of these results and the number of chunks and rows mapped.  Each node keeps its last {@code sys.ai.h2o.mrtask.telemetry.capacity} records (10000
+ * by default) in memory, {@link #collect} brings the records of all the nodes together.
+ *
+ * Only the calling node needs the recording turned on: the id of the trace travels with the task.
+ */
+public final class MRTaskTelemetry {
+  private MRTaskTelemetry() {}
+
+  public static final String ENABLED_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.telemetry";
+  private static final int CAPACITY = H2O.OptArgs.getSysPropInt("mrtask.telemetry.capacity", 10000);
+
+  private static volatile boolean _enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+  private static final AtomicLong SEQ = new AtomicLong();
+  private static final ArrayDeque<Record> RECORDS = new ArrayDeque<>();
+
+  public static boolean isEnabled() { return _enabled; }
+
+  /** Turns the recording of the tasks called from this node on or off. */
+  public static void setEnabled(boolean enabled) { _enabled = enabled; }
+
+  /** Turns the recording on or off on all the nodes of the cloud. */
+  public static void setEnabledAll(boolean enabled) { new EnableTask(enabled).doAllNodes(); }
+
+  /** Id of the trace of a task called from this node, 0 when not recorded. */
+  static long traceId(MRTask task) {
+    if( !_enabled || task instanceof CollectTask || task instanceof EnableTask ) return 0;
+    return ((long) (H2O.SELF.index() + 1) << 48) | (SEQ.incrementAndGet() & 0xFFFFFFFFFFFFL);
+  }
+
+  /** Node-local record of a task, filled concurrently by the map and reduce calls of this node. */
+  static Recorder start(MRTask task, long traceId, int caller) { return new Recorder(task, traceId, caller); }
+
+  /** Drops all the records of this node. */
+  public static void clear() { synchronized (RECORDS) { RECORDS.clear(); } }
+
+  /** Records of this node, oldest first. */
+  public static Record[] localRecords() { synchronized (RECORDS) { return RECORDS.toArray(new Record[RECORDS.size()]); } }
+
+  /** Records of all the nodes with some activity within {@code [from, to]} (ms since epoch), by start time. */
+  public static Record[] collect(long from, long to) {
+    Record[] recs = new CollectTask(from, to).doAllNodes()._records;
+    if( recs == null ) return new Record[0];
+    Arrays.sort(recs, new Comparator<Record>() {
+      @Override public int compare(Record a, Record b) {
+        return a._start != b._start ? Long.compare(a._start, b._start) : Integer.compare(a._node, b._node);
+      }
+    });
+    return recs;
+  }
+
+  /** What one node did for one task. */
+  public static final class Record extends Iced<Record> {
+    public String _task;          // Class of the task
+    public long _traceId;         // Same for all the nodes running a task
+    public int _node;             // Node of this record
+    public int _caller;           // Node which called the task
+    public long _start, _end;     // ms since epoch, from the local setup to the end of the reduction on this node
+    public long _mapNanos;        // Time in map(), summed over the chunks
+    public long _reduceNanos;     // Time in reduce()
+    public long _remoteWaitNanos; // Time waiting for the results of the remote nodes once done with the local work
+    public long _chunks, _rows;   // Mapped on this node
+    public long _bytesIn;         // Results received from the remote nodes
+    public boolean _failed;
+
+    @Override public String toString() {
+      return _task + " #" + Long.toHexString(_traceId) + " on " + _node + ": " + (_end - _start) + "ms, map " +
+          PrettyPrint.msecs(_mapNanos / 1000000, true) + ", reduce " + PrettyPrint.msecs(_reduceNanos / 1000000, true) +
+          ", remote wait " + PrettyPrint.msecs(_remoteWaitNanos / 1000000, true) + ", " + _chunks + " chunks, " +
+          _rows + " rows, " + PrettyPrint.bytes(_bytesIn) + " in" + (_failed ? ", FAILED" : "");
+    }
+  }
+
+  /** Totals of the records of each task class. */
+  public static final class Summary extends Iced<Summary> {
+    public String _task;
+    public int _calls;            // Distinct traces
+    public long _wallMillis;      // Summed over the calls, from the first start to the last end over the nodes
+    public long _mapNanos, _reduceNanos, _remoteWaitNanos;
+    public long _chunks, _rows, _bytesIn;
+    public int _failed;
+  }
+
+  /** Totals by task class, the most time consuming first. */
+  public static Summary[] summarize(Record[] recs) {
+    LinkedHashMap<String, Summary> byTask = new LinkedHashMap<>();
+    LinkedHashMap<Long, long[]> spans = new LinkedHashMap<>();
+    LinkedHashMap<Long, String> traceTask = new LinkedHashMap<>();
+    for( Record r : recs ) {
+      Summary s = byTask.get(r._task);
+      if( s == null ) { byTask.put(r._task, s = new Summary()); s._task = r._task; }
+      s._mapNanos += r._mapNanos;
+      s._reduceNanos += r._reduceNanos;
+      s._remoteWaitNanos += r._remoteWaitNanos;
+      s._chunks += r._chunks;
+      s._rows += r._rows;
+      s._bytesIn += r._bytesIn;
+      if( r._failed ) s._failed++;
+      long[] span = spans.get(r._traceId);
+      if( span == null ) { spans.put(r._traceId, new long[]{r._start, r._end}); traceTask.put(r._traceId, r._task); }
+      else { span[0] = Math.min(span[0], r._start); span[1] = Math.max(span[1], r._end); }
+    }
+    for( Long id : spans.keySet() ) {
+      Summary s = byTask.get(traceTask.get(id));
+      long[] span = spans.get(id);
+      s._calls++;
+      s._wallMillis += span[1] - span[0];
+    }
+    Summary[] res = byTask.values().toArray(new Summary[byTask.size()]);
+    Arrays.sort(res, new Comparator<Summary>() {
+      @Override public int compare(Summary a, Summary b) { return Long.compare(b._wallMillis, a._wallMillis); }
+    });
+    return res;
+  }
+
+  /**
+   * Writes the records in the Chrome trace event format (load it in chrome://tracing or Perfetto): one process per
+   * node, one complete event per record, on a thread per trace so that the nodes of a task line up.
+   */
+  public static void writeChromeTrace(Record[] recs, Writer w) throws IOException {
+    w.write("{\"traceEvents\":[");
+    boolean first = true;
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    for( int i = 0; i < nodes.length; i++, first = false ) {
+      if( !first ) w.write(',');
+      w.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":" + i + ",\"args\":{\"name\":\"" + nodes[i] + "\"}}");
+    }
+    for( Record r : recs ) {
+      if( !first ) w.write(',');
+      first = false;
+      w.write("{\"name\":\"" + r._task + "\",\"cat\":\"mrtask\",\"ph\":\"X\"" +
+          ",\"ts\":" + r._start * 1000 + ",\"dur\":" + Math.max(r._end - r._start, 0) * 1000 +
+          ",\"pid\":" + r._node + ",\"tid\":" + (r._traceId & 0xFFFFFFFFFFFFL) +
+          ",\"args\":{\"trace\":\"" + Long.toHexString(r._traceId) + "\",\"caller\":" + r._caller +
+          ",\"map_ms\":" + r._mapNanos / 1e6 + ",\"reduce_ms\":" + r._reduceNanos / 1e6 +
+          ",\"remote_wait_ms\":" + r._remoteWaitNanos / 1e6 + ",\"chunks\":" + r._chunks + ",\"rows\":" + r._rows +
+          ",\"bytes_in\":" + r._bytesIn + ",\"failed\":" + r._failed + "}}");
+    }
+    w.write("],\"displayTimeUnit\":\"ms\"}");
+    w.flush();
+  }
+
+  static final class Recorder {
+    private final String _task;
+    private final long _traceId;
+    private final int _caller;
+    private final long _start = System.currentTimeMillis();
+    private final AtomicLong _mapNanos = new AtomicLong(), _reduceNanos = new AtomicLong(), _remoteWaitNanos = new AtomicLong();
+    private final AtomicLong _chunks = new AtomicLong(), _rows = new AtomicLong(), _bytesIn = new AtomicLong();
+    private final AtomicLong _lastLocal = new AtomicLong(System.nanoTime()); // End of the last local map or reduce
+    private final AtomicBoolean _done = new AtomicBoolean();
+
+    private Recorder(MRTask task, long traceId, int caller) {
+      _task = task.getClass().getName();
+      _traceId = traceId;
+      _caller = caller;
+    }
+
+    void mapped(long nanos, int rows) { _mapNanos.addAndGet(nanos); _chunks.incrementAndGet(); _rows.addAndGet(rows); local(); }
+    void reduced(long nanos) { _reduceNanos.addAndGet(nanos); local(); }
+    void received(int bytes) { _bytesIn.addAndGet(bytes); }
+    // The results of the remote nodes are in: time since the local work was done
+    void remoteDone() { _remoteWaitNanos.set(Math.max(0, System.nanoTime() - _lastLocal.get())); }
+
+    private void local() {
+      long now = System.nanoTime(), last;
+      while( (last = _lastLocal.get()) < now && !_lastLocal.compareAndSet(last, now) ) ;
+    }
+
+    void done(boolean failed) {
+      if( !_done.compareAndSet(false, true) ) return;
+      Record r = new Record();
+      r._task = _task;
+      r._traceId = _traceId;
+      r._node = H2O.SELF.index();
+      r._caller = _caller;
+      r._start = _start;
+      r._end = System.currentTimeMillis();
+      r._mapNanos = _mapNanos.get();
+      r._reduceNanos = _reduceNanos.get();
+      r._remoteWaitNanos = _remoteWaitNanos.get();
+      r._chunks = _chunks.get();
+      r._rows = _rows.get();
+      r._bytesIn = _bytesIn.get();
+      r._failed = failed;
+      synchronized (RECORDS) {
+        if( RECORDS.size() >= CAPACITY ) RECORDS.pollFirst();
+        RECORDS.addLast(r);
+      }
+    }
+  }
+
+  static final class CollectTask extends MRTask<CollectTask> {
+    final long _from, _to;
+    Record[] _records;
+    CollectTask(long from, long to) { super(H2O.GUI_PRIORITY); _from = from; _to = to; }
+
+    @Override protected void setupLocal() {
+      ArrayList<Record> recs = new ArrayList<>();
+      for( Record r : localRecords() )
+        if( r._end >= _from && r._start <= _to ) recs.add(r);
+      _records = recs.toArray(new Record[recs.size()]);
+    }
+
+    @Override public void reduce(CollectTask mrt) {
+      if( _records == null ) _records = mrt._records;
+      else if( mrt._records != null ) _records = ArrayUtils.append(_records, mrt._records);
+    }
+  }
+
+  static final class EnableTask extends MRTask<EnableTask> {
+    final boolean _enable;
+    EnableTask(boolean enable) { super(H2O.GUI_PRIORITY); _enable = enable; }
+    @Override protected void setupLocal() { setEnabled(_enable); }
+  }
+}
@@ -9,6 +9,7 @@ import jsr166y.ForkJoinPool.ManagedBlocker;
 import jsr166y.ForkJoinPool;
 import water.util.Log;
 import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
 
 /**
  * Manages memory assigned to key/value pairs. All byte arrays used in
@@ -79,7 +80,7 @@ abstract public class MemoryManager {
     // NO LOGGING UNDER LOCK!
     Log.warn("Pausing to swap to disk; more memory may help");
   }
-  static boolean canAlloc() { return CAN_ALLOC; }
+  public static boolean canAlloc() { return CAN_ALLOC; }
 
   static void set_goals( String msg, boolean oom){
     set_goals(msg, oom, 0);
@@ -152,7 +153,7 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(H2O.ARGS.offheap_mb > 0 ? ", OFFHEAP:"+PrettyPrint.bytes(offHeapUsed()) : "")+(oom?" OOM!":" NO-OOM");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
@@ -300,6 +301,40 @@ abstract public class MemoryManager {
   public static float  [] arrayCopyOf( float [] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
   public static double [] arrayCopyOf( double[] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
 
+  // Native memory handed out to the off-heap K/V tier (see
+  // water.persist.PersistOffHeap).  It is not part of the Java heap, so it is
+  // not counted in the GC-driven cache goals above; instead it is capped by
+  // the -offheap_mb budget.
+  private static final AtomicLong _offHeapUsed = new AtomicLong();
+  public static long offHeapUsed() { return _offHeapUsed.get(); }
+  public static long offHeapMax () { return (long)H2O.ARGS.offheap_mb << 20; }
+
+  /**
+   * Allocate native memory for the off-heap tier.  Never blocks; returns 0 if
+   * the request does not fit in the remaining -offheap_mb budget or the OS
+   * refuses the allocation, and the caller is expected to fall back to disk.
+   *
+   * @param bytes - requested number of bytes
+   * @return address of the native memory block, or 0
+   */
+  public static long mallocOffHeap(long bytes) {
+    assert bytes > 0 : "Bad size " + bytes;
+    final long max = offHeapMax();
+    while( true ) {
+      long used = _offHeapUsed.get();
+      if( used + bytes > max ) return 0;
+      if( _offHeapUsed.compareAndSet(used, used + bytes) ) break;
+    }
+    try { return UnsafeUtils.allocateMemory(bytes); }
+    catch( OutOfMemoryError e ) { _offHeapUsed.addAndGet(-bytes); return 0; }
+  }
+
+  /** Release native memory obtained from {@link #mallocOffHeap}. */
+  public static void freeOffHeap(long addr, long bytes) {
+    UnsafeUtils.freeMemory(addr);
+    _offHeapUsed.addAndGet(-bytes);
+  }
+
   // Memory available for tasks (we assume 3/4 of the heap is available for tasks)
   static final AtomicLong _taskMem = new AtomicLong(MEM_MAX-(MEM_MAX>>2));
 
@@ -0,0 +1,192 @@
+package water;
+
+import jsr166y.ForkJoinPool;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Reduce-scatter of the array-shaped results of an {@link MRTask} (see {@link MRTask.ReduceTopology#SCATTER}).
+ *
+ * The array is cut into one segment per node of the cloud.  Once done with its work, every node sends segment k of
+ * its array to node k.  Node k sums the segments it receives and, once it has heard from every node, sends the sum
+ * to the calling node, which concatenates the sums.  Every node sends about one array worth of bytes and the calling
+ * node receives one array worth of bytes whatever the size of the cloud, while with the tree reduction every node
+ * receives the full arrays of its children and the depth of the tree adds up on the critical path.
+ */
+final class ReduceScatter {
+  private ReduceScatter() {}
+
+  // State of the reductions in flight on this node, by id
+  private static final NonBlockingHashMap<String, Reduction> REDUCTIONS = new NonBlockingHashMap<>();
+
+  /** Number of reductions this node keeps state for. */
+  static int inFlight() { return REDUCTIONS.size(); }
+
+  /** Start of segment {@code k} of an array of length {@code len} split across {@code nodes} nodes. */
+  static int segmentStart(int len, int nodes, int k) { return (int) ((long) len * k / nodes); }
+
+  /** Sends segment k of {@code ary} (nothing but a count when null) to node k of the cloud. */
+  static void scatter(String id, H2ONode root, double[] ary, Futures fs) {
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    if (root == H2O.SELF) reduction(id).setRoot();
+    for (int k = 0; k < nodes.length; k++) {
+      double[] seg = ary == null ? null
+          : Arrays.copyOfRange(ary, segmentStart(ary.length, nodes.length, k), segmentStart(ary.length, nodes.length, k + 1));
+      RPC<SegmentTask> rpc = send(nodes[k], new SegmentTask(id, root, -1, seg, false));
+      if (rpc != null) fs.add(rpc);
+    }
+  }
+
+  /** Releases the state of a reduction which will not complete because of a failure. */
+  static void abort(String id) {
+    for (H2ONode node : H2O.CLOUD.members())
+      send(node, new SegmentTask(id, null, -1, null, true));
+  }
+
+  /** Blocks on the calling node until the segments summed by every node arrived.
+   *  @return the sums by node */
+  static double[][] gather(String id) {
+    Reduction r = reduction(id);
+    try { ForkJoinPool.managedBlock(r); } catch (InterruptedException ignore) { }
+    r.release();
+    settle(id, r);
+    if (r._failed) throw new RuntimeException("Reduce-scatter " + id + " aborted by a failed node");
+    return r._sums;
+  }
+
+  /** Gives up on the sums on the calling node, failed after sending its segments; the sums still on their way are
+   *  dropped. */
+  static void release(String id) {
+    Reduction r = REDUCTIONS.get(id);
+    if (r == null) return;      // Gathered already
+    r.release();
+    settle(id, r);
+  }
+
+  /** Concatenates the summed segments of all the nodes, null if none had an array. */
+  static double[] assemble(double[][] segs) {
+    int len = 0;
+    for (double[] seg : segs) {
+      if (seg == null) return null;
+      len += seg.length;
+    }
+    double[] res = MemoryManager.malloc8d(len);
+    for (int k = 0, off = 0; k < segs.length; off += segs[k++].length)
+      System.arraycopy(segs[k], 0, res, off, segs[k].length);
+    return res;
+  }
+
+  private static RPC<SegmentTask> send(H2ONode node, SegmentTask task) {
+    if (node != H2O.SELF) return new RPC<>(node, task).call();
+    task.receive();
+    return null;
+  }
+
+  // Forgets a reduction once no message about it can arrive anymore and nobody waits on it
+  private static void settle(String id, Reduction r) {
+    if (r.settled()) REDUCTIONS.remove(id, r);
+  }
+
+  private static Reduction reduction(String id) {
+    Reduction r = REDUCTIONS.get(id);
+    if (r == null) {
+      Reduction old = REDUCTIONS.putIfAbsent(id, r = new Reduction());
+      if (old != null) r = old;
+    }
+    return r;
+  }
+
+  // The segment summed by this node and, on the calling node, the sums of all the nodes
+  private static final class Reduction implements ForkJoinPool.ManagedBlocker {
+    private double[] _sum;
+    private int _parts;
+    private double[][] _sums;
+    private int _nsums;
+    private int _aborts;        // Nodes which failed instead of sending their segments
+    private boolean _failed;    // Tombstone of an aborted reduction, late segments are dropped
+    private boolean _root;      // On the calling node
+    private boolean _released;  // The calling node is done with the sums, late sums are dropped
+
+    // Adds a part of the segment of this node; returns the sum once all the parts are in, else null
+    synchronized boolean addPart(double[] seg) {
+      ++_parts;
+      if (_failed) return false;
+      if (_sum == null) _sum = seg;
+      else if (seg != null) for (int i = 0; i < seg.length; i++) _sum[i] += seg[i];
+      return _parts == H2O.CLOUD.size();
+    }
+
+    synchronized void addSum(int node, double[] sum) {
+      _nsums++;
+      if (_failed || _released) return;
+      if (_sums == null) _sums = new double[H2O.CLOUD.size()][];
+      _sums[node] = sum;
+      notifyAll();
+    }
+
+    synchronized void fail() {
+      _aborts++;
+      _failed = true;
+      _sum = null;
+      _sums = null;
+      notifyAll();
+    }
+
+    synchronized void setRoot() { _root = true; }
+
+    synchronized void release() { _released = true; }
+
+    // Every node sent its segment or gave up and, on the calling node, the sums are in (none are sent once a node
+    // gave up) and taken
+    synchronized boolean settled() {
+      final int nodes = H2O.CLOUD.size();
+      if (_parts + _aborts < nodes) return false;
+      return !_root || (_released && (_aborts > 0 || _nsums == nodes));
+    }
+
+    @Override public synchronized boolean isReleasable() { return _failed || _nsums == H2O.CLOUD.size(); }
+
+    @Override public synchronized boolean block() throws InterruptedException {
+      while (!isReleasable()) wait();
+      return true;
+    }
+  }
+
+  static final class SegmentTask extends DTask<SegmentTask> {
+    String _id;
+    H2ONode _root;              // Node the sums go to
+    int _node;                  // Node which summed the segment, -1 for a part of the segment of the receiver
+    double[] _seg;
+    boolean _failed;
+
+    SegmentTask(String id, H2ONode root, int node, double[] seg, boolean failed) {
+      super(H2O.MIN_HI_PRIORITY);
+      _id = id;
+      _root = root;
+      _node = node;
+      _seg = seg;
+      _failed = failed;
+    }
+
+    @Override public void compute2() {
+      receive();
+      _seg = null;              // Nothing to send back
+      tryComplete();
+    }
+
+    void receive() {
+      final Reduction r = reduction(_id);
+      if (_failed) r.fail();
+      else if (_node >= 0) r.addSum(_node, _seg);
+      else if (r.addPart(_seg)) { // Last part of the segment of this node, on to the calling node
+        final double[] sum = r._sum;
+        r._sum = null;
+        send(_root, new SegmentTask(_id, _root, H2O.SELF.index(), sum, false));
+      }
+      settle(_id, r);
+    }
+
+    @Override public boolean logVerbose() { return false; }
+  }
+}
@@ -0,0 +1,91 @@
+package water.api;
+
+import water.Job;
+import water.MRTaskTelemetry;
+import water.api.schemas3.MRTaskProfileV3;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public class MRTaskProfileHandler extends Handler {
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public MRTaskProfileV3 fetch(int version, MRTaskProfileV3 s) {
+    MRTaskTelemetry.Record[] recs = records(s);
+    MRTaskTelemetry.Summary[] sums = MRTaskTelemetry.summarize(recs);
+    s.tasks = new MRTaskProfileV3.TaskSummaryV3[sums.length];
+    for (int i = 0; i < sums.length; i++) {
+      MRTaskTelemetry.Summary m = sums[i];
+      MRTaskProfileV3.TaskSummaryV3 t = new MRTaskProfileV3.TaskSummaryV3();
+      t.task = m._task;
+      t.calls = m._calls;
+      t.wall_ms = m._wallMillis;
+      t.map_ms = m._mapNanos / 1e6;
+      t.reduce_ms = m._reduceNanos / 1e6;
+      t.remote_wait_ms = m._remoteWaitNanos / 1e6;
+      t.chunks = m._chunks;
+      t.rows = m._rows;
+      t.bytes = m._bytesIn;
+      t.failed = m._failed;
+      s.tasks[i] = t;
+    }
+    s.records = new MRTaskProfileV3.TaskRecordV3[recs.length];
+    for (int i = 0; i < recs.length; i++) {
+      MRTaskTelemetry.Record r = recs[i];
+      MRTaskProfileV3.TaskRecordV3 t = new MRTaskProfileV3.TaskRecordV3();
+      t.task = r._task;
+      t.trace = Long.toHexString(r._traceId);
+      t.node = r._node;
+      t.caller = r._caller;
+      t.start = r._start;
+      t.end = r._end;
+      t.map_ms = r._mapNanos / 1e6;
+      t.reduce_ms = r._reduceNanos / 1e6;
+      t.remote_wait_ms = r._remoteWaitNanos / 1e6;
+      t.chunks = r._chunks;
+      t.rows = r._rows;
+      t.bytes_in = r._bytesIn;
+      t.failed = r._failed;
+      s.records[i] = t;
+    }
+    s.enabled = MRTaskTelemetry.isEnabled();
+    return s;
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public StreamingSchema fetchTrace(int version, MRTaskProfileV3 s) {
+    final MRTaskTelemetry.Record[] recs = records(s);
+    return new StreamingSchema(new StreamWriter() {
+      @Override public void writeTo(OutputStream os) {
+        try {
+          Writer w = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+          MRTaskTelemetry.writeChromeTrace(recs, w);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }, "mrtask_trace.json");
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public MRTaskProfileV3 update(int version, MRTaskProfileV3 s) {
+    MRTaskTelemetry.setEnabledAll(s.enabled);
+    s.enabled = MRTaskTelemetry.isEnabled();
+    return s;
+  }
+
+  private static MRTaskTelemetry.Record[] records(MRTaskProfileV3 s) {
+    long from = s.since, to = Long.MAX_VALUE;
+    if (s.job_id != null && s.job_id.key() != null) {
+      Job j = getFromDKV("job_id", s.job_id.key(), Job.class);
+      if (j.isRunning() || j.isStopped()) {
+        from = Math.max(from, j.start_time());
+        if (j.isStopped()) to = j.end_time();
+      } else
+        to = -1;                  // Not started yet, nothing to report
+    }
+    return MRTaskTelemetry.collect(from, to);
+  }
+}
@@ -87,6 +87,18 @@ public class RegisterV3Api extends AbstractRegister {
             "GET /3/Profiler", ProfilerHandler.class, "fetch",
             "Report real-time profiling information for all nodes (sorted, aggregated stack traces).");
 
+    context.registerEndpoint("mrtaskProfile",
+            "GET /3/MRTaskProfile", MRTaskProfileHandler.class, "fetch",
+            "Report the time, rows and bytes of the recorded MRTasks, by task and by node.");
+
+    context.registerEndpoint("mrtaskProfileTrace",
+            "GET /3/MRTaskProfile/trace", MRTaskProfileHandler.class, "fetchTrace",
+            "Download the recorded MRTasks in the Chrome trace event format.");
+
+    context.registerEndpoint("mrtaskProfileUpdate",
+            "POST /3/MRTaskProfile", MRTaskProfileHandler.class, "update",
+            "Turn the recording of MRTasks on or off on all nodes.");
+
     context.registerEndpoint("stacktraces",
             "GET /3/JStack", JStackHandler.class, "fetch",
             "Report stack traces for all threads on all nodes.");
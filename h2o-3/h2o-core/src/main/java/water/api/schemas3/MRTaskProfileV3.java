@@ -0,0 +1,95 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+
+public class MRTaskProfileV3 extends RequestSchemaV3<Iced, MRTaskProfileV3> {
+
+  public static class TaskSummaryV3 extends SchemaV3<Iced, TaskSummaryV3> {
+    @API(help="Task class", direction=API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Number of calls of the task", direction=API.Direction.OUTPUT)
+    public int calls;
+
+    @API(help="Wall time of the calls, from the first start to the last end over the nodes (ms)", direction=API.Direction.OUTPUT)
+    public long wall_ms;
+
+    @API(help="Time in map(), summed over the chunks and nodes (ms)", direction=API.Direction.OUTPUT)
+    public double map_ms;
+
+    @API(help="Time in reduce(), summed over the nodes (ms)", direction=API.Direction.OUTPUT)
+    public double reduce_ms;
+
+    @API(help="Time waiting for the results of remote nodes once done with the local work, summed over the nodes (ms)", direction=API.Direction.OUTPUT)
+    public double remote_wait_ms;
+
+    @API(help="Chunks mapped", direction=API.Direction.OUTPUT)
+    public long chunks;
+
+    @API(help="Rows mapped", direction=API.Direction.OUTPUT)
+    public long rows;
+
+    @API(help="Bytes of the results moved between nodes", direction=API.Direction.OUTPUT)
+    public long bytes;
+
+    @API(help="Number of failed node runs", direction=API.Direction.OUTPUT)
+    public int failed;
+  }
+
+  public static class TaskRecordV3 extends SchemaV3<Iced, TaskRecordV3> {
+    @API(help="Task class", direction=API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Trace id, the same on all the nodes running a call", direction=API.Direction.OUTPUT)
+    public String trace;
+
+    @API(help="Node index", direction=API.Direction.OUTPUT)
+    public int node;
+
+    @API(help="Index of the calling node", direction=API.Direction.OUTPUT)
+    public int caller;
+
+    @API(help="Start on this node (millis since epoch)", direction=API.Direction.OUTPUT)
+    public long start;
+
+    @API(help="End on this node (millis since epoch)", direction=API.Direction.OUTPUT)
+    public long end;
+
+    @API(help="Time in map(), summed over the chunks (ms)", direction=API.Direction.OUTPUT)
+    public double map_ms;
+
+    @API(help="Time in reduce() (ms)", direction=API.Direction.OUTPUT)
+    public double reduce_ms;
+
+    @API(help="Time waiting for the results of remote nodes once done with the local work (ms)", direction=API.Direction.OUTPUT)
+    public double remote_wait_ms;
+
+    @API(help="Chunks mapped", direction=API.Direction.OUTPUT)
+    public long chunks;
+
+    @API(help="Rows mapped", direction=API.Direction.OUTPUT)
+    public long rows;
+
+    @API(help="Bytes of the results received from remote nodes", direction=API.Direction.OUTPUT)
+    public long bytes_in;
+
+    @API(help="Whether the task failed on this node", direction=API.Direction.OUTPUT)
+    public boolean failed;
+  }
+
+  @API(help="Optional Job identifier, only report the tasks running while the job ran")
+  public KeyV3.JobKeyV3 job_id;
+
+  @API(help="Only report the tasks running since this time (millis since epoch)")
+  public long since;
+
+  @API(help="Whether MRTasks are recorded; set it with POST to turn the recording on or off on all nodes", direction=API.Direction.INOUT)
+  public boolean enabled;
+
+  @API(help="Totals by task class, the most time consuming first", direction=API.Direction.OUTPUT)
+  public TaskSummaryV3[] tasks;
+
+  @API(help="Records of each task on each node, by start time", direction=API.Direction.OUTPUT)
+  public TaskRecordV3[] records;
+}
@@ -72,6 +72,12 @@ public class C0DChunk extends Chunk {
   }
 
 
+  @Override public int getNAs(long [] mask, int from, int to){
+    boolean na = Double.isNaN(_con);
+    fillNAs(mask, to - from, na);
+    return na ? to - from : 0;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to){
     if(_con == 0)
@@ -30,6 +30,17 @@ public class C1Chunk extends Chunk {
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) { return false; }
   @Override boolean setNA_impl(int idx) { _mem[idx+_OFF] = (byte)_NA; return true; }
+  @Override boolean remap_impl(int[] map) {
+    for( int i = 0; i < _len; i++ ) {
+      int x = 0xFF&_mem[i+_OFF];
+      if( x != _NA && !(x < map.length && 0 <= map[x] && map[x] < _NA) ) return false;
+    }
+    for( int i = 0; i < _len; i++ ) {
+      int x = 0xFF&_mem[i+_OFF];
+      if( x != _NA ) _mem[i+_OFF] = (byte)map[x];
+    }
+    return true;
+  }
 
   @Override public void initFromBytes(){
     _start = -1;  _cidx = -1;
@@ -62,6 +73,14 @@ public class C1Chunk extends Chunk {
     return vals;
   }
 
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[i];
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
+
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
       int x = 0xFF&_mem[i];
@@ -69,6 +88,16 @@ public class C1Chunk extends Chunk {
     }
     return vals;
   }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if((0xFF&_mem[i+_OFF]) == _NA) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
 
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
@@ -1,5 +1,7 @@
 package water.fvec;
 
+import java.util.Arrays;
+
 /**
  * The empty-compression function, if all elements fit directly on UNSIGNED bytes.
  * [In particular, this is the compression style for data read in from files.]
@@ -14,6 +16,15 @@ public class C1NChunk extends Chunk {
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) { return false; }
   @Override boolean setNA_impl(int idx) { return false; }
+  @Override boolean remap_impl(int[] map) {
+    for( int i = 0; i < _len; i++ ) {
+      int x = 0xFF&_mem[i];
+      if( !(x < map.length && 0 <= map[x] && map[x] <= 255) ) return false;
+    }
+    for( int i = 0; i < _len; i++ )
+      _mem[i] = (byte)map[0xFF&_mem[i]];
+    return true;
+  }
 
   // Custom serializers: the _mem field contains ALL the fields already.
   // Init _start to -1, so we know we have not filled in other fields.
@@ -32,6 +43,15 @@ public class C1NChunk extends Chunk {
     for (int i : ids) vals[k++] = _mem[i] & 0xFF;
     return vals;
   }
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; ++i)
+      vals[i-from] = _mem[i]&0xFF;
+    return vals;
+  }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    return 0;
+  }
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; ++i)
       vals[i-from] = _mem[i]&0xFF;
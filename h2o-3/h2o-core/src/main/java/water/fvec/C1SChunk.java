@@ -53,6 +53,16 @@ public final class C1SChunk extends CSChunk {
       vals[i-from] = getD(0xFF&_mem[_OFF+i],C1Chunk._NA,NA);
     return vals;
   }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if((0xFF&_mem[_OFF+i]) == C1Chunk._NA) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
   /**
    * Dense bulk interface, fetch values from the given ids
    * @param vals
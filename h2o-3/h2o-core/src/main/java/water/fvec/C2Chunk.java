@@ -32,6 +32,17 @@ public class C2Chunk extends Chunk {
   }
   @Override boolean set_impl(int i, float f ) { return set_impl(i,(double)f); }
   @Override boolean setNA_impl(int idx) { UnsafeUtils.set2(_mem,(idx<<1)+_OFF,(short)_NA); return true; }
+  @Override boolean remap_impl(int[] map) {
+    for( int i = 0; i < _len; i++ ) {
+      int x = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+      if( x != _NA && !(0 <= x && x < map.length && 0 <= map[x] && map[x] <= Short.MAX_VALUE) ) return false;
+    }
+    for( int i = 0; i < _len; i++ ) {
+      int x = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+      if( x != _NA ) UnsafeUtils.set2(_mem,(i<<1)+_OFF,(short)map[x]);
+    }
+    return true;
+  }
 
   private final void processRow(int r, ChunkVisitor v){
     int i = UnsafeUtils.get2(_mem,(r<<1)+_OFF);
@@ -40,6 +51,14 @@ public class C2Chunk extends Chunk {
   }
 
 
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get2(_mem, 2*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
+
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
       int x = UnsafeUtils.get2(_mem, 2*i);
@@ -47,6 +66,16 @@ public class C2Chunk extends Chunk {
     }
     return vals;
   }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(UnsafeUtils.get2(_mem, 2*i) == _NA) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
 
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
@@ -26,6 +26,17 @@ public class C4Chunk extends Chunk {
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) { return false; }
   @Override boolean setNA_impl(int idx) { UnsafeUtils.set4(_mem,(idx<<2),(int)_NA); return true; }
+  @Override boolean remap_impl(int[] map) {
+    for( int i = 0; i < _len; i++ ) {
+      int x = UnsafeUtils.get4(_mem,i<<2);
+      if( x != _NA && !(0 <= x && x < map.length && 0 <= map[x]) ) return false;
+    }
+    for( int i = 0; i < _len; i++ ) {
+      int x = UnsafeUtils.get4(_mem,i<<2);
+      if( x != _NA ) UnsafeUtils.set4(_mem,i<<2,map[x]);
+    }
+    return true;
+  }
 
 
   private final void processRow(int r, ChunkVisitor v){
@@ -53,6 +64,13 @@ public class C4Chunk extends Chunk {
   }
   @Override public boolean hasFloat() {return false;}
 
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get4(_mem, 4*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
       int x = UnsafeUtils.get4(_mem, 4*i);
@@ -60,6 +78,16 @@ public class C4Chunk extends Chunk {
     }
     return vals;
   }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(UnsafeUtils.get4(_mem, 4*i) == _NA) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
     for(int i:ids) {
@@ -42,6 +42,17 @@ public class C4FChunk extends Chunk {
     else v.addValue((double)f);
   }
 
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(Float.isNaN(UnsafeUtils.get4f(_mem, i<<2))) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
     for(int i = from; i < to; i++) processRow(i,v);
@@ -47,6 +47,16 @@ public class C4SChunk extends CSChunk {
       vals[i-from] = getD(getMantissa(i),C4Chunk._NA,NA);
     return vals;
   }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(getMantissa(i) == C4Chunk._NA) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
 
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
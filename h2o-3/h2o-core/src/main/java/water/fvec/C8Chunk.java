@@ -49,6 +49,13 @@ public class C8Chunk extends Chunk {
     return v;
   }
 
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      long x = UnsafeUtils.get8(_mem, 8*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
       long x = UnsafeUtils.get8(_mem, 8*i);
@@ -56,6 +63,16 @@ public class C8Chunk extends Chunk {
     }
     return vals;
   }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(UnsafeUtils.get8(_mem, 8*i) == _NA) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
     for(int i:ids) {
@@ -0,0 +1,149 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+/**
+ * The blocked frame-of-reference compression function, for integer columns with a wide range but a narrow range
+ * within every block of consecutive rows - e.g. sorted timestamps or ids.
+ *
+ * Rows are split into blocks of {@link #BLOCK_SIZE}; every block stores its minimum (the reference) as a long and
+ * the rows as unsigned 1 or 2 byte offsets from it, the largest offset standing for NA.
+ * value(i) = base(i / BLOCK_SIZE) + offset(i)
+ */
+public class CFORChunk extends Chunk {
+  static final int BLOCK_LOG = 6;
+  static final int BLOCK_SIZE = 1 << BLOCK_LOG;
+  static final int _OFF = 4 + 4;
+
+  private transient int _szLog;
+  private transient int _na;
+  private transient int _offsOff;
+
+  public static int nblocks(int len) { return (len + BLOCK_SIZE - 1) >> BLOCK_LOG; }
+
+  public static int computeByteSize(int len, int szLog) {
+    return _OFF + (nblocks(len) << 3) + (len << szLog);
+  }
+
+  /** Largest block range (max - min) storable with offsets of 2^szLog bytes. */
+  public static long maxRange(int szLog) { return szLog == 0 ? 0xFE : 0xFFFE; }
+
+  CFORChunk() {}
+  /**
+   * @param ls the values, NAs are flagged in {@code nas}
+   * @param bases the minimum value of every block (anything for blocks of NAs only)
+   */
+  CFORChunk(long[] ls, boolean[] nas, long[] bases, int len, int szLog) {
+    _start = -1;
+    _mem = MemoryManager.malloc1(computeByteSize(len, szLog), false);
+    UnsafeUtils.set4(_mem, 0, len);
+    UnsafeUtils.set4(_mem, 4, szLog);
+    initFromBytes();
+    for (int b = 0; b < bases.length; b++)
+      UnsafeUtils.set8(_mem, _OFF + (b << 3), bases[b]);
+    for (int i = 0; i < len; i++)
+      setOffset(i, nas[i] ? _na : (int) (ls[i] - bases[i >> BLOCK_LOG]));
+  }
+
+  private int offset(int i) {
+    return _szLog == 0
+        ? _mem[_offsOff + i] & 0xFF
+        : UnsafeUtils.get2(_mem, _offsOff + (i << 1)) & 0xFFFF;
+  }
+  private void setOffset(int i, int x) {
+    if (_szLog == 0) _mem[_offsOff + i] = (byte) x;
+    else UnsafeUtils.set2(_mem, _offsOff + (i << 1), (short) x);
+  }
+  private long base(int b) { return UnsafeUtils.get8(_mem, _OFF + (b << 3)); }
+
+  @Override public boolean hasFloat() { return false; }
+
+  @Override protected final long at8_impl(int i) {
+    int x = offset(i);
+    if (x == _na) throw new IllegalArgumentException("at8_abs but value is missing");
+    return base(i >> BLOCK_LOG) + x;
+  }
+  @Override protected final double atd_impl(int i) {
+    int x = offset(i);
+    return x == _na ? Double.NaN : base(i >> BLOCK_LOG) + x;
+  }
+  @Override protected final boolean isNA_impl(int i) { return offset(i) == _na; }
+
+  @Override boolean set_impl(int i, long l) {
+    long x = l - base(i >> BLOCK_LOG);
+    if (x < 0 || x >= _na) return false;
+    setOffset(i, (int) x);
+    return true;
+  }
+  @Override boolean set_impl(int i, double d) {
+    if (Double.isNaN(d)) return setNA_impl(i);
+    return (long) d == d && set_impl(i, (long) d);
+  }
+  @Override boolean set_impl(int i, float f) { return set_impl(i, (double) f); }
+  @Override boolean setNA_impl(int i) { setOffset(i, _na); return true; }
+
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    for (int i = from; i < to; ) {
+      int b = i >> BLOCK_LOG;
+      int end = Math.min((b + 1) << BLOCK_LOG, to);
+      double base = base(b);
+      for (; i < end; i++) {
+        int x = offset(i);
+        vals[i - from] = x == _na ? NA : base + x;
+      }
+    }
+    return vals;
+  }
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(offset(i) == _na) {
+        mask[(i-from) >> 6] |= 1L << (i-from);
+        cnt++;
+      }
+    return cnt;
+  }
+
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA) {
+    for (int i = from; i < to; ) {
+      int b = i >> BLOCK_LOG;
+      int end = Math.min((b + 1) << BLOCK_LOG, to);
+      long base = base(b);
+      for (; i < end; i++) {
+        int x = offset(i);
+        vals[i - from] = x == _na ? NA : base + x;
+      }
+    }
+    return vals;
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for (int i = from; i < to; i++) processRow(v, i);
+    return v;
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for (int i : ids) processRow(v, i);
+    return v;
+  }
+
+  private void processRow(ChunkVisitor v, int i) {
+    int x = offset(i);
+    if (x == _na) v.addNAs(1);
+    else {
+      long l = base(i >> BLOCK_LOG) + x;
+      if (l == 0) v.addZeros(1);
+      else v.addValue(l);
+    }
+  }
+
+  @Override protected final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _szLog = UnsafeUtils.get4(_mem, 4);
+    _na = (int) maxRange(_szLog) + 1;
+    _offsOff = _OFF + (nblocks(_len) << 3);
+  }
+}
@@ -0,0 +1,119 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+import java.util.Arrays;
+
+/**
+ * The run-length compression function, for columns made of long runs of repeated values (sorted or grouped data).
+ *
+ * Layout: _len, number of runs, the (exclusive) end row of every run as ints and the value of every run as doubles.
+ * Random access is a binary search over the run ends, sequential access is amortized O(1) through the last run found.
+ */
+public class CRLChunk extends Chunk {
+  static final int _OFF = 4 + 4;
+
+  private transient int _nruns;
+  private transient boolean _hasFloat;
+  private transient int _lastRun; // run of the last accessed row, a racy but always consistent hint
+
+  public static int computeByteSize(int runs) {
+    return _OFF + runs * (4 + 8);
+  }
+
+  CRLChunk() {}
+  CRLChunk(int[] ends, double[] values, int nruns) {
+    _start = -1;
+    _mem = MemoryManager.malloc1(computeByteSize(nruns), false);
+    UnsafeUtils.set4(_mem, 0, ends[nruns - 1]);
+    UnsafeUtils.set4(_mem, 4, nruns);
+    for (int r = 0; r < nruns; r++) {
+      UnsafeUtils.set4(_mem, _OFF + (r << 2), ends[r]);
+      UnsafeUtils.set8d(_mem, _OFF + (nruns << 2) + (r << 3), values[r]);
+    }
+    initFromBytes();
+  }
+
+  private int end(int r) { return UnsafeUtils.get4(_mem, _OFF + (r << 2)); }
+  private double value(int r) { return UnsafeUtils.get8d(_mem, _OFF + (_nruns << 2) + (r << 3)); }
+
+  private int run(int i) {
+    int r = _lastRun;
+    if ((r == 0 || end(r - 1) <= i) && i < end(r)) return r;
+    if (r + 1 < _nruns && end(r) <= i && i < end(r + 1)) return _lastRun = r + 1;
+    int lo = 0, hi = _nruns - 1;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (end(mid) <= i) lo = mid + 1;
+      else hi = mid;
+    }
+    return _lastRun = lo;
+  }
+
+  @Override public boolean hasFloat() { return _hasFloat; }
+
+  @Override protected final long at8_impl(int i) {
+    double res = atd_impl(i);
+    if (Double.isNaN(res)) throw new IllegalArgumentException("at8_impl but value is missing");
+    return (long) res;
+  }
+  @Override protected final double atd_impl(int i) { return value(run(i)); }
+  @Override protected final boolean isNA_impl(int i) { return Double.isNaN(atd_impl(i)); }
+
+  // Only writes keeping the runs are done in place
+  @Override boolean set_impl(int idx, long l) { return atd_impl(idx) == l; }
+  @Override boolean set_impl(int i, double d) { return Double.compare(atd_impl(i), d) == 0; }
+  @Override boolean set_impl(int i, float f) { return set_impl(i, (double) f); }
+  @Override boolean setNA_impl(int idx) { return isNA_impl(idx); }
+
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    if (from >= to) return vals;
+    for (int r = run(from), i = from; i < to; r++) {
+      double d = value(r);
+      int end = Math.min(end(r), to);
+      Arrays.fill(vals, i - from, end - from, Double.isNaN(d) ? NA : d);
+      i = end;
+    }
+    return vals;
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    if (from >= to) return v;
+    for (int r = run(from), i = from; i < to; r++) {
+      double d = value(r);
+      int end = Math.min(end(r), to);
+      if (Double.isNaN(d)) v.addNAs(end - i);
+      else if (d == 0) v.addZeros(end - i);
+      else if (_hasFloat) for (int k = i; k < end; k++) v.addValue(d);
+      else for (int k = i; k < end; k++) v.addValue((long) d);
+      i = end;
+    }
+    return v;
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for (int i : ids) {
+      double d = atd_impl(i);
+      if (Double.isNaN(d)) v.addNAs(1);
+      else if (_hasFloat) v.addValue(d);
+      else v.addValue((long) d);
+    }
+    return v;
+  }
+
+  @Override protected final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _nruns = UnsafeUtils.get4(_mem, 4);
+    _lastRun = 0;
+    _hasFloat = false;
+    for (int r = 0; r < _nruns && !_hasFloat; r++)
+      _hasFloat = !isExactLong(value(r));
+  }
+
+  // Integral doubles within the range where every long is exactly representable (and NAs) read as longs
+  static boolean isExactLong(double d) {
+    return Double.isNaN(d) || ((long) d == d && Math.abs(d) <= (1L << 53));
+  }
+}
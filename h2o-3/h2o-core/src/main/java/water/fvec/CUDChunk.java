@@ -17,6 +17,7 @@ public class CUDChunk extends Chunk {
             + (len << 1); //mapping of row -> unique value index (0...255)
   }
   int numUniques;
+  private transient boolean _hasFloat;
   CUDChunk() {}
   CUDChunk(byte[] bs, HashMap<Long,Byte> hs, int len) {
     _start = -1;
@@ -35,7 +36,16 @@ public class CUDChunk extends Chunk {
     // store the mapping
     for (int i=0; i<len; ++i)
       UnsafeUtils.set1(_mem, 8 + (numUniques << 3) + i, hs.get(Double.doubleToLongBits(UnsafeUtils.get8d(bs, i << 3))));
+    _hasFloat = computeHasFloat();
   }
+  // Dictionaries of integers (used for wide-range integer columns) read as longs
+  private boolean computeHasFloat() {
+    for (int j = 0; j < numUniques; ++j)
+      if (!CRLChunk.isExactLong(Double.longBitsToDouble(UnsafeUtils.get8(_mem, 8 + (j << 3)))))
+        return true;
+    return false;
+  }
+  @Override public boolean hasFloat() { return _hasFloat; }
   @Override protected final long   at8_impl( int i ) {
     double res = atd_impl(i);
     if( Double.isNaN(res) ) throw new IllegalArgumentException("at8_impl but value is missing");
@@ -56,8 +66,8 @@ public class CUDChunk extends Chunk {
       if(Double.isNaN(uniques[i]))
         uniques[i] = NA;
     }
-    for(int i = 0; i < _len; ++i)
-      vals[i] = uniques[(UnsafeUtils.get1(_mem, 8 + (numUniques << 3) + i)+128)];
+    for(int i = from; i < to; ++i)
+      vals[i - from] = uniques[(UnsafeUtils.get1(_mem, 8 + (numUniques << 3) + i)+128)];
     return vals;
   }
 
@@ -94,5 +104,6 @@ public class CUDChunk extends Chunk {
     _len = UnsafeUtils.get4(_mem, 0);
     numUniques = UnsafeUtils.get4(_mem, 4);
     set_len(_len);
+    _hasFloat = computeHasFloat();
   }
 }
@@ -35,6 +35,8 @@ public class CXFChunk extends CXIChunk {
     return getVal(x);
   }
 
+  @Override protected boolean isNAEntry(int x){return Double.isNaN(getVal(x));}
+
   @Override
   public Chunk deepCopy() {return new CXFChunk(_mem.clone());}
 
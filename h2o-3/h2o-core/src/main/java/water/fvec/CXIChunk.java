@@ -153,6 +153,26 @@ public class CXIChunk extends Chunk {
     return getId(x);
   }
 
+  // is the stored sparse value at offset x missing
+  protected boolean isNAEntry(int x){return getVal(x) == _NAS[_val_sz];}
+
+  @Override public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, _isNA);
+    int cnt = _isNA?to - from:0;
+    int x = from == 0?_OFF: findOffset(from);
+    if(x < 0) x = -x-1;
+    while(x < _mem.length){
+      int id = getId(x);
+      if(id >= to)break;
+      if(isNAEntry(x) != _isNA) { // flip the default bit of the non-sparse row
+        mask[(id-from) >> 6] ^= 1L << (id-from);
+        cnt += _isNA?-1:1;
+      }
+      x+=_elem_sz;
+    }
+    return cnt;
+  }
+
   @Override public final int nextNZ(int rid, boolean onlyTrueZero) {
     return onlyTrueZero && _isNA ? rid + 1 : nextNZ(rid);
   }
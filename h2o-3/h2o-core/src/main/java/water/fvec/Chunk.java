@@ -3,6 +3,7 @@ package water.fvec;
 import water.*;
 import water.parser.BufferedString;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /** A compression scheme, over a chunk of data - a single array of bytes.
@@ -516,6 +517,27 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
     return uuid;
   }
 
+  /** Rewrite every non-missing value {@code v} of an integer Chunk to
+   *  {@code map[v]}, e.g. to renumber categorical codes.  The values are
+   *  rewritten in the current compression scheme, in one pass, as the
+   *  {@code set} calls do for values that fit.
+   *
+   *  <p>Nothing is written if some value is not an index of {@code map}, is
+   *  mapped to a negative code, or if some mapped code does not fit in the
+   *  current compression scheme; the caller then falls back to per-row
+   *  {@code set} calls.  As with the {@code set} calls, {@link #close} must be
+   *  called to register the changes.
+   *  @return true if the values were rewritten
+   */
+  public final boolean remap(int[] map) {
+    setWrite();
+    return _chk2.remap_impl(map);
+  }
+
+  /** Rewrite the values through {@code map} if they all fit, see {@link #remap}.
+   *  @return false, with nothing written, if they do not */
+  boolean remap_impl(int[] map) { return false; }
+
   private Object setUnknown(int idx) {
     setNA(idx);
     return null;
@@ -789,6 +811,36 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   public int [] getIntegers(int [] vals, int from, int to, int NA){
     return processRows(new ChunkVisitor.IntAryVisitor(vals,NA),from,to).vals;
   }
+  /**
+   * Dense bulk interface for integer data, fetch values from the given range
+   * @param vals holds extracted values, length must be >= to - from
+   * @param NA value stored for missing rows
+   */
+  public long [] getLongs(long [] vals, int from, int to, long NA){
+    return processRows(new ChunkVisitor.LongAryVisitor(vals,NA),from,to).vals;
+  }
+  /**
+   * Bulk missing-value bitmap: sets bit {@code i - from} of {@code mask} iff row {@code i} is NA, for rows in the
+   * given range (the other bits of the words covering the range are cleared).
+   * @param mask holds the bitmap, length must be >= (to - from + 63) / 64
+   * @return number of NAs in the range
+   */
+  public int getNAs(long [] mask, int from, int to){
+    fillNAs(mask, to - from, false);
+    int cnt = 0;
+    for(int i = from; i < to; i++)
+      if(isNA_impl(i)) {
+        mask[(i - from) >> 6] |= 1L << (i - from);
+        cnt++;
+      }
+    return cnt;
+  }
+  // Sets (na) or clears the bits of the first n rows of an NA bitmap, the other bits of their words are cleared
+  static void fillNAs(long [] mask, int n, boolean na){
+    int words = (n + 63) >> 6;
+    Arrays.fill(mask, 0, words, na ? -1L : 0);
+    if(na && (n & 63) != 0) mask[words - 1] = (1L << n) - 1;
+  }
   /**
    * Dense bulk interface, fetch values from the given ids
    * @param vals
@@ -3,6 +3,8 @@ package water.fvec;
 import water.parser.BufferedString;
 import water.util.PrettyPrint;
 
+import java.util.Arrays;
+
 /**
  * Created by tomas on 3/8/17.
  * Base class for using visitor pattern with chunks.
@@ -193,4 +195,41 @@ public abstract class ChunkVisitor {
       _k = kmax;
     }
   }
+
+  /**
+   * Simple chunk visitor for extracting rows from chunks into a long array.
+   */
+  public static final class LongAryVisitor extends ChunkVisitor {
+    public final long [] vals;
+    private int _k = 0;
+    private final long _na;
+    LongAryVisitor(long [] vals, long NA){this.vals = vals; _na = NA;}
+    @Override
+    public void addValue(int val) {vals[_k++] = val;}
+    @Override
+    public void addValue(long val) {vals[_k++] = val;}
+    @Override
+    public void addValue(double val) {
+      if (Double.isNaN(val)) {
+        vals[_k++] = _na;
+      } else {
+        long l = (long) val;
+        if (l != val)
+          throw new RuntimeException(val + " does not fit into long");
+        vals[_k++] = l;
+      }
+    }
+    @Override
+    public void addZeros(int zeros) {
+      int kmax = _k + zeros;
+      Arrays.fill(vals, _k, kmax, 0);
+      _k = kmax;
+    }
+    @Override
+    public void addNAs(int nas) {
+      int kmax = _k + nas;
+      Arrays.fill(vals, _k, kmax, _na);
+      _k = kmax;
+    }
+  }
 }
@@ -0,0 +1,258 @@
+package water.fvec;
+
+import jsr166y.CountedCompleter;
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A Vec whose data is produced on first access, e.g. a column of a parsed file
+ * which was not parsed with the other columns.  The header only records the
+ * row layout and the type of the column, no chunk is stored.
+ *
+ * <p>The first access to the data (a Chunk read, or the domain of a
+ * categorical column) materializes the column: its {@link Source} writes the
+ * chunks under this Vec's key, and the header is replaced by a plain Vec with
+ * the same key.  This runs once, on the home node of the Vec.  MRTasks
+ * materialize the lazy Vecs of their frame before they start, so that their
+ * map calls only see plain Vecs; the rollups are computed on demand, as for
+ * any other Vec.
+ */
+public class LazyVec extends Vec {
+  /** The source of the data of lazy Vecs, shared by the lazy Vecs it backs.
+   *  It must stay in the DKV, with whatever it reads from, as long as they may
+   *  be materialized: once {@link #register}ed, it is removed when the last of
+   *  them is materialized or removed. */
+  public static abstract class Source extends Keyed<Source> {
+    protected Source(Key<Source> key) { super(key); }
+
+    /** Writes the chunks of the lazy Vec under its key.
+     *  @return the header of the materialized Vec, with the key and row layout of the lazy Vec */
+    protected abstract Vec materialize(LazyVec vec);
+  }
+
+  private final Key<Source> _sourceKey;
+  /** Index of the column in the source */
+  public final int _col;
+
+  /** A lazy column of the source {@code sourceKey}; categorical columns get a
+   *  placeholder domain, the actual one is known once materialized. */
+  public LazyVec(Key<Vec> key, int rowLayout, byte type, Key<Source> sourceKey, int col) {
+    super(key, rowLayout, type == T_CAT ? new String[0] : null, type);
+    _sourceKey = sourceKey;
+    _col = col;
+  }
+
+  public Key<Source> sourceKey() { return _sourceKey; }
+
+  @Override public Value chunkIdx(int cidx) {
+    Value val = DKV.get(chunkKey(cidx));
+    if( val == null ) {         // Not materialized yet, or a stale header
+      materialize();
+      val = super.chunkIdx(cidx);
+    }
+    return val;
+  }
+
+  @Override public String[] domain() {
+    return get_type() == T_CAT ? materialize().domain() : null;
+  }
+
+  /** Materializes the column, unless already done.
+   *  @return the materialized Vec */
+  public Vec materialize() {
+    Vec v = DKV.getGet(_key);
+    if( v instanceof LazyVec ) {
+      new RPC<>(_key.home_node(), new MaterializeTask(_key)).call().get();
+      v = DKV.getGet(_key);
+    }
+    return v;
+  }
+
+  /** @return {@code fr} if it has no lazy Vec, else a copy of it with its lazy Vecs materialized */
+  public static Frame materialize(Frame fr) {
+    Vec[] vecs = fr.vecs();
+    Vec[] res = null;
+    for( int i = 0; i < vecs.length; i++ )
+      if( vecs[i] instanceof LazyVec ) {
+        if( res == null ) res = vecs.clone();
+        res[i] = ((LazyVec) vecs[i]).materialize();
+      }
+    return res == null ? fr : new Frame(fr._key, fr.names(), res);
+  }
+
+  // The lazy Vecs of each source, not yet materialized nor removed; kept in the DKV while any
+  private static final Key SOURCES = Key.make("__LazyVec_Sources");
+
+  /** Registers the lazy Vecs {@code vecs} of the source {@code src}, which is
+   *  removed once all of them are materialized or removed. */
+  public static void register(Key<Source> src, Key[] vecs) {
+    new Register(src, vecs).invoke(SOURCES);
+  }
+
+  /** Drops the Vecs {@code vecs} from the lazy Vecs of their sources, as they
+   *  are materialized or removed; the sources left without any are removed. */
+  public static void release(Key[] vecs) {
+    Value val = DKV.get(SOURCES);
+    if( val == null || !val.<Sources>get().backs(vecs) ) return; // No lazy Vec among them
+    Release r = (Release) new Release(vecs).invoke(SOURCES);
+    for( Key k : r._done ) Keyed.remove(k);
+  }
+
+  private static class Sources extends Iced<Sources> {
+    final Key[] _srcs;
+    final Key[][] _vecs;
+
+    Sources(Key[] srcs, Key[][] vecs) {
+      _srcs = srcs;
+      _vecs = vecs;
+    }
+
+    boolean backs(Key[] vecs) {
+      for( Key[] lazy : _vecs )
+        for( Key k : vecs )
+          if( k != null && Arrays.asList(lazy).contains(k) ) return true;
+      return false;
+    }
+  }
+
+  private static class Register extends TAtomic<Sources> {
+    private final Key _src;
+    private final Key[] _vecs;
+
+    Register(Key src, Key[] vecs) {
+      _src = src;
+      _vecs = vecs;
+    }
+
+    @Override protected Sources atomic(Sources old) {
+      if( old == null ) old = new Sources(new Key[0], new Key[0][]);
+      int n = old._srcs.length + 1;
+      Sources srcs = new Sources(Arrays.copyOf(old._srcs, n), Arrays.copyOf(old._vecs, n));
+      srcs._srcs[n - 1] = _src;
+      srcs._vecs[n - 1] = _vecs;
+      return srcs;
+    }
+  }
+
+  // Drops some Vecs from their sources; an empty catalog is removed
+  private static class Release extends TAtomic<Sources> {
+    private final Key[] _vecs;
+    Key[] _done = new Key[0];   // OUTPUT: sources without lazy Vecs left, to remove
+
+    Release(Key[] vecs) { _vecs = vecs; }
+
+    @Override protected Sources atomic(Sources old) {
+      _done = new Key[0];
+      if( old == null ) return null;
+      ArrayList<Key> srcs = new ArrayList<>(), done = new ArrayList<>();
+      ArrayList<Key[]> vecs = new ArrayList<>();
+      boolean changed = false;
+      for( int i = 0; i < old._srcs.length; i++ ) {
+        ArrayList<Key> lazy = new ArrayList<>(Arrays.asList(old._vecs[i]));
+        changed |= lazy.removeAll(Arrays.asList(_vecs));
+        if( lazy.isEmpty() ) done.add(old._srcs[i]);
+        else {
+          srcs.add(old._srcs[i]);
+          vecs.add(lazy.toArray(new Key[lazy.size()]));
+        }
+      }
+      if( !changed ) return null;
+      _done = done.toArray(new Key[done.size()]);
+      return new Sources(srcs.toArray(new Key[srcs.size()]), vecs.toArray(new Key[vecs.size()][]));
+    }
+
+    @Override public void onSuccess(Sources old) {
+      // On the home node of the catalog: remove it once empty, unless updated meanwhile
+      Value val = DKV.get(_key);
+      if( val != null && val.<Sources>get()._srcs.length == 0 ) {
+        Futures fs = new Futures();
+        DKV.DputIfMatch(_key, null, val, fs);
+        fs.blockForPending();
+      }
+    }
+  }
+
+  // Materializations in flight on this home node, by Vec key: concurrent requests for the same Vec wait for the
+  // same materialization, the entry is dropped once it is done
+  private static final NonBlockingHashMap<Key, Materialization> _inFlight = new NonBlockingHashMap<>();
+
+  // Runs on the home node of the Vec; completes once the Vec is materialized, without blocking on it
+  private static class MaterializeTask extends DTask<MaterializeTask> {
+    private final Key<Vec> _key;
+    MaterializeTask(Key<Vec> key) { _key = key; }
+
+    @Override public void compute2() {
+      Vec v = DKV.getGet(_key);
+      if( v instanceof LazyVec ) {
+        Materialization m = new Materialization((LazyVec) v);
+        Materialization old = _inFlight.putIfAbsent(_key, m);
+        if( old != null ) m = old;
+        m.await(this);
+        if( old == null ) {     // Parses in a job of its own, not in this task
+          try {
+            new Job<>(_key, Vec.class.getName(), "Materialize lazy column " + m._vec._col).start(m, 1);
+          } catch( RuntimeException e ) {
+            m.done(e);
+            throw e;
+          }
+        }
+      }
+      tryComplete();
+    }
+  }
+
+  private static class Materialization extends H2O.H2OCountedCompleter<Materialization> {
+    final LazyVec _vec;
+    private final ArrayList<MaterializeTask> _waiters = new ArrayList<>();
+    private Throwable _ex;
+    private boolean _done;
+
+    Materialization(LazyVec vec) { _vec = vec; }
+
+    // Holds the completion of the task until the Vec is materialized
+    synchronized void await(MaterializeTask task) {
+      if( _done ) {
+        if( _ex != null ) task.setException(_ex);
+        return;
+      }
+      task.addToPendingCount(1);
+      _waiters.add(task);
+    }
+
+    @Override public void compute2() {
+      Vec v = DKV.getGet(_vec._key);
+      if( v instanceof LazyVec ) { // Else materialized by an earlier request, which finished in the meantime
+        Source src = DKV.getGet(_vec._sourceKey);
+        if( src == null ) throw new IllegalStateException("Missing source of lazy Vec " + _vec._key);
+        DKV.put(src.materialize((LazyVec) v));
+        release(new Key[]{_vec._key});
+      }
+      tryComplete();
+    }
+
+    @Override public void onCompletion(CountedCompleter caller) { done(null); }
+
+    @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+      done(ex);
+      return true;
+    }
+
+    private void done(Throwable ex) {
+      _inFlight.remove(_vec._key, this);
+      MaterializeTask[] waiters;
+      synchronized( this ) {
+        if( _done ) return;
+        _done = true;
+        _ex = ex;
+        waiters = _waiters.toArray(new MaterializeTask[_waiters.size()]);
+        _waiters.clear();
+      }
+      for( MaterializeTask w : waiters )
+        if( ex == null ) w.tryComplete();
+        else w.completeExceptionally(ex);
+    }
+  }
+}
@@ -1145,6 +1145,11 @@ public class NewChunk extends Chunk {
       return chunkUUID();
     // cut out the easy all NaNs case; takes care of constant na_sparse
     if(_naCnt == _len) return new C0DChunk(Double.NaN,_len);
+    // Long runs of repeated values, e.g. sorted or grouped data?
+    if(!(sparse || na_sparse)) {
+      Chunk rl = chunkRL();
+      if(rl != null) return rl;
+    }
     // If the data was set8 as doubles, we do a quick check to see if it's
     // plain longs.  If not, we give up and use doubles.
     boolean isInteger = true;
@@ -1328,7 +1333,10 @@ public class NewChunk extends Chunk {
     // Compress column into a byte
     if(xmin == 0 &&  0<=lemin && lemax <= 255 && ((_naCnt + _catCnt)==0) )
       return new C1NChunk( bufX(0,0,C1NChunk._OFF,0));
-    if( lemin < Integer.MIN_VALUE ) return new C8Chunk( bufX(0,0,0,3));
+    if( lemin < Integer.MIN_VALUE ) {
+      Chunk wide = chunkWideInts(lemin, lemax, leRange, 3);
+      return wide != null ? wide : new C8Chunk( bufX(0,0,0,3));
+    }
     if( leRange < 255 ) {    // Span fits in a byte?
       if(0 <= min && max < 255 ) // Span fits in an unbiased byte?
         return new C1Chunk( bufX(0,0,C1Chunk._OFF,0));
@@ -1342,8 +1350,11 @@ public class NewChunk extends Chunk {
       long bias = (lemin-(Short.MIN_VALUE+1));
       return new C2SChunk( bufX(bias,xmin,C2SChunk._OFF,1),bias,xmin);
     }
+    final boolean fitsInt = Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE;
+    Chunk wide = chunkWideInts(lemin, lemax, leRange, fitsInt ? 2 : 3);
+    if( wide != null ) return wide;
     // Compress column into ints
-    if( Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE )
+    if( fitsInt )
       return new C4Chunk( bufX(0,0,0,2));
     return new C8Chunk( bufX(0,0,0,3));
   }
@@ -1429,6 +1440,102 @@ public class NewChunk extends Chunk {
     return PrettyPrint.pow10(_ms.get(j),_xs.get(j));
   }
 
+  // Compute a run-length encoded chunk, only if it takes less than a bit per row (i.e. less than any other
+  // non-constant chunk) and represents all the values exactly
+  private Chunk chunkRL() {
+    final int maxRuns = ((_len >> 3) - CRLChunk._OFF) / 12;
+    if(maxRuns < 2) return null;
+    int runs = 1;
+    long prev = Double.doubleToLongBits(getDouble(0));
+    for(int i = 1; i < _len; ++i) {
+      long bits = Double.doubleToLongBits(getDouble(i));
+      if(bits != prev && ++runs > maxRuns) return null;
+      prev = bits;
+    }
+    if(runs < 2) return null; // constant, left to C0LChunk/C0DChunk
+    int [] ends = new int[runs];
+    double [] values = new double[runs];
+    int r = 0;
+    values[0] = getDouble(0);
+    if(_ds == null && Math.abs(values[0]) >= 0x1p53) return null;
+    for(int i = 1; i < _len; ++i) {
+      double d = getDouble(i);
+      if(_ds == null && Math.abs(d) >= 0x1p53) return null; // longs not exactly representable as doubles
+      if(Double.doubleToLongBits(d) != Double.doubleToLongBits(values[r])) {
+        ends[r++] = i;
+        values[r] = d;
+      }
+    }
+    ends[r] = _len;
+    return new CRLChunk(ends, values, runs);
+  }
+
+  // Compute a compressed buffer for an integer column too wide for (biased) shorts: a dictionary of its values
+  // (CUDChunk), blocked frame-of-reference offsets (CFORChunk) or, for longs, biased ints (C4SChunk) - the smallest
+  // one if it saves at least a fifth of the plain 4/8 byte ints, null otherwise
+  private Chunk chunkWideInts(long lemin, long lemax, long leRange, int log) {
+    final boolean exactD = -(1L << 53) <= lemin && lemax <= (1L << 53); // all values exact as doubles
+    final long [] ls = new long[_len];
+    final boolean [] nas = new boolean[_len];
+    for(int i = 0; i < _len; ++i) {
+      if(isNA2(i)) { nas[i] = true; continue; }
+      int x = _xs.get(i)==Integer.MIN_VALUE+1 ? 0 : _xs.get(i);
+      ls[i] = x >= 0 ? _ms.get(i)*PrettyPrint.pow10i(x) : _ms.get(i)/PrettyPrint.pow10i(-x);
+    }
+    long best = (long)(0.8 * (_len << log));
+    int choice = -1;
+    // dictionary
+    HashMap<Long,Byte> hs = null;
+    if(exactD) {
+      hs = new HashMap<>(CUDChunk.MAX_UNIQUES);
+      Byte dummy = 0;
+      for(int i = 0; i < _len && hs != null; ++i) {
+        hs.put(Double.doubleToLongBits(nas[i] ? Double.NaN : ls[i]), dummy);
+        if(hs.size() > CUDChunk.MAX_UNIQUES) hs = null;
+      }
+      if(hs != null && CUDChunk.computeByteSize(hs.size(), _len) < best) {
+        best = CUDChunk.computeByteSize(hs.size(), _len);
+        choice = 0;
+      }
+    }
+    // blocked frame of reference
+    final long [] bases = new long[CFORChunk.nblocks(_len)];
+    long maxBlockRange = 0;
+    for(int b = 0; b < bases.length; ++b) {
+      long bmin = Long.MAX_VALUE, bmax = Long.MIN_VALUE;
+      for(int i = b << CFORChunk.BLOCK_LOG; i < Math.min((b + 1) << CFORChunk.BLOCK_LOG, _len); ++i) {
+        if(nas[i]) continue;
+        bmin = Math.min(bmin, ls[i]);
+        bmax = Math.max(bmax, ls[i]);
+      }
+      if(bmin > bmax) continue; // NAs only
+      bases[b] = bmin;
+      maxBlockRange = Math.max(maxBlockRange, leRange(bmin, bmax));
+    }
+    int forLog = maxBlockRange <= CFORChunk.maxRange(0) ? 0 : maxBlockRange <= CFORChunk.maxRange(1) ? 1 : -1;
+    if(forLog >= 0 && CFORChunk.computeByteSize(_len, forLog) < best) {
+      best = CFORChunk.computeByteSize(_len, forLog);
+      choice = 1;
+    }
+    // biased ints
+    if(log == 3 && exactD && leRange < 4294967295l && C4SChunk._OFF + (_len << 2) < best)
+      choice = 2;
+    switch(choice) {
+      case 0:
+        final byte [] bs = MemoryManager.malloc1(_len << 3);
+        for(int i = 0; i < _len; ++i)
+          UnsafeUtils.set8d(bs, i << 3, nas[i] ? Double.NaN : ls[i]);
+        return new CUDChunk(bs, hs, _len);
+      case 1:
+        return new CFORChunk(ls, nas, bases, _len, forLog);
+      case 2:
+        long bias = 2147483647l + lemin;
+        return new C4SChunk(bufX(bias,0,C4SChunk._OFF,2),bias,0);
+      default:
+        return null;
+    }
+  }
+
   // Compute a compressed double buffer
   private Chunk chunkD() {
     HashMap<Long,Byte> hs = new HashMap<>(CUDChunk.MAX_UNIQUES);
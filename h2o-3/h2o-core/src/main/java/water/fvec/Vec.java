@@ -3,6 +3,7 @@ package water.fvec;
 import water.*;
 import water.nbhm.NonBlockingHashMap;
 import water.parser.BufferedString;
+import water.rapids.SortIndex;
 import water.util.*;
 
 import java.util.Arrays;
@@ -186,13 +187,13 @@ public class Vec extends Keyed<Vec> {
   public String[] domain() { return _domain; }   // made no longer final so that InteractionWrappedVec which are _type==T_NUM but have a categorical interaction
   /** Returns the {@code i}th factor for this categorical column.
    *  @return The {@code i}th factor */
-  public final String factor( long i ) { return _domain[(int)i]; }
+  public final String factor( long i ) { return (_type==T_CAT ? domain() : _domain)[(int)i]; }
   /** Set the categorical/factor names.  No range-checking on the actual
    *  underlying numeric domain; user is responsible for maintaining a mapping
    *  which is coherent with the Vec contents. */
   public final void setDomain(String[] domain) { _domain = domain; if( domain != null ) _type = T_CAT; }
   /** Returns cardinality for categorical domain or -1 for other types. */
-  public final int cardinality() { return isCategorical() ? _domain.length : -1; }
+  public final int cardinality() { return isCategorical() ? domain().length : -1; }
 
   // Vec internal type
   public static final byte T_BAD  =  0; // No none-NA rows (triple negative! all NAs or zero rows)
@@ -951,8 +952,10 @@ public class Vec extends Keyed<Vec> {
       Value val = DKV.get(rollupStatsKey());
       if (val != null) {
         RollupStats rs = val.get(RollupStats.class);
-        if (rs.isMutating())  // Vector was mutating, is now allowed for rollups
+        if (rs.isMutating()) {// Vector was mutating, is now allowed for rollups
           DKV.remove(rskey, fs);// Removing will cause them to be rebuilt, on demand
+          SortIndex.removeIndexesOf(new Key[]{_key}); // Written rows may keep the checksum
+        }
       }
     }
     return fs;                  // Flow-coding
@@ -1327,6 +1330,9 @@ public class Vec extends Keyed<Vec> {
   }
 
   static void bulk_remove( final Key[] keys, final int ncs ) {
+    // Sorted indexes of these Vecs go with them, and the sources of those which were lazy
+    SortIndex.removeIndexesOf(keys);
+    LazyVec.release(keys);
     // Need to mark the Vec as mutating to make sure that no running computations of RollupStats will
     // re-insert the rollups into DKV after they are deleted in bulk_remove(Key, int).
     Futures fs = new Futures();
@@ -0,0 +1,138 @@
+package water.network;
+
+import water.H2O;
+import water.util.LZ4Codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A wrapper around a (possibly SSL) socket channel compressing the bytes written to it with {@link LZ4Codec}.
+ *
+ * Every write is sent as one block: the raw size, the compressed size (0 for a block stored as is) and the payload.
+ * Writes smaller than {@link #THRESHOLD} and blocks which do not compress are stored as is. Reads never go past the
+ * end of the block being read, so the channel stays in sync with the other side between messages.
+ *
+ * Used for the TCP channels carrying big messages between nodes when {@link #COMPRESSION_PROPERTY} is set on the
+ * sending node; the receiving node learns from the channel type sent when the channel is opened.
+ */
+public class CompressedSocketChannel implements ByteChannel {
+  /** Enables compression of the big-message TCP channels opened by this node (system property, boolean). */
+  public static final String COMPRESSION_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "network.tcp.compression";
+  /** Smallest write worth compressing, in bytes. */
+  public static final int THRESHOLD = H2O.OptArgs.getSysPropInt("network.tcp.compression.threshold", 4096);
+
+  static final int HEADER_SIZE = 4 + 4;
+
+  /** Raw (before compression) vs wire (after compression, with the block headers) byte counts. */
+  public static final class Counters {
+    public final AtomicLong _rawSent = new AtomicLong();
+    public final AtomicLong _wireSent = new AtomicLong();
+    public final AtomicLong _rawReceived = new AtomicLong();
+    public final AtomicLong _wireReceived = new AtomicLong();
+
+    @Override public String toString() {
+      return "sent " + _rawSent.get() + " raw / " + _wireSent.get() + " wire bytes, received " +
+          _rawReceived.get() + " raw / " + _wireReceived.get() + " wire bytes";
+    }
+  }
+
+  private final ByteChannel _chan;
+  private final Counters _counters;
+  private final int _threshold;
+  private final ByteBuffer _header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+  private byte[] _out = new byte[0];     // outgoing block
+  private byte[] _wire = new byte[0];    // incoming compressed payload
+  private ByteBuffer _in = ByteBuffer.allocate(0); // incoming decompressed bytes not read yet
+  private int[] _table;
+
+  public static boolean enabled() { return Boolean.getBoolean(COMPRESSION_PROPERTY); }
+
+  public CompressedSocketChannel(ByteChannel chan, Counters counters) { this(chan, counters, THRESHOLD); }
+
+  CompressedSocketChannel(ByteChannel chan, Counters counters, int threshold) {
+    _chan = chan;
+    _counters = counters;
+    _threshold = threshold;
+  }
+
+  /** @return the wrapped channel */
+  public ByteChannel channel() { return _chan; }
+
+  @Override public int write(ByteBuffer src) throws IOException {
+    final int n = src.remaining();
+    if (n == 0) return 0;
+    if (_out.length < HEADER_SIZE + n) _out = new byte[HEADER_SIZE + n];
+    int wireLen = -1;
+    if (n >= _threshold) {
+      byte[] raw = src.hasArray() ? src.array() : new byte[n];
+      int off = src.hasArray() ? src.arrayOffset() + src.position() : 0;
+      if (!src.hasArray()) src.duplicate().get(raw);
+      if (_table == null) _table = LZ4Codec.newTable();
+      wireLen = LZ4Codec.compress(raw, off, n, _out, HEADER_SIZE, n - 1, _table);
+      if (wireLen < 0) System.arraycopy(raw, off, _out, HEADER_SIZE, n);
+    } else src.duplicate().get(_out, HEADER_SIZE, n);
+    src.position(src.limit());
+    ByteBuffer bb = ByteBuffer.wrap(_out, 0, HEADER_SIZE + (wireLen < 0 ? n : wireLen)).order(ByteOrder.nativeOrder());
+    bb.putInt(0, n).putInt(4, wireLen < 0 ? 0 : wireLen);
+    final int sz = bb.remaining();
+    while (bb.hasRemaining())
+      _chan.write(bb);
+    _counters._rawSent.addAndGet(n);
+    _counters._wireSent.addAndGet(sz);
+    return n;
+  }
+
+  @Override public int read(ByteBuffer dst) throws IOException {
+    if (!_in.hasRemaining() && !nextBlock()) return -1;
+    int n = Math.min(dst.remaining(), _in.remaining());
+    dst.put(_in.array(), _in.position(), n);
+    _in.position(_in.position() + n);
+    return n;
+  }
+
+  // Reads and decompresses the next block; false on end of stream
+  private boolean nextBlock() throws IOException {
+    _header.clear();
+    if (!readFully(_header, true)) return false;
+    final int rawLen = _header.getInt(0), wireLen = _header.getInt(4);
+    if (rawLen <= 0 || wireLen < 0 || wireLen >= rawLen)
+      throw new IOException("Corrupted compressed block header: raw size " + rawLen + ", wire size " + wireLen);
+    if (_in.capacity() < rawLen) _in = ByteBuffer.allocate(rawLen);
+    _in.clear().limit(rawLen);
+    if (wireLen == 0) {
+      readFully(_in, false);
+      _in.flip();
+    } else {
+      if (_wire.length < wireLen) _wire = new byte[wireLen];
+      readFully(ByteBuffer.wrap(_wire, 0, wireLen), false);
+      try {
+        LZ4Codec.decompress(_wire, 0, wireLen, _in.array(), 0, rawLen);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Corrupted compressed block", e);
+      }
+    }
+    _counters._rawReceived.addAndGet(rawLen);
+    _counters._wireReceived.addAndGet(HEADER_SIZE + (wireLen == 0 ? rawLen : wireLen));
+    return true;
+  }
+
+  private boolean readFully(ByteBuffer bb, boolean eofOk) throws IOException {
+    while (bb.hasRemaining()) {
+      int res = _chan.read(bb);
+      if (res < 0) {
+        if (eofOk && bb.position() == 0) return false;
+        throw new EOFException("Compressed channel closed in the middle of a block");
+      }
+    }
+    return true;
+  }
+
+  @Override public boolean isOpen() { return _chan.isOpen(); }
+
+  @Override public void close() throws IOException { _chan.close(); }
+}
@@ -26,6 +26,10 @@ class CharSkippingBufferedString {
         _bufferedString.addChar();
     }
 
+    protected void addChars(int n) {
+        _bufferedString.addChars(n);
+    }
+
     protected void removeChar() {
         _bufferedString.removeChar();
     }
@@ -20,6 +20,11 @@ class CsvParser extends Parser {
   private static final int GUESS_HEADER = ParseSetup.GUESS_HEADER;
   private static final int HAS_HEADER = ParseSetup.HAS_HEADER;
   private static final byte[] NON_DATA_LINE_MARKERS = {'#'};
+  // Numbers below this take 8 more digits without reaching LARGEST_DIGIT_NUMBER
+  private static final long SWAR_NUMBER_LIMIT = LARGEST_DIGIT_NUMBER / 100000000L;
+
+  // Scan unquoted strings and digit runs 8 bytes at a time
+  boolean _swar = SwarUtils.ENABLED;
 
   CsvParser( ParseSetup ps, Key jobKey ) { super(ps, jobKey); }
 
@@ -80,6 +85,9 @@ class CsvParser extends Parser {
     dout.newLine();
 
     final boolean forceable = dout instanceof FVecParseWriter && ((FVecParseWriter)dout)._ctypes != null && _setup._column_types != null;
+    final boolean swar = _swar;
+    // Bytes ending an unquoted string, for the 8-bytes-at-a-time scans
+    final long swarSep = SwarUtils.broadcast(CHAR_SEPARATOR), swarCR = SwarUtils.broadcast(CHAR_CR), swarLF = SwarUtils.broadcast(CHAR_LF);
 MAIN_LOOP:
     while (true) {
       final boolean forcedCategorical = forceable && colIdx < _setup._column_types.length && _setup._column_types[colIdx] == Vec.T_CAT;
@@ -131,6 +139,17 @@ MAIN_LOOP:
             str.addChar();
             if ((c & 0x80) == 128) //value beyond std ASCII
               isAllASCII = false;
+            if (quoteCount == 0 && swar) {
+              // Unquoted: take the rest of the string up to the next separator, EOL or quote at once
+              int end = SwarUtils.indexOfAny(bits, offset + 1, bits.length, swarSep, swarCR, swarLF, SwarUtils.broadcast(quotes));
+              if (end > offset + 1) {
+                str.addChars(end - offset - 1);
+                if (isAllASCII && SwarUtils.anyNonAscii(bits, offset + 1, end))
+                  isAllASCII = false;
+                offset = end - 1;
+                c = bits[offset];
+              }
+            }
             break;
           }
 
@@ -283,7 +302,16 @@ MAIN_LOOP:
         case NUMBER:
           if ((c >= '0') && (c <= '9')) {
             if (number >= LARGEST_DIGIT_NUMBER)  state = NUMBER_SKIP;
-            else  number = (number*10)+(c-'0');
+            else {
+              number = (number*10)+(c-'0');
+              long digits; // Next 8 digits at once
+              if (swar && number < SWAR_NUMBER_LIMIT && offset + 9 <= bits.length &&
+                  (digits = SwarUtils.eightDigits(bits, offset + 1)) >= 0) {
+                number = number * 100000000L + digits;
+                offset += 8;
+                c = bits[offset];
+              }
+            }
             break;
           } else if (c == CHAR_DECIMAL_SEP) {
             state = NUMBER_FRACTION;
@@ -386,6 +414,13 @@ MAIN_LOOP:
               state = NUMBER_SKIP_NO_DOT;
             } else {
               number = (number*10)+(c-'0');
+              long digits; // Next 8 digits at once
+              if (swar && number < SWAR_NUMBER_LIMIT && offset + 9 <= bits.length &&
+                  (digits = SwarUtils.eightDigits(bits, offset + 1)) >= 0) {
+                number = number * 100000000L + digits;
+                offset += 8;
+                c = bits[offset];
+              }
             }
             break;
           } else if ((c == 'e') || (c == 'E')) {
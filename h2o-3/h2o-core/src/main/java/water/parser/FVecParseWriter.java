@@ -27,13 +27,21 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
   ParseErr [] _errs = new ParseErr[0];
   private final Vec.VectorGroup _vg;
   private long _errCnt;
+  // Columns whose values are dropped; they get no chunks (see ParseSetup._lazy_columns)
+  private transient final boolean[] _skip;
 
   public FVecParseWriter(Vec.VectorGroup vg, int cidx, Categorical[] categoricals, byte[] ctypes, int chunkSize, AppendableVec[] avs){
+    this(vg, cidx, categoricals, ctypes, chunkSize, avs, null);
+  }
+
+  public FVecParseWriter(Vec.VectorGroup vg, int cidx, Categorical[] categoricals, byte[] ctypes, int chunkSize, AppendableVec[] avs, boolean[] skip){
     _ctypes = ctypes;           // Required not-null
     _vecs = avs;
+    _skip = skip;
     _nvs = new NewChunk[avs.length];
     for(int i = 0; i < avs.length; ++i)
-      _nvs[i] = _vecs[i].chunkForChunkIdx(cidx);
+      if( !skipped(i) )
+        _nvs[i] = _vecs[i].chunkForChunkIdx(cidx);
     _categoricals = categoricals;
     _nCols = avs.length;
     _cidx = cidx;
@@ -68,6 +76,7 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
   @Override public FVecParseWriter close(Futures fs){
     if( _nvs == null ) return this; // Might call close twice
     for(int i=0; i < _nvs.length; i++) {
+      if( _nvs[i] == null ) continue; // Skipped column
       _nvs[i].close(_cidx, fs);
       _nvs[i] = null; // free immediately, don't wait for all columns to close
     }
@@ -75,9 +84,11 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
     return this;
   }
   @Override public FVecParseWriter nextChunk(){
-    return  new FVecParseWriter(_vg, _cidx+1, _categoricals, _ctypes, _chunkSize, _vecs);
+    return  new FVecParseWriter(_vg, _cidx+1, _categoricals, _ctypes, _chunkSize, _vecs, _skip);
   }
 
+  final boolean skipped(int colIdx) { return _skip != null && colIdx < _skip.length && _skip[colIdx]; }
+
   @Override public void newLine() {
     if(_col >= 0){
       ++_nLines;
@@ -87,6 +98,7 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
     _col = -1;
   }
   @Override public void addNumCol(int colIdx, long number, int exp) {
+    if( skipped(colIdx) ) { _col = colIdx; return; }
     if( colIdx < _nCols ) {
       _nvs[_col = colIdx].addNum(number, exp);
       if(_ctypes != null && _ctypes[colIdx] == Vec.T_BAD ) _ctypes[colIdx] = Vec.T_NUM;
@@ -94,17 +106,21 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
   }
 
   @Override public final void addInvalidCol(int colIdx) {
-    if(colIdx < _nCols) _nvs[_col = colIdx].addNA();
+    if( skipped(colIdx) ) _col = colIdx;
+    else if(colIdx < _nCols) _nvs[_col = colIdx].addNA();
   }
 
   @Override
   public void addNAs(int colIdx, int nrows) {
+    if( skipped(colIdx) ) return;
     (_nvs[colIdx] = _vecs[colIdx].chunkForChunkIdx(_cidx)).addNAs(nrows);
   }
 
-  @Override public boolean isString(int colIdx) { return (colIdx < _nCols) && (_ctypes[colIdx] == Vec.T_CAT || _ctypes[colIdx] == Vec.T_STR);}
+  // Skipped columns are read as strings, which is the cheapest to drop
+  @Override public boolean isString(int colIdx) { return (colIdx < _nCols) && (skipped(colIdx) || _ctypes[colIdx] == Vec.T_CAT || _ctypes[colIdx] == Vec.T_STR);}
 
   @Override public void addStrCol(int colIdx, BufferedString str) {
+    if( skipped(colIdx) ) { _col = colIdx; return; }
     if(colIdx < _nvs.length){
       if(_ctypes[colIdx] == Vec.T_NUM){ // support enforced types
         addInvalidCol(colIdx);
@@ -145,6 +161,7 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
 
   /** Adds double value to the column. */
   @Override public void addNumCol(int colIdx, double value) {
+    if( skipped(colIdx) ) { _col = colIdx; return; }
     if (Double.isNaN(value) || Double.isInfinite(value)) {
       addInvalidCol(colIdx);
     } else {
@@ -172,7 +189,7 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
   }
 
   @Override public void setIsAllASCII(int colIdx, boolean b) {
-    if(colIdx < _nvs.length)
+    if(colIdx < _nvs.length && !skipped(colIdx))
       _nvs[colIdx]._isAllASCII = b;
   }
 
@@ -25,13 +25,19 @@ public class PackedDomains {
   }
 
   public static byte[] pack(BufferedString[] source) {
+    return pack(source, 0, source.length);
+  }
+
+  /** Packs the strings {@code source[from..to)}. */
+  public static byte[] pack(BufferedString[] source, int from, int to) {
     int len = 0;
-    for (BufferedString bs : source)
-      len += bs.length();
-    byte[] data = new byte[len + (source.length + 1) * 4];
-    decodeAsInt(source.length, data, 0);
+    for (int k = from; k < to; k++)
+      len += source[k].length();
+    byte[] data = new byte[len + (to - from + 1) * 4];
+    decodeAsInt(to - from, data, 0);
     int pos = 4;
-    for (BufferedString bs : source) {
+    for (int k = from; k < to; k++) {
+      BufferedString bs = source[k];
       byte[] buff = bs.getBuffer();
       decodeAsInt(bs.length(), data, pos);
       pos += 4;
@@ -128,4 +134,51 @@ public class PackedDomains {
     return data;
   }
 
+  /** Merges all the sorted domains, pairwise in a balanced tree. */
+  public static byte[] mergeAll(byte[][] domains) {
+    if (domains.length == 0)
+      return pack(new BufferedString[0]);
+    byte[][] level = domains;
+    while (level.length > 1) {
+      byte[][] next = new byte[(level.length + 1) / 2][];
+      for (int i = 0; i < next.length; i++)
+        next[i] = 2 * i + 1 < level.length ? merge(level[2 * i], level[2 * i + 1]) : level[2 * i];
+      level = next;
+    }
+    return level[0];
+  }
+
+  /**
+   * Positions of the words of the sorted domain {@code sub} in the sorted domain {@code domain}.
+   * All the words of {@code sub} must be in {@code domain}.
+   */
+  public static int[] ranks(byte[] sub, byte[] domain) {
+    int[] res = MemoryManager.malloc4(sizeOf(sub));
+    BufferedString bsS = new BufferedString(sub, 0, 0);
+    BufferedString bsD = new BufferedString(domain, 0, 0);
+    int pS = 4;
+    int pD = 4;
+    int rank = 0;
+    for (int i = 0; i < res.length; i++) {
+      int sizeS = encodeAsInt(sub, pS);
+      bsS.setOff(pS + 4);
+      bsS.setLen(sizeS);
+      pS += sizeS + 4;
+      int x = -1;
+      while (pD < domain.length) {
+        int sizeD = encodeAsInt(domain, pD);
+        bsD.setOff(pD + 4);
+        bsD.setLen(sizeD);
+        if ((x = bsD.compareTo(bsS)) >= 0)
+          break;
+        pD += sizeD + 4;
+        rank++;
+      }
+      if (x != 0)
+        throw new IllegalArgumentException("Word '" + bsS + "' is not in the domain");
+      res[i] = rank;
+    }
+    return res;
+  }
+
 }
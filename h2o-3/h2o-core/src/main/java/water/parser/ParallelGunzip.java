@@ -0,0 +1,225 @@
+package water.parser;
+
+import water.*;
+import water.fvec.ByteVec;
+import water.fvec.C1NChunk;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Parallel decompression of blocked gzip files (BGZF, as written by bgzip, samtools and friends).
+ *
+ * A BGZF file is a plain gzip file made of many small gzip members, each carrying its compressed length in a
+ * {@code BC} extra field of its header, so that the members can be found and inflated independently.  Any gzip reader
+ * reads it as one stream; here the members are located by a scan of the compressed chunks on their home nodes, the
+ * chain of members is checked from the start of the file, and the members starting in compressed chunk {@code i} are
+ * inflated in parallel into chunk {@code i} of a temporary uncompressed {@link ByteVec}, which is then parsed like an
+ * uncompressed file.  The parsed frame gets the same number of chunks as with the sequential decompression.
+ *
+ * Plain gzip files (a single deflate stream) cannot be split and are still decompressed by a single stream.
+ */
+final class ParallelGunzip {
+  private ParallelGunzip() {}
+
+  /** Turns the parallel decompression off, {@code -Dsys.ai.h2o.parser.gzip.parallel=false}. */
+  static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "parser.gzip.parallel", "true"));
+
+  private static final int MAX_MEMBER = 1 << 16; // BSIZE is 16 bits
+
+  /**
+   * Compressed length of the BGZF member starting at {@code off}, -1 if there is no BGZF member header there.
+   * Only the header needs to be within {@code [off, end)}.
+   */
+  static int memberLength(byte[] bits, int off, int end) {
+    if( off + 12 > end ) return -1;
+    if( bits[off] != (byte) 0x1f || bits[off + 1] != (byte) 0x8b || bits[off + 2] != 8 /*deflate*/ || bits[off + 3] != 4 /*FEXTRA only*/ )
+      return -1;
+    final int xlen = get2(bits, off + 10);
+    if( off + 12 + xlen > end ) return -1;
+    for( int p = off + 12; p + 4 <= off + 12 + xlen; ) { // Subfields: SI1, SI2, SLEN, data
+      int slen = get2(bits, p + 2);
+      if( bits[p] == 'B' && bits[p + 1] == 'C' && slen == 2 && p + 6 <= off + 12 + xlen ) {
+        int len = get2(bits, p + 4) + 1;
+        return len >= 12 + xlen + 8 ? len : -1;
+      }
+      p += 4 + slen;
+    }
+    return -1;
+  }
+
+  /** True if {@code bits}, the start of a file, is the start of a BGZF file. */
+  static boolean isBlocked(byte[] bits) { return bits != null && memberLength(bits, 0, bits.length) > 0; }
+
+  /**
+   * Inflates the BGZF file {@code vec} into a new uncompressed ByteVec with the same number of chunks.
+   * @return the uncompressed vec, in the DKV, or null if the file is not entirely made of BGZF members or would not
+   *         split into non-empty chunks; the caller then decompresses it as a stream
+   */
+  static ByteVec inflate(ByteVec vec, Key<Job> jobKey) {
+    final int nchunks = vec.nChunks();
+    final long[][] cands = new IndexTask().doAll(vec)._cands;
+    // Follow the chain of members from the start of the file: a header found in the compressed data by chance is
+    // not on the chain, and a file with something else than BGZF members does not make it to the end
+    final long[][] members = new long[nchunks][];
+    final int[] nmembers = new int[nchunks];
+    final long[] espc = new long[nchunks + 1];
+    final long len = vec.length();
+    long pos = 0;
+    while( pos < len ) {
+      int cidx = vec.elem2ChunkIdx(pos);
+      long[] cs = cands[cidx];
+      int i = cs == null ? -1 : find(cs, pos);
+      if( i < 0 ) {
+        Log.debug("Gzip file " + vec._key + " is not blocked at offset " + pos + ", decompressing it as a stream");
+        return null;
+      }
+      long[] ms = members[cidx];
+      if( ms == null ) members[cidx] = ms = new long[cs.length];
+      ms[nmembers[cidx]++] = i;
+      espc[cidx + 1] += cs[i + 1] & 0xFFFFFFFFL;
+      pos += cs[i + 1] >>> 32;
+    }
+    for( int c = 0; c < nchunks; c++ ) {
+      if( espc[c + 1] == 0 || espc[c + 1] > Integer.MAX_VALUE - 8 ) {
+        Log.debug("Gzip file " + vec._key + " does not split into " + nchunks + " chunks, decompressing it as a stream");
+        return null;
+      }
+      // Offsets, compressed and uncompressed lengths of the members of the chunk
+      long[] ms = new long[2 * nmembers[c]];
+      for( int m = 0; m < nmembers[c]; m++ ) {
+        int i = (int) members[c][m];
+        ms[2 * m] = cands[c][i];
+        ms[2 * m + 1] = cands[c][i + 1];
+      }
+      members[c] = ms;
+      espc[c + 1] += espc[c];
+    }
+    final Key<Vec> key = Vec.newKey();
+    final ByteVec out = new ByteVec(key, Vec.ESPC.rowLayout(key, espc));
+    DKV.put(key, out);
+    try {
+      new InflateTask(out, members, jobKey).doAll(vec);
+    } catch( RuntimeException e ) {
+      out.remove();
+      throw e;
+    }
+    return out;
+  }
+
+  // Index of the candidate member at offset pos in the (offset, lengths) pairs, -1 if none
+  private static int find(long[] cs, long pos) {
+    int lo = 0, hi = cs.length / 2 - 1;
+    while( lo <= hi ) {
+      int mid = (lo + hi) >>> 1;
+      long off = cs[2 * mid];
+      if( off == pos ) return 2 * mid;
+      if( off < pos ) lo = mid + 1;
+      else hi = mid - 1;
+    }
+    return -1;
+  }
+
+  private static int get2(byte[] bits, int off) { return (bits[off] & 0xFF) | (bits[off + 1] & 0xFF) << 8; }
+  private static int get4(byte[] bits, int off) { return get2(bits, off) | get2(bits, off + 2) << 16; }
+
+  // The bytes of the chunk followed by the start of the next one, for the members running over the end of the chunk
+  private static byte[] window(Chunk c, byte[] bits) {
+    final Vec vec = c.vec();
+    if( c.cidx() + 1 >= vec.nChunks() ) return bits;
+    byte[] next = vec.chunkForChunkIdx(c.cidx() + 1).getBytes();
+    byte[] res = Arrays.copyOf(bits, bits.length + Math.min(next.length, MAX_MEMBER));
+    System.arraycopy(next, 0, res, bits.length, res.length - bits.length);
+    return res;
+  }
+
+  /** Finds the member headers in each chunk: pairs of (offset, compressed length << 32 | uncompressed length). */
+  private static class IndexTask extends MRTask<IndexTask> {
+    long[][] _cands;
+
+    @Override public void map(Chunk c) {
+      final long start = c.start(), flen = c.vec().length();
+      byte[] bits = c.getBytes();
+      final int clen = bits.length;
+      long[] cands = new long[16];
+      int n = 0;
+      boolean extended = false;
+      for( int p = 0; p < clen; p++ ) {
+        if( bits[p] != (byte) 0x1f ) continue;
+        if( !extended && p + MAX_MEMBER > clen ) { bits = window(c, bits); extended = true; }
+        int len = memberLength(bits, p, bits.length);
+        if( len < 0 || start + p + len > flen || p + len > bits.length ) continue;
+        if( n == cands.length ) cands = Arrays.copyOf(cands, 2 * n);
+        cands[n++] = start + p;
+        cands[n++] = (long) len << 32 | (get4(bits, p + len - 4) & 0xFFFFFFFFL);
+      }
+      _cands = new long[c.vec().nChunks()][];
+      _cands[c.cidx()] = Arrays.copyOf(cands, n);
+    }
+
+    @Override public void reduce(IndexTask mrt) {
+      if( _cands == null ) { _cands = mrt._cands; return; }
+      if( mrt._cands == null ) return;
+      for( int i = 0; i < _cands.length; i++ )
+        if( _cands[i] == null ) _cands[i] = mrt._cands[i];
+    }
+  }
+
+  /** Inflates the members starting in each compressed chunk into the matching chunk of the uncompressed vec. */
+  private static class InflateTask extends MRTask<InflateTask> {
+    final ByteVec _out;
+    final long[][] _members;
+    final Key<Job> _jobKey;
+
+    InflateTask(ByteVec out, long[][] members, Key<Job> jobKey) { _out = out; _members = members; _jobKey = jobKey; }
+
+    @Override public void map(Chunk c) {
+      if( _jobKey != null && _jobKey.get().stop_requested() ) throw new Job.JobCancelledException();
+      final int cidx = c.cidx();
+      final long[] ms = _members[cidx];
+      final long start = c.start();
+      byte[] bits = c.getBytes();
+      final byte[] dst = MemoryManager.malloc1((int) (_out.espc()[cidx + 1] - _out.espc()[cidx]));
+      final byte[] extra = new byte[1];
+      final Inflater inf = new Inflater(true);
+      final CRC32 crc = new CRC32();
+      try {
+        int doff = 0;
+        for( int m = 0; m < ms.length; m += 2 ) {
+          final int off = (int) (ms[m] - start);
+          final int len = (int) (ms[m + 1] >>> 32);
+          final int isize = (int) ms[m + 1];
+          if( isize == 0 ) continue;  // Empty member, such as the end-of-file marker
+          if( off + len > bits.length ) bits = window(c, bits);
+          final int data = off + 12 + get2(bits, off + 10);
+          inf.reset();
+          inf.setInput(bits, data, off + len - 8 - data);
+          int n = 0;
+          while( n < isize && !inf.finished() ) {
+            int k = inf.inflate(dst, doff + n, isize - n);
+            if( k == 0 && (inf.needsInput() || inf.needsDictionary()) ) break;
+            n += k;
+          }
+          if( !inf.finished() && inf.inflate(extra) != 0 ) n++; // Nothing left but the end of the stream
+          crc.reset();
+          crc.update(dst, doff, n);
+          if( n != isize || !inf.finished() || (int) crc.getValue() != get4(bits, off + len - 8) )
+            throw new ParseDataset.H2OParseException("Corrupted gzip member at offset " + ms[m] + " of " + _fr.anyVec()._key);
+          doff += n;
+        }
+      } catch( DataFormatException e ) {
+        throw new ParseDataset.H2OParseException("Corrupted gzip data in chunk " + cidx + " of " + _fr.anyVec()._key, e);
+      } finally {
+        inf.end();
+      }
+      Key ck = _out.chunkKey(cidx);
+      DKV.put(ck, new Value(ck, new C1NChunk(dst)), _fs);
+    }
+  }
+}
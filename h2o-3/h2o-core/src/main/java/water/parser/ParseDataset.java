@@ -26,6 +26,7 @@ import static water.parser.DefaultParserProviders.*;
 public final class ParseDataset {
   public Job<Frame> _job;
   private MultiFileParseTask _mfpt; // Access to partially built vectors for cleanup after parser crash
+  private boolean _deleteLazyInputs; // Inputs kept for the lazy columns, deleted with the last of them
 
   // Keys are limited to ByteVec Keys and Frames-of-1-ByteVec Keys
   public static Frame parse(Key okey, Key... keys) { return parse(okey,keys,true, false, ParseSetup.GUESS_HEADER); }
@@ -46,6 +47,144 @@ public final class ParseDataset {
     return pds;
   }
 
+  /**
+   * Appends the rows of the files {@code keys} to the frame {@code dest}.  The setup of the files is guessed, but the
+   * column names and types are the ones of the frame.
+   * @see #append(Frame, Key[], boolean, ParseSetup)
+   */
+  public static Frame append(Frame dest, Key... keys) {
+    return append(dest, keys, true, appendSetup(dest, ParseSetup.guessSetup(keys, false, ParseSetup.GUESS_HEADER)));
+  }
+
+  /** The setup {@code setup} with the column names and types of the frame {@code dest}. */
+  public static ParseSetup appendSetup(Frame dest, ParseSetup setup) {
+    if( setup._number_columns != dest.numCols() )
+      throw new H2OIllegalArgumentException("Cannot append files with " + setup._number_columns + " columns to frame " +
+          dest._key + " with " + dest.numCols() + " columns");
+    setup._column_names = dest.names().clone();
+    byte[] types = setup._column_types == null ? new byte[dest.numCols()] : setup._column_types.clone();
+    for( int i = 0; i < types.length; i++ )
+      if( dest.vec(i).get_type() != Vec.T_BAD ) types[i] = dest.vec(i).get_type(); // All-NA columns take the new type
+    setup._column_types = types;
+    return setup;
+  }
+
+  /**
+   * Parses the files {@code keys} with the setup {@code setup} and appends their rows to the frame {@code dest}, in
+   * place: the chunks of the new rows are added after the chunks of the existing Vecs, which are left untouched, so
+   * that the cost of the append is the cost of parsing the new files only.  The categorical columns keep their
+   * existing levels and codes, the new levels are added after them.
+   *
+   * The frame must be in the DKV and made of plain Vecs (e.g. the result of a parse); the column types of the setup
+   * must match the frame (see {@link #appendSetup}).
+   * @return the updated frame
+   */
+  public static Frame append(Frame dest, Key[] keys, boolean deleteOnDone, ParseSetup setup) {
+    if( dest._key == null || DKV.get(dest._key) == null )
+      throw new H2OIllegalArgumentException("Frame to append to must be in the DKV");
+    for( Vec v : dest.vecs() )
+      if( v.getClass() != Vec.class )
+        throw new H2OIllegalArgumentException("Cannot append to column " + dest.name(dest.find(v)) + " of frame " +
+            dest._key + ": only plain Vecs can grow, not " + v.getClass().getSimpleName());
+    Frame fr = parse(Key.<Frame>make(), keys, deleteOnDone, setup);
+    try {
+      dest.write_lock();
+      try {
+        appendFrame(dest, fr);
+        dest.update();
+      } finally {
+        dest.unlock();
+      }
+    } finally {
+      fr.delete();
+    }
+    return dest;
+  }
+
+  // Moves the rows of fr after the rows of dest
+  private static void appendFrame(Frame dest, Frame fr) {
+    final Vec[] vecs = dest.vecs();
+    if( fr.numCols() != vecs.length )
+      throw new H2OIllegalArgumentException("Parsed " + fr.numCols() + " columns, frame " + dest._key + " has " + vecs.length);
+    // Unify the categorical domains: existing levels first, so that the existing chunks stay valid
+    final String[][] domains = new String[vecs.length][];
+    final int[][] maps = new int[vecs.length][];
+    final byte[] types = new byte[vecs.length];
+    for( int i = 0; i < vecs.length; i++ ) {
+      Vec v = vecs[i], nv = fr.vec(i);
+      types[i] = v.get_type() == Vec.T_BAD ? nv.get_type() : v.get_type();
+      if( nv.get_type() != types[i] && nv.get_type() != Vec.T_BAD )
+        throw new H2OIllegalArgumentException("Column " + dest.name(i) + " of frame " + dest._key + " is " +
+            v.get_type_str() + ", parsed as " + nv.get_type_str());
+      if( types[i] != Vec.T_CAT ) continue;
+      String[] dom = v.isCategorical() ? v.domain() : new String[0];
+      String[] ndom = nv.isCategorical() ? nv.domain() : new String[0];
+      HashMap<String, Integer> idx = new HashMap<>();
+      for( String s : dom ) idx.put(s, idx.size());
+      int[] map = new int[ndom.length];
+      boolean identity = true;
+      for( int j = 0; j < ndom.length; j++ ) {
+        Integer k = idx.get(ndom[j]);
+        if( k == null ) idx.put(ndom[j], k = idx.size());
+        identity &= k == j;
+        map[j] = k;
+      }
+      String[] merged = Arrays.copyOf(dom, idx.size());
+      for( Map.Entry<String, Integer> e : idx.entrySet() ) merged[e.getValue()] = e.getKey();
+      domains[i] = merged;
+      maps[i] = identity ? null : map;
+    }
+    // The new chunks, after the existing ones
+    final int nchunks = vecs[0].nChunks();
+    final Key[] vkeys = new Key[vecs.length];
+    for( int i = 0; i < vecs.length; i++ ) vkeys[i] = vecs[i]._key;
+    new AppendChunksTask(vkeys, nchunks, maps).doAll(fr);
+    final long[] espc = vecs[0].espc(), nespc = fr.anyVec().espc();
+    final long[] espc2 = Arrays.copyOf(espc, espc.length + nespc.length - 1);
+    for( int c = 1; c < nespc.length; c++ ) espc2[nchunks + c] = espc[nchunks] + nespc[c];
+    // Same keys, longer layout; the rollups are recomputed on demand
+    Futures fs = new Futures();
+    for( int i = 0; i < vecs.length; i++ ) {
+      Vec v = vecs[i];
+      v.preWriting();
+      Vec v2 = new Vec(v._key, Vec.ESPC.rowLayout(v._key, espc2), domains[i], types[i]);
+      DKV.put(v2, fs);
+      v2.postWrite(fs);
+    }
+    fs.blockForPending();
+    dest.reloadVecs();
+  }
+
+  // Copies the chunks of the parsed frame into the Vecs appended to, shifted by the chunks of these Vecs
+  private static class AppendChunksTask extends MRTask<AppendChunksTask> {
+    private final Key[] _vecKeys;
+    private final int _chunkOffset;
+    private final int[][] _maps;  // Parsed to unified categorical codes, null if unchanged
+
+    private AppendChunksTask(Key[] vecKeys, int chunkOffset, int[][] maps) {
+      _vecKeys = vecKeys;
+      _chunkOffset = chunkOffset;
+      _maps = maps;
+    }
+
+    @Override public void map(Chunk[] chks) {
+      final int cidx = chks[0].cidx();
+      for( int i = 0; i < chks.length; i++ ) {
+        Chunk chk = chks[i];
+        Chunk res;
+        if( _maps[i] == null ) res = chk.deepCopy();
+        else {
+          NewChunk nc = new NewChunk(chk.vec(), cidx);
+          for( int j = 0; j < chk._len; j++ )
+            if( chk.isNA(j) ) nc.addNA();
+            else nc.addNum(_maps[i][(int) chk.at8(j)], 0);
+          res = nc.compress();
+        }
+        DKV.put(Vec.chunkKey(_vecKeys[i], _chunkOffset + cidx), res, _fs);
+      }
+    }
+  }
+
   // Allow both ByteVec keys and Frame-of-1-ByteVec
   static ByteVec getByteVec(Key key) {
     Iced ice = DKV.getGet(key);
@@ -122,6 +261,8 @@ public final class ParseDataset {
     for( String x : conflictingNames )
     if ( x != null && !x.equals(""))
       throw new IllegalArgumentException("Found duplicate column name "+x);
+    final boolean lazy = setup._lazy_columns != null && setup._lazy_columns.length > 0;
+    if( lazy ) checkLazyColumns(setup);
     // Some quick sanity checks: no overwriting your input key, and a resource check.
     long totalParseSize=0;
     for( int i=0; i<keys.length; i++ ) {
@@ -161,6 +302,11 @@ public final class ParseDataset {
 
     // Fire off the parse
     ParseDataset pds = new ParseDataset(dest);
+    if( lazy && deleteOnDone ) { // The lazy columns are parsed from the inputs later on
+      Log.info("Keeping the parse inputs until the lazy columns are parsed or removed");
+      pds._deleteLazyInputs = true;
+      deleteOnDone = false;
+    }
     new Frame(pds._job._result,new String[0],new Vec[0]).delete_and_lock(pds._job); // Write-Lock BEFORE returning
     for( Key k : keys ) Lockable.read_lock(k,pds._job); // Read-Lock BEFORE returning
     ParserFJTask fjt = new ParserFJTask(pds, keys, setup, deleteOnDone); // Fire off background parse
@@ -168,6 +314,28 @@ public final class ParseDataset {
     return pds;
   }
 
+  private static void checkLazyColumns(ParseSetup setup) {
+    if( setup._column_types == null )
+      throw new IllegalArgumentException("Lazy columns need a known number of columns, not supported by " + setup._parse_type.name());
+    boolean[] lazy = setup.lazyColumnFlags();
+    for( int c : setup._lazy_columns ) {
+      if( c < 0 || c >= setup._number_columns )
+        throw new IllegalArgumentException("Lazy column " + c + " out of range, the data has " + setup._number_columns + " columns");
+      if( setup._column_types[c] == Vec.T_BAD )
+        throw new IllegalArgumentException("Lazy column " + c + " needs a type, its type was not guessed");
+    }
+    if( eagerColumn(lazy) == -1 )
+      throw new IllegalArgumentException("At least one column must be parsed, all are lazy");
+  }
+
+  // First column actually parsed, -1 if none
+  private static int eagerColumn(boolean[] lazy) {
+    if( lazy == null ) return 0;
+    for( int i = 0; i < lazy.length; i++ )
+      if( !lazy[i] ) return i;
+    return -1;
+  }
+
   // Setup a private background parse job
   private ParseDataset(Key<Frame> dest) {
     _job = new Job(dest,Frame.class.getName(), "Parse");
@@ -251,27 +419,55 @@ public final class ParseDataset {
     // Filter down to columns with some categoricals
     int n = 0;
     int[] ecols2 = new int[avs.length];
+    final boolean[] lazy = setup.lazyColumnFlags();
     for( int i = 0; i < avs.length; ++i )
-      if( avs[i].get_type()==Vec.T_CAT  ) // Intended type is categorical (even though no domain has been set)?
+      if( avs[i].get_type()==Vec.T_CAT && (lazy == null || !lazy[i]) ) // Intended type is categorical (even though no domain has been set)?
         ecols2[n++] = i;
     final int[] ecols = Arrays.copyOf(ecols2, n);
+    String[][] domainSplits = null; // Ranges of the categorical levels owned by each node
+    int[][] domainOffsets = null;   // Unified code of the first level of each range
     // If we have any, go gather unified categorical domains
     if( n > 0 ) {
       if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
         job.update(0, "Collecting categorical domains across nodes.");
         {
           GatherCategoricalDomainsTask gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols).doAllNodes();
+          // Each node builds the sorted levels of one range of every column, from the levels seen by all nodes
+          String[][] splits = gcdt.splitters(H2O.CLOUD.size());
+          H2ONode[] nodes = H2O.CLOUD.members();
+          RPC<BuildDomainPartitionTask>[] rpcs = new RPC[nodes.length];
+          for (int i = 0; i < nodes.length; i++)
+            rpcs[i] = new RPC<>(nodes[i], new BuildDomainPartitionTask(mfpt._cKey, splits)).call();
+          byte[][][] partitions = new byte[nodes.length][][];
+          for (int i = 0; i < nodes.length; i++)
+            partitions[i] = rpcs[i].get()._partition;
           //Test domains for excessive length.
           List<String> offendingColNames = new ArrayList<>();
+          domainOffsets = new int[ecols.length][nodes.length];
           for (int i = 0; i < ecols.length; i++) {
-            if (gcdt.getDomainLength(i) < Categorical.MAX_CATEGORICAL_COUNT) {
-              if( gcdt.getDomainLength(i)==0 ) avs[ecols[i]].setBad(); // The all-NA column
-              else avs[ecols[i]].setDomain(gcdt.getDomain(i));
+            int len = 0;
+            for (int p = 0; p < nodes.length; p++) {
+              domainOffsets[i][p] = len;
+              len += PackedDomains.sizeOf(partitions[p][i]);
+            }
+            if (len < Categorical.MAX_CATEGORICAL_COUNT) {
+              if( len==0 ) avs[ecols[i]].setBad(); // The all-NA column
+              else {
+                // The ranges are in order: the unified domain is the concatenation of the partitions
+                String[] domain = new String[len];
+                for (int p = 0; p < nodes.length; p++) {
+                  String[] part = PackedDomains.unpackToStrings(partitions[p][i]);
+                  System.arraycopy(part, 0, domain, domainOffsets[i][p], part.length);
+                  partitions[p][i] = null;
+                }
+                avs[ecols[i]].setDomain(domain);
+              }
             } else
               offendingColNames.add(setup._column_names[ecols[i]]);
           }
           if (offendingColNames.size() > 0)
             throw new H2OParseException("Exceeded categorical limit on columns "+ offendingColNames+".   Consider reparsing these columns as a string.");
+          domainSplits = splits;
         }
         Log.trace("Done collecting categorical domains across nodes.");
       } else {
@@ -282,7 +478,7 @@ public final class ParseDataset {
       }
 
       job.update(0, "Compressing data.");
-      fr = new Frame(job._result, setup._column_names, AppendableVec.closeAll(avs));
+      fr = new Frame(job._result, setup._column_names, closeVecs(avs, setup, fkeys, pds._deleteLazyInputs));
       fr.update(job);
       Log.trace("Done compressing data.");
       if (!setup.getParseType().isDomainProvided) {
@@ -297,20 +493,19 @@ public final class ParseDataset {
           RPC[] rpcs = new RPC[H2O.CLOUD.size()];
           for (int i = 0; i < fcdt.length; i++){
             H2ONode[] nodes = H2O.CLOUD.members();
-            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols);
+            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, domainSplits, domainOffsets);
             rpcs[i] = new RPC<>(nodes[i], fcdt[i]).call();
           }
           for (RPC rpc : rpcs)
             rpc.get();
 
           new UpdateCategoricalChunksTask(mfpt._cKey, mfpt._chunk2ParseNodeMap).doAll(evecs);
-          MultiFileParseTask._categoricals.remove(mfpt._cKey);
         }
         Log.trace("Done unifying categoricals across nodes.");
       }
     } else {                    // No categoricals case
       job.update(0,"Compressing data.");
-      fr = new Frame(job._result, setup._column_names,AppendableVec.closeAll(avs));
+      fr = new Frame(job._result, setup._column_names, closeVecs(avs, setup, fkeys, pds._deleteLazyInputs));
       Log.trace("Done closing all Vecs.");
     }
     // Check for job cancellation
@@ -368,48 +563,256 @@ public final class ParseDataset {
       }
     return pds;
   }
+  // Closes the parsed Vecs; the columns left out of the parse become LazyVecs of the same layout
+  private static Vec[] closeVecs(AppendableVec[] avs, ParseSetup setup, Key[] fkeys, boolean deleteLazyInputs) {
+    final boolean[] lazy = setup.lazyColumnFlags();
+    if( lazy == null ) return AppendableVec.closeAll(avs);
+    Futures fs = new Futures();
+    final int rowLayout = avs[eagerColumn(lazy)].compute_rowLayout();
+    Key<LazyVec.Source> srcKey = Key.make();
+    DKV.put(new LazyColumns(srcKey, fkeys, setup, deleteLazyInputs), fs);
+    Vec[] res = new Vec[avs.length];
+    ArrayList<Key> lazyKeys = new ArrayList<>();
+    for( int i = 0; i < avs.length; i++ )
+      if( lazy[i] ) {
+        DKV.put(res[i] = new LazyVec(avs[i]._key, rowLayout, avs[i].get_type(), srcKey, i), fs);
+        lazyKeys.add(avs[i]._key);
+      } else res[i] = avs[i].close(rowLayout, fs);
+    fs.blockForPending();
+    LazyVec.register(srcKey, lazyKeys.toArray(new Key[lazyKeys.size()]));
+    return res;
+  }
+
+  /** The parse inputs of lazy columns: a column is parsed on its own on first
+   *  access, all the other columns being skipped.  Once all of them are parsed
+   *  or removed, the inputs are deleted if the parse was to delete them. */
+  private static class LazyColumns extends LazyVec.Source {
+    private final Key[] _keys;
+    private final ParseSetup _setup;
+    private final boolean _deleteOnDone;
+
+    LazyColumns(Key<LazyVec.Source> key, Key[] keys, ParseSetup setup, boolean deleteOnDone) {
+      super(key);
+      _keys = keys;
+      _setup = new ParseSetup(setup);
+      _setup._column_types = setup._column_types.clone();
+      _deleteOnDone = deleteOnDone;
+    }
+
+    @Override protected Futures remove_impl(Futures fs) {
+      if( _deleteOnDone )
+        for( Key k : _keys ) Keyed.remove(k, fs);
+      return fs;
+    }
+
+    @Override protected Vec materialize(LazyVec vec) {
+      ParseSetup setup = new ParseSetup(_setup);
+      setup._column_types = _setup._column_types.clone();
+      int[] skip = new int[setup._number_columns - 1];
+      for( int i = 0, j = 0; i < setup._number_columns; i++ )
+        if( i != vec._col ) {
+          skip[j++] = i;
+          // The other columns are only skipped, a column without a guessed type must still pass checkLazyColumns
+          if( setup._column_types[i] == Vec.T_BAD ) setup._column_types[i] = Vec.T_NUM;
+        }
+      setup._lazy_columns = skip;
+      Frame fr = parse(Key.<Frame>make(), _keys, false, setup);
+      try {
+        Vec v = fr.vec(vec._col);
+        if( !Arrays.equals(v.espc(), vec.espc()) )
+          throw new H2OParseException("Column " + vec._col + " of " + Arrays.toString(_keys) + " parsed with a different layout, the inputs changed");
+        new CopyChunksTask(vec._key).doAll(v);
+        return new Vec(vec._key, vec._rowLayout, v.domain(), v.get_type());
+      } finally {
+        fr.delete();            // With the source of its lazy columns
+      }
+    }
+  }
+
+  // Copies the chunks of a Vec under the key of another Vec with the same layout
+  private static class CopyChunksTask extends MRTask<CopyChunksTask> {
+    private final Key _vecKey;
+    CopyChunksTask(Key vecKey) { _vecKey = vecKey; }
+    @Override public void map(Chunk chk) {
+      DKV.put(Vec.chunkKey(_vecKey, chk.cidx()), chk.deepCopy(), _fs);
+    }
+  }
+
+  // Node-local state of the unification of the categorical domains, per parse categorical key
+  private static final NonBlockingHashMap<Key, LocalDomains> _localDomains = new NonBlockingHashMap<>();
+
+  private static class LocalDomains {
+    final BufferedString[][] _levels; // Per categorical column, the levels seen by this node, sorted
+    final int[][] _ids;               // Node-local parse ordinals of the sorted levels
+    final int[] _maxIds;              // Largest node-local parse ordinal of each column
+    int[][][] _ranks;                 // Per node and column, the positions of the node's levels in the range owned here
+
+    LocalDomains(int ncols) {
+      _levels = new BufferedString[ncols][];
+      _ids = new int[ncols][];
+      _maxIds = new int[ncols];
+      for (int i = 0; i < ncols; i++) {
+        _levels[i] = new BufferedString[0];
+        _ids[i] = new int[0];
+      }
+    }
+
+    // Bounds of the ranges of the sorted levels of a column, cut at the sorted splitters
+    int[] bounds(int col, String[] splits) {
+      final BufferedString[] levels = _levels[col];
+      int[] res = new int[splits.length + 2];
+      for (int s = 0; s < splits.length; s++) {
+        BufferedString split = new BufferedString(splits[s]);
+        int lo = res[s], hi = levels.length;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          if (levels[mid].compareTo(split) < 0) lo = mid + 1;
+          else hi = mid;
+        }
+        res[s + 1] = lo;
+      }
+      res[splits.length + 1] = levels.length;
+      return res;
+    }
+  }
+
+  /** Builds the range of the unified categorical domains owned by this node: the levels of the range seen by all
+   *  nodes are fetched and merged, and the position of each node's levels in the merged range are kept for
+   *  {@link CreateParse2GlobalCategoricalMaps}.  The node of index {@code i} owns the levels between the splitters
+   *  {@code i-1} and {@code i}, so that the unified domain is the concatenation of the ranges. */
+  private static class BuildDomainPartitionTask extends DTask<BuildDomainPartitionTask> {
+    private final Key _k;
+    private final String[][] _splits;
+    private byte[][] _partition; // Per categorical column, the packed sorted levels of the range
+
+    private BuildDomainPartitionTask(Key k, String[][] splits) {
+      _k = k;
+      _splits = splits;
+    }
+
+    @Override public void compute2() {
+      final int range = H2O.SELF.index();
+      final H2ONode[] nodes = H2O.CLOUD.members();
+      RPC<DomainSliceTask>[] rpcs = new RPC[nodes.length];
+      for (int i = 0; i < nodes.length; i++)
+        rpcs[i] = new RPC<>(nodes[i], new DomainSliceTask(_k, _splits, range)).call();
+      final byte[][][] slices = new byte[nodes.length][][];
+      for (int i = 0; i < nodes.length; i++)
+        slices[i] = rpcs[i].get()._slices;
+      final int[][][] ranks = new int[nodes.length][_splits.length][];
+      _partition = new byte[_splits.length][];
+      H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_splits.length];
+      for (int c = 0; c < _splits.length; c++) {
+        final int fc = c;
+        domtasks[c] = new H2OCountedCompleter(currThrPriority()) {
+          @Override
+          public void compute2() {
+            byte[][] colSlices = new byte[nodes.length][];
+            for (int i = 0; i < nodes.length; i++) colSlices[i] = slices[i][fc];
+            _partition[fc] = PackedDomains.mergeAll(colSlices);
+            for (int i = 0; i < nodes.length; i++) ranks[i][fc] = PackedDomains.ranks(colSlices[i], _partition[fc]);
+            tryComplete();
+          }
+        };
+      }
+      ForkJoinTask.invokeAll(domtasks);
+      _localDomains.get(_k)._ranks = ranks;
+      tryComplete();
+    }
+  }
+
+  // Packs the sorted levels seen by this node in one range of each categorical column
+  private static class DomainSliceTask extends DTask<DomainSliceTask> {
+    private final Key _k;
+    private final String[][] _splits;
+    private final int _range;
+    private byte[][] _slices;
+
+    private DomainSliceTask(Key k, String[][] splits, int range) {
+      _k = k;
+      _splits = splits;
+      _range = range;
+    }
+
+    @Override public void compute2() {
+      final LocalDomains ld = _localDomains.get(_k);
+      _slices = new byte[_splits.length][];
+      for (int c = 0; c < _splits.length; c++) {
+        if (ld == null || _range > _splits[c].length) {
+          _slices[c] = PackedDomains.pack(new BufferedString[0]);
+        } else {
+          int[] bounds = ld.bounds(c, _splits[c]);
+          _slices[c] = PackedDomains.pack(ld._levels[c], bounds[_range], bounds[_range + 1]);
+        }
+      }
+      tryComplete();
+    }
+  }
+
+  // Fetches the positions of the levels of one node in the range of the unified domains owned by this node
+  private static class FetchRanksTask extends DTask<FetchRanksTask> {
+    private final Key _k;
+    private final int _node;
+    private int[][] _ranks;
+
+    private FetchRanksTask(Key k, int node) {
+      _k = k;
+      _node = node;
+    }
+
+    @Override public void compute2() {
+      final LocalDomains ld = _localDomains.get(_k);
+      if (ld == null || ld._ranks == null)
+        throw new H2OIllegalValueException("Missing categorical domain range", this);
+      _ranks = ld._ranks[_node];
+      tryComplete();
+    }
+  }
+
   private static class CreateParse2GlobalCategoricalMaps extends DTask<CreateParse2GlobalCategoricalMaps> {
     private final Key   _parseCatMapsKey;
-    private final Key   _frKey;
-    private final int[] _ecol;
+    private final String[][] _splits;
+    private final int[][] _offsets;
 
-    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, Key key, int[] ecol) {
+    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, String[][] splits, int[][] offsets) {
       _parseCatMapsKey = parseCatMapsKey;
-      _frKey = key;
-      _ecol = ecol;
+      _splits = splits;
+      _offsets = offsets;
     }
 
     @Override public void compute2() {
-      Frame _fr = DKV.getGet(_frKey);
       // get the node local category->ordinal maps for each column from initial parse pass
-      if( !MultiFileParseTask._categoricals.containsKey(_parseCatMapsKey) ) {
+      final LocalDomains ld = _localDomains.get(_parseCatMapsKey);
+      if( ld == null || !MultiFileParseTask._categoricals.containsKey(_parseCatMapsKey) ) {
         tryComplete();
         return;
       }
-        final Categorical[] parseCatMaps = MultiFileParseTask._categoricals.get(_parseCatMapsKey);
-        int[][] _nodeOrdMaps = new int[_ecol.length][];
-
-        // create old_ordinal->new_ordinal map for each cat column
-        for (int eColIdx = 0; eColIdx < _ecol.length; eColIdx++) {
-          int colIdx = _ecol[eColIdx];
-          if (parseCatMaps[colIdx].size() != 0) {
-            _nodeOrdMaps[eColIdx] = MemoryManager.malloc4(parseCatMaps[colIdx].maxId() + 1);
-            Arrays.fill(_nodeOrdMaps[eColIdx], -1);
-            //Bulk String->BufferedString conversion is slightly faster, but consumes memory
-            final BufferedString[] unifiedDomain = BufferedString.toBufferedString(_fr.vec(colIdx).domain());
-            //final String[] unifiedDomain = _fr.vec(colIdx).domain();
-            for (int i = 0; i < unifiedDomain.length; i++) {
-              //final BufferedString cat = new BufferedString(unifiedDomain[i]);
-              if (parseCatMaps[colIdx].containsKey(unifiedDomain[i])) {
-                _nodeOrdMaps[eColIdx][parseCatMaps[colIdx].getTokenId(unifiedDomain[i])] = i;
-              }
-            }
-          } else {
-            Log.debug("Column " + colIdx + " was marked as categorical but categorical map is empty!");
-          }
+      // the positions of this node's levels in each range, from the owners of the ranges
+      final H2ONode[] nodes = H2O.CLOUD.members();
+      RPC<FetchRanksTask>[] rpcs = new RPC[nodes.length];
+      for (int i = 0; i < nodes.length; i++)
+        rpcs[i] = new RPC<>(nodes[i], new FetchRanksTask(_parseCatMapsKey, H2O.SELF.index())).call();
+      int[][][] ranks = new int[nodes.length][][];
+      for (int i = 0; i < nodes.length; i++)
+        ranks[i] = rpcs[i].get()._ranks;
+      int[][] _nodeOrdMaps = new int[_splits.length][];
+
+      // create old_ordinal->new_ordinal map for each cat column
+      for (int eColIdx = 0; eColIdx < _splits.length; eColIdx++) {
+        if (ld._levels[eColIdx].length == 0) continue;
+        final int[] map = _nodeOrdMaps[eColIdx] = MemoryManager.malloc4(ld._maxIds[eColIdx] + 1);
+        Arrays.fill(map, -1);
+        final int[] ids = ld._ids[eColIdx];
+        final int[] bounds = ld.bounds(eColIdx, _splits[eColIdx]);
+        for (int p = 0; p + 1 < bounds.length; p++) {
+          final int[] rs = ranks[p][eColIdx];
+          final int off = _offsets[eColIdx][p];
+          for (int j = bounds[p]; j < bounds[p + 1]; j++)
+            map[ids[j]] = off + rs[j - bounds[p]];
         }
-        // Store the local->global ordinal maps in DKV by node parse categorical key and node index
-        DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
+      }
+      // Store the local->global ordinal maps in DKV by node parse categorical key and node index
+      DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
       tryComplete();
     }
   }
@@ -429,6 +832,12 @@ public final class ParseDataset {
       _chunk2ParseNodeMap = chunk2ParseNodeMap;
     }
 
+    @Override public void setupLocal() {
+      // The maps are in the DKV by now, drop the node-local state of the unification
+      _localDomains.remove(_parseCatMapsKey);
+      MultiFileParseTask._categoricals.remove(_parseCatMapsKey);
+    }
+
     @Override public void map(Chunk [] chks){
       CategoricalUpdateMap temp = DKV.getGet(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + _chunk2ParseNodeMap[chks[0].cidx()]));
       if ( temp == null || temp.map == null)
@@ -440,18 +849,21 @@ public final class ParseDataset {
       for(int i = 0; i < chks.length; ++i) {
         Chunk chk = chks[i];
         if (!(chk instanceof CStrChunk)) {
-          for( int j = 0; j < chk._len; ++j){
-            if( chk.isNA(j) )continue;
-            final int old = (int) chk.at8(j);
-            if (old < 0 || (_parse2GlobalCatMaps[i] != null && old >= _parse2GlobalCatMaps[i].length))
-              chk.reportBrokenCategorical(i, j, old, _parse2GlobalCatMaps[i], _fr.vec(i).domain().length);
-            if(_parse2GlobalCatMaps[i] != null && _parse2GlobalCatMaps[i][old] < 0)
-              throw new H2OParseException("Error in unifying categorical values. This is typically "
-                  +"caused by unrecognized characters in the data.\n The problem categorical value "
-                  +"occurred in the " + PrettyPrint.withOrdinalIndicator(i+1)+ " categorical col, "
-                  +PrettyPrint.withOrdinalIndicator(chk.start() + j) +" row.");
-            if (_parse2GlobalCatMaps[i] != null)
-              chk.set(j, _parse2GlobalCatMaps[i][old]);
+          // Renumber in place when the global codes fit the chunk's encoding, else row by row
+          if (_parse2GlobalCatMaps[i] == null || !chk.remap(_parse2GlobalCatMaps[i])) {
+            for( int j = 0; j < chk._len; ++j){
+              if( chk.isNA(j) )continue;
+              final int old = (int) chk.at8(j);
+              if (old < 0 || (_parse2GlobalCatMaps[i] != null && old >= _parse2GlobalCatMaps[i].length))
+                chk.reportBrokenCategorical(i, j, old, _parse2GlobalCatMaps[i], _fr.vec(i).domain().length);
+              if(_parse2GlobalCatMaps[i] != null && _parse2GlobalCatMaps[i][old] < 0)
+                throw new H2OParseException("Error in unifying categorical values. This is typically "
+                    +"caused by unrecognized characters in the data.\n The problem categorical value "
+                    +"occurred in the " + PrettyPrint.withOrdinalIndicator(i+1)+ " categorical col, "
+                    +PrettyPrint.withOrdinalIndicator(chk.start() + j) +" row.");
+              if (_parse2GlobalCatMaps[i] != null)
+                chk.set(j, _parse2GlobalCatMaps[i][old]);
+            }
           }
           Log.trace("Updated domains for "+PrettyPrint.withOrdinalIndicator(i+1)+ " categorical column.");
         }
@@ -463,10 +875,26 @@ public final class ParseDataset {
         DKV.remove(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + i));
     }
   }
+
+  // Drops the node-local categorical state of a parse, see UpdateCategoricalChunksTask for the regular path
+  private static class ReleaseCategoricalsTask extends MRTask<ReleaseCategoricalsTask> {
+    private final Key _k;
+
+    private ReleaseCategoricalsTask(Key k) { _k = k; }
+
+    @Override public void setupLocal() {
+      _localDomains.remove(_k);
+      MultiFileParseTask._categoricals.remove(_k);
+    }
+  }
+
+  /** Sorts the categorical levels seen by each node, and samples them to cut the levels of each column into one
+   *  range per node, see {@link BuildDomainPartitionTask}. */
   private static class GatherCategoricalDomainsTask extends MRTask<GatherCategoricalDomainsTask> {
+    private static final int SAMPLES = 256; // Levels sampled per node and column
     private final Key _k;
     private final int[] _catColIdxs;
-    private byte[][] _packedDomains;
+    private byte[][] _packedSamples;
 
     private GatherCategoricalDomainsTask(Key k, int[] ccols) {
       _k = k;
@@ -475,48 +903,63 @@ public final class ParseDataset {
 
     @Override
     public void setupLocal() {
+      final LocalDomains ld = new LocalDomains(_catColIdxs.length);
+      _localDomains.put(_k, ld);
       if (!MultiFileParseTask._categoricals.containsKey(_k)) return;
-      _packedDomains = new byte[_catColIdxs.length][];
-      final BufferedString[][] _perColDomains = new BufferedString[_catColIdxs.length][];
+      _packedSamples = new byte[_catColIdxs.length][];
       final Categorical[] _colCats = MultiFileParseTask._categoricals.get(_k);
-      int i = 0;
-      for (int col : _catColIdxs) {
-        _colCats[col].convertToUTF8(col + 1);
-        _perColDomains[i] = _colCats[col].getColumnDomain();
-        Arrays.sort(_perColDomains[i]);
-        _packedDomains[i] = PackedDomains.pack(_perColDomains[i]);
-        i++;
+      H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_catColIdxs.length];
+      for (int i = 0; i < _catColIdxs.length; i++) {
+        final int fi = i;
+        domtasks[i] = new H2OCountedCompleter(currThrPriority()) {
+          @Override
+          public void compute2() {
+            final int col = _catColIdxs[fi];
+            final Categorical cat = _colCats[col];
+            cat.convertToUTF8(col + 1);
+            final BufferedString[] levels = cat.getColumnDomain();
+            Arrays.sort(levels);
+            final int[] ids = MemoryManager.malloc4(levels.length);
+            for (int j = 0; j < levels.length; j++) ids[j] = cat.getTokenId(levels[j]);
+            ld._levels[fi] = levels;
+            ld._ids[fi] = ids;
+            ld._maxIds[fi] = cat.maxId();
+            BufferedString[] sample = new BufferedString[Math.min(levels.length, SAMPLES)];
+            for (int j = 0; j < sample.length; j++) sample[j] = levels[(int) ((long) j * levels.length / sample.length)];
+            _packedSamples[fi] = PackedDomains.pack(sample);
+            tryComplete();
+          }
+        };
       }
+      ForkJoinTask.invokeAll(domtasks);
       Log.trace("Done locally collecting domains on each node.");
     }
     
     @Override
     public void reduce(final GatherCategoricalDomainsTask other) {
-      if (_packedDomains == null) {
-        _packedDomains = other._packedDomains;
-      } else if (other._packedDomains != null) { // merge two packed domains
-        H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_catColIdxs.length];
-        for (int i = 0; i < _catColIdxs.length; i++) {
-          final int fi = i;
-          domtasks[i] = new H2OCountedCompleter(currThrPriority()) {
-            @Override
-            public void compute2() {
-              _packedDomains[fi] = PackedDomains.merge(_packedDomains[fi], other._packedDomains[fi]);
-              tryComplete();
-            }
-          };
-        }
-        ForkJoinTask.invokeAll(domtasks);
+      if (_packedSamples == null) {
+        _packedSamples = other._packedSamples;
+      } else if (other._packedSamples != null) { // merge two packed samples
+        for (int i = 0; i < _catColIdxs.length; i++)
+          _packedSamples[i] = PackedDomains.merge(_packedSamples[i], other._packedSamples[i]);
       }
-      Log.trace("Done merging domains.");
     }
 
-    public int getDomainLength(int colIdx) {
-      return _packedDomains == null ? 0 : PackedDomains.sizeOf(_packedDomains[colIdx]);
-    }
-
-    public String[] getDomain(int colIdx) {
-      return _packedDomains == null ? null : PackedDomains.unpackToStrings(_packedDomains[colIdx]);
+    /** @return per categorical column, the sorted levels cutting the sampled levels into at most {@code nranges}
+     *  ranges of similar sizes */
+    public String[][] splitters(int nranges) {
+      String[][] res = new String[_catColIdxs.length][];
+      for (int i = 0; i < _catColIdxs.length; i++) {
+        String[] sample = _packedSamples == null ? new String[0] : PackedDomains.unpackToStrings(_packedSamples[i]);
+        List<String> splits = new ArrayList<>();
+        int last = 0;
+        for (int r = 1; r < nranges; r++) {
+          int j = (int) ((long) r * sample.length / nranges);
+          if (j > last) splits.add(sample[last = j]);
+        }
+        res[i] = splits.toArray(new String[splits.size()]);
+      }
+      return res;
     }
   }
 
@@ -624,10 +1067,13 @@ public final class ParseDataset {
         _vecs = _dout[0]._vecs;
         return;
       }
+      // Lazy columns have no chunks, their layout is the one of the parsed columns
+      final boolean[] lazy = _parseSetup.lazyColumnFlags();
+      final int e = eagerColumn(lazy);
       int nchunks = 0;          // Count chunks across all Vecs
       int nCols = 0;            // SVMLight special: find max columns
       for( FVecParseWriter dout : _dout ) {
-        nchunks += dout._vecs[0]._tmp_espc.length;
+        nchunks += dout._vecs[e]._tmp_espc.length;
         nCols = Math.max(dout._vecs.length,nCols);
       }
       // One Big Happy Shared ESPC
@@ -647,12 +1093,12 @@ public final class ParseDataset {
       // Load the global ESPC from the file-local ESPCs
       for( FVecParseWriter fvpw : _dout ) {
         AppendableVec[] avs = fvpw._vecs;
-        long[] file_local_espc = avs[0]._tmp_espc;
+        long[] file_local_espc = avs[e]._tmp_espc;
         // Quick assert that all partial AVs in each DOUT are sharing a common chunkOff, and common Vec Keys
         for( int j = 0; j < avs.length; ++j ) {
           assert res[j]._key.equals(avs[j]._key);
           assert avs[0]._chunkOff == avs[j]._chunkOff;
-          assert file_local_espc == avs[j]._tmp_espc || Arrays.equals(file_local_espc,avs[j]._tmp_espc);
+          assert file_local_espc == avs[j]._tmp_espc || Arrays.equals(file_local_espc,avs[j]._tmp_espc) || (lazy != null && lazy[j]);
         }
         System.arraycopy(file_local_espc, 0, espc, avs[0]._chunkOff, file_local_espc.length);
       }
@@ -699,7 +1145,7 @@ public final class ParseDataset {
         avs[i] = new AppendableVec(_vg.vecKey(i + _vecIdStart), espc, ctypes==null ? /*SVMLight*/Vec.T_NUM : ctypes[i], chunkOff);
       return localSetup._parse_type.equals(SVMLight_INFO)
         ? new SVMLightFVecParseWriter(_vg, _vecIdStart,chunkOff, _parseSetup._chunk_size, avs)
-        : new FVecParseWriter(_vg, chunkOff, categoricals(_cKey, localSetup._number_columns), localSetup._column_types, _parseSetup._chunk_size, avs);
+        : new FVecParseWriter(_vg, chunkOff, categoricals(_cKey, localSetup._number_columns), localSetup._column_types, _parseSetup._chunk_size, avs, localSetup.lazyColumnFlags());
     }
 
     // Called once per file
@@ -768,6 +1214,24 @@ public final class ParseDataset {
           break;
         }
         case GZIP: {
+          // Blocked gzip (BGZF): inflate the blocks in parallel, then parse the uncompressed bytes as usual
+          if( ParallelGunzip.ENABLED && ParallelGunzip.isBlocked(zips) &&
+              _parseSetup.parseMethod(_keys.length, vec) == ParserInfo.ParseMethod.DistributedParse ) {
+            ByteVec unzipped = ParallelGunzip.inflate(vec, _jobKey);
+            if( unzipped != null ) {
+              try {
+                DistributedParse dp = new DistributedParse(_vg, localSetup, _vecIdStart, chunkStartIdx, this, key, vec.nChunks());
+                dp._bytesScale = (double) vec.length() / unzipped.length();
+                dp._dropParsed = true;
+                dp.dfork(unzipped).getResult(false);
+                for( int i = 0; i < unzipped.nChunks(); ++i )
+                  _chunk2ParseNodeMap[chunkStartIdx + i] = unzipped.chunkKey(i).home_node().index();
+              } finally {
+                unzipped.remove();
+              }
+              break;
+            }
+          }
           localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
           InputStream bvs = vec.openStream(_jobKey);
           // Zipped file; no parallel decompression;
@@ -778,6 +1242,16 @@ public final class ParseDataset {
           chunksAreLocal(vec,chunkStartIdx,key);
           break;
         }
+        case ZSTD: {
+          localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
+          InputStream bvs = vec.openStream(_jobKey);
+          // Zstandard compressed file; no parallel decompression
+          _dout[_lo] = streamParse(decryptionTool.decryptInputStream(ZipUtil.zstdInputStream(bvs)),
+                  localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()),bvs);
+          _errors = _dout[_lo].removeErrors();
+          chunksAreLocal(vec,chunkStartIdx,key);
+          break;
+        }
         }
         Log.trace("Finished a map stage of a file parse with start index "+chunkStartIdx+".");
       } catch( IOException ioe ) {
@@ -846,6 +1320,8 @@ public final class ParseDataset {
       private transient NonBlockingSetInt _visited;
       private transient long [] _espc;
       final int _nchunks;
+      double _bytesScale = 1;   // Job progress per byte parsed, less than 1 when parsing decompressed bytes
+      boolean _dropParsed;      // Parsing a temporary vec: remove its chunks once parsed
 
       DistributedParse(VectorGroup vg, ParseSetup setup, int vecIdstart, int startChunkIdx, MultiFileParseTask mfpt, Key srckey, int nchunks) {
         super(null);
@@ -884,7 +1360,7 @@ public final class ParseDataset {
         case "PARQUET":
           Categorical [] categoricals = categoricals(_cKey, _setup._number_columns);
           dout = new FVecParseWriter(_vg,_startChunkIdx + in.cidx(), categoricals, _setup._column_types,
-                  _setup._chunk_size, avs); //TODO: use _setup._domains instead of categoricals
+                  _setup._chunk_size, avs, _setup.lazyColumnFlags()); //TODO: use _setup._domains instead of categoricals
           break;
         case "SVMLight":
           dout = new SVMLightFVecParseWriter(_vg, _vecIdStart, in.cidx() + _startChunkIdx, _setup._chunk_size, avs);
@@ -892,16 +1368,16 @@ public final class ParseDataset {
         case "ORC":  // setup special case for ORC
           Categorical [] orc_categoricals = categoricals(_cKey, _setup._number_columns);
           dout = new FVecParseWriter(_vg, in.cidx() + _startChunkIdx, orc_categoricals, _setup._column_types,
-                  _setup._chunk_size, avs);
+                  _setup._chunk_size, avs, _setup.lazyColumnFlags());
           break;
         default: // FIXME: should not be default and creation strategy should be forwarded to ParserProvider
           dout = new FVecParseWriter(_vg, in.cidx() + _startChunkIdx, null, _setup._column_types,
-                  _setup._chunk_size, avs);
+                  _setup._chunk_size, avs, _setup.lazyColumnFlags());
           break;
         }
         p.parseChunk(in.cidx(), din, dout);
         (_dout = dout).close(_fs);
-        Job.update(in._len, _jobKey); // Record bytes parsed
+        Job.update((long) (in._len * _bytesScale), _jobKey); // Record bytes parsed
         // remove parsed data right away
         freeMem(in);
       }
@@ -919,7 +1395,12 @@ public final class ParseDataset {
         for(int i=0; i < 2; i++) {  // iterate over this chunk and the next one
           cidx += i;
           if (!_visited.add(cidx)) { // Second visit
-            Value v = Value.STORE_get(in.vec().chunkKey(cidx));
+            Key ckey = in.vec().chunkKey(cidx);
+            if (_dropParsed && cidx < in.vec().nChunks()) { // Parsed here on both sides, nobody needs it anymore
+              DKV.remove(ckey, _fs);
+              continue;
+            }
+            Value v = Value.STORE_get(ckey);
             if (v == null || !v.isPersisted()) return; // Not found, or not on disk somewhere
             v.freePOJO();           // Eagerly toss from memory
             v.freeMem();
@@ -971,6 +1452,8 @@ public final class ParseDataset {
           DKV.remove(Vec.chunkKey(vkey,c),fs);
       }
       cancel(true);
+      // The unification of the categorical domains did not get to drop its node-local state
+      new ReleaseCategoricalsTask(_cKey).doAllNodes();
       return fs;
     }
   }
@@ -983,7 +1466,12 @@ public final class ParseDataset {
     // get all rollups started in parallell, otherwise this takes ages!
     Futures fs = new Futures();
     Vec[] vecArr = fr.vecs();
-    for(Vec v:vecArr)  v.startRollupStats(fs);
+    Frame parsed = new Frame();  // Lazy columns are not parsed yet, nothing to summarize
+    for( int i = 0; i < vecArr.length; i++ )
+      if( !(vecArr[i] instanceof LazyVec) ) {
+        vecArr[i].startRollupStats(fs);
+        parsed.add(fr.names()[i], vecArr[i]);
+      }
     fs.blockForPending();
 
     int namelen = 0;
@@ -994,8 +1482,9 @@ public final class ParseDataset {
 
     for( int i = 0; i < vecArr.length; i++ ) {
       Vec v = vecArr[i];
-      boolean isCategorical = v.isCategorical();
-      boolean isConstant = v.isConst();
+      boolean isLazy = v instanceof LazyVec;
+      boolean isCategorical = !isLazy && v.isCategorical();
+      boolean isConstant = !isLazy && v.isConst();
       String CStr = String.format("%"+namelen+"s:", fr.names()[i]);
       String typeStr;
       String minStr;
@@ -1003,7 +1492,8 @@ public final class ParseDataset {
       String meanStr="";
       String sigmaStr="";
 
-      switch( v.get_type() ) {
+      if( isLazy ) { typeStr = "lazy"; minStr = "";  maxStr = ""; }
+      else switch( v.get_type() ) {
         case Vec.T_BAD :   typeStr = "all_NA" ;  minStr = "";  maxStr = "";  break;
         case Vec.T_UUID:  typeStr = "UUID"   ;  minStr = "";  maxStr = "";  break;
         case Vec.T_STR :  typeStr = "string" ;  minStr = "";  maxStr = "";  break;
@@ -1018,7 +1508,7 @@ public final class ParseDataset {
         default: throw H2O.unimpl();
       }
 
-      long numNAs = v.naCnt();
+      long numNAs = isLazy ? 0 : v.naCnt();
       String naStr = (numNAs > 0) ? String.format("%d", numNAs) : "";
       String isConstantStr = isConstant ? "constant" : "";
       String numLevelsStr = isCategorical ? String.format("%d", v.domain().length) : "";
@@ -1056,7 +1546,7 @@ public final class ParseDataset {
       String s = String.format(format, CStr, typeStr, minStr, maxStr, meanStr, sigmaStr, naStr, isConstantStr, numLevelsStr);
       Log.info(s,printColumnToStdout);
     }
-    Log.info(FrameUtils.chunkSummary(fr).toString());
+    if( parsed.numCols() > 0 ) Log.info(FrameUtils.chunkSummary(parsed).toString());
   }
   public static class H2OParseException extends RuntimeException {
     public H2OParseException(String msg){super(msg);}
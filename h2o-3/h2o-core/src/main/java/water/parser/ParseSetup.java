@@ -42,6 +42,7 @@ public class ParseSetup extends Iced {
   String [] _fileNames = new String[]{"unknown"};
   public boolean disableParallelParse;
   Key<DecryptionTool> _decrypt_tool;
+  int[] _lazy_columns;        // Columns left unparsed until first accessed, see LazyVec
 
   public void setFileName(String name) {_fileNames[0] = name;}
 
@@ -60,6 +61,7 @@ public class ParseSetup extends Iced {
          ps._separator, ps._single_quotes, ps._check_header, ps._number_columns,
          ps._column_names, ps._column_types, ps._domains, ps._na_strings, ps._data,
          new ParseWriter.ParseErr[0], ps._chunk_size, ps._decrypt_tool);
+    _lazy_columns = ps._lazy_columns;
   }
 
 
@@ -213,6 +215,8 @@ public class ParseSetup extends Iced {
       ParseSetup ps = pp.createParserSetup(inputKeys, demandedSetup);
       if (demandedSetup._decrypt_tool != null)
         ps._decrypt_tool = demandedSetup._decrypt_tool;
+      if (demandedSetup._lazy_columns != null)
+        ps._lazy_columns = demandedSetup._lazy_columns;
       return ps;
     }
 
@@ -776,4 +780,22 @@ public class ParseSetup extends Iced {
     return this;
   }
 
+  /**
+   * Columns to leave out of the parse; they become {@link water.fvec.LazyVec}s,
+   * parsed from the same inputs the first time their data is accessed.
+   * The inputs are then kept after the parse.
+   */
+  public ParseSetup setLazyColumns(int[] lazy_columns) {
+    this._lazy_columns = lazy_columns;
+    return this;
+  }
+
+  /** @return per column, whether it is left out of the parse; null if all are parsed */
+  boolean[] lazyColumnFlags() {
+    if (_lazy_columns == null || _lazy_columns.length == 0) return null;
+    boolean[] flags = new boolean[_number_columns];
+    for (int c : _lazy_columns) flags[c] = true;
+    return flags;
+  }
+
 } // ParseSetup state class
@@ -0,0 +1,77 @@
+package water.parser;
+
+import water.H2O;
+import water.util.UnsafeUtils;
+
+import java.nio.ByteOrder;
+
+/**
+ * SIMD-within-a-register helpers for the parsers: look at 8 bytes of the input at once, read as a long.
+ * Byte {@code i} of the input is byte {@code i} (bits {@code 8*i} to {@code 8*i+7}) of the long.
+ */
+final class SwarUtils {
+  private SwarUtils() {}
+
+  /** Turns the 8-bytes-at-a-time scans of the CSV parser off, {@code -Dsys.ai.h2o.parser.csv.swar=false}. */
+  static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "parser.csv.swar", "true"));
+
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+  private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+  private static final long HIGH = 0x8080808080808080L;
+
+  /** The 8 bytes at {@code off}, which must be at most {@code bits.length-8}. */
+  static long word(byte[] bits, int off) {
+    long w = UnsafeUtils.get8(bits, off);
+    return LITTLE_ENDIAN ? w : Long.reverseBytes(w);
+  }
+
+  /** {@code b} in every byte. */
+  static long broadcast(int b) { return (b & 0xFFL) * 0x0101010101010101L; }
+
+  /** Sets the high bit of the bytes of {@code w} which are zero, clears all the other bits. */
+  static long zeros(long w) { return ~(((w & LOW7) + LOW7) | w | LOW7); }
+
+  /**
+   * Index of the first byte in {@code [from, to)} equal to one of the bytes broadcast in {@code a}, {@code b},
+   * {@code c} or {@code d}, {@code to} if none.
+   */
+  static int indexOfAny(byte[] bits, int from, int to, long a, long b, long c, long d) {
+    int i = from;
+    for( ; i + 8 <= to; i += 8 ) {
+      long w = word(bits, i);
+      long m = zeros(w ^ a) | zeros(w ^ b) | zeros(w ^ c) | zeros(w ^ d);
+      if( m != 0 ) return i + (Long.numberOfTrailingZeros(m) >>> 3);
+    }
+    final byte ba = (byte) a, bb = (byte) b, bc = (byte) c, bd = (byte) d;
+    for( ; i < to; i++ ) {
+      byte x = bits[i];
+      if( x == ba || x == bb || x == bc || x == bd ) return i;
+    }
+    return to;
+  }
+
+  /** True if a byte in {@code [from, to)} is beyond 7-bit ASCII. */
+  static boolean anyNonAscii(byte[] bits, int from, int to) {
+    int i = from;
+    long acc = 0;
+    for( ; i + 8 <= to; i += 8 ) acc |= word(bits, i);
+    if( (acc & HIGH) != 0 ) return true;
+    for( ; i < to; i++ ) if( bits[i] < 0 ) return true;
+    return false;
+  }
+
+  /**
+   * Value of the 8 ASCII digits at {@code off} (at most {@code bits.length-8}), -1 if they are not all digits.
+   */
+  static long eightDigits(byte[] bits, int off) {
+    long w = word(bits, off);
+    // Digits are 0x30-0x39: the high nibble is 3, and still 3 after adding 6
+    if( ((w & 0xF0F0F0F0F0F0F0F0L) | (((w + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4)) != 0x3333333333333333L )
+      return -1;
+    w &= 0x0F0F0F0F0F0F0F0FL;
+    w = (w * (10 * 256 + 1)) >>> 8;                                  // Pairs of digits
+    w = ((w & 0x00FF00FF00FF00FFL) * (100 * 65536 + 1)) >>> 16;      // Groups of 4
+    return ((w & 0x0000FFFF0000FFFFL) * (10000 * (1L << 32) + 1)) >>> 32;
+  }
+}
@@ -4,6 +4,7 @@ import water.DKV;
 import water.Iced;
 import water.Key;
 import water.exceptions.H2OIllegalArgumentException;
+import water.exceptions.H2OUnsupportedDataFileException;
 import water.fvec.ByteVec;
 import water.fvec.FileVec;
 import water.fvec.Frame;
@@ -14,6 +15,7 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
@@ -23,7 +25,10 @@ import static water.fvec.FileVec.getPathForKey;
 
 abstract class ZipUtil {
 
-  public enum Compression { NONE, ZIP, GZIP }
+  public enum Compression { NONE, ZIP, GZIP, ZSTD }
+
+  /** Magic number of a Zstandard frame, little-endian. */
+  static final int ZSTD_MAGIC = 0xFD2FB528;
 
   /**
    * This method will attempt to read the few bytes off a file which will in turn be used
@@ -156,6 +161,8 @@ abstract class ZipUtil {
       return Compression.ZIP;
     if( bits.length > 2 && (UnsafeUtils.get2(bits,0)&0xffff) == GZIPInputStream.GZIP_MAGIC )
       return Compression.GZIP;
+    if( bits.length > 4 && UnsafeUtils.get4(bits, 0) == ZSTD_MAGIC )
+      return Compression.ZSTD;
     return Compression.NONE;
   }
 
@@ -194,7 +201,7 @@ abstract class ZipUtil {
     if( cmp == Compression.NONE ) return bs; // No compression
     // Wrap the bytes in a stream
     ByteArrayInputStream bais = new ByteArrayInputStream(bs);
-    InflaterInputStream is = null;
+    InputStream is = null;
     try {
       if (cmp == Compression.ZIP) {
         ZipInputStream zis = new ZipInputStream(bais);
@@ -203,6 +210,8 @@ abstract class ZipUtil {
         if (ze == null || ze.isDirectory())
           zis.getNextEntry(); // read the next entry which should be a file
         is = zis;
+      } else if (cmp == Compression.ZSTD) {
+        is = zstdInputStream(bais);
       } else {
         assert cmp == Compression.GZIP;
         is = new GZIPInputStream(bais);
@@ -228,7 +237,9 @@ abstract class ZipUtil {
       // There is generally no way to avod this exception, we have to ignore it here
       Log.trace(eof);
     } catch( IOException ioe ) {
-      throw Log.throwErr(ioe); 
+      // zstd-jni reports a frame cut short (the first chunk of a file being guessed) as a plain IOException
+      if( cmp != Compression.ZSTD ) throw Log.throwErr(ioe);
+      Log.trace(ioe);
     } finally { 
       try { if( is != null ) is.close(); } catch( IOException ignore ) { }
     }
@@ -236,6 +247,28 @@ abstract class ZipUtil {
     return bs;
   }
 
+  /**
+   * Decompresses a Zstandard stream with zstd-jni ({@code com.github.luben:zstd-jni}), which is not a dependency
+   * of h2o-core: it needs to be put on the classpath to parse Zstandard compressed files.
+   */
+  static InputStream zstdInputStream(InputStream is) throws IOException {
+    final Class<?> clz;
+    try {
+      clz = Class.forName("com.github.luben.zstd.ZstdInputStream");
+    } catch (ClassNotFoundException e) {
+      throw new H2OUnsupportedDataFileException("Zstandard compressed files cannot be parsed without zstd-jni",
+              "Put com.github.luben:zstd-jni on the classpath to parse Zstandard compressed files");
+    }
+    try {
+      return (InputStream) clz.getConstructor(InputStream.class).newInstance(is);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+      throw new IOException(e.getCause());
+    } catch (ReflectiveOperationException e) {
+      throw new IOException(e);
+    }
+  }
+
   /**
    * This method will read a compressed zip file and return the uncompressed bits so that we can
    * check the beginning of the file and make sure it does not contain the column names.
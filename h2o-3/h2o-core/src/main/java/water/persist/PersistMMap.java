@@ -0,0 +1,147 @@
+package water.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import water.*;
+
+/**
+ * Memory-mapped variant of user-mode swapping.
+ * <p>
+ * Instead of one file per spilled Value written and read back through an
+ * {@link AutoBuffer}, spilled Values are appended into large per-node segment
+ * files under ice_root which stay memory-mapped.  Reloading a Value is a copy
+ * out of the page cache (at worst a page fault), with no file open, no read
+ * syscalls and no intermediate buffers.  A segment file is deleted once it is
+ * full and every Value stored in it has been deleted.
+ * <p>
+ * Values larger than a segment are stored by the wrapped {@link PersistFS}.
+ */
+public final class PersistMMap extends Persist {
+  static final int DEFAULT_SEGMENT_SIZE = H2O.OptArgs.getSysPropInt("persist.mmap.segment_mb", 256) << 20;
+
+  final PersistFS _fs;
+  final File _segDir;
+  private final int _segSize;
+
+  // One mapped segment file; bytes [0,_end) are allocated, _live of them
+  // still belong to undeleted Values.
+  private static final class Segment {
+    final File _file;
+    final MappedByteBuffer _buf;
+    int _end;                   // Guarded by the PersistMMap
+    private long _live;         // Guarded by this
+    private boolean _sealed;    // No more appends; delete when empty
+    Segment(File file, MappedByteBuffer buf) { _file = file; _buf = buf; }
+    synchronized void alloc(int len) { _live += len; }
+    synchronized void release(int len) { _live -= len; assert _live >= 0; if( _sealed && _live == 0 ) _file.delete(); }
+    synchronized void seal() { _sealed = true; if( _live == 0 ) _file.delete(); }
+  }
+
+  // Location of one spilled Value
+  private static final class Extent {
+    final Value _val;
+    final Segment _seg;
+    final int _off, _len;
+    Extent(Value val, Segment seg, int off, int len) { _val = val; _seg = seg; _off = off; _len = len; }
+  }
+
+  private final ConcurrentHashMap<Key,Extent> _extents = new ConcurrentHashMap<>();
+  private Segment _cur;         // Segment being appended to; guarded by this
+  private int _nextSeg;         // Guarded by this
+
+  PersistMMap(PersistFS fs) { this(fs, DEFAULT_SEGMENT_SIZE); }
+  PersistMMap(PersistFS fs, int segSize) {
+    _fs = fs;
+    _segDir = new File(fs._dir, "mmap");
+    _segSize = segSize;
+  }
+
+  // Map a new segment file.  Refuse if the disk cannot hold it: writing into
+  // a mapped sparse file on a full disk faults instead of failing cleanly.
+  private Segment newSegment() throws IOException {
+    if( !_segDir.mkdirs() && !_segDir.exists() )
+      throw new IOException("mkdirs failed making "+_segDir);
+    long usable = _fs.getUsableSpace();
+    if( usable >= 0 && usable < 2L*_segSize )
+      throw new IOException("Not enough space in "+_segDir+" for a new swap segment");
+    File f = new File(_segDir, "seg" + (_nextSeg++));
+    try( RandomAccessFile raf = new RandomAccessFile(f, "rw") ) {
+      raf.setLength(_segSize);
+      return new Segment(f, raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, _segSize));
+    }
+  }
+
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad();
+    if( m.length > _segSize ) { _fs.store(v); return; }
+    Segment seg;
+    int off;
+    synchronized( this ) {
+      if( _cur == null || _cur._end + m.length > _segSize ) {
+        Segment full = _cur;
+        _cur = newSegment();
+        if( full != null ) full.seal();
+      }
+      seg = _cur;
+      off = seg._end;
+      seg._end += m.length;
+      seg.alloc(m.length);
+    }
+    ByteBuffer bb = seg._buf.duplicate();
+    bb.position(off);
+    bb.put(m);
+    Extent old = _extents.put(v._key, new Extent(v, seg, off, m.length));
+    if( old != null ) old._seg.release(old._len); // Stale copy of an earlier Value for this Key
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    Extent e = _extents.get(v._key);
+    if( e == null || e._val != v ) return _fs.load(v);
+    byte[] b = MemoryManager.malloc1(e._len);
+    ByteBuffer bb = e._seg._buf.duplicate();
+    bb.position(e._off);
+    bb.get(b);
+    return b;
+  }
+
+  @Override public void delete(Value v) {
+    Extent e = _extents.get(v._key);
+    if( e != null && e._val == v ) {
+      if( _extents.remove(v._key, e) ) e._seg.release(e._len);
+    } else _fs.delete(v);
+  }
+
+  @Override public void cleanUp() {
+    synchronized( this ) { _cur = null; }
+    _extents.clear();
+    _fs.cleanUp();              // Removes the segment files along with the rest of ice
+  }
+
+  @Override public long getUsableSpace() { return _fs.getUsableSpace(); }
+  @Override public long getTotalSpace() { return _fs.getTotalSpace(); }
+
+  // Everything else is served by the file-per-Value backend
+  @Override public Key uriToKey(URI uri) throws IOException { return _fs.uriToKey(uri); }
+  @Override public List<String> calcTypeaheadMatches(String filter, int limit) { return _fs.calcTypeaheadMatches(filter, limit); }
+  @Override public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels) {
+    _fs.importFiles(path, pattern, files, keys, fails, dels);
+  }
+  @Override public OutputStream create(String path, boolean overwrite) { return _fs.create(path, overwrite); }
+  @Override public PersistEntry[] list(String path) { return _fs.list(path); }
+  @Override public InputStream open(String path) { return _fs.open(path); }
+  @Override public boolean mkdirs(String path) { return _fs.mkdirs(path); }
+  @Override public boolean exists(String path) { return _fs.exists(path); }
+  @Override public boolean isDirectory(String path) { return _fs.isDirectory(path); }
+}
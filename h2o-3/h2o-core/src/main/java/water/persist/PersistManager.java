@@ -125,6 +125,14 @@ public class PersistManager {
 //      }
     }
 
+    if( ice instanceof PersistFS && H2O.ARGS.ice_mmap ) {
+      ice = new PersistMMap((PersistFS) ice);
+      Log.info("Memory-mapped swap segments enabled in " + ((PersistMMap) ice)._segDir);
+    }
+    if( ice != null && H2O.ARGS.offheap_mb > 0 ) {
+      ice = new PersistOffHeap(ice);
+      Log.info("Off-heap spill tier enabled, up to " + H2O.ARGS.offheap_mb + "MB of native memory");
+    }
     I[Value.ICE ] = ice;
     I[Value.NFS ] = new PersistNFS();
 
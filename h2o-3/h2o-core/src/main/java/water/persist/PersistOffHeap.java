@@ -0,0 +1,120 @@
+package water.persist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import water.*;
+import water.util.UnsafeUtils;
+
+/**
+ * Off-heap tier for user-mode swapping.
+ * <p>
+ * Values spilled by the Cleaner are first copied into native memory obtained
+ * from {@link MemoryManager#mallocOffHeap}, so a node can hold much more data
+ * than its Java heap without paying the disk round trip.  Once the
+ * -offheap_mb budget is used up, Values go to the wrapped ice_root backend as
+ * before.  The Value and Chunk APIs are unchanged: a spilled Chunk is brought
+ * back into the heap by {@link Value#memOrLoad()} on next access.
+ */
+public final class PersistOffHeap extends Persist {
+  final Persist _disk;
+
+  // Native copy of one Value.  _addr is reset to 0 when freed; all access to
+  // the native block happens under the Slab lock, so a racing load never
+  // reads freed memory.
+  private static final class Slab {
+    final Value _val;
+    final int _len;
+    long _addr;
+    Slab(Value val, long addr, int len) { _val = val; _addr = addr; _len = len; }
+  }
+  private final ConcurrentHashMap<Key,Slab> _slabs = new ConcurrentHashMap<>();
+
+  PersistOffHeap(Persist disk) { _disk = disk; }
+
+  /** Number of Values currently held off-heap. */
+  public int size() { return _slabs.size(); }
+
+  // Store Value v off-heap if it fits the budget, else to disk.
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad();
+    if( m.length > 0 ) {
+      long addr = MemoryManager.mallocOffHeap(m.length);
+      if( addr != 0 ) {
+        UnsafeUtils.copyToNative(m, 0, addr, m.length);
+        Slab old = _slabs.put(v._key, new Slab(v, addr, m.length));
+        if( old != null ) free(old); // Stale copy of an earlier Value for this Key
+        return;
+      }
+    }
+    _disk.store(v);
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    Slab s = _slabs.get(v._key);
+    if( s == null || s._val != v ) return _disk.load(v);
+    byte[] b = MemoryManager.malloc1(s._len);
+    synchronized( s ) {
+      if( s._addr == 0 ) {   // Racey delete of a spilled value
+        assert !v.isPersisted() || v.isDeleted();
+        return null;
+      }
+      UnsafeUtils.copyFromNative(s._addr, b, 0, s._len);
+    }
+    return b;
+  }
+
+  @Override public void delete(Value v) {
+    Slab s = _slabs.get(v._key);
+    if( s != null && s._val == v ) {
+      if( _slabs.remove(v._key, s) ) free(s);
+    } else _disk.delete(v);
+  }
+
+  private static void free(Slab s) {
+    synchronized( s ) {
+      if( s._addr == 0 ) return;
+      MemoryManager.freeOffHeap(s._addr, s._len);
+      s._addr = 0;
+    }
+  }
+
+  @Override public void cleanUp() {
+    for( Key k : _slabs.keySet() ) {
+      Slab s = _slabs.remove(k);
+      if( s != null ) free(s);
+    }
+    _disk.cleanUp();
+  }
+
+  // Report the unused off-heap budget on top of the disk space, so the Cleaner
+  // does not declare the disk full while native memory is still available.
+  @Override public long getUsableSpace() {
+    long disk = _disk.getUsableSpace();
+    long offHeap = MemoryManager.offHeapMax() - MemoryManager.offHeapUsed();
+    return disk < 0 ? disk : disk + offHeap;
+  }
+  @Override public long getTotalSpace() {
+    long disk = _disk.getTotalSpace();
+    return disk < 0 ? disk : disk + MemoryManager.offHeapMax();
+  }
+
+  // Everything else is served by the disk backend
+  @Override public Key uriToKey(URI uri) throws IOException { return _disk.uriToKey(uri); }
+  @Override public List<String> calcTypeaheadMatches(String filter, int limit) { return _disk.calcTypeaheadMatches(filter, limit); }
+  @Override public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels) {
+    _disk.importFiles(path, pattern, files, keys, fails, dels);
+  }
+  @Override public OutputStream create(String path, boolean overwrite) { return _disk.create(path, overwrite); }
+  @Override public PersistEntry[] list(String path) { return _disk.list(path); }
+  @Override public InputStream open(String path) { return _disk.open(path); }
+  @Override public boolean mkdirs(String path) { return _disk.mkdirs(path); }
+  @Override public boolean exists(String path) { return _disk.exists(path); }
+  @Override public boolean isDirectory(String path) { return _disk.isDirectory(path); }
+}
@@ -54,8 +54,9 @@ class BinaryMerge extends DTask<BinaryMerge> {
     private final BigInteger _base[]; // the col.min() of each column in the key
     private final int _fieldSizes[]; // the widths of each column in the key
     private final int _keySize; // the total width in bytes of the key, sum of field sizes
+    private final String _index; // the name of the sorted index of the frame
 
-    FFSB( Frame frame, int msb, int shift, int fieldSizes[], BigInteger base[]) {
+    FFSB( Frame frame, int msb, int shift, int fieldSizes[], BigInteger base[], String index) {
       assert -1<=msb && msb<=255; // left ranges from 0 to 255, right from -1 to 255
       _frame = frame;
       _msb = msb;
@@ -63,6 +64,7 @@ class BinaryMerge extends DTask<BinaryMerge> {
       _fieldSizes = fieldSizes;
       _keySize = ArrayUtils.sum(fieldSizes);
       _base = base;
+      _index = index;
       // Create fast lookups to go from chunk index to node index of that chunk
       Vec vec = _vec = frame.anyVec();
       _chunkNode = vec==null ? null : new int[vec.nChunks()];
@@ -117,14 +119,14 @@ class BinaryMerge extends DTask<BinaryMerge> {
     _timings = new double[20];
     long t0 = System.nanoTime();
 
-    SingleThreadRadixOrder.OXHeader leftSortedOXHeader = DKV.getGet(getSortedOXHeaderKey(/*left=*/true, _leftSB._msb));
+    SingleThreadRadixOrder.OXHeader leftSortedOXHeader = DKV.getGet(getSortedOXHeaderKey(_leftSB._index, _leftSB._msb));
     if (leftSortedOXHeader == null) {
       if( !_allRight ) { tryComplete(); return; }
       throw H2O.unimpl();  // TODO pass through _allRight and implement
     }
     _leftKO = new KeyOrder(leftSortedOXHeader);
 
-    SingleThreadRadixOrder.OXHeader rightSortedOXHeader = DKV.getGet(getSortedOXHeaderKey(/*left=*/false, _riteSB._msb));
+    SingleThreadRadixOrder.OXHeader rightSortedOXHeader = DKV.getGet(getSortedOXHeaderKey(_riteSB._index, _riteSB._msb));
     //if (_riteSB._msb==-1) assert _allLeft && rightSortedOXHeader == null; // i.e. it's known nothing on right can join
     if (rightSortedOXHeader == null) {
       if( !_allLeft ) { tryComplete(); return; }
@@ -134,12 +136,12 @@ class BinaryMerge extends DTask<BinaryMerge> {
     _riteKO = new KeyOrder(rightSortedOXHeader);
 
     // get left batches
-    _leftKO.initKeyOrder(_leftSB._msb,/*left=*/true);
+    _leftKO.initKeyOrder(_leftSB._msb, _leftSB._index);
     final long leftN = leftSortedOXHeader._numRows;
     assert leftN >= 1;
 
     // get right batches
-    _riteKO.initKeyOrder(_riteSB._msb, /*left=*/false);
+    _riteKO.initKeyOrder(_riteSB._msb, _riteSB._index);
     final long rightN = rightSortedOXHeader._numRows;
     
     _timings[0] += (System.nanoTime() - t0) / 1e9;
@@ -237,9 +239,9 @@ class BinaryMerge extends DTask<BinaryMerge> {
       _perNodeNumRowsToFetch = new long[H2O.CLOUD.size()];
     }
 
-    void initKeyOrder( int msb, boolean isLeft ) {
+    void initKeyOrder( int msb, String index ) {
       for( int b=0; b<_key.length; b++ ) {
-        Value v = DKV.get(SplitByMSBLocal.getSortedOXbatchKey(isLeft, msb, b));
+        Value v = DKV.get(SplitByMSBLocal.getSortedOXbatchKey(index, msb, b));
         SplitByMSBLocal.OXbatch ox = v.get(); //mem version (obtained from remote) of the Values gets turned into POJO version
         v.freeMem(); //only keep the POJO version of the Value
         _key  [b] = ox._x;
@@ -0,0 +1,285 @@
+package water.rapids;
+
+import water.H2O;
+import water.Iced;
+import water.MRTask;
+import water.fvec.*;
+import water.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Broadcast hash join of a large left frame with a small right frame.
+ *
+ * <p>{@link Merge#merge} sorts both frames and merges them MSB by MSB, which
+ * costs about as much for a small right frame (a dimension table) as for a
+ * large one.  Here the right frame is read once into a hash table of flat
+ * primitive arrays, the table is shipped to every node along with the task,
+ * and the chunks of the left frame are streamed through it in a single pass.
+ *
+ * <p>The join columns are the first {@code ncols} columns of both frames, as
+ * for the radix merge; the result has the columns of the left frame, then the
+ * non-join columns of the right frame.  Right rows with a missing key are
+ * dropped, left rows with a missing or unmatched key are kept (with missing
+ * right columns) if {@code allLeft}, and a left row matching several right
+ * rows is repeated for each of them, in the right frame order.  Unlike the
+ * radix merge, the result keeps the row order of the left frame, rather than
+ * being sorted by the join columns.
+ */
+public class BroadcastJoin {
+  private BroadcastJoin() {}
+
+  /** Largest right frame (rows times columns) joined by broadcast, {@code -Dsys.ai.h2o.rapids.merge.broadcast.maxCells}. */
+  static final long MAX_CELLS =
+      Long.parseLong(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.merge.broadcast.maxCells", "10000000"));
+  /** Smallest left frame joined by broadcast, {@code -Dsys.ai.h2o.rapids.merge.broadcast.minLeftRows};
+   *  smaller ones are cheap to sort, and sorted results are kept for them. */
+  static final long MIN_LEFT_ROWS =
+      Long.parseLong(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.merge.broadcast.minLeftRows", "1000000"));
+
+  /**
+   * Cost-based choice between the radix merge and the broadcast join: the
+   * radix merge sorts both frames, the broadcast join copies the right frame
+   * to every node and reads the left frame once.
+   * @return whether joining {@code left} with {@code rite} on their first {@code ncols} columns is best done by broadcast
+   */
+  public static boolean preferred(Frame left, Frame rite, int ncols) {
+    if (ncols == 0 || !supported(left, rite, ncols)) return false;
+    long riteCells = rite.numRows() * rite.numCols();
+    if (riteCells > MAX_CELLS || left.numRows() < MIN_LEFT_ROWS) return false;
+    // Copying the right frame to every node should cost less than sorting the left frame
+    return rite.numRows() * H2O.CLOUD.size() <= left.numRows();
+  }
+
+  // Numeric or categorical keys; right columns held as doubles
+  private static boolean supported(Frame left, Frame rite, int ncols) {
+    for (int i = 0; i < ncols; i++)
+      if (!left.vec(i).isNumeric() && !left.vec(i).isCategorical() && !left.vec(i).isTime()) return false;
+    for (Vec v : rite.vecs())
+      if (!v.isNumeric() && !v.isCategorical() && !v.isTime()) return false;
+    return true;
+  }
+
+  /**
+   * Joins {@code left} with {@code rite} on their first {@code ncols} columns.
+   * @param id_maps if not null, the map of each categorical join column from
+   *                the left levels to the right levels, as {@link Merge#merge}
+   * @return the joined frame
+   */
+  public static Frame join(Frame left, Frame rite, int ncols, boolean allLeft, int[][] id_maps) {
+    if (!supported(left, rite, ncols))
+      throw new IllegalArgumentException("Broadcast join only supports numeric, categorical and time columns on the right");
+    long t0 = System.currentTimeMillis();
+    Table table = new Collect(ncols).doAll(rite).table(rite, ncols);
+    long t1 = System.currentTimeMillis();
+    int nleft = left.numCols(), npay = rite.numCols() - ncols;
+    String[] names = Arrays.copyOf(left.names(), nleft + npay);
+    String[][] domains = Arrays.copyOf(left.domains(), nleft + npay);
+    byte[] types = Arrays.copyOf(left.types(), nleft + npay);
+    for (int j = 0; j < npay; j++) {
+      names[nleft + j] = rite.name(ncols + j);
+      domains[nleft + j] = rite.vec(ncols + j).domain();
+      types[nleft + j] = rite.vec(ncols + j).get_type();
+    }
+    Frame res = new JoinTask(table, ncols, id_maps, allLeft).doAll(types, left).outputFrame(names, domains);
+    Log.info("Broadcast join of " + table._nrows + " right rows built in " + (t1 - t0) / 1000. +
+        " (s), joined in " + (System.currentTimeMillis() - t1) / 1000. + " (s)");
+    return res;
+  }
+
+  /**
+   * The rows of the right frame: their keys and the other columns, row after
+   * row in flat arrays, and an open-addressing index from each distinct key to
+   * its first row, the rows with the same key being chained in order.
+   */
+  static final class Table extends Iced<Table> {
+    final int _nkeys, _npay;
+    final int _nrows;
+    final double[] _keys;       // _nkeys per row
+    final double[] _pay;        // _npay per row
+    final int[] _heads;         // First row + 1 by slot, 0 if free
+    final int[] _next;          // Next row with the same key, -1 if none
+
+    Table(int nkeys, int npay, int nrows, double[] keys, double[] pay) {
+      _nkeys = nkeys;
+      _npay = npay;
+      _nrows = nrows;
+      _keys = keys;
+      _pay = pay;
+      int len = 16;
+      while (len <= nrows * 2) len <<= 1;
+      _heads = new int[len];
+      _next = new int[nrows];
+      int[] tails = new int[nrows];
+      int mask = len - 1;
+      for (int r = 0; r < nrows; r++) {
+        _next[r] = -1;
+        for (int s = hash(keys, r * nkeys, nkeys) & mask; ; s = (s + 1) & mask) {
+          int h = _heads[s] - 1;
+          if (h == -1) {
+            _heads[s] = r + 1;
+            tails[r] = r;
+            break;
+          }
+          if (sameKey(h, keys, r * nkeys)) {
+            _next[tails[h]] = r;
+            tails[h] = r;
+            break;
+          }
+        }
+      }
+    }
+
+    private static int hash(double[] ks, int off, int n) {
+      long h = 0;
+      for (int i = 0; i < n; i++)
+        h = h * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(ks[off + i] + 0.0); // -0.0 as 0.0
+      h ^= h >>> 29;
+      h *= 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 32;
+      return (int) h;
+    }
+
+    private boolean sameKey(int r, double[] ks, int off) {
+      for (int i = 0; i < _nkeys; i++)
+        if (_keys[r * _nkeys + i] != ks[off + i]) return false;
+      return true;
+    }
+
+    /** @return the first right row with the key {@code ks}, -1 if none */
+    int first(double[] ks) {
+      int mask = _heads.length - 1;
+      for (int s = hash(ks, 0, _nkeys) & mask; ; s = (s + 1) & mask) {
+        int h = _heads[s] - 1;
+        if (h == -1 || sameKey(h, ks, 0)) return h;
+      }
+    }
+  }
+
+  // Gathers the rows of the right frame with a key, chunk by chunk
+  private static class Collect extends MRTask<Collect> {
+    private final int _nkeys;
+    int[] _lens;                // Rows with a key, by chunk
+    double[][] _keys;
+    double[][] _pays;
+
+    Collect(int nkeys) { _nkeys = nkeys; }
+
+    @Override
+    public void map(Chunk[] cs) {
+      int npay = cs.length - _nkeys;
+      double[] keys = new double[cs[0]._len * _nkeys];
+      double[] pay = new double[cs[0]._len * npay];
+      int n = 0;
+      ROWS:
+      for (int row = 0; row < cs[0]._len; row++) {
+        for (int i = 0; i < _nkeys; i++) {
+          if (cs[i].isNA(row)) continue ROWS; // Missing keys match nothing
+          keys[n * _nkeys + i] = cs[i].atd(row);
+        }
+        for (int j = 0; j < npay; j++)
+          pay[n * npay + j] = cs[_nkeys + j].atd(row);
+        n++;
+      }
+      int nchks = _fr.anyVec().nChunks();
+      _lens = new int[nchks];
+      _keys = new double[nchks][];
+      _pays = new double[nchks][];
+      int cidx = cs[0].cidx();
+      _lens[cidx] = n;
+      _keys[cidx] = keys;
+      _pays[cidx] = pay;
+    }
+
+    @Override
+    public void reduce(Collect c) {
+      for (int i = 0; i < _keys.length; i++)
+        if (c._keys[i] != null) {
+          _lens[i] = c._lens[i];
+          _keys[i] = c._keys[i];
+          _pays[i] = c._pays[i];
+        }
+    }
+
+    // The rows in the frame order
+    Table table(Frame rite, int nkeys) {
+      int npay = rite.numCols() - nkeys;
+      int nrows = 0;
+      if (_lens != null)
+        for (int len : _lens) nrows += len;
+      double[] keys = new double[nrows * nkeys];
+      double[] pay = new double[nrows * npay];
+      int r = 0;
+      for (int i = 0; _lens != null && i < _lens.length; i++) {
+        if (_keys[i] == null) continue;
+        System.arraycopy(_keys[i], 0, keys, r * nkeys, _lens[i] * nkeys);
+        System.arraycopy(_pays[i], 0, pay, r * npay, _lens[i] * npay);
+        r += _lens[i];
+      }
+      return new Table(nkeys, npay, nrows, keys, pay);
+    }
+  }
+
+  // Streams the left chunks through the table; the table ships once per node
+  private static class JoinTask extends MRTask<JoinTask> {
+    private final Table _table;
+    private final int _nkeys;
+    private final int[][] _id_maps;
+    private final boolean _allLeft;
+
+    JoinTask(Table table, int nkeys, int[][] id_maps, boolean allLeft) {
+      _table = table;
+      _nkeys = nkeys;
+      _id_maps = id_maps;
+      _allLeft = allLeft;
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      final Table t = _table;
+      double[] key = new double[_nkeys];
+      for (int row = 0; row < cs[0]._len; row++) {
+        int r = t._nrows == 0 || !key(cs, row, key) ? -1 : t.first(key);
+        if (r == -1) {
+          if (_allLeft) {
+            copyRow(cs, row, ncs);
+            for (int j = 0; j < t._npay; j++) ncs[cs.length + j].addNA();
+          }
+          continue;
+        }
+        for (; r != -1; r = t._next[r]) {
+          copyRow(cs, row, ncs);
+          for (int j = 0; j < t._npay; j++) {
+            double d = t._pay[r * t._npay + j];
+            if (Double.isNaN(d)) ncs[cs.length + j].addNA();
+            else ncs[cs.length + j].addNum(d);
+          }
+        }
+      }
+    }
+
+    // The key of the row in terms of the right frame, false if it can match nothing
+    private boolean key(Chunk[] cs, int row, double[] key) {
+      for (int i = 0; i < _nkeys; i++) {
+        if (cs[i].isNA(row)) return false;
+        if (_id_maps != null && _id_maps[i] != null) {
+          int level = _id_maps[i][(int) cs[i].at8(row)];
+          if (level < 0) return false;
+          key[i] = level;
+        } else
+          key[i] = cs[i].atd(row);
+      }
+      return true;
+    }
+
+    private static void copyRow(Chunk[] cs, int row, NewChunk[] ncs) {
+      for (int i = 0; i < cs.length; ++i) {
+        if (cs[i].isNA(row)) ncs[i].addNA();
+        else if (cs[i] instanceof CStrChunk) ncs[i].addStr(cs[i], row);
+        else if (cs[i] instanceof C16Chunk) ncs[i].addUUID(cs[i], row);
+        else if (cs[i].hasFloat()) ncs[i].addNum(cs[i].atd(row));
+        else ncs[i].addNum(cs[i].at8(row), 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package water.rapids;
+
+import water.H2O;
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.ast.AstExec;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.operators.AstBinOp;
+import water.rapids.ast.prims.operators.AstEq;
+import water.rapids.ast.prims.operators.AstLAnd;
+import water.rapids.ast.prims.operators.AstLOr;
+import water.rapids.ast.prims.operators.AstNe;
+import water.rapids.vals.ValFrame;
+import water.rapids.vals.ValNum;
+
+import java.util.ArrayList;
+
+/**
+ * Fused execution of element-wise expressions.
+ *
+ * <p>Each operator of an expression like {@code (log (+ (* x 2) 1))} runs its
+ * own MRTask and makes a temporary Frame.  When an element-wise operator
+ * ({@link AstBinOp} or {@link AstUniOp}) has element-wise operators among its
+ * arguments, the element-wise subtree is planned instead: its leaves (Frames,
+ * numbers and any other expression) are evaluated, constants are folded, and a
+ * single MRTask evaluates the plan chunk by chunk, making only the final Frame.
+ *
+ * <p>An operator is fused only over numeric columns with the same number of
+ * rows.  Otherwise (categorical, string or time columns, single-row frames,
+ * rows...) it runs as usual on its evaluated arguments, so that the results
+ * and errors are the ones of the unfused operators.  The short-circuit
+ * logicals {@code &&} and {@code ||} are never fused.
+ *
+ * <p>Only the element-wise operators are planned.  {@code ifelse}, column
+ * slices and reducers are plain leaves or consumers of a plan: a slice of a
+ * Frame is a leaf which costs no pass, while a slice or a reduction of a fused
+ * expression runs on its materialized result.
+ */
+public class Fusion {
+  private Fusion() {}
+
+  /** Turns the fusion off, {@code -Dsys.ai.h2o.rapids.fusion=false}. */
+  static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.fusion", "true"));
+
+  /** @return whether the application {@code asts} has an element-wise operator among its arguments */
+  public static boolean fusable(Env env, AstRoot[] asts) {
+    if (!ENABLED) return false;
+    for (int i = 1; i < asts.length; i++)
+      if (elementWise(env, asts[i]) != null) return true;
+    return false;
+  }
+
+  /** Applies the element-wise operator {@code op} to the arguments {@code asts}, fusing its element-wise arguments. */
+  public static Val apply(Env env, Env.StackHelp stk, AstPrimitive op, AstRoot[] asts) {
+    return value(plan(env, stk, op, asts));
+  }
+
+  // The element-wise operator applied by ast, null if ast is not such an application
+  private static AstPrimitive elementWise(Env env, AstRoot ast) {
+    if (!(ast instanceof AstExec)) return null;
+    AstRoot[] asts = ((AstExec) ast)._asts;
+    if (asts.length == 0 || asts[0] instanceof AstExec) return null; // Do not evaluate function expressions twice
+    Val fun = asts[0].exec(env);
+    if (!fun.isFun()) return null;
+    AstPrimitive op = fun.getFun();
+    if (op.nargs() != asts.length) return null;
+    if (op instanceof AstUniOp) return op;
+    if (op instanceof AstBinOp && !(op instanceof AstLAnd) && !(op instanceof AstLOr)) return op;
+    return null;
+  }
+
+  private static Node plan(Env env, Env.StackHelp stk, AstRoot ast) {
+    AstPrimitive op = elementWise(env, ast);
+    if (op != null) return plan(env, stk, op, ((AstExec) ast)._asts);
+    Val val = stk.track(ast.exec(env));
+    if (val.isNum()) return new Const(val.getNum());
+    if (val.isFrame() && Leaf.fusable(val.getFrame())) return new Leaf(val.getFrame());
+    return new Opaque(val);
+  }
+
+  private static Node plan(Env env, Env.StackHelp stk, AstPrimitive op, AstRoot[] asts) {
+    if (op instanceof AstUniOp) {
+      AstUniOp uop = (AstUniOp) op;
+      Node arg = plan(env, stk, asts[1]);
+      if (arg instanceof Const) return new Const(uop.op(((Const) arg)._d));
+      if (arg instanceof Opaque) return opaque(env, stk, uop.exec(new Val[]{null, ((Opaque) arg)._val}));
+      return new Uni(uop, arg);
+    }
+    AstBinOp bop = (AstBinOp) op;
+    Node l = plan(env, stk, asts[1]);
+    Node r = plan(env, stk, asts[2]);
+    if (l instanceof Const && r instanceof Const) return new Const(bop.op(((Const) l)._d, ((Const) r)._d));
+    boolean fused = !(l instanceof Opaque) && !(r instanceof Opaque);
+    if (l._nrows != -1 && r._nrows != -1) // Two frames: same rows, same columns or a single column
+      fused &= l._nrows == r._nrows && (l._ncols == r._ncols || l._ncols == 1 || r._ncols == 1);
+    if (!fused) return opaque(env, stk, bop.prim_apply(temp(env, stk, l), temp(env, stk, r)));
+    return new Bin(bop, l, r);
+  }
+
+  // Intermediate results are tracked as the results of nested applications are
+  private static Node opaque(Env env, Env.StackHelp stk, Val val) {
+    return new Opaque(stk.track(env.returning(val)));
+  }
+
+  private static Val temp(Env env, Env.StackHelp stk, Node node) {
+    Val val = value(node);
+    return node instanceof Uni || node instanceof Bin ? stk.track(env.returning(val)) : val;
+  }
+
+  // Evaluates the plan
+  private static Val value(Node node) {
+    if (node instanceof Const) return new ValNum(((Const) node)._d);
+    if (node instanceof Opaque) return ((Opaque) node)._val;
+    if (node instanceof Leaf) return new ValFrame(((Leaf) node)._fr);
+    // Lay the columns of all the leaves side by side
+    ArrayList<Leaf> leaves = new ArrayList<>();
+    node.leaves(leaves);
+    ArrayList<Vec> vecs = new ArrayList<>();
+    for (Leaf leaf : leaves) {
+      leaf._first = vecs.size();
+      for (Vec v : leaf._fr.vecs()) vecs.add(v);
+    }
+    Frame fr = new FusedTask(node).doAll(node._ncols, Vec.T_NUM, new Frame(vecs.toArray(new Vec[vecs.size()])))
+        .outputFrame(node._names, null);
+    return new ValFrame(fr);
+  }
+
+  private static class FusedTask extends MRTask<FusedTask> {
+    private final Node _plan;
+
+    FusedTask(Node plan) { _plan = plan; }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      double[] res = new double[cs[0]._len];
+      for (int col = 0; col < ncs.length; col++) {
+        _plan.eval(cs, col, res);
+        NewChunk nc = ncs[col];
+        for (double d : res) nc.addNum(d);
+      }
+    }
+  }
+
+  /**
+   * A node of a plan.  Nodes over Frames have their rows, and either one column
+   * or the columns of the result, a single column applying to all.
+   */
+  private static abstract class Node extends Iced<Node> {
+    transient long _nrows = -1;    // -1 if not a Frame
+    transient int _ncols;
+    transient String[] _names;     // Result column names, as the unfused operator names them
+
+    /** Evaluates the result column {@code col} of the chunks {@code cs} into {@code res} */
+    abstract void eval(Chunk[] cs, int col, double[] res);
+
+    void leaves(ArrayList<Leaf> leaves) {}
+  }
+
+  private static class Const extends Node {
+    final double _d;
+
+    Const(double d) { _d = d; }
+
+    @Override void eval(Chunk[] cs, int col, double[] res) { throw H2O.fail(); }
+  }
+
+  // Evaluated, not fused; never shipped
+  private static class Opaque extends Node {
+    final transient Val _val;
+
+    Opaque(Val val) { _val = val; }
+
+    @Override void eval(Chunk[] cs, int col, double[] res) { throw H2O.fail(); }
+  }
+
+  private static class Leaf extends Node {
+    final transient Frame _fr;
+    int _first;                    // Index of the first column of the leaf in the fused task
+    int _width;
+
+    static boolean fusable(Frame fr) {
+      if (fr.numCols() == 0) return false;
+      for (Vec v : fr.vecs())
+        if (!v.isNumeric()) return false;
+      return true;
+    }
+
+    Leaf(Frame fr) {
+      _fr = fr;
+      _nrows = fr.numRows();
+      _width = _ncols = fr.numCols();
+      _names = fr.names();
+    }
+
+    @Override void eval(Chunk[] cs, int col, double[] res) {
+      Chunk c = cs[_first + (_width == 1 ? 0 : col)];
+      for (int i = 0; i < res.length; i++) res[i] = c.atd(i);
+    }
+
+    @Override void leaves(ArrayList<Leaf> leaves) { leaves.add(this); }
+  }
+
+  private static class Uni extends Node {
+    final AstUniOp _op;
+    final Node _arg;
+
+    Uni(AstUniOp op, Node arg) {
+      _op = op;
+      _arg = arg;
+      _nrows = arg._nrows;
+      _ncols = arg._ncols;
+      _names = new String[_ncols];
+      for (int i = 0; i < _ncols; i++)
+        _names[i] = op.str() + "(" + arg._names[i] + ")";
+    }
+
+    @Override void eval(Chunk[] cs, int col, double[] res) {
+      _arg.eval(cs, col, res);
+      for (int i = 0; i < res.length; i++) res[i] = _op.op(res[i]);
+    }
+
+    @Override void leaves(ArrayList<Leaf> leaves) { _arg.leaves(leaves); }
+  }
+
+  private static class Bin extends Node {
+    final AstBinOp _op;
+    final Node _l, _r;
+
+    Bin(AstBinOp op, Node l, Node r) {
+      _op = op;
+      _l = l;
+      _r = r;
+      _nrows = Math.max(l._nrows, r._nrows);
+      _ncols = Math.max(l._ncols, r._ncols);
+      // Named after the frame, the widest one, or the left one; (in)equality to a scalar gets the default names
+      if (r instanceof Const && (op instanceof AstEq || op instanceof AstNe)) {
+        _names = new String[_ncols];
+        for (int i = 0; i < _ncols; i++) _names[i] = Frame.defaultColName(i);
+      } else
+        _names = l instanceof Const || (l._ncols == 1 && r._ncols > 1) ? r._names : l._names;
+    }
+
+    @Override void eval(Chunk[] cs, int col, double[] res) {
+      if (_l instanceof Const) {
+        double d = ((Const) _l)._d;
+        _r.eval(cs, col, res);
+        for (int i = 0; i < res.length; i++) res[i] = _op.op(d, res[i]);
+      } else if (_r instanceof Const) {
+        double d = ((Const) _r)._d;
+        _l.eval(cs, col, res);
+        for (int i = 0; i < res.length; i++) res[i] = _op.op(res[i], d);
+      } else {
+        double[] rs = new double[res.length];
+        _l.eval(cs, col, res);
+        _r.eval(cs, col, rs);
+        for (int i = 0; i < res.length; i++) res[i] = _op.op(res[i], rs[i]);
+      }
+    }
+
+    @Override void leaves(ArrayList<Leaf> leaves) {
+      _l.leaves(leaves);
+      _r.leaves(leaves);
+    }
+  }
+}
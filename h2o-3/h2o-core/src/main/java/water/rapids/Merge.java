@@ -7,7 +7,6 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
-import static water.rapids.SingleThreadRadixOrder.getSortedOXHeaderKey;
 
 public class Merge {
 
@@ -127,139 +126,126 @@ public class Merge {
     // and right in parallel was a little slower (97s) than one by one (89s).
     // TODO: retest in future
     RadixOrder leftIndex = createIndex(true ,leftFrame,leftCols,id_maps, ascendingL);
-    RadixOrder riteIndex = createIndex(false,rightFrame,riteCols,id_maps, ascendingR);
+    RadixOrder riteIndex = null;
+    ArrayList<BinaryMerge> bmList = new ArrayList<>();
+    long t0;
+    try {   // Unpin the kept indexes once read by the BinaryMerges, even on failure
+      riteIndex = createIndex(false,rightFrame,riteCols,id_maps, ascendingR);
 
-    // TODO: start merging before all indexes had been created. Use callback?
+      // TODO: start merging before all indexes had been created. Use callback?
 
-    System.out.print("Making BinaryMerge RPC calls ... ");
-    long t0 = System.nanoTime();
-    ArrayList<BinaryMerge> bmList = new ArrayList<>();
-    Futures fs = new Futures();
-    final int leftShift = leftIndex._shift[0];
-    final BigInteger leftBase = leftIndex._base[0];
-    final int riteShift = hasRite ? riteIndex._shift[0] : -1;
-    final BigInteger riteBase = hasRite ? riteIndex._base [0] : leftBase;
-
-    // initialize for double columns, may not be used....
-    long leftMSBfrom = riteBase.subtract(leftBase).shiftRight(leftShift).longValue();
-    boolean riteBaseExceedsleftBase=riteBase.compareTo(leftBase)>0;
-    // deal with the left range below the right minimum, if any
-    if (riteBaseExceedsleftBase) {  // right branch has higher minimum column value
-      // deal with the range of the left below the start of the right, if any
-      assert leftMSBfrom >= 0;
-      if (leftMSBfrom>255) {
-        // The left range ends before the right range starts.  So every left row is a no-match to the right
-        leftMSBfrom = 256;  // so that the loop below runs for all MSBs (0-255) to fetch the left rows only
-      }
-      // run the merge for the whole lefts that end before the first right.
-      // The overlapping one with the right base is dealt with inside
-      // BinaryMerge (if _allLeft)
-      if (allLeft) for (int leftMSB=0; leftMSB<leftMSBfrom; leftMSB++) {
-        BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift,
-                leftIndex._bytesUsed, leftIndex._base), new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1, riteShift,
-                riteIndex._bytesUsed, riteIndex._base),
-                true);
-          bmList.add(bm);
-          fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+      System.out.print("Making BinaryMerge RPC calls ... ");
+      t0 = System.nanoTime();
+      Futures fs = new Futures();
+      final int leftShift = leftIndex._shift[0];
+      final BigInteger leftBase = leftIndex._base[0];
+      final int riteShift = hasRite ? riteIndex._shift[0] : -1;
+      final BigInteger riteBase = hasRite ? riteIndex._base [0] : leftBase;
+
+      // initialize for double columns, may not be used....
+      long leftMSBfrom = riteBase.subtract(leftBase).shiftRight(leftShift).longValue();
+      boolean riteBaseExceedsleftBase=riteBase.compareTo(leftBase)>0;
+      // deal with the left range below the right minimum, if any
+      if (riteBaseExceedsleftBase) {  // right branch has higher minimum column value
+        // deal with the range of the left below the start of the right, if any
+        assert leftMSBfrom >= 0;
+        if (leftMSBfrom>255) {
+          // The left range ends before the right range starts.  So every left row is a no-match to the right
+          leftMSBfrom = 256;  // so that the loop below runs for all MSBs (0-255) to fetch the left rows only
         }
-    } else {
-      // completely ignore right MSBs below the left base
-      assert leftMSBfrom <= 0;
-      leftMSBfrom = 0;
-    }
-
-    BigInteger rightS = BigInteger.valueOf(256L<<riteShift);
-    long leftMSBto = riteBase.add(rightS).subtract(BigInteger.ONE).subtract(leftBase).shiftRight(leftShift).longValue();
-    // -1 because the 256L<<riteShift is one after the max extent.  
-    // No need -for +1 for NA here because, as for leftMSBfrom above, the NA spot is on -both sides
-
-    // deal with the left range above the right maximum, if any.  For doubles, -1 from shift to avoid negative outcome
-    boolean leftRangeAboveRightMax = leftIndex._isCategorical[0]?
-            leftBase.add(BigInteger.valueOf(256L<<leftShift)).compareTo(riteBase.add(rightS)) > 0:
-            leftBase.add(BigInteger.valueOf(256L<<leftShift)).compareTo(riteBase.add(rightS)) >= 0;
-
-    if (leftRangeAboveRightMax) { //
-      assert leftMSBto <= 255;
-      if (leftMSBto<0) {
-        // The left range starts after the right range ends.  So every left row
-        // is a no-match to the right
-        leftMSBto = -1;  // all MSBs (0-255) need to fetch the left rows only
-      }
-      // run the merge for the whole lefts that start after the last right
-      if (allLeft) for (int leftMSB=(int)leftMSBto+1; leftMSB<=255; leftMSB++) {
-        BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame,   leftMSB    ,leftShift,
-                leftIndex._bytesUsed,leftIndex._base),
-                new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1,riteShift,
-                        riteIndex._bytesUsed,riteIndex._base),
-                true);
-          bmList.add(bm);
-          fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+        // run the merge for the whole lefts that end before the first right.
+        // The overlapping one with the right base is dealt with inside
+        // BinaryMerge (if _allLeft)
+        if (allLeft) for (int leftMSB=0; leftMSB<leftMSBfrom; leftMSB++) {
+          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift,
+                  leftIndex._bytesUsed, leftIndex._base, leftIndex._index), new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1, riteShift,
+                  riteIndex._bytesUsed, riteIndex._base, riteIndex._index),
+                  true);
+            bmList.add(bm);
+            fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+          }
+      } else {
+        // completely ignore right MSBs below the left base
+        assert leftMSBfrom <= 0;
+        leftMSBfrom = 0;
       }
-    } else {
-      // completely ignore right MSBs after the right peak
-      assert leftMSBto >= 255;
-      leftMSBto = 255;
-    }
 
-    // the overlapped region; i.e. between [ max(leftMin,rightMin), min(leftMax, rightMax) ]
-    for (int leftMSB=(int)leftMSBfrom; leftMSB<=leftMSBto; leftMSB++) {
-
-      assert leftMSB >= 0;
-      assert leftMSB <= 255;
-
-      // calculate the key values at the bin extents:  [leftFrom,leftTo] in terms of keys
-      long leftFrom= (((long)leftMSB  ) << leftShift) -1 + leftBase.longValue();  // -1 for leading NA spot
-      long leftTo  = (((long)leftMSB+1) << leftShift) -1 + leftBase.longValue()-1;  // -1 for leading NA spot and another -1 to get last of previous bin
-
-      // which right bins do these left extents occur in (could span multiple, and fall in the middle)
-      int rightMSBfrom = (int)((leftFrom - riteBase.longValue() + 1) >> riteShift);   // +1 again for the leading NA spot
-      int rightMSBto   = (int)((leftTo   - riteBase.longValue() + 1) >> riteShift);
-
-      // the non-matching part of this region will have been dealt with above when allLeft==true
-      if (rightMSBfrom < 0) rightMSBfrom = 0;
-      assert rightMSBfrom <= 255;
-      if (rightMSBto > 255) rightMSBto = 255;
-      assert rightMSBto >= rightMSBfrom;
-
-      for (int rightMSB=rightMSBfrom; rightMSB<=rightMSBto; rightMSB++) {
-        BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB,leftShift,leftIndex._bytesUsed,leftIndex._base),
-                                         new BinaryMerge.FFSB(rightFrame,rightMSB,riteShift,riteIndex._bytesUsed,riteIndex._base),
-                                         allLeft);
-        bmList.add(bm);
-        // TODO: choose the bigger side to execute on (where that side of index
-        // already is) to minimize transfer.  within BinaryMerge it will
-        // recalculate the extents in terms of keys and bsearch for them within
-        // the (then local) both sides
-        H2ONode node = SplitByMSBLocal.ownerOfMSB(rightMSB);
-        fs.add(new RPC<>(node, bm).call());
+      BigInteger rightS = BigInteger.valueOf(256L<<riteShift);
+      long leftMSBto = riteBase.add(rightS).subtract(BigInteger.ONE).subtract(leftBase).shiftRight(leftShift).longValue();
+      // -1 because the 256L<<riteShift is one after the max extent.  
+      // No need -for +1 for NA here because, as for leftMSBfrom above, the NA spot is on -both sides
+
+      // deal with the left range above the right maximum, if any.  For doubles, -1 from shift to avoid negative outcome
+      boolean leftRangeAboveRightMax = leftIndex._isCategorical[0]?
+              leftBase.add(BigInteger.valueOf(256L<<leftShift)).compareTo(riteBase.add(rightS)) > 0:
+              leftBase.add(BigInteger.valueOf(256L<<leftShift)).compareTo(riteBase.add(rightS)) >= 0;
+
+      if (leftRangeAboveRightMax) { //
+        assert leftMSBto <= 255;
+        if (leftMSBto<0) {
+          // The left range starts after the right range ends.  So every left row
+          // is a no-match to the right
+          leftMSBto = -1;  // all MSBs (0-255) need to fetch the left rows only
+        }
+        // run the merge for the whole lefts that start after the last right
+        if (allLeft) for (int leftMSB=(int)leftMSBto+1; leftMSB<=255; leftMSB++) {
+          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame,   leftMSB    ,leftShift,
+                  leftIndex._bytesUsed,leftIndex._base,leftIndex._index),
+                  new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1,riteShift,
+                          riteIndex._bytesUsed,riteIndex._base,riteIndex._index),
+                  true);
+            bmList.add(bm);
+            fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+        }
+      } else {
+        // completely ignore right MSBs after the right peak
+        assert leftMSBto >= 255;
+        leftMSBto = 255;
       }
-    }
-    System.out.println("took: " + String.format("%.3f", (System.nanoTime() - t0) / 1e9));
 
-    t0 = System.nanoTime();
-    System.out.println("Sending BinaryMerge async RPC calls in a queue ... ");
-    fs.blockForPending();
-    System.out.println("took: " + (System.nanoTime() - t0) / 1e9);
+      // the overlapped region; i.e. between [ max(leftMin,rightMin), min(leftMax, rightMax) ]
+      for (int leftMSB=(int)leftMSBfrom; leftMSB<=leftMSBto; leftMSB++) {
 
+        assert leftMSB >= 0;
+        assert leftMSB <= 255;
 
-    System.out.print("Removing DKV keys of left and right index.  ... ");
-    // TODO: In future we won't delete but rather persist them as index on the table
-    // Explicitly deleting here (rather than Arno's cleanUp) to reveal if we're not removing keys early enough elsewhere
-    t0 = System.nanoTime();
-    for (int msb=0; msb<256; msb++) {
-      for (int isLeft=0; isLeft<2; isLeft++) {
-        Key k = getSortedOXHeaderKey(isLeft!=0, msb);
-        SingleThreadRadixOrder.OXHeader oxheader = DKV.getGet(k);
-        DKV.remove(k);
-        if (oxheader != null) {
-          for (int b=0; b<oxheader._nBatch; ++b) {
-            k = SplitByMSBLocal.getSortedOXbatchKey(isLeft!=0, msb, b);
-            DKV.remove(k);
-          }
+        // calculate the key values at the bin extents:  [leftFrom,leftTo] in terms of keys
+        long leftFrom= (((long)leftMSB  ) << leftShift) -1 + leftBase.longValue();  // -1 for leading NA spot
+        long leftTo  = (((long)leftMSB+1) << leftShift) -1 + leftBase.longValue()-1;  // -1 for leading NA spot and another -1 to get last of previous bin
+
+        // which right bins do these left extents occur in (could span multiple, and fall in the middle)
+        int rightMSBfrom = (int)((leftFrom - riteBase.longValue() + 1) >> riteShift);   // +1 again for the leading NA spot
+        int rightMSBto   = (int)((leftTo   - riteBase.longValue() + 1) >> riteShift);
+
+        // the non-matching part of this region will have been dealt with above when allLeft==true
+        if (rightMSBfrom < 0) rightMSBfrom = 0;
+        assert rightMSBfrom <= 255;
+        if (rightMSBto > 255) rightMSBto = 255;
+        assert rightMSBto >= rightMSBfrom;
+
+        for (int rightMSB=rightMSBfrom; rightMSB<=rightMSBto; rightMSB++) {
+          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB,leftShift,leftIndex._bytesUsed,leftIndex._base,leftIndex._index),
+                                           new BinaryMerge.FFSB(rightFrame,rightMSB,riteShift,riteIndex._bytesUsed,riteIndex._base,riteIndex._index),
+                                           allLeft);
+          bmList.add(bm);
+          // TODO: choose the bigger side to execute on (where that side of index
+          // already is) to minimize transfer.  within BinaryMerge it will
+          // recalculate the extents in terms of keys and bsearch for them within
+          // the (then local) both sides
+          H2ONode node = SplitByMSBLocal.ownerOfMSB(rightMSB);
+          fs.add(new RPC<>(node, bm).call());
         }
       }
+      System.out.println("took: " + String.format("%.3f", (System.nanoTime() - t0) / 1e9));
+
+      t0 = System.nanoTime();
+      System.out.println("Sending BinaryMerge async RPC calls in a queue ... ");
+      fs.blockForPending();
+      System.out.println("took: " + (System.nanoTime() - t0) / 1e9);
+    } finally {
+      release(leftIndex);
+      if (riteIndex != null) release(riteIndex);
     }
-    System.out.println("took: " + (System.nanoTime() - t0)/1e9);
 
     System.out.print("Allocating and populating chunk info (e.g. size and batch number) ...");
     t0 = System.nanoTime();
@@ -336,12 +322,27 @@ public class Merge {
     return fr;
   }
 
+  // Removes the DKV keys of an index, unless kept in the DKV (SortIndex) for the next merge or sort on the
+  // same columns.  Explicitly deleting here (rather than Arno's cleanUp) to reveal if we're not removing keys
+  // early enough elsewhere
+  private static void release(RadixOrder index) {
+    if (index._shared) SortIndex.unpin(index._index);
+    else SortIndex.removeSorted(index._index);
+  }
+
   private static RadixOrder createIndex(boolean isLeft, Frame fr, int[] cols, int[][] id_maps, int[] ascending) {
+    SortIndex kept = SortIndex.find(fr, cols, isLeft, id_maps, ascending);
+    if (kept != null) {
+      System.out.println("\nReusing "+(isLeft ? "left" : "right")+" index " + kept._key);
+      return new RadixOrder(kept);
+    }
     System.out.println("\nCreating "+(isLeft ? "left" : "right")+" index ...");
     long t0 = System.nanoTime();
-    RadixOrder idxTask = new RadixOrder(fr, isLeft, cols, id_maps, ascending);
+    boolean keep = SortIndex.keepable(cols);
+    RadixOrder idxTask = new RadixOrder(fr, isLeft, cols, id_maps, ascending, keep ? Key.rand() : (isLeft ? "LEFT" : "RIGHT"));
     H2O.submitTask(idxTask);    // each of those launches an MRTask
     idxTask.join(); 
+    if (keep) SortIndex.keep(idxTask, fr, cols, isLeft, id_maps, ascending);
     System.out.println("***\n*** Creating "+(isLeft ? "left" : "right")+" index took: " + (System.nanoTime() - t0) / 1e9 + "\n***\n");
     return idxTask;
   }
@@ -16,7 +16,7 @@ import java.math.BigInteger;
 // counted completer so that left and right index can run at the same time
 class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
   private final Frame _DF;
-  private final boolean _isLeft;
+  final boolean _isLeft;
   private final int _whichCols[], _id_maps[][];
   final boolean _isInt[];
   final boolean _isCategorical[];
@@ -24,8 +24,10 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
   final int _bytesUsed[];
   final BigInteger _base[];
   final int[] _ascending;  // 0 to sort ASC, 1 to sort DESC
+  final String _index;     // Name of the sorted keys in the DKV
+  boolean _shared;         // Sorted keys kept in the DKV for reuse, see SortIndex
 
-  RadixOrder(Frame DF, boolean isLeft, int whichCols[], int id_maps[][], int[] ascending) {
+  RadixOrder(Frame DF, boolean isLeft, int whichCols[], int id_maps[][], int[] ascending, String index) {
     _DF = DF;
     _isLeft = isLeft;
     _whichCols = whichCols;
@@ -37,6 +39,23 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     _isInt = new boolean[_whichCols.length];
     _isCategorical = new boolean[_whichCols.length];
     _ascending = ascending;
+    _index = index;
+  }
+
+  // An index sorted before, already in the DKV
+  RadixOrder(SortIndex idx) {
+    _DF = null;
+    _isLeft = idx._isLeft;
+    _whichCols = null;
+    _id_maps = null;
+    _isInt = idx._isInt;
+    _isCategorical = idx._isCategorical;
+    _shift = idx._shift;
+    _bytesUsed = idx._bytesUsed;
+    _base = idx._base;
+    _ascending = idx._ascending;
+    _index = idx._name;
+    _shared = true;
   }
 
   @Override
@@ -79,7 +98,7 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     RPC[] radixOrders = new RPC[256];
     System.out.print("Sending SingleThreadRadixOrder async RPC calls ... ");
     for (int i = 0; i < 256; i++)
-      radixOrders[i] = new RPC<>(SplitByMSBLocal.ownerOfMSB(i), new SingleThreadRadixOrder(_DF, _isLeft, batchSize, keySize, /*nGroup,*/ i)).call();
+      radixOrders[i] = new RPC<>(SplitByMSBLocal.ownerOfMSB(i), new SingleThreadRadixOrder(_DF, _isLeft, _index, batchSize, keySize, /*nGroup,*/ i)).call();
     System.out.println("took : " + ((t1=System.nanoTime()) - t0) / 1e9); t0=t1;
 
     System.out.print("Waiting for RPC SingleThreadRadixOrder to finish ... ");
@@ -28,6 +28,7 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
   private final int _MSBvalue;  // only needed to be able to return the number of groups back to the caller RadixOrder
   private final int _keySize, _batchSize;
   private final boolean _isLeft;
+  private final String _index;  // Name of the sorted index
 
   private transient long _o[/*batch*/][];
   private transient byte _x[/*batch*/][];
@@ -44,9 +45,10 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
   // o and x are changed in-place always
   // iff _groupsToo==true then the following are allocated and returned
 
-  SingleThreadRadixOrder(Frame fr, boolean isLeft, int batchSize, int keySize, /*long nGroup[],*/ int MSBvalue) {
+  SingleThreadRadixOrder(Frame fr, boolean isLeft, String index, int batchSize, int keySize, /*long nGroup[],*/ int MSBvalue) {
     _fr = fr;
     _isLeft = isLeft;
+    _index = index;
     _batchSize = batchSize;
     _keySize = keySize;
     _MSBvalue = MSBvalue;
@@ -186,11 +188,11 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     // tell the world how many batches and rows for this MSB
     OXHeader msbh = new OXHeader(_o.length, numRows, _batchSize);
     Futures fs = new Futures();
-    DKV.put(getSortedOXHeaderKey(_isLeft, _MSBvalue), msbh, fs, true);
+    DKV.put(getSortedOXHeaderKey(_index, _MSBvalue), msbh, fs, true);
     assert _o.length == _x.length;
     for (b=0; b<_o.length; b++) {
       SplitByMSBLocal.OXbatch tmp = new SplitByMSBLocal.OXbatch(_o[b], _x[b]);
-      Value v = new Value(SplitByMSBLocal.getSortedOXbatchKey(_isLeft, _MSBvalue, b), tmp);
+      Value v = new Value(SplitByMSBLocal.getSortedOXbatchKey(_index, _MSBvalue, b), tmp);
       DKV.put(v._key, v, fs, true);  // the OXbatchKey's on this node will be reused for the new keys
       v.freeMem();
     }
@@ -199,10 +201,10 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     tryComplete();
   }
 
-  static Key getSortedOXHeaderKey(boolean isLeft, int MSBvalue) {
+  static Key getSortedOXHeaderKey(String index, int MSBvalue) {
     // This guy has merges together data from all nodes and its data is not "from" 
     // any particular node.  Therefore node number should not be in the key.
-    return Key.make("__radix_order__SortedOXHeader_MSB" + MSBvalue + (isLeft ? "_LEFT" : "_RIGHT"));  // If we don't say this it's random ... (byte) 1 /*replica factor*/, (byte) 31 /*hidden user-key*/, true, H2O.SELF);
+    return Key.make("__radix_order__SortedOXHeader_MSB" + MSBvalue + "_" + index);  // If we don't say this it's random ... (byte) 1 /*replica factor*/, (byte) 31 /*hidden user-key*/, true, H2O.SELF);
   }
 
   static class OXHeader extends Iced<OXHeader> {
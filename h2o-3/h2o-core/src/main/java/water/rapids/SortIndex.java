@@ -0,0 +1,317 @@
+package water.rapids;
+
+import water.*;
+import water.fvec.Frame;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A sorted index of some columns of a frame, kept in the DKV to be reused.
+ *
+ * <p>Each merge or sort makes a {@link RadixOrder} of the key columns of its
+ * frames: the sorted keys and row numbers of each MSB, plus the base and shift
+ * used to split the keys by MSB.  Instead of being deleted once the merge is
+ * done, they are kept under the name of the index, and a later merge or sort
+ * on the same columns reuses them, skipping the radix passes.
+ *
+ * <p>An index is tied to the Vecs it sorts: it is removed once any of them is
+ * written to ({@link water.fvec.Vec#postWrite}) or removed, and it is reused
+ * only while their checksums are unchanged.  A catalog of the kept indexes is
+ * shared in the DKV; it keeps at most {@link #MAX_INDEXES} of them, the oldest
+ * ones being removed first.
+ *
+ * <p>A merge pins the indexes it reads ({@link #find}, {@link #keep}) until its
+ * {@link BinaryMerge}s are done, then {@link #unpin}s them: a pinned index is
+ * not evicted, and when its Vecs change it is no longer found, but its sorted
+ * keys are removed only once unpinned.
+ */
+public class SortIndex extends Keyed<SortIndex> {
+  /** Most sorted indexes kept, {@code -Dsys.ai.h2o.rapids.sort.index.max}; 0 keeps none. */
+  static final int MAX_INDEXES =
+      Integer.parseInt(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.sort.index.max", "8"));
+
+  private static final Key CATALOG = Key.make("__radix_order__SortIndexCatalog");
+
+  final Key[] _vecs;            // The sorted Vecs
+  final long[] _checksums;      // Their checksums when sorted
+  final boolean _isLeft;        // Left keys are mapped to the right levels by the id maps
+  final int[][] _id_maps;
+  final int[] _ascending;
+  final String _name;           // Name of the sorted keys in the DKV
+  final boolean[] _isInt, _isCategorical;
+  final int[] _shift, _bytesUsed;
+  final BigInteger[] _base;
+
+  private SortIndex(RadixOrder ro, Key[] vecs, long[] checksums, int[][] id_maps) {
+    super(indexKey(ro._index));
+    _vecs = vecs;
+    _checksums = checksums;
+    _isLeft = ro._isLeft;
+    _id_maps = id_maps == null ? null : id_maps.clone();
+    if (id_maps != null)
+      for (int i = 0; i < id_maps.length; i++)
+        if (id_maps[i] != null) _id_maps[i] = id_maps[i].clone();
+    _ascending = ro._ascending;
+    _name = ro._index;
+    _isInt = ro._isInt;
+    _isCategorical = ro._isCategorical;
+    _shift = ro._shift;
+    _bytesUsed = ro._bytesUsed;
+    _base = ro._base;
+  }
+
+  private static Key indexKey(String name) { return Key.make("__radix_order__SortIndex" + name); }
+
+  private static Key[] vecKeys(Frame fr, int[] cols) {
+    Key[] keys = new Key[cols.length];
+    for (int i = 0; i < cols.length; i++) keys[i] = fr.vec(cols[i])._key;
+    return keys;
+  }
+
+  private static long[] checksums(Frame fr, int[] cols) {
+    long[] sums = new long[cols.length];
+    for (int i = 0; i < cols.length; i++) sums[i] = fr.vec(cols[i]).checksum();
+    return sums;
+  }
+
+  /** @return whether the index of {@code cols} is to be kept */
+  static boolean keepable(int[] cols) { return MAX_INDEXES > 0 && cols.length > 0; }
+
+  /** @return the kept index of the columns {@code cols} of {@code fr}, pinned; null if none is valid */
+  static SortIndex find(Frame fr, int[] cols, boolean isLeft, int[][] id_maps, int[] ascending) {
+    if (!keepable(cols)) return null;
+    Value val = DKV.get(CATALOG);
+    if (val == null) return null;
+    Catalog cat = val.get();
+    Key[] vecs = vecKeys(fr, cols);
+    for (int i = 0; i < cat._indexes.length; i++) {
+      if (!Arrays.equals(cat._vecs[i], vecs)) continue;
+      SortIndex idx = DKV.getGet(cat._indexes[i]);
+      if (idx == null || idx._isLeft != isLeft || !Arrays.equals(idx._ascending, ascending)) continue;
+      if (isLeft && !Arrays.deepEquals(idx._id_maps, id_maps)) continue;
+      if (!Arrays.equals(idx._checksums, checksums(fr, cols))) { // Modified since sorted
+        drop(new Unregister(null, idx._key));
+        continue;
+      }
+      if (((Pin) new Pin(idx._key).invoke(CATALOG))._pinned) return idx; // Unless evicted meanwhile
+    }
+    return null;
+  }
+
+  /** Keeps the index {@code ro} of the columns {@code cols} of {@code fr} in the DKV, pinned */
+  static void keep(RadixOrder ro, Frame fr, int[] cols, boolean isLeft, int[][] id_maps, int[] ascending) {
+    SortIndex idx = new SortIndex(ro, vecKeys(fr, cols), checksums(fr, cols), isLeft ? id_maps : null);
+    DKV.put(idx);
+    Register reg = (Register) new Register(idx._key, idx._vecs).invoke(CATALOG);
+    ro._shared = true;
+    for (Key k : reg._evicted) Keyed.remove(k);
+  }
+
+  /** Releases the index named {@code name}, pinned by {@link #find} or {@link #keep} */
+  static void unpin(String name) {
+    Unpin u = (Unpin) new Unpin(indexKey(name)).invoke(CATALOG);
+    for (Key k : u._dropped) Keyed.remove(k);
+  }
+
+  /** Removes the kept indexes of any of the Vecs {@code vecs}, as they are written to or removed. */
+  public static void removeIndexesOf(Key[] vecs) {
+    if (MAX_INDEXES <= 0) return;
+    Value val = DKV.get(CATALOG);
+    if (val == null || !val.<Catalog>get().indexes(vecs)) return; // No index of these Vecs
+    drop(new Unregister(vecs, null));
+  }
+
+  private static void drop(Unregister u) {
+    u = (Unregister) u.invoke(CATALOG);
+    for (Key k : u._dropped) Keyed.remove(k);
+  }
+
+  // On the home node of the catalog: remove it once empty, unless updated meanwhile
+  private static void removeIfEmpty() {
+    Value val = DKV.get(CATALOG);
+    if (val != null && val.<Catalog>get()._indexes.length == 0) {
+      Futures fs = new Futures();
+      DKV.DputIfMatch(CATALOG, null, val, fs);
+      fs.blockForPending();
+    }
+  }
+
+  private static boolean uses(Key[] sorted, Key[] vecs) {
+    if (vecs != null)
+      for (Key k : vecs)
+        if (k != null && Arrays.asList(sorted).contains(k)) return true;
+    return false;
+  }
+
+  @Override protected Futures remove_impl(Futures fs) {
+    removeSorted(_name);
+    return fs;
+  }
+
+  /** Removes the sorted keys of the index {@code name} */
+  static void removeSorted(String name) {
+    for (int msb = 0; msb < 256; msb++) {
+      Key k = SingleThreadRadixOrder.getSortedOXHeaderKey(name, msb);
+      SingleThreadRadixOrder.OXHeader oxheader = DKV.getGet(k);
+      DKV.remove(k);
+      if (oxheader != null)
+        for (int b = 0; b < oxheader._nBatch; ++b)
+          DKV.remove(SplitByMSBLocal.getSortedOXbatchKey(name, msb, b));
+    }
+  }
+
+  // The kept indexes, oldest first, the Vecs of each of them, and the merges reading each of them
+  private static class Catalog extends Iced<Catalog> {
+    final Key[] _indexes;
+    final Key[][] _vecs;
+    final int[] _pins;          // Merges reading the index, which is not removed meanwhile
+    final boolean[] _retired;   // Dropped while pinned: no longer found, removed once unpinned
+
+    Catalog(Key[] indexes, Key[][] vecs, int[] pins, boolean[] retired) {
+      _indexes = indexes;
+      _vecs = vecs;
+      _pins = pins;
+      _retired = retired;
+    }
+
+    // The old catalog given to a TAtomic is a shallow copy, and is read again if the update is retried
+    Catalog copy() { return new Catalog(_indexes, _vecs, _pins.clone(), _retired.clone()); }
+
+    int find(Key index) {
+      for (int i = 0; i < _indexes.length; i++)
+        if (_indexes[i].equals(index)) return i;
+      return -1;
+    }
+
+    /** @return whether any of the Vecs {@code vecs} has an index not yet dropped */
+    boolean indexes(Key[] vecs) {
+      for (int i = 0; i < _indexes.length; i++)
+        if (!_retired[i] && uses(_vecs[i], vecs)) return true;
+      return false;
+    }
+
+    Key[] select(boolean[] which) {
+      ArrayList<Key> keys = new ArrayList<>();
+      for (int i = 0; i < _indexes.length; i++)
+        if (which[i]) keys.add(_indexes[i]);
+      return keys.toArray(new Key[keys.size()]);
+    }
+
+    Catalog without(boolean[] which) {
+      int n = _indexes.length - select(which).length, j = 0;
+      Catalog cat = new Catalog(new Key[n], new Key[n][], new int[n], new boolean[n]);
+      for (int i = 0; i < _indexes.length; i++) {
+        if (which[i]) continue;
+        cat._indexes[j] = _indexes[i];
+        cat._vecs[j] = _vecs[i];
+        cat._pins[j] = _pins[i];
+        cat._retired[j++] = _retired[i];
+      }
+      return cat;
+    }
+  }
+
+  // Adds an index, pinned by the merge that sorted it, and evicts the oldest unpinned ones beyond MAX_INDEXES
+  private static class Register extends TAtomic<Catalog> {
+    private final Key _index;
+    private final Key[] _vecs;
+    Key[] _evicted;             // OUTPUT: indexes dropped from the catalog, to remove
+
+    Register(Key index, Key[] vecs) {
+      _index = index;
+      _vecs = vecs;
+    }
+
+    @Override protected Catalog atomic(Catalog old) {
+      if (old == null) old = new Catalog(new Key[0], new Key[0][], new int[0], new boolean[0]);
+      int n = old._indexes.length + 1;
+      Catalog cat = new Catalog(Arrays.copyOf(old._indexes, n), Arrays.copyOf(old._vecs, n),
+                                Arrays.copyOf(old._pins, n), Arrays.copyOf(old._retired, n));
+      cat._indexes[n - 1] = _index;
+      cat._vecs[n - 1] = _vecs;
+      cat._pins[n - 1] = 1;
+      boolean[] evict = new boolean[n];
+      for (int i = 0, kept = n; i < n - 1 && kept > MAX_INDEXES; i++)
+        if (cat._pins[i] == 0) {
+          evict[i] = true;
+          kept--;
+        }
+      _evicted = cat.select(evict);
+      return cat.without(evict);
+    }
+  }
+
+  // Pins an index, unless it was dropped from the catalog
+  private static class Pin extends TAtomic<Catalog> {
+    private final Key _index;
+    boolean _pinned;            // OUTPUT: whether the index is pinned
+
+    Pin(Key index) { _index = index; }
+
+    @Override protected Catalog atomic(Catalog old) {
+      _pinned = false;
+      int i = old == null ? -1 : old.find(_index);
+      if (i == -1 || old._retired[i]) return null;
+      Catalog cat = old.copy();
+      cat._pins[i]++;
+      _pinned = true;
+      return cat;
+    }
+  }
+
+  // Unpins an index; once a dropped index is no longer pinned, it is removed
+  private static class Unpin extends TAtomic<Catalog> {
+    private final Key _index;
+    Key[] _dropped = new Key[0]; // OUTPUT: indexes dropped from the catalog, to remove
+
+    Unpin(Key index) { _index = index; }
+
+    @Override protected Catalog atomic(Catalog old) {
+      _dropped = new Key[0];
+      int i = old == null ? -1 : old.find(_index);
+      if (i == -1) return null;
+      Catalog cat = old.copy();
+      if (--cat._pins[i] > 0 || !cat._retired[i]) return cat;
+      boolean[] drop = new boolean[cat._indexes.length];
+      drop[i] = true;
+      _dropped = cat.select(drop);
+      return cat.without(drop);
+    }
+
+    @Override public void onSuccess(Catalog old) { removeIfEmpty(); }
+  }
+
+  // Drops the indexes of some Vecs, or one index, from the catalog; pinned ones are retired
+  // until unpinned, and an empty catalog is removed
+  private static class Unregister extends TAtomic<Catalog> {
+    private final Key[] _vecs;
+    private final Key _index;
+    Key[] _dropped = new Key[0]; // OUTPUT: indexes dropped from the catalog, to remove
+
+    Unregister(Key[] vecs, Key index) {
+      _vecs = vecs;
+      _index = index;
+    }
+
+    @Override protected Catalog atomic(Catalog old) {
+      _dropped = new Key[0];
+      if (old == null) return null;
+      Catalog cat = old.copy();
+      boolean changed = false;
+      boolean[] drop = new boolean[cat._indexes.length];
+      for (int i = 0; i < cat._indexes.length; i++) {
+        if (cat._retired[i] || !(cat._indexes[i].equals(_index) || uses(cat._vecs[i], _vecs))) continue;
+        if (cat._pins[i] > 0) cat._retired[i] = true;
+        else drop[i] = true;
+        changed = true;
+      }
+      if (!changed) return null;
+      _dropped = cat.select(drop);
+      return cat.without(drop);
+    }
+
+    @Override public void onSuccess(Catalog old) { removeIfEmpty(); }
+  }
+}
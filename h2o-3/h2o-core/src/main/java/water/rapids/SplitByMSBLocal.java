@@ -199,8 +199,8 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
             (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
   }
 
-  static Key getSortedOXbatchKey(boolean isLeft, int MSBvalue, int batch) {
-    return Key.make("__radix_order__SortedOXbatch_MSB" + MSBvalue + "_batch" + batch + (isLeft ? "_LEFT" : "_RIGHT"),
+  static Key getSortedOXbatchKey(String index, int MSBvalue, int batch) {
+    return Key.make("__radix_order__SortedOXbatch_MSB" + MSBvalue + "_batch" + batch + "_" + index,
             (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
   }
 
@@ -0,0 +1,505 @@
+package water.rapids;
+
+import water.Iced;
+import water.MRTask;
+import water.fvec.*;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Window functions: aggregates over the neighbouring rows of each row, within
+ * partitions of the rows, in the order of a column.
+ *
+ * <p>The rows are sorted once, by the partition columns then the order column.
+ * Each aggregate then has its own window: the {@code pre} rows before and the
+ * {@code fol} rows after the row in rows mode, or the rows whose order value is
+ * at most {@code pre} below and {@code fol} above its own in range mode, in
+ * both cases without leaving the partition of the row.  A negative {@code pre}
+ * starts the window at the start of the partition (a cumulative aggregate).
+ * {@code lag} and {@code lead} are the value {@code pre} rows before, resp.
+ * {@code fol} rows after, the row in its partition, in either mode.
+ *
+ * <p>All the aggregates are computed in a single pass over the sorted chunks.
+ * The rows a chunk needs from its neighbours (its halo) are gathered before by
+ * a light pass over the ends of the chunks: the last rows of the last partition
+ * of each chunk, the first rows of its first partition and, for cumulative
+ * aggregates, a summary of its last partition, carried over to the next chunks.
+ *
+ * <p>Missing values are skipped by the aggregates.  In range mode, rows with a
+ * missing order value are in no window, and get missing aggregates.
+ */
+public class WindowFunctions {
+  private WindowFunctions() {}
+
+  /** Functions computed over a window */
+  public enum Fcn {
+    count, sum, mean, min, max, sdev, lag, lead;
+
+    boolean isAggregate() { return this != lag && this != lead; }
+  }
+
+  /** One window function: {@code fcn} of column {@code col} over the window ({@code pre},{@code fol}) */
+  public static final class Agg extends Iced<Agg> {
+    final Fcn _fcn;
+    final int _col;
+    final double _pre, _fol;
+
+    public Agg(Fcn fcn, int col, double pre, double fol) {
+      _fcn = fcn;
+      _col = col;
+      _pre = pre;
+      _fol = fol;
+    }
+
+    boolean cumulative() { return _fcn.isAggregate() && _pre < 0; }
+  }
+
+  /**
+   * Sorts {@code fr} by the partition and order columns, and computes the
+   * window functions {@code aggs} over it.
+   * @param range whether the windows are ranges of the order values rather than numbers of rows
+   * @return the sorted frame, with a column per window function
+   */
+  public static Frame window(Frame fr, int[] partCols, int orderCol, boolean range, Agg[] aggs) {
+    check(fr, partCols, orderCol, range, aggs);
+    long t0 = System.currentTimeMillis();
+    int[] sortCols = Arrays.copyOf(partCols, partCols.length + 1);
+    sortCols[partCols.length] = orderCol;
+    Frame sorted = Merge.sort(fr, sortCols);
+    Log.info("Window functions: " + sorted.numRows() + " rows sorted in " + (System.currentTimeMillis() - t0) / 1000. + " (s)");
+    return windowSorted(sorted, partCols, orderCol, range, aggs);
+  }
+
+  /** Computes the window functions over {@code sorted}, sorted by the partition and order columns */
+  static Frame windowSorted(Frame sorted, int[] partCols, int orderCol, boolean range, Agg[] aggs) {
+    long t0 = System.currentTimeMillis();
+    // The columns read by the windows: partition keys, order, then the aggregated columns
+    ArrayList<Integer> valCols = new ArrayList<>();
+    int[] vals = new int[aggs.length];
+    for (int a = 0; a < aggs.length; a++) {
+      if (!valCols.contains(aggs[a]._col)) valCols.add(aggs[a]._col);
+      vals[a] = partCols.length + 1 + valCols.indexOf(aggs[a]._col);
+    }
+    Vec[] vecs = new Vec[partCols.length + 1 + valCols.size()];
+    for (int i = 0; i < partCols.length; i++) vecs[i] = sorted.vec(partCols[i]);
+    vecs[partCols.length] = sorted.vec(orderCol);
+    for (int i = 0; i < valCols.size(); i++) vecs[partCols.length + 1 + i] = sorted.vec(valCols.get(i));
+    Frame wf = new Frame(vecs);
+
+    Spec spec = new Spec(partCols.length, range, aggs, vals);
+    Halo halo = new HaloTask(spec).doAll(wf).halo(spec);
+    byte[] types = new byte[aggs.length];
+    String[][] domains = new String[aggs.length][];
+    for (int a = 0; a < aggs.length; a++) {
+      Vec v = sorted.vec(aggs[a]._col);
+      boolean copy = !aggs[a]._fcn.isAggregate() || ((aggs[a]._fcn == Fcn.min || aggs[a]._fcn == Fcn.max) && v.isTime());
+      types[a] = copy ? v.get_type() : Vec.T_NUM;
+      domains[a] = copy ? v.domain() : null;
+    }
+    Vec[] res = new WindowTask(spec, halo).doAll(types, wf).outputFrame(null, domains).vecs();
+    for (int a = 0; a < aggs.length; a++)
+      sorted.add(aggs[a]._fcn + "_" + sorted.name(aggs[a]._col), res[a]);
+    Log.info("Window functions: " + aggs.length + " computed in " + (System.currentTimeMillis() - t0) / 1000. + " (s)");
+    return sorted;
+  }
+
+  private static void check(Frame fr, int[] partCols, int orderCol, boolean range, Agg[] aggs) {
+    for (int col : partCols) {
+      if (col == orderCol) throw new IllegalArgumentException("The order column cannot be a partition column");
+      Vec v = fr.vec(col);
+      if (!v.isNumeric() && !v.isCategorical() && !v.isTime())
+        throw new IllegalArgumentException("Partition column " + fr.name(col) + " must be numeric, categorical or time");
+    }
+    if (!fr.vec(orderCol).isNumeric() && !fr.vec(orderCol).isTime())
+      throw new IllegalArgumentException("Order column " + fr.name(orderCol) + " must be numeric or time");
+    if (aggs.length == 0) throw new IllegalArgumentException("No window function given");
+    for (Agg agg : aggs) {
+      Vec v = fr.vec(agg._col);
+      if (agg._fcn.isAggregate() ? !v.isNumeric() && !v.isTime() : !v.isNumeric() && !v.isCategorical() && !v.isTime())
+        throw new IllegalArgumentException("Cannot compute " + agg._fcn + " of column " + fr.name(agg._col) + " of type " + v.get_type_str());
+      if (Double.isNaN(agg._pre) || Double.isNaN(agg._fol) || agg._fol < 0)
+        throw new IllegalArgumentException("Window of " + agg._fcn + " must end a non-negative number of rows or values after the row");
+      boolean rows = !range || !agg._fcn.isAggregate();
+      if (rows && (agg._pre != Math.floor(agg._pre) || agg._fol != Math.floor(agg._fol)))
+        throw new IllegalArgumentException("Window of " + agg._fcn + " must be a whole number of rows");
+      if (agg._fcn == Fcn.lag && (agg._pre < 0 || agg._fol != 0) || agg._fcn == Fcn.lead && agg._pre != 0)
+        throw new IllegalArgumentException(agg._fcn + " takes a single, non-negative, offset");
+    }
+  }
+
+  // What the windows need from outside of a chunk
+  private static final class Spec extends Iced<Spec> {
+    final int _nkeys;
+    final boolean _range;
+    final Agg[] _aggs;
+    final int[] _vals;          // Column of each aggregate in the window frame
+    final int[] _cumulative;    // Index of the cumulative aggregates
+    int _preRows, _folRows;     // Rows needed before and after
+    double _preRange = -1, _folRange = -1; // Range of order values needed before and after, -1 if none
+
+    Spec(int nkeys, boolean range, Agg[] aggs, int[] vals) {
+      _nkeys = nkeys;
+      _range = range;
+      _aggs = aggs;
+      _vals = vals;
+      int ncum = 0;
+      for (Agg agg : aggs) if (agg.cumulative()) ncum++;
+      _cumulative = new int[ncum];
+      ncum = 0;
+      for (int a = 0; a < aggs.length; a++) {
+        Agg agg = aggs[a];
+        if (agg.cumulative()) _cumulative[ncum++] = a;
+        if (range && agg._fcn.isAggregate()) {
+          if (!agg.cumulative()) _preRange = Math.max(_preRange, agg._pre);
+          _folRange = Math.max(_folRange, agg._fol);
+        } else {
+          if (!agg.cumulative()) _preRows = Math.max(_preRows, (int) agg._pre);
+          _folRows = Math.max(_folRows, (int) agg._fol);
+        }
+      }
+    }
+
+    boolean sameKey(double[][] cols, int r, int s) {
+      for (int k = 0; k < _nkeys; k++)
+        if (!same(cols[k][r], cols[k][s])) return false;
+      return true;
+    }
+
+    static boolean same(double a, double b) { return a == b || Double.isNaN(a) && Double.isNaN(b); }
+
+    // Whether the row counts in the cumulative aggregates: range windows skip missing order values
+    boolean counts(double[][] cols, int r) { return !_range || !Double.isNaN(cols[_nkeys][r]); }
+  }
+
+  // Running count, sum, sum of squares, min and max of the values of a window
+  private static final class State {
+    final double[] _vals;
+    final int[] _deque;         // Rows of the window min or max, if computed
+    final boolean _max;
+    int _head, _tail;
+    double _n, _sum, _sumsq;
+    double _carriedMin, _carriedMax;  // Of the rows carried over
+
+    State(double[] vals, Fcn fcn) {
+      _vals = vals;
+      _deque = fcn == Fcn.min || fcn == Fcn.max ? new int[vals.length] : null;
+      _max = fcn == Fcn.max;
+    }
+
+    void clear() {
+      _head = _tail = 0;
+      _n = _sum = _sumsq = 0;
+      _carriedMin = Double.POSITIVE_INFINITY;
+      _carriedMax = Double.NEGATIVE_INFINITY;
+    }
+
+    void add(int r) {
+      double v = _vals[r];
+      if (Double.isNaN(v)) return;
+      _n++;
+      _sum += v;
+      _sumsq += v * v;
+      if (_deque != null) {
+        while (_tail > _head && (_max ? _vals[_deque[_tail - 1]] <= v : _vals[_deque[_tail - 1]] >= v)) _tail--;
+        _deque[_tail++] = r;
+      }
+    }
+
+    void remove(int r) {
+      double v = _vals[r];
+      if (Double.isNaN(v)) return;
+      if (--_n == 0) _sum = _sumsq = 0; // Drop the rounding errors
+      else {
+        _sum -= v;
+        _sumsq -= v * v;
+      }
+      if (_deque != null && _tail > _head && _deque[_head] == r) _head++;
+    }
+
+    // Adds a summary of rows out of the window frame, which stay in the window
+    void carry(double[] summ, int off) {
+      _n += summ[off];
+      _sum += summ[off + 1];
+      _sumsq += summ[off + 2];
+      _carriedMin = Math.min(_carriedMin, summ[off + 3]);
+      _carriedMax = Math.max(_carriedMax, summ[off + 4]);
+    }
+
+    double value(Fcn fcn) {
+      switch (fcn) {
+        case count: return _n;
+        case sum:   return _sum;
+        case mean:  return _n == 0 ? Double.NaN : _sum / _n;
+        case sdev:
+          if (_n < 2) return Double.NaN;
+          return Math.sqrt(Math.max(0, (_sumsq - _sum * _sum / _n) / (_n - 1)));
+        case min:
+          double min = _tail > _head ? Math.min(_carriedMin, _vals[_deque[_head]]) : _carriedMin;
+          return min == Double.POSITIVE_INFINITY ? Double.NaN : min;
+        case max:
+          double max = _tail > _head ? Math.max(_carriedMax, _vals[_deque[_head]]) : _carriedMax;
+          return max == Double.NEGATIVE_INFINITY ? Double.NaN : max;
+        default: throw new IllegalArgumentException("Not an aggregate: " + fcn);
+      }
+    }
+  }
+
+  // Summary of rows for the cumulative aggregates: count, sum, sum of squares, min and max of each
+  private static double[] summary(Spec spec, double[][] cols, int from, int to) {
+    int[] cum = spec._cumulative;
+    double[] summ = new double[cum.length * 5];
+    for (int c = 0; c < cum.length; c++) {
+      double[] vals = cols[spec._vals[cum[c]]];
+      double n = 0, sum = 0, sumsq = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+      for (int r = from; r < to; r++) {
+        double v = vals[r];
+        if (Double.isNaN(v) || !spec.counts(cols, r)) continue;
+        n++;
+        sum += v;
+        sumsq += v * v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+      }
+      summ[c * 5] = n;
+      summ[c * 5 + 1] = sum;
+      summ[c * 5 + 2] = sumsq;
+      summ[c * 5 + 3] = min;
+      summ[c * 5 + 4] = max;
+    }
+    return summ;
+  }
+
+  private static double[] combine(double[] s0, double[] s1) {
+    double[] summ = s0.clone();
+    for (int i = 0; i < summ.length; i += 5) {
+      summ[i] += s1[i];
+      summ[i + 1] += s1[i + 1];
+      summ[i + 2] += s1[i + 2];
+      summ[i + 3] = Math.min(summ[i + 3], s1[i + 3]);
+      summ[i + 4] = Math.max(summ[i + 4], s1[i + 4]);
+    }
+    return summ;
+  }
+
+  private static double[][] columns(Chunk[] cs) {
+    double[][] cols = new double[cs.length][];
+    for (int i = 0; i < cs.length; i++) cols[i] = cs[i].getDoubles(new double[cs[i]._len], 0, cs[i]._len);
+    return cols;
+  }
+
+  // Rows [from,to) of the columns, row after row
+  private static double[] rows(double[][] cols, int from, int to) {
+    double[] rows = new double[(to - from) * cols.length];
+    for (int r = from; r < to; r++)
+      for (int i = 0; i < cols.length; i++) rows[(r - from) * cols.length + i] = cols[i][r];
+    return rows;
+  }
+
+  // The halo of each chunk: rows before and after it, and the summary of the rows before it in its first partition
+  private static final class Halo extends Iced<Halo> {
+    final double[][] _pre, _fol;  // Rows before and after each chunk, row after row
+    final double[][] _carry;      // Summary of the partition of the last row before each chunk, null if none
+    final double[][] _carryKey;   // That partition
+
+    Halo(int nchks) {
+      _pre = new double[nchks][];
+      _fol = new double[nchks][];
+      _carry = new double[nchks][];
+      _carryKey = new double[nchks][];
+    }
+  }
+
+  // Reads the ends of the chunks: the rows next chunks may need, and the summary of their last partition
+  private static class HaloTask extends MRTask<HaloTask> {
+    private final Spec _spec;
+    int[] _lens;
+    double[][] _first, _last;   // Keys of the first and last rows of each chunk
+    double[][] _tails, _heads;  // Rows of the last, resp. first, partition of each chunk needed by its neighbours
+    double[][] _summs;          // Summary of the last partition of each chunk
+    boolean[] _whole;           // Whether each chunk has a single partition
+
+    HaloTask(Spec spec) { _spec = spec; }
+
+    @Override
+    public void map(Chunk[] cs) {
+      int nchks = _fr.anyVec().nChunks(), cidx = cs[0].cidx(), len = cs[0]._len;
+      _lens = new int[nchks];
+      _first = new double[nchks][];
+      _last = new double[nchks][];
+      _tails = new double[nchks][];
+      _heads = new double[nchks][];
+      _summs = new double[nchks][];
+      _whole = new boolean[nchks];
+      _lens[cidx] = len;
+      if (len == 0) {
+        _tails[cidx] = _heads[cidx] = new double[0];
+        return;
+      }
+      final Spec spec = _spec;
+      double[][] cols = columns(cs);
+      int ord = spec._nkeys;
+      // The last partition, and its rows within the widest window before its last row
+      int start = len - 1;
+      while (start > 0 && spec.sameKey(cols, start - 1, len - 1)) start--;
+      int tail = len;
+      double lastOrd = cols[ord][len - 1];
+      while (tail > start && (len - tail < spec._preRows ||
+          spec._preRange >= 0 && cols[ord][tail - 1] >= lastOrd - spec._preRange)) tail--;
+      // The first partition, and its rows within the widest window after its first row
+      int end = 1;
+      while (end < len && spec.sameKey(cols, end, 0)) end++;
+      int head = 0;
+      double firstOrd = cols[ord][0];
+      while (head < end && (head < spec._folRows ||
+          spec._folRange >= 0 && cols[ord][head] <= firstOrd + spec._folRange)) head++;
+      _first[cidx] = Arrays.copyOf(rows(cols, 0, 1), spec._nkeys);
+      _last[cidx] = Arrays.copyOf(rows(cols, len - 1, len), spec._nkeys);
+      _tails[cidx] = rows(cols, tail, len);
+      _heads[cidx] = rows(cols, 0, head);
+      _summs[cidx] = summary(spec, cols, start, len);
+      _whole[cidx] = start == 0;
+    }
+
+    @Override
+    public void reduce(HaloTask t) {
+      for (int i = 0; i < _tails.length; i++)
+        if (t._tails[i] != null) {
+          _lens[i] = t._lens[i];
+          _first[i] = t._first[i];
+          _last[i] = t._last[i];
+          _tails[i] = t._tails[i];
+          _heads[i] = t._heads[i];
+          _summs[i] = t._summs[i];
+          _whole[i] = t._whole[i];
+        }
+    }
+
+    // The halo of each chunk, walking over the neighbour chunks all of which is needed
+    Halo halo(Spec spec) {
+      int nchks = _tails.length, width = _fr.numCols();
+      Halo halo = new Halo(nchks);
+      for (int i = 0; i < nchks; i++) {
+        // The tails of the chunks before, back to one not wholly needed; likewise for the heads after
+        int from = i - 1, to = i + 1;
+        while (from > 0 && _tails[from].length == _lens[from] * width) from--;
+        while (to < nchks - 1 && _heads[to].length == _lens[to] * width) to++;
+        halo._pre[i] = concat(_tails, Math.max(from, 0), i);
+        halo._fol[i] = concat(_heads, i + 1, Math.min(to + 1, nchks));
+      }
+      if (spec._cumulative.length > 0) {
+        for (int i = 1; i < nchks; i++) {
+          int j = i - 1;
+          if (_lens[j] == 0) {
+            halo._carry[i] = halo._carry[j];
+            halo._carryKey[i] = halo._carryKey[j];
+          } else {
+            boolean more = _whole[j] && halo._carryKey[j] != null && sameKey(halo._carryKey[j], _first[j]);
+            halo._carry[i] = more ? combine(halo._carry[j], _summs[j]) : _summs[j];
+            halo._carryKey[i] = _last[j];
+          }
+        }
+      }
+      return halo;
+    }
+
+    private static boolean sameKey(double[] k0, double[] k1) {
+      for (int k = 0; k < k0.length; k++)
+        if (!Spec.same(k0[k], k1[k])) return false;
+      return true;
+    }
+
+    private static double[] concat(double[][] parts, int from, int to) {
+      int n = 0;
+      for (int i = from; i < to; i++) n += parts[i].length;
+      double[] res = new double[n];
+      n = 0;
+      for (int i = from; i < to; i++) {
+        System.arraycopy(parts[i], 0, res, n, parts[i].length);
+        n += parts[i].length;
+      }
+      return res;
+    }
+  }
+
+  // Computes the window functions of each chunk, from the chunk and its halo
+  private static class WindowTask extends MRTask<WindowTask> {
+    private final Spec _spec;
+    private final Halo _halo;
+
+    WindowTask(Spec spec, Halo halo) {
+      _spec = spec;
+      _halo = halo;
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      final Spec spec = _spec;
+      int cidx = cs[0].cidx(), len = cs[0]._len, width = cs.length;
+      if (len == 0) return;
+      double[] pre = _halo._pre[cidx], fol = _halo._fol[cidx];
+      int npre = pre.length / width, n = npre + len + fol.length / width;
+      // The chunk with its halo, column by column
+      double[][] cols = new double[width][n];
+      for (int i = 0; i < width; i++) {
+        for (int r = 0; r < npre; r++) cols[i][r] = pre[r * width + i];
+        System.arraycopy(cs[i].getDoubles(new double[len], 0, len), 0, cols[i], npre, len);
+        for (int r = npre + len; r < n; r++) cols[i][r] = fol[(r - npre - len) * width + i];
+      }
+      // Bounds of the partition of each row
+      int[] pstart = new int[n], pend = new int[n];
+      for (int r = 0; r < n; r++)
+        pstart[r] = r > 0 && spec.sameKey(cols, r - 1, r) ? pstart[r - 1] : r;
+      for (int r = n - 1; r >= 0; r--)
+        pend[r] = r < n - 1 && pstart[r + 1] == pstart[r] ? pend[r + 1] : r;
+      double[] carry = _halo._carry[cidx];
+      double[] carryKey = _halo._carryKey[cidx];
+      boolean carried = carry != null;
+      for (int k = 0; carried && k < spec._nkeys; k++)
+        carried = Spec.same(carryKey[k], cols[k][npre]);
+
+      double[] ord = cols[spec._nkeys];
+      for (int a = 0, c = 0; a < spec._aggs.length; a++) {
+        Agg agg = spec._aggs[a];
+        double[] vals = cols[spec._vals[a]];
+        NewChunk nc = ncs[a];
+        boolean categorical = _fr.vec(spec._vals[a]).isCategorical() && !agg._fcn.isAggregate();
+        if (!agg._fcn.isAggregate()) {
+          for (int r = npre; r < npre + len; r++) {
+            int s = agg._fcn == Fcn.lag ? r - (int) agg._pre : r + (int) agg._fol;
+            if (s < pstart[r] || s > pend[r] || Double.isNaN(vals[s])) nc.addNA();
+            else if (categorical) nc.addNum((long) vals[s], 0);
+            else nc.addNum(vals[s]);
+          }
+          continue;
+        }
+        boolean range = spec._range, cumulative = agg.cumulative();
+        int carryOff = cumulative ? 5 * c++ : -1;
+        State w = new State(vals, agg._fcn);
+        int lo = 0, hi = -1, wpart = -1;
+        for (int r = npre; r < npre + len; r++) {
+          if (pstart[r] != wpart) {   // New partition: empty window
+            wpart = pstart[r];
+            w.clear();
+            lo = cumulative ? Math.max(pstart[r], npre) : pstart[r];
+            if (range)
+              while (lo <= pend[r] && Double.isNaN(ord[lo])) lo++;
+            hi = lo - 1;
+            if (cumulative && carried && pstart[r] == pstart[npre]) w.carry(carry, carryOff);
+          }
+          if (range && Double.isNaN(ord[r])) {
+            nc.addNA();
+            continue;
+          }
+          while (hi < pend[r] && (hi < r || (range ? ord[hi + 1] <= ord[r] + agg._fol : hi + 1 <= r + agg._fol)))
+            w.add(++hi);
+          if (!cumulative)
+            while (lo <= hi && (range ? ord[lo] < ord[r] - agg._pre : lo < r - agg._pre))
+              w.remove(lo++);
+          nc.addNum(w.value(agg._fcn));
+        }
+      }
+    }
+  }
+}
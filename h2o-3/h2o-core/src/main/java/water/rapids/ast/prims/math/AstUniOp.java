@@ -6,8 +6,11 @@ import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
 import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Fusion;
 import water.rapids.Val;
 import water.rapids.ast.AstBuiltin;
+import water.rapids.ast.AstRoot;
 import water.rapids.vals.ValFrame;
 import water.rapids.vals.ValNum;
 import water.rapids.vals.ValRow;
@@ -26,6 +29,12 @@ public abstract class AstUniOp<T extends AstUniOp<T>> extends AstBuiltin<T> {
     return 1 + 1;
   }
 
+  @Override
+  public Val apply(Env env, Env.StackHelp stk, AstRoot[] asts) {
+    if (Fusion.fusable(env, asts)) return Fusion.apply(env, stk, this, asts);
+    return super.apply(env, stk, asts);
+  }
+
   @Override
   public Val exec(Val... args) {
     Val val = args[1];
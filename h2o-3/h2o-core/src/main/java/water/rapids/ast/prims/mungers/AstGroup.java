@@ -301,6 +301,18 @@ public class AstGroup extends AstPrimitive {
         _totMedianCols = 0;
     }
     int naggs = countCols;
+    String[] fcnames = new String[aggs.length];
+    for (int i = 0; i < aggs.length; i++) {
+      if (aggs[i]._fcn.toString() != "nrow") {
+        fcnames[i] = aggs[i]._fcn.toString() + "_" + fr.name(aggs[i]._col);
+      } else {
+        fcnames[i] = aggs[i]._fcn.toString();
+      }
+    }
+
+    // Many groups: partition them across the nodes rather than gathering them all
+    if (HashGroupBy.preferred(fr, gbCols, aggs))
+      return new ValFrame(HashGroupBy.groupBy(fr, gbCols, aggs, fcnames));
 
     // do the group by work now
     IcedHashMap<G, String> gss = doGroups(fr, gbCols, aggs, _totMedianCols);
@@ -347,15 +359,6 @@ public class AstGroup extends AstPrimitive {
       buildMedians.calcMedian(groupChunks);
     }
     // Build the output!
-    String[] fcnames = new String[aggs.length];
-    for (int i = 0; i < aggs.length; i++) {
-      if (aggs[i]._fcn.toString() != "nrow") {
-        fcnames[i] = aggs[i]._fcn.toString() + "_" + fr.name(aggs[i]._col);
-      } else {
-        fcnames[i] = aggs[i]._fcn.toString();
-      }
-    }
-
     MRTask mrfill = new MRTask() {
       @Override
       public void map(Chunk[] c, NewChunk[] ncs) {
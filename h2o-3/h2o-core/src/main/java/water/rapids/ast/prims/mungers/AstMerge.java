@@ -7,6 +7,7 @@ import water.MRTask;
 import water.fvec.*;
 import water.parser.BufferedString;
 import water.rapids.Env;
+import water.rapids.BroadcastJoin;
 import water.rapids.Merge;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
@@ -45,6 +46,12 @@ import java.util.Arrays;
  * the frames.  The Hash method will not give correct merge results if there
  * are duplicated rows in the rightFrame.  The hash method cannot work with String columns,
  * they need to be casted to enums/integer columns before calling merge.
+ * <p/>
+ * With method auto, a large frame joined with a small one is joined by
+ * broadcasting the small one to all nodes ({@link BroadcastJoin}); the result
+ * then keeps the row order of the large frame: it has the rows of the radix
+ * merge, but is not sorted on the join columns.  Use method radix for a sorted
+ * result.
  */
 public class AstMerge extends AstPrimitive {
   @Override
@@ -148,9 +155,9 @@ public class AstMerge extends AstPrimitive {
       }
 
       if (onlyLeftAllOff) {
-        return sortingMerge(l, r, allLeft, allRite, ncols, id_maps);
+        return sortingMerge(l, r, allLeft, allRite, ncols, id_maps, method.equals("auto"));
       } else {  // implement allRite here by switching leftframe and riteframe.  However, column order is wrong, re-order before return
-        ValFrame tempFrame = sortingMerge(r, l, allRite, allLeft, ncols, id_maps);
+        ValFrame tempFrame = sortingMerge(r, l, allRite, allLeft, ncols, id_maps, method.equals("auto"));
         Frame mergedFrame = tempFrame.getFrame();  // need to switch order of merged frame
         int allColNum = mergedFrame.numCols();
         int[] colMapping = new int[allColNum];  // index into combined frame but with correct order
@@ -214,7 +221,7 @@ public class AstMerge extends AstPrimitive {
       }
     }.doAllNodes();
     if (method.equals("auto") && (rows == null || rows.size() > MAX_HASH_SIZE))  // Blew out hash size; switch to a sorting join.  Matt: even with 0, rows was size 3 hence added ||
-      return sortingMerge(l, r, allLeft, allRite, ncols, id_maps);
+      return sortingMerge(l, r, allLeft, allRite, ncols, id_maps, false);
 
     // All of the walked set, and no dup handling on the right - which means no
     // need to replicate rows of the walked dataset.  Simple 1-pass over the
@@ -266,9 +273,13 @@ public class AstMerge extends AstPrimitive {
    *                as the first ncols of both the left and right frames.
    * @param id_maps if not-null denote simple integer mappings from one
    *                categorical column to another; the width is ncols
+   * @param auto    a small RHS frame may be joined by broadcast instead, in
+   *                the LHS row order, see {@link BroadcastJoin#preferred}
    */
 
-  private ValFrame sortingMerge(Frame left, Frame right, boolean allLeft, boolean allRite, int ncols, int[][] id_maps) {
+  private ValFrame sortingMerge(Frame left, Frame right, boolean allLeft, boolean allRite, int ncols, int[][] id_maps, boolean auto) {
+    if (auto && BroadcastJoin.preferred(left, right, ncols))
+      return new ValFrame(BroadcastJoin.join(left, right, ncols, allLeft, id_maps));
     int cols[] = new int[ncols];
     for (int i = 0; i < ncols; i++) cols[i] = i;
     return new ValFrame(Merge.merge(left, right, cols, cols, allLeft, id_maps));
@@ -0,0 +1,72 @@
+package water.rapids.ast.prims.mungers;
+
+import water.fvec.Frame;
+import water.rapids.Env;
+import water.rapids.Val;
+import water.rapids.WindowFunctions;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.params.AstNumList;
+import water.rapids.vals.ValFrame;
+import water.rapids.vals.ValFun;
+
+/**
+ * Window functions
+ * Partition the rows of 'data' by '[partition-cols]', order them by
+ * 'order-col', and apply function 'fcn' to column 'col' over a window of
+ * 'pre' rows before and 'fol' rows after each row, within its partition.
+ * Sets of tuples {fcn,col,pre,fol} are allowed, and are all computed in a
+ * single pass over the data.
+ * <p/>
+ * 'mode' is "rows" for windows of rows, or "range" for windows of the rows
+ * whose order value is at most 'pre' below and 'fol' above the one of the row.
+ * A negative 'pre' makes a cumulative window, from the start of the partition.
+ * 'fcn' is one of count, sum, mean, min, max and sdev, or lag and lead, the
+ * value 'pre' rows before, resp. 'fol' rows after, the row.
+ * <p/>
+ * Returns the rows sorted by the partition and order columns, with a column
+ * per function.  See {@link WindowFunctions}.
+ */
+public class AstWindow extends AstPrimitive {
+  @Override
+  public int nargs() {
+    return -1;
+  } // (window data [partition-cols] order-col mode {fcn col pre fol}...)
+
+  @Override
+  public String[] args() {
+    return new String[]{"..."};
+  }
+
+  @Override
+  public String str() {
+    return "window";
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    int ncols = fr.numCols();
+    int[] partCols = AstGroup.check(ncols, asts[2]).expand4();
+    AstNumList order = AstGroup.check(ncols, asts[3]);
+    if (order.cnt() != 1) throw new IllegalArgumentException("Window functions take a single order column");
+    String mode = asts[4].exec(env).getStr();
+    if (!mode.equals("rows") && !mode.equals("range"))
+      throw new IllegalArgumentException("Window mode must be rows or range, but found " + mode);
+    if (asts.length <= 5 || (asts.length - 5) % 4 != 0)
+      throw new IllegalArgumentException("Window functions are given as {fcn col pre fol}");
+
+    WindowFunctions.Agg[] aggs = new WindowFunctions.Agg[(asts.length - 5) / 4];
+    for (int idx = 5; idx < asts.length; idx += 4) {
+      Val v = asts[idx].exec(env);
+      String fn = v instanceof ValFun ? v.getFun().str() : v.getStr();
+      WindowFunctions.Fcn fcn = WindowFunctions.Fcn.valueOf(fn);
+      AstNumList col = AstGroup.check(ncols, asts[idx + 1]);
+      if (col.cnt() != 1) throw new IllegalArgumentException("Window functions take only a single column");
+      double pre = asts[idx + 2].exec(env).getNum();
+      double fol = asts[idx + 3].exec(env).getNum();
+      aggs[(idx - 5) / 4] = new WindowFunctions.Agg(fcn, (int) col.min(), pre, fol);
+    }
+    return new ValFrame(WindowFunctions.window(fr, partCols, (int) order.min(), mode.equals("range"), aggs));
+  }
+}
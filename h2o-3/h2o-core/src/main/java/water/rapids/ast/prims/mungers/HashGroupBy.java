@@ -0,0 +1,404 @@
+package water.rapids.ast.prims.mungers;
+
+import water.*;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMap;
+import water.rapids.Merge;
+import water.rapids.ast.prims.mungers.AstGroup.AGG;
+import water.rapids.ast.prims.mungers.AstGroup.FCN;
+import water.rapids.ast.prims.mungers.AstGroup.NAHandling;
+import water.util.ArrayUtils;
+import water.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Distributed group-by for many groups.
+ *
+ * <p>{@link AstGroup.GBTask} gathers every group on every node and ships them
+ * all to the caller, which does not scale with the number of groups.  Here the
+ * groups are hash-partitioned across the nodes instead:
+ * <ol>
+ *   <li>each node aggregates its chunks into one table per partition;</li>
+ *   <li>each node fetches its partition from all nodes and merges it;</li>
+ *   <li>each node writes its groups as one chunk of the result.</li>
+ * </ol>
+ * The tables keep the keys and the aggregate states of the groups in flat
+ * primitive arrays, indexed by open addressing.  The result is sorted by the
+ * group-by columns, as the result of {@link AstGroup}.  Median is not
+ * supported.
+ */
+public class HashGroupBy {
+  private HashGroupBy() {}
+
+  /** Estimated number of groups from which the hash-partitioned group-by is used,
+   *  {@code -Dsys.ai.h2o.rapids.groupby.hash.minGroups}. */
+  static final long MIN_GROUPS =
+      Long.parseLong(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.groupby.hash.minGroups", "1000000"));
+
+  /** @return whether grouping {@code fr} by {@code gbCols} is expected to make enough groups for this group-by */
+  static boolean preferred(Frame fr, int[] gbCols, AGG[] aggs) {
+    if (gbCols.length == 0) return false;
+    for (AGG agg : aggs)
+      if (agg._fcn == FCN.median) return false;
+    double groups = 1;          // Bound of the number of groups, NA being a group of its own
+    for (int col : gbCols) {
+      Vec v = fr.vec(col);
+      if (v.isCategorical()) groups *= v.cardinality() + 1;
+      else if (v.isInt()) groups *= v.max() - v.min() + 2;
+      else groups = Double.POSITIVE_INFINITY; // Up to one group per row
+    }
+    return Math.min(groups, fr.numRows()) >= MIN_GROUPS;
+  }
+
+  /**
+   * Groups the rows of {@code fr} by the columns {@code gbCols}, with the aggregates {@code aggs}.
+   * @return a new frame of a row per group: the group-by columns, then the aggregates named {@code fcnames}
+   */
+  public static Frame groupBy(Frame fr, int[] gbCols, AGG[] aggs, String[] fcnames) {
+    for (AGG agg : aggs)
+      if (agg._fcn == FCN.median)
+        throw new IllegalArgumentException("Median is not supported by the hash-partitioned group-by");
+    final Key key = Key.make();
+    final int nparts = H2O.CLOUD.size();
+    long start = System.currentTimeMillis();
+    try {
+      new GroupTask(key, gbCols, aggs, nparts).doAll(fr);
+      long[] counts = new BuildPartitionTask(key, nparts).doAllNodes()._counts;
+      // One chunk of groups per partition
+      long[] espc = new long[nparts + 1];
+      for (int p = 0; p < nparts; p++)
+        espc[p + 1] = espc[p] + counts[p];
+      final int ncols = gbCols.length + aggs.length;
+      String[] names = new String[ncols];
+      String[][] domains = new String[ncols][];
+      for (int i = 0; i < gbCols.length; i++) {
+        names[i] = fr.name(gbCols[i]);
+        domains[i] = fr.vec(gbCols[i]).domain();
+      }
+      System.arraycopy(fcnames, 0, names, gbCols.length, aggs.length);
+      Key<Vec>[] keys = new Vec.VectorGroup().addVecs(ncols); // A row layout of its own, not fr's
+      int rowLayout = Vec.ESPC.rowLayout(keys[0], espc);
+      Vec[] vecs = new Vec[ncols];
+      for (int i = 0; i < ncols; i++)
+        vecs[i] = new Vec(keys[i], rowLayout, domains[i], domains[i] == null ? Vec.T_NUM : Vec.T_CAT);
+      new WriteTask(key, gbCols.length, vecs).doAllNodes();
+      Futures fs = new Futures();
+      for (Vec v : vecs) DKV.put(v, fs);
+      fs.blockForPending();
+      Frame res = new Frame(names, vecs);
+      Log.info("Hash group-by of " + espc[nparts] + " groups done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
+      try {
+        return Merge.sort(res, ArrayUtils.seq(0, gbCols.length));
+      } finally {
+        res.delete();
+      }
+    } catch (RuntimeException e) {
+      new ClearTask(key).doAllNodes();
+      throw e;
+    }
+  }
+
+  // Node-local tables: the partitions filled by this node, and the partition owned by this node
+  private static final NonBlockingHashMap<Key, GroupTable[]> _local = new NonBlockingHashMap<>();
+  private static final NonBlockingHashMap<Key, GroupTable> _owned = new NonBlockingHashMap<>();
+
+  // Aggregates the rows of each chunk, then merges the groups into the node-local partitions
+  private static class GroupTask extends MRTask<GroupTask> {
+    private final Key _key;
+    private final int[] _gbCols;
+    private final AGG[] _aggs;
+    private final int _nparts;
+
+    GroupTask(Key key, int[] gbCols, AGG[] aggs, int nparts) {
+      _key = key;
+      _gbCols = gbCols;
+      _aggs = aggs;
+      _nparts = nparts;
+    }
+
+    @Override
+    public void setupLocal() {
+      GroupTable[] parts = new GroupTable[_nparts];
+      for (int p = 0; p < parts.length; p++) parts[p] = new GroupTable(_gbCols.length, _aggs);
+      _local.putIfAbsent(_key, parts);
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      GroupTable groups = new GroupTable(_gbCols.length, _aggs);
+      double[] gkey = new double[_gbCols.length];
+      for (int row = 0; row < cs[0]._len; row++) {
+        for (int c = 0; c < gkey.length; c++) gkey[c] = cs[_gbCols[c]].atd(row);
+        int g = groups.find(gkey, 0);
+        for (int a = 0; a < _aggs.length; a++)
+          groups.add(g, a, cs[_aggs[a]._col].atd(row));
+      }
+      int[] part = new int[groups._size];
+      for (int g = 0; g < part.length; g++) part[g] = groups.partition(g, _nparts);
+      GroupTable[] parts = _local.get(_key);
+      for (int p = 0; p < parts.length; p++)
+        synchronized (parts[p]) {
+          for (int g = 0; g < part.length; g++)
+            if (part[g] == p) parts[p].merge(groups, g);
+        }
+    }
+  }
+
+  // Each node merges its partition from the tables of all nodes
+  private static class BuildPartitionTask extends MRTask<BuildPartitionTask> {
+    private final Key _key;
+    private final int _nparts;
+    long[] _counts;             // Groups per partition
+
+    BuildPartitionTask(Key key, int nparts) {
+      _key = key;
+      _nparts = nparts;
+    }
+
+    @Override
+    public void setupLocal() {
+      H2ONode[] nodes = H2O.CLOUD.members();
+      final int p = H2O.SELF.index();
+      RPC<FetchPartitionTask>[] rpcs = new RPC[nodes.length];
+      for (int i = 0; i < nodes.length; i++)
+        rpcs[i] = new RPC<>(nodes[i], new FetchPartitionTask(_key, p)).call();
+      GroupTable owned = null;
+      for (RPC<FetchPartitionTask> rpc : rpcs) {
+        GroupTable t = rpc.get()._table;
+        if (t == null) continue;
+        if (owned == null) owned = t;
+        else owned.merge(t);
+      }
+      if (owned == null) throw new IllegalStateException("Missing partition " + p + " of group-by " + _key);
+      _owned.put(_key, owned);
+      _counts = new long[_nparts];
+      _counts[p] = owned._size;
+    }
+
+    @Override
+    public void reduce(BuildPartitionTask t) {
+      if (_counts == null) _counts = t._counts;
+      else if (t._counts != null) ArrayUtils.add(_counts, t._counts);
+    }
+  }
+
+  // Hands over one partition of the node-local tables, and frees it
+  private static class FetchPartitionTask extends DTask<FetchPartitionTask> {
+    private final Key _key;
+    private final int _part;
+    GroupTable _table;
+
+    FetchPartitionTask(Key key, int part) {
+      _key = key;
+      _part = part;
+    }
+
+    @Override
+    public void compute2() {
+      GroupTable[] parts = _local.get(_key);
+      if (parts != null) {
+        _table = parts[_part];
+        parts[_part] = null;
+        if (_table != null) _table.trim();
+      }
+      tryComplete();
+    }
+  }
+
+  // Each node writes its groups as the chunk of its partition
+  private static class WriteTask extends MRTask<WriteTask> {
+    private final Key _key;
+    private final int _nkeys;
+    private final Vec[] _vecs;
+
+    WriteTask(Key key, int nkeys, Vec[] vecs) {
+      _key = key;
+      _nkeys = nkeys;
+      _vecs = vecs;
+    }
+
+    @Override
+    public void setupLocal() {
+      _local.remove(_key);
+      GroupTable t = _owned.remove(_key);
+      final int cidx = H2O.SELF.index();
+      Futures fs = new Futures();
+      for (int c = 0; c < _vecs.length; c++) {
+        NewChunk nc = new NewChunk(_vecs[c], cidx);
+        for (int g = 0; g < t._size; g++)
+          nc.addNum(c < _nkeys ? t._keys[g * _nkeys + c] : t.result(g, c - _nkeys));
+        DKV.put(_vecs[c].chunkKey(cidx), nc.compress(), fs);
+      }
+      fs.blockForPending();
+    }
+  }
+
+  private static class ClearTask extends MRTask<ClearTask> {
+    private final Key _key;
+
+    ClearTask(Key key) { _key = key; }
+
+    @Override
+    public void setupLocal() {
+      _local.remove(_key);
+      _owned.remove(_key);
+    }
+  }
+
+  /**
+   * Groups and their aggregate states in flat arrays: the keys, the states
+   * (a few doubles per aggregate, as {@link FCN#initVal}) and the row counts
+   * per aggregate.  An open-addressing index maps the keys to the groups.
+   * Keys are compared as {@link Arrays#equals(double[], double[])} does.
+   */
+  static final class GroupTable extends Iced<GroupTable> {
+    final int _nkeys;
+    final AGG[] _aggs;
+    final int[] _offs;          // Offset of the state of each aggregate, and the state width
+    final double[] _init;       // Initial state of a group
+    int _size;
+    int _cap;                   // Groups the arrays below have room for
+    double[] _keys;
+    double[] _states;
+    long[] _ns;
+    transient int[] _index;     // Group + 1 by slot, 0 if free
+
+    GroupTable(int nkeys, AGG[] aggs) {
+      _nkeys = nkeys;
+      _aggs = aggs;
+      _offs = new int[aggs.length + 1];
+      double[][] inits = new double[aggs.length][];
+      for (int a = 0; a < aggs.length; a++) {
+        inits[a] = aggs[a].initVal();
+        _offs[a + 1] = _offs[a] + inits[a].length;
+      }
+      _init = new double[_offs[aggs.length]];
+      for (int a = 0; a < aggs.length; a++)
+        System.arraycopy(inits[a], 0, _init, _offs[a], inits[a].length);
+      _cap = 16;
+      _keys = new double[16 * nkeys];
+      _states = new double[16 * _init.length];
+      _ns = new long[16 * aggs.length];
+    }
+
+    private static int hash(double[] ks, int off, int n) {
+      long h = 0;
+      for (int i = 0; i < n; i++)
+        h = h * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(ks[off + i]);
+      h ^= h >>> 29;
+      h *= 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 32;
+      return (int) h;
+    }
+
+    /** The partition of group {@code g}; slots use the low bits of the same hash */
+    int partition(int g, int nparts) {
+      return ((hash(_keys, g * _nkeys, _nkeys) >>> 16) & 0x7FFF) % nparts;
+    }
+
+    private boolean sameKey(int g, double[] ks, int off) {
+      for (int i = 0; i < _nkeys; i++)
+        if (Double.doubleToLongBits(_keys[g * _nkeys + i]) != Double.doubleToLongBits(ks[off + i]))
+          return false;
+      return true;
+    }
+
+    /** @return the group of the key {@code ks[off..off+nkeys)}, added if new */
+    int find(double[] ks, int off) {
+      if (_index == null || _size * 2 >= _index.length) reindex();
+      int mask = _index.length - 1;
+      for (int s = hash(ks, off, _nkeys) & mask; ; s = (s + 1) & mask) {
+        int g = _index[s] - 1;
+        if (g == -1) {
+          g = _size++;
+          if (g >= _cap) {
+            _cap = Math.max(16, 2 * g);
+            _keys = Arrays.copyOf(_keys, _cap * _nkeys);
+            _states = Arrays.copyOf(_states, _cap * _init.length);
+            _ns = Arrays.copyOf(_ns, _cap * _aggs.length);
+          }
+          System.arraycopy(ks, off, _keys, g * _nkeys, _nkeys);
+          System.arraycopy(_init, 0, _states, g * _init.length, _init.length);
+          _index[s] = g + 1;
+          return g;
+        }
+        if (sameKey(g, ks, off)) return g;
+      }
+    }
+
+    private void reindex() {
+      int len = 16;
+      while (len <= _size * 4) len <<= 1;
+      _index = new int[len];
+      int mask = len - 1;
+      for (int g = 0; g < _size; g++) {
+        int s = hash(_keys, g * _nkeys, _nkeys) & mask;
+        while (_index[s] != 0) s = (s + 1) & mask;
+        _index[s] = g + 1;
+      }
+    }
+
+    /** Adds the value {@code d} to the aggregate {@code a} of group {@code g}, as {@link AGG#op} */
+    void add(int g, int a, double d) {
+      AGG agg = _aggs[a];
+      boolean na = Double.isNaN(d);
+      if (!na || agg._na == NAHandling.ALL) op(agg._fcn, _states, g * _init.length + _offs[a], d);
+      if (!na || agg._na == NAHandling.IGNORE) _ns[g * _aggs.length + a]++;
+    }
+
+    private static void op(FCN fcn, double[] st, int o, double d) {
+      switch (fcn) {
+        case nrow:       st[o]++;                             break;
+        case mean:
+        case sum:        st[o] += d;                          break;
+        case sumSquares: st[o] += d * d;                      break;
+        case var:
+        case sdev:       st[o] += d * d;  st[o + 1] += d;     break;
+        case min:        st[o] = Math.min(st[o], d);          break;
+        case max:        st[o] = Math.max(st[o], d);          break;
+        case mode:       st[o + (int) d]++;                   break;
+        default: throw H2O.unimpl("Group-by function " + fcn);
+      }
+    }
+
+    /** Merges the group {@code g} of {@code t} into this table, as {@link AGG#atomic_op} */
+    void merge(GroupTable t, int g) {
+      int h = find(t._keys, g * _nkeys);
+      int w = _init.length;
+      for (int a = 0; a < _aggs.length; a++) {
+        FCN fcn = _aggs[a]._fcn;
+        for (int i = _offs[a]; i < _offs[a + 1]; i++) {
+          double d = t._states[g * w + i];
+          if (fcn == FCN.min) _states[h * w + i] = Math.min(_states[h * w + i], d);
+          else if (fcn == FCN.max) _states[h * w + i] = Math.max(_states[h * w + i], d);
+          else _states[h * w + i] += d;
+        }
+        _ns[h * _aggs.length + a] += t._ns[g * _aggs.length + a];
+      }
+    }
+
+    void merge(GroupTable t) {
+      for (int g = 0; g < t._size; g++) merge(t, g);
+    }
+
+    /** @return the value of the aggregate {@code a} of group {@code g} */
+    double result(int g, int a) {
+      int o = g * _init.length;
+      double[] st = Arrays.copyOfRange(_states, o + _offs[a], o + _offs[a + 1]);
+      return _aggs[a]._fcn.postPass(st, _ns[g * _aggs.length + a]);
+    }
+
+    /** Drops the unused capacity, before shipping */
+    void trim() {
+      _cap = _size;
+      _keys = Arrays.copyOf(_keys, _size * _nkeys);
+      _states = Arrays.copyOf(_states, _size * _init.length);
+      _ns = Arrays.copyOf(_ns, _size * _aggs.length);
+      _index = null;
+    }
+  }
+}
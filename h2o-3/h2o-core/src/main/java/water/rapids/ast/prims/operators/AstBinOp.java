@@ -36,6 +36,7 @@ abstract public class AstBinOp extends AstPrimitive {
 
   @Override
   public Val apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    if (Fusion.fusable(env, asts)) return Fusion.apply(env, stk, this, asts);
     Val left = stk.track(asts[1].exec(env));
     Val rite = stk.track(asts[2].exec(env));
     return prim_apply(left, rite);
@@ -30,8 +30,10 @@ public class ChunkSummary extends MRTask<ChunkSummary> {
       {"C4S","4-Byte Fractions"},
       {"C4F","4-byte Reals"},
       {"C8","8-byte Integers"},
+      {"CFOR","Block Offset Integers"},
       {"C16","UUIDs"},
       {"CStr","Strings"},
+      {"CRL","Run-length Reals"},
       {"CUD","Unique Reals"},
       {"C8D","64-bit Reals"},
   };
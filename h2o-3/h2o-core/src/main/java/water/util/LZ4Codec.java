@@ -0,0 +1,130 @@
+package water.util;
+
+import java.util.Arrays;
+
+/**
+ * Byte array compression in the LZ4 block format: a greedy LZ77 matcher over a hash table of 4-byte sequences,
+ * fast enough to be applied to network traffic and effective on the repetitive byte patterns of serialized
+ * chunks and reduction results (zeros, small ints, repeated doubles).
+ *
+ * Every sequence is a token (4 bits of literal length, 4 bits of match length - 4), the literal length overflow,
+ * the literals, a 2-byte little endian match offset and the match length overflow; the last sequence has no
+ * match. The last 5 bytes of the input are always literals and no match starts in the last 12 bytes.
+ */
+public class LZ4Codec {
+  static final int MIN_MATCH = 4;
+  static final int HASH_LOG = 14;
+  static final int MAX_OFFSET = 0xFFFF;
+  static final int LAST_LITERALS = 5;
+  static final int MF_LIMIT = 12;
+  static final int SKIP_LOG = 6;   // misses accelerate the scan through incompressible data
+
+  /** @return a hash table to be (re)used by {@link #compress} */
+  public static int[] newTable() { return new int[1 << HASH_LOG]; }
+
+  /**
+   * Compresses {@code src[srcOff, srcOff + len)} into {@code dst} from {@code dstOff} on.
+   * @param maxLen the largest compressed size accepted
+   * @param table hash table from {@link #newTable()}, overwritten
+   * @return size of the compressed data, -1 if it would exceed {@code maxLen}
+   */
+  public static int compress(byte[] src, int srcOff, int len, byte[] dst, int dstOff, int maxLen, int[] table) {
+    final int end = srcOff + len;
+    final int mfLimit = end - MF_LIMIT;
+    final int matchLimit = end - LAST_LITERALS;
+    final int dstEnd = dstOff + Math.min(maxLen, dst.length - dstOff);
+    int anchor = srcOff, ip = srcOff, op = dstOff;
+    Arrays.fill(table, -1);
+    while (ip < mfLimit) {
+      int seq = UnsafeUtils.get4(src, ip);
+      int h = hash(seq);
+      int ref = table[h];
+      table[h] = ip;
+      if (ref < 0 || ip - ref > MAX_OFFSET || UnsafeUtils.get4(src, ref) != seq) {
+        ip += 1 + ((ip - anchor) >>> SKIP_LOG);
+        continue;
+      }
+      while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) { ip--; ref--; }
+      int mlen = MIN_MATCH;
+      while (ip + mlen < matchLimit && src[ip + mlen] == src[ref + mlen]) mlen++;
+      op = sequence(src, anchor, ip - anchor, ip - ref, mlen, dst, op, dstEnd);
+      if (op < 0) return -1;
+      ip += mlen;
+      anchor = ip;
+    }
+    op = sequence(src, anchor, end - anchor, 0, 0, dst, op, dstEnd);
+    return op < 0 ? -1 : op - dstOff;
+  }
+
+  /**
+   * Decompresses {@code src[srcOff, srcOff + len)} into {@code dst} from {@code dstOff} on.
+   * @param rawLen the exact size of the decompressed data
+   * @throws IllegalArgumentException if the input is malformed
+   */
+  public static void decompress(byte[] src, int srcOff, int len, byte[] dst, int dstOff, int rawLen) {
+    final int end = srcOff + len, dstEnd = dstOff + rawLen;
+    int ip = srcOff, op = dstOff;
+    try {
+      while (true) {
+        int token = src[ip++] & 0xFF;
+        int lit = token >>> 4;
+        if (lit == 15) {
+          int b;
+          do { lit += b = src[ip++] & 0xFF; } while (b == 255);
+        }
+        if (op + lit > dstEnd || ip + lit > end) throw new IllegalArgumentException("Malformed LZ4 input: literals overflow");
+        System.arraycopy(src, ip, dst, op, lit);
+        ip += lit;
+        op += lit;
+        if (ip == end) break;  // the last sequence has no match
+        int offset = (src[ip++] & 0xFF) | ((src[ip++] & 0xFF) << 8);
+        int mlen = token & 0xF;
+        if (mlen == 15) {
+          int b;
+          do { mlen += b = src[ip++] & 0xFF; } while (b == 255);
+        }
+        mlen += MIN_MATCH;
+        int ref = op - offset;
+        if (offset == 0 || ref < dstOff || op + mlen > dstEnd) throw new IllegalArgumentException("Malformed LZ4 input: bad match");
+        if (offset >= mlen) System.arraycopy(dst, ref, dst, op, mlen);
+        else for (int i = 0; i < mlen; i++) dst[op + i] = dst[ref + i]; // overlapping copy repeats the pattern
+        op += mlen;
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Malformed LZ4 input: truncated");
+    }
+    if (op != dstEnd) throw new IllegalArgumentException("Malformed LZ4 input: expected " + rawLen + " bytes, got " + (op - dstOff));
+  }
+
+  private static int hash(int seq) { return (seq * -1640531535) >>> (32 - HASH_LOG); }
+
+  // Writes a sequence, mlen == 0 for the last literals; returns the new output position or -1 on overflow
+  private static int sequence(byte[] src, int lit, int litLen, int offset, int mlen, byte[] dst, int op, int dstEnd) {
+    if (op + 1 + litLen / 255 + 1 + litLen + 2 + mlen / 255 + 1 > dstEnd) return -1;
+    final int tokenPos = op++;
+    int token;
+    if (litLen >= 15) {
+      token = 15 << 4;
+      op = length(litLen - 15, dst, op);
+    } else token = litLen << 4;
+    System.arraycopy(src, lit, dst, op, litLen);
+    op += litLen;
+    if (mlen > 0) {
+      dst[op++] = (byte) offset;
+      dst[op++] = (byte) (offset >>> 8);
+      int m = mlen - MIN_MATCH;
+      if (m >= 15) {
+        token |= 15;
+        op = length(m - 15, dst, op);
+      } else token |= m;
+    }
+    dst[tokenPos] = (byte) token;
+    return op;
+  }
+
+  private static int length(int n, byte[] dst, int op) {
+    for (; n >= 255; n -= 255) dst[op++] = (byte) 255;
+    dst[op++] = (byte) n;
+    return op;
+  }
+}
@@ -22,4 +22,13 @@ public class UnsafeUtils {
 
   public static void copyMemory( byte[] srcBase, long srcOff, byte[] dstBase, long dstOff, long len )
   { _unsafe.copyMemory(srcBase,_Bbase+srcOff,dstBase,_Bbase+dstOff,len); }
+
+  // Native (off-heap) memory; addresses come from allocateMemory and must be
+  // released with freeMemory exactly once.
+  public static long allocateMemory( long len ) { return _unsafe.allocateMemory(len); }
+  public static void freeMemory( long addr ) { _unsafe.freeMemory(addr); }
+  public static void copyToNative( byte[] srcBase, long srcOff, long dstAddr, long len )
+  { _unsafe.copyMemory(srcBase,_Bbase+srcOff,null,dstAddr,len); }
+  public static void copyFromNative( long srcAddr, byte[] dstBase, long dstOff, long len )
+  { _unsafe.copyMemory(null,srcAddr,dstBase,_Bbase+dstOff,len); }
 }
@@ -0,0 +1,89 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.api.MRTaskProfileHandler;
+import water.api.schemas3.MRTaskProfileV3;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class MRTaskTelemetryTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static class Sum extends MRTask<Sum> {
+    double _sum;
+    @Override public void map(Chunk c) { for (int i = 0; i < c._len; i++) _sum += c.atd(i); }
+    @Override public void reduce(Sum o) { _sum += o._sum; }
+  }
+
+  private static MRTaskTelemetry.Record find(MRTaskTelemetry.Record[] recs, String task) {
+    for (MRTaskTelemetry.Record r : recs)
+      if (r._task.equals(task)) return r;
+    return null;
+  }
+
+  @Test public void testRecordsWhenEnabled() {
+    Vec v = Vec.makeSeq(1, 100000, true);
+    boolean enabled = MRTaskTelemetry.isEnabled();
+    try {
+      MRTaskTelemetry.clear();
+      MRTaskTelemetry.setEnabledAll(false);
+      new Sum().doAll(v);
+      assertNull(find(MRTaskTelemetry.collect(0, Long.MAX_VALUE), Sum.class.getName()));
+
+      MRTaskTelemetry.setEnabledAll(true);
+      long start = System.currentTimeMillis();
+      assertEquals(100000.0 * 100001 / 2, new Sum().doAll(v)._sum, 0);
+      MRTaskTelemetry.Record[] recs = MRTaskTelemetry.collect(start, Long.MAX_VALUE);
+      MRTaskTelemetry.Record r = find(recs, Sum.class.getName());
+      assertNotNull(r);
+      assertEquals(v.nChunks(), r._chunks);
+      assertEquals(v.length(), r._rows);
+      assertFalse(r._failed);
+      assertTrue(r._end >= r._start);
+      assertTrue(r._mapNanos > 0);
+
+      MRTaskTelemetry.Summary[] sums = MRTaskTelemetry.summarize(recs);
+      assertEquals(Sum.class.getName(), sums[0]._task);
+      assertEquals(1, sums[0]._calls);
+      assertEquals(v.length(), sums[0]._rows);
+    } finally {
+      MRTaskTelemetry.setEnabledAll(enabled);
+      MRTaskTelemetry.clear();
+      v.remove();
+    }
+  }
+
+  @Test public void testChromeTraceAndEndpoint() throws Exception {
+    Vec v = Vec.makeSeq(1, 1000, true);
+    boolean enabled = MRTaskTelemetry.isEnabled();
+    try {
+      MRTaskTelemetry.clear();
+      MRTaskProfileV3 s = new MRTaskProfileV3();
+      s.enabled = true;
+      assertTrue(new MRTaskProfileHandler().update(3, s).enabled);
+      new Sum().doAll(v);
+
+      StringWriter w = new StringWriter();
+      MRTaskTelemetry.writeChromeTrace(MRTaskTelemetry.collect(0, Long.MAX_VALUE), w);
+      String json = w.toString();
+      assertTrue(json.startsWith("{\"traceEvents\":["));
+      assertTrue(json.contains("\"name\":\"" + Sum.class.getName() + "\",\"cat\":\"mrtask\",\"ph\":\"X\""));
+      assertTrue(json.contains("\"rows\":1000"));
+
+      s = new MRTaskProfileHandler().fetch(3, new MRTaskProfileV3());
+      assertTrue(s.enabled);
+      assertEquals(Sum.class.getName(), s.records[0].task);
+      assertEquals(1000, s.records[0].rows);
+      assertEquals(1, s.tasks.length);
+    } finally {
+      MRTaskTelemetry.setEnabledAll(enabled);
+      MRTaskTelemetry.clear();
+      v.remove();
+    }
+  }
+}
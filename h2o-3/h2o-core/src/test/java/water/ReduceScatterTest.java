@@ -0,0 +1,98 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+
+import static org.junit.Assert.*;
+
+public class ReduceScatterTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static class Histo extends MRTask<Histo> implements MRTask.ArrayReduction {
+    final int _n;
+    final boolean _fail;
+    double[] _h;
+    long _rows;
+    double _postGlobalSum = Double.NaN;
+    Histo(int n, boolean fail) { _n = n; _fail = fail; }
+
+    @Override public void map(Chunk c) {
+      if (_fail && c.cidx() == 1) throw new IllegalStateException("map failed");
+      _h = new double[_n];
+      for (int i = 0; i < c._len; i++)
+        _h[(int) (c.at8(i) % _n)] += c.atd(i);
+      _rows += c._len;
+    }
+    @Override public void reduce(Histo o) {
+      _rows += o._rows;
+      if (_h == null) _h = o._h;
+      else if (o._h != null) ArrayUtils.add(_h, o._h);
+    }
+    @Override protected void postGlobal() { _postGlobalSum = ArrayUtils.sum(_h); }
+    @Override public double[] reduceArray() { return _h; }
+    @Override public void setReduceArray(double[] ary) { _h = ary; }
+  }
+
+  @Test public void testScatterSameAsTree() {
+    Vec v = Vec.makeSeq(1, 100000, true);
+    try {
+      for (int n : new int[]{1, 7, 1000, 100003}) {
+        Histo tree = new Histo(n, false).withReduceTopology(MRTask.ReduceTopology.TREE).doAll(v);
+        Histo scatter = new Histo(n, false).withReduceTopology(MRTask.ReduceTopology.SCATTER).doAll(v);
+        assertNotNull(scatter._scatterId);
+        assertNull(tree._scatterId);
+        assertEquals(v.length(), scatter._rows);
+        assertArrayEquals(tree._h, scatter._h, 0);
+        assertEquals(100000.0 * 100001 / 2, scatter._postGlobalSum, 0);
+      }
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test public void testScatterNotUsedWithoutArrayReduction() {
+    Vec v = Vec.makeSeq(1, 1000, true);
+    try {
+      MRTask mrt = new MRTask() {}.withReduceTopology(MRTask.ReduceTopology.SCATTER).doAll(v);
+      assertNull(mrt._scatterId);
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test(timeout = 60000) public void testFailedMapDoesNotHang() {
+    Vec v = Vec.makeSeq(1, 100000, true);
+    try {
+      assertTrue(v.nChunks() > 1);
+      new Histo(10, true).withReduceTopology(MRTask.ReduceTopology.SCATTER).doAll(v);
+      fail("map should have failed");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("map failed"));
+      assertEquals(0, ReduceScatter.inFlight());
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test public void testNoStateLeftBehind() {
+    Vec v = Vec.makeSeq(1, 100000, true);
+    try {
+      new Histo(10, false).withReduceTopology(MRTask.ReduceTopology.SCATTER).doAll(v);
+      assertEquals(0, ReduceScatter.inFlight());
+      try {
+        new Histo(10, false) {
+          @Override protected void postGlobal() { throw new IllegalStateException("postGlobal failed"); }
+        }.withReduceTopology(MRTask.ReduceTopology.SCATTER).doAll(v);
+        fail("postGlobal should have failed");
+      } catch (RuntimeException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("postGlobal failed"));
+      }
+      assertEquals(0, ReduceScatter.inFlight());
+    } finally {
+      v.remove();
+    }
+  }
+}
@@ -104,4 +104,28 @@ public class C1ChunkTest extends TestUtil {
     Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
     vec.remove();
   }
+
+  @Test public void test_remap() {
+    Key key = Vec.newKey();
+    Vec vec = new Vec(key, Vec.ESPC.rowLayout(key, new long[]{0,6})).makeZero();
+    int[] vals = new int[]{1, 2, 3, 1, 3};
+    Vec.Writer w = vec.open();
+    for (int i =0; i<vals.length; ++i) w.set(i, vals[i]);
+    w.setNA(5);
+    w.close();
+
+    Chunk cc = vec.chunkForChunkIdx(0);
+    Assert.assertTrue(cc instanceof C1Chunk);
+    Assert.assertFalse(cc.remap(new int[]{-1, 0, 1})); // 3 is not mapped
+    Assert.assertFalse(cc.remap(new int[]{-1, 0, 255, 1})); // 255 is the NA marker
+    Assert.assertTrue(cc.remap(new int[]{-1, 7, 0, 254}));
+    int[] expected = new int[]{7, 0, 254, 7, 254};
+    for (int i = 0; i < expected.length; ++i) Assert.assertEquals(expected[i], cc.at8(i));
+    Assert.assertTrue(cc.isNA(5));
+    cc.close(0, new Futures()).blockForPending();
+    Chunk cc2 = vec.chunkForChunkIdx(0);
+    Assert.assertTrue(cc2 instanceof C1Chunk);
+    for (int i = 0; i < expected.length; ++i) Assert.assertEquals(expected[i], cc2.at8(i));
+    vec.remove();
+  }
 }
@@ -0,0 +1,93 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+
+import java.util.Arrays;
+
+public class CFORChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // sorted millisecond timestamps, a few seconds apart
+  private static long[] timestamps(int n, int maxStep) {
+    long[] vals = new long[n];
+    long t = 1500000000000L;
+    for (int i = 0; i < n; ++i) {
+      vals[i] = t;
+      t += (i * 7919) % maxStep;
+    }
+    return vals;
+  }
+
+  private static Chunk compress(long[] vals, int na) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < vals.length; ++i)
+      if (i == na) nc.addNA();
+      else nc.addNum(vals[i], 0);
+    return nc.compress();
+  }
+
+  @Test
+  public void test_inflate_impl() {
+    // 1 and 2 byte offsets, ranges too wide for a (biased) short
+    for (int maxStep : new int[]{4, 1000}) {
+      long[] vals = timestamps(maxStep == 4 ? 100000 : 1000, maxStep);
+      Chunk cc = compress(vals, 100);
+      Assert.assertTrue(cc instanceof CFORChunk);
+      Assert.assertFalse(cc.hasFloat());
+      Assert.assertEquals(vals.length, cc._len);
+      Assert.assertTrue(cc._mem.length < vals.length * (maxStep == 4 ? 2 : 3));
+      for (int i = 0; i < vals.length; ++i)
+        if (i == 100) Assert.assertTrue(cc.isNA(i));
+        else Assert.assertEquals(vals[i], cc.at8(i));
+
+      double[] dense = cc.getDoubles(new double[vals.length - 50], 50, vals.length, -1);
+      for (int i = 0; i < dense.length; ++i)
+        Assert.assertEquals(i + 50 == 100 ? -1 : vals[i + 50], dense[i], 0);
+
+      Chunk cc2 = IcedUtils.deepCopy(cc);
+      Assert.assertTrue(cc2 instanceof CFORChunk);
+      for (int i = 0; i < vals.length; ++i)
+        if (i != 100) Assert.assertEquals(vals[i], cc2.at8(i));
+
+      NewChunk nc = cc.extractRows(new NewChunk(null, 0), 0, vals.length);
+      Assert.assertEquals(vals.length, nc._len);
+      cc2 = nc.compress();
+      Assert.assertTrue(cc2 instanceof CFORChunk);
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+    }
+  }
+
+  @Test
+  public void test_set() {
+    long[] vals = timestamps(1000, 4);
+    Chunk cc = compress(vals, -1);
+    Assert.assertTrue(cc.set_impl(10, vals[10] + 1));
+    Assert.assertEquals(vals[10] + 1, cc.at8(10));
+    Assert.assertFalse(cc.set_impl(10, vals[10] - 1000000)); // below the block's reference
+    Assert.assertFalse(cc.set_impl(10, 0.5));
+    Assert.assertTrue(cc.setNA_impl(10));
+    Assert.assertTrue(cc.isNA(10));
+  }
+
+  @Test
+  public void test_wideIntegers() {
+    // random longs within 2^32 use biased ints, few distinct wide values a dictionary
+    long[] vals = new long[1000];
+    for (int i = 0; i < vals.length; ++i) vals[i] = 1L << 40 | ((i * 2654435761L) & 0xFFFFFFFL);
+    Chunk cc = compress(vals, -1);
+    Assert.assertTrue(cc instanceof C4SChunk);
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], cc.at8(i));
+
+    for (int i = 0; i < vals.length; ++i) vals[i] = (i * 31 % 10) * 100000007L;
+    cc = compress(vals, 3);
+    Assert.assertTrue(cc instanceof CUDChunk);
+    Assert.assertFalse(cc.hasFloat());
+    for (int i = 0; i < vals.length; ++i)
+      if (i == 3) Assert.assertTrue(cc.isNA(i));
+      else Assert.assertEquals(vals[i], cc.at8(i));
+  }
+}
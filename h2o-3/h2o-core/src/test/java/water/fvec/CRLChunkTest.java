@@ -0,0 +1,86 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+
+import java.util.Arrays;
+
+public class CRLChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // 3 runs of 1000 rows each: a long, an NA and a double
+  private static double[] runs(double a, double b, double c) {
+    double[] vals = new double[3000];
+    Arrays.fill(vals, 0, 1000, a);
+    Arrays.fill(vals, 1000, 2000, b);
+    Arrays.fill(vals, 2000, 3000, c);
+    return vals;
+  }
+
+  @Test
+  public void test_inflate_impl() {
+    double[] vals = runs(1234567890123L, Double.NaN, 3.25);
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) nc.addNum(v);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CRLChunk);
+    Assert.assertEquals(vals.length, cc._len);
+    Assert.assertTrue(cc.hasFloat());
+    Assert.assertTrue(cc._mem.length < vals.length / 8);
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], cc.atd(i), 0);
+    for (int i = vals.length - 1; i >= 0; --i) Assert.assertEquals(vals[i], cc.atd(i), 0); // backwards
+    Assert.assertEquals(1234567890123L, cc.at8(999));
+    Assert.assertTrue(cc.isNA(1000));
+    Assert.assertTrue(cc.isNA(1999));
+    Assert.assertFalse(cc.isNA(2000));
+
+    double[] dense = cc.getDoubles(new double[1500], 900, 2400, -1);
+    for (int i = 0; i < dense.length; ++i)
+      Assert.assertEquals(Double.isNaN(vals[900 + i]) ? -1 : vals[900 + i], dense[i], 0);
+
+    Chunk cc2 = IcedUtils.deepCopy(cc);
+    Assert.assertTrue(cc2 instanceof CRLChunk);
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], cc2.atd(i), 0);
+
+    nc = cc.extractRows(new NewChunk(null, 0), 0, vals.length);
+    Assert.assertEquals(vals.length, nc._len);
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], nc.atd(i), 0);
+    cc2 = nc.compress();
+    Assert.assertTrue(cc2 instanceof CRLChunk);
+    Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+  }
+
+  @Test
+  public void test_integers() {
+    double[] vals = runs(7, 0, -3);
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) nc.addNum((long) v, 0);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CRLChunk);
+    Assert.assertFalse(cc.hasFloat());
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals((long) vals[i], cc.at8(i));
+    int[] ints = cc.getIntegers(new int[vals.length], 0, vals.length, Integer.MIN_VALUE);
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals((int) vals[i], ints[i]);
+  }
+
+  @Test
+  public void test_set() {
+    double[] vals = runs(1.5, 2.5, 3.5);
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) nc.addNum(v);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc.set_impl(5, 1.5)); // same value, kept in place
+    Assert.assertFalse(cc.set_impl(5, 2.5)); // breaks the run, needs inflating
+    Assert.assertFalse(cc.setNA_impl(5));
+  }
+
+  @Test
+  public void test_shortRunsNotEncoded() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 3000; ++i) nc.addNum(i / 10, 0); // runs of 10 rows, more than a bit per row
+    Assert.assertFalse(nc.compress() instanceof CRLChunk);
+  }
+}
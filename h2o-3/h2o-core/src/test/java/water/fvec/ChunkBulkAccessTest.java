@@ -0,0 +1,125 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+public class ChunkBulkAccessTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Chunk compress(long[] vals, int naStride) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < vals.length; ++i)
+      if (naStride > 0 && i % naStride == 0) nc.addNA();
+      else nc.addNum(vals[i], 0);
+    return nc.compress();
+  }
+
+  private static long[] values(int n, long base, long range) {
+    long[] vals = new long[n];
+    for (int i = 0; i < n; ++i)
+      vals[i] = base + (i * 7919L) % range;
+    return vals;
+  }
+
+  private static long[] spread(int n) {
+    long[] vals = new long[n];
+    for (int i = 0; i < n; ++i)
+      vals[i] = ((i * 7919L) % 1000 - 500) * (1L << 44) + i;
+    return vals;
+  }
+
+  private static void check(Chunk c, long[] vals) {
+    for (int[] fromTo : new int[][]{{0, vals.length}, {3, vals.length - 5}, {70, 200}, {10, 10}}) {
+      int from = fromTo[0], to = fromTo[1];
+      long[] ls = c.getLongs(new long[to - from], from, to, Long.MIN_VALUE);
+      long[] mask = new long[(vals.length + 63) >> 6];
+      mask[0] = -1; // must be cleared
+      int nas = c.getNAs(mask, from, to);
+      int cnt = 0;
+      for (int i = from; i < to; ++i) {
+        boolean na = (mask[(i - from) >> 6] & (1L << (i - from))) != 0;
+        Assert.assertEquals(c.getClass().getSimpleName() + " row " + i, c.isNA(i), na);
+        if (na) {
+          ++cnt;
+          Assert.assertEquals(Long.MIN_VALUE, ls[i - from]);
+        } else
+          Assert.assertEquals(c.getClass().getSimpleName() + " row " + i, c.at8(i), ls[i - from]);
+      }
+      Assert.assertEquals(cnt, nas);
+      for (int i = to - from; i < (to - from + 63) >> 6 << 6; ++i)
+        Assert.assertEquals(0, mask[i >> 6] & (1L << i));
+    }
+  }
+
+  @Test
+  public void testGetLongsAndNAs() {
+    Object[][] cases = new Object[][]{
+        {values(1000, 0, 1), 0, C0LChunk.class},
+        {values(1000, 5, 100), 0, C1NChunk.class},
+        {values(1000, 5, 100), 9, C1Chunk.class},
+        {values(1000, -20000, 40000), 9, C2Chunk.class},
+        {values(1000, -2000000000L, 4000000000L), 9, C4Chunk.class},
+        {spread(1000), 9, C8Chunk.class},
+        {values(1000, 1L << 40, 3L), 9, null},
+    };
+    for (Object[] cs : cases) {
+      long[] vals = (long[]) cs[0];
+      Chunk c = compress(vals, (Integer) cs[1]);
+      if (cs[2] != null) Assert.assertEquals(cs[2], c.getClass());
+      check(c, vals);
+    }
+    // chunks without a native bulk decode fall back to the visitor
+    check(new C0DChunk(Double.NaN, 1000), new long[1000]);
+    long[] ts = new long[100000];
+    for (int i = 0; i < ts.length; ++i) ts[i] = 1500000000000L + 4L * i;
+    Chunk c = compress(ts, 1000);
+    Assert.assertTrue(c instanceof CFORChunk);
+    check(c, ts);
+  }
+
+  private static Chunk compress(double[] vals) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (double d : vals) nc.addNum(d);
+    return nc.compress();
+  }
+
+  private static void checkNAs(Chunk c) {
+    for (int[] fromTo : new int[][]{{0, c._len}, {3, c._len - 5}, {70, 200}, {10, 10}}) {
+      int from = fromTo[0], to = fromTo[1];
+      long[] mask = new long[(c._len + 63) >> 6];
+      mask[0] = -1; // must be cleared
+      int nas = c.getNAs(mask, from, to);
+      int cnt = 0;
+      for (int i = from; i < to; ++i) {
+        boolean na = (mask[(i - from) >> 6] & (1L << (i - from))) != 0;
+        Assert.assertEquals(c.getClass().getSimpleName() + " row " + i, c.isNA(i), na);
+        if (na) ++cnt;
+      }
+      Assert.assertEquals(c.getClass().getSimpleName(), cnt, nas);
+      for (int i = to - from; i < (to - from + 63) >> 6 << 6; ++i)
+        Assert.assertEquals(0, mask[i >> 6] & (1L << i));
+    }
+  }
+
+  @Test
+  public void testGetNAs() {
+    int n = 1000;
+    double[][] cases = new double[7][n];
+    for (int i = 0; i < n; ++i) {
+      boolean na = i % 9 == 0;
+      cases[0][i] = na ? Double.NaN : i % 2;                  // bits
+      cases[1][i] = na ? Double.NaN : (i % 100) * 0.1;        // scaled bytes
+      cases[2][i] = na ? Double.NaN : (i % 10000) * 0.01;     // scaled shorts
+      cases[3][i] = na ? Double.NaN : i * 1.37e-7 + 1e10;     // doubles
+      cases[4][i] = i % 50 == 0 ? Double.NaN : i % 25 == 0 ? i : 0;          // sparse ints
+      cases[5][i] = i % 50 == 0 ? Double.NaN : i % 25 == 0 ? i * 0.37 : 0;   // sparse doubles
+      cases[6][i] = i % 31 == 0 ? i : i % 62 == 1 ? 0 : Double.NaN;          // sparse NAs
+    }
+    for (double[] vals : cases)
+      checkNAs(compress(vals));
+    checkNAs(new C0DChunk(Double.NaN, n));
+    checkNAs(new C0DChunk(3.5, n));
+  }
+}
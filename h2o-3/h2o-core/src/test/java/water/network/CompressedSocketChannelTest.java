@@ -0,0 +1,117 @@
+package water.network;
+
+import org.junit.Test;
+import water.util.LZ4Codec;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompressedSocketChannelTest {
+
+  private static byte[] compressible(int n, long seed) {
+    ByteBuffer bb = ByteBuffer.allocate(n).order(ByteOrder.nativeOrder());
+    Random r = new Random(seed);
+    while (bb.remaining() >= 8) bb.putDouble(r.nextInt(10) == 0 ? r.nextDouble() : r.nextInt(4));
+    return bb.array();
+  }
+
+  private static byte[] random(int n, long seed) {
+    byte[] bs = new byte[n];
+    new Random(seed).nextBytes(bs);
+    return bs;
+  }
+
+  @Test
+  public void testCodecRoundTrip() {
+    int[] table = LZ4Codec.newTable();
+    for (int n : new int[]{0, 1, 5, 12, 13, 17, 100, 1000, 65536, 200000}) {
+      for (byte[] raw : new byte[][]{new byte[n], compressible(n, n), random(n, n)}) {
+        byte[] wire = new byte[n + n / 255 + 16];
+        int len = LZ4Codec.compress(raw, 0, n, wire, 0, wire.length, table);
+        assertTrue(len > 0);
+        byte[] back = new byte[n];
+        LZ4Codec.decompress(wire, 0, len, back, 0, n);
+        assertArrayEquals(raw, back);
+      }
+    }
+    byte[] zeros = new byte[65536];
+    byte[] wire = new byte[zeros.length];
+    assertTrue(LZ4Codec.compress(zeros, 0, zeros.length, wire, 0, wire.length, table) < 300);
+    byte[] noise = random(65536, 42);
+    assertEquals(-1, LZ4Codec.compress(noise, 0, noise.length, wire, 0, noise.length - 1, table));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecMalformed() {
+    byte[] raw = compressible(1000, 7);
+    byte[] wire = new byte[2000];
+    int len = LZ4Codec.compress(raw, 0, raw.length, wire, 0, wire.length, LZ4Codec.newTable());
+    LZ4Codec.decompress(wire, 0, len - 3, new byte[raw.length], 0, raw.length);
+  }
+
+  @Test
+  public void testChannelRoundTrip() throws Exception {
+    ServerSocketChannel server = ServerSocketChannel.open();
+    server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+    final SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+    SocketChannel accepted = server.accept();
+    final byte[][] msgs = new byte[][]{
+        new byte[]{1, 2, 3},                  // below the threshold
+        compressible(65536, 1),
+        random(65536, 2),                     // does not compress
+        new byte[100000],
+        compressible(5000, 3),
+    };
+    final CompressedSocketChannel.Counters sent = new CompressedSocketChannel.Counters();
+    final CompressedSocketChannel out = new CompressedSocketChannel(client, sent, 1024);
+    Thread writer = new Thread() {
+      @Override public void run() {
+        try {
+          for (int i = 0; i < msgs.length; i++) {
+            ByteBuffer bb = i % 2 == 0 ? ByteBuffer.allocateDirect(msgs[i].length) : ByteBuffer.allocate(msgs[i].length);
+            bb.put(msgs[i]).flip();
+            while (bb.hasRemaining()) out.write(bb);
+          }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    writer.start();
+    CompressedSocketChannel.Counters received = new CompressedSocketChannel.Counters();
+    CompressedSocketChannel in = new CompressedSocketChannel(accepted, received, 1024);
+    int total = 0;
+    for (byte[] m : msgs) total += m.length;
+    ByteBuffer all = ByteBuffer.allocate(total);
+    Random r = new Random(0);
+    while (all.hasRemaining()) {
+      ByteBuffer dst = ByteBuffer.allocate(Math.min(all.remaining(), 1 + r.nextInt(70000)));
+      while (dst.hasRemaining()) assertTrue(in.read(dst) > 0);
+      all.put(dst.array());
+    }
+    writer.join();
+    int off = 0;
+    for (byte[] m : msgs) {
+      assertArrayEquals(m, Arrays.copyOfRange(all.array(), off, off + m.length));
+      off += m.length;
+    }
+    assertEquals(total, sent._rawSent.get());
+    assertEquals(total, received._rawReceived.get());
+    assertEquals(sent._wireSent.get(), received._wireReceived.get());
+    assertTrue(sent._wireSent.get() < total / 2);
+    assertTrue(SocketChannelUtils.isSocketChannel(in));
+    assertSame(accepted, SocketChannelUtils.underlyingSocketChannel(in));
+    out.close();
+    assertEquals(-1, in.read(ByteBuffer.allocate(1)));
+    in.close();
+    server.close();
+  }
+}
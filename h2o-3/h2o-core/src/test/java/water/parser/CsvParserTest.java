@@ -1,9 +1,11 @@
 package water.parser;
 
 import org.junit.Test;
+import water.Iced;
 import water.fvec.Vec;
 import water.util.StringUtils;
 
+import java.util.Random;
 import java.util.StringTokenizer;
 
 import static org.junit.Assert.*;
@@ -256,4 +258,57 @@ public class CsvParserTest {
     assertEquals("Cumings, Mrs. John Bradley (Florence Briggs Thayer)", outWriter._data[2][3]);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testSwarScansSameAsScalar() {
+    Random r = new Random(0xC5F);
+    String[] pieces = {"0", "7", "12345678", "123456789", "-98765432101234", "3.14159265358979", "1234567890123456789012",
+        "1e10", "-2.5E-3", "42%", "$12", "abc", "abcdefghijklmnop", "a b", " x ", "\"q,u\"\"o\nte\"", "'single'",
+        "\u00e9t\u00e9 \u5951\u7d04", "NA", "", "12ab", "1.2.3"};
+    for (int iter = 0; iter < 200; iter++) {
+      StringBuilder sb = new StringBuilder();
+      int lines = 1 + r.nextInt(20), cols = 1 + r.nextInt(6);
+      for (int l = 0; l < lines; l++) {
+        for (int c = 0; c < cols; c++) {
+          if (c > 0) sb.append(',');
+          sb.append(pieces[r.nextInt(pieces.length)]);
+        }
+        sb.append(r.nextBoolean() ? "\n" : "\r\n");
+      }
+      byte[] bits = StringUtils.bytesOf(sb);
+      assertEquals(sb.toString(), parseRecorded(bits, cols, false), parseRecorded(bits, cols, true));
+    }
+  }
+
+  private static String parseRecorded(byte[] bits, int cols, boolean swar) {
+    ParseSetup parseSetup = new ParseSetup();
+    parseSetup._parse_type = DefaultParserProviders.CSV_INFO;
+    parseSetup._check_header = ParseSetup.NO_HEADER;
+    parseSetup._separator = ',';
+    parseSetup._number_columns = cols;
+    parseSetup._single_quotes = true;
+    CsvParser csvParser = new CsvParser(parseSetup, null);
+    csvParser._swar = swar;
+    RecordingWriter w = new RecordingWriter();
+    csvParser.parseChunk(0, new Parser.ByteAryData(bits, 0), w);
+    return w._sb.toString();
+  }
+
+  private static class RecordingWriter extends Iced implements ParseWriter {
+    final StringBuilder _sb = new StringBuilder();
+    @Override public void setColumnNames(String[] names) {}
+    @Override public void newLine() { _sb.append('\n'); }
+    @Override public boolean isString(int colIdx) { return false; }
+    @Override public void addNumCol(int colIdx, long number, int exp) { _sb.append(colIdx).append(':').append(number).append('e').append(exp).append(' '); }
+    @Override public void addNumCol(int colIdx, double d) { _sb.append(colIdx).append(':').append(d).append(' '); }
+    @Override public void addInvalidCol(int colIdx) { _sb.append(colIdx).append(":NA "); }
+    @Override public void addNAs(int colIdx, int nrow) { _sb.append(colIdx).append(":NAs").append(nrow).append(' '); }
+    @Override public void addStrCol(int colIdx, BufferedString str) { _sb.append(colIdx).append(":'").append(str).append("' "); }
+    @Override public void rollbackLine() { _sb.append("<rollback>"); }
+    @Override public void invalidLine(ParseErr err) { _sb.append("<invalid>"); }
+    @Override public void addError(ParseErr err) { _sb.append("<error>"); }
+    @Override public void setIsAllASCII(int colIdx, boolean b) { _sb.append(colIdx).append(":ascii=").append(b).append(' '); }
+    @Override public boolean hasErrors() { return false; }
+    @Override public ParseErr[] removeErrors() { return new ParseErr[0]; }
+    @Override public long lineNum() { return 0; }
+  }
+}
@@ -119,6 +119,34 @@ public class PackedDomainsTest {
     assertArrayEquals(pack(third), merge(third, third));
   }
 
+  @Test
+  public void testPackRange() throws Exception {
+    BufferedString[] bss = new BufferedString[second.length];
+    for (int i = 0; i < second.length; i++) bss[i] = new BufferedString(second[i]);
+    assertArrayEquals(pack("absolute", "neo"), PackedDomains.pack(bss, 1, 3));
+    assertArrayEquals(pack(empty), PackedDomains.pack(bss, 2, 2));
+  }
+
+  @Test
+  public void testMergeAll() throws Exception {
+    assertArrayEquals(allWords, unpackToStrings(mergeAll(new byte[][]{pack(first), pack(second), pack(third)})));
+    assertArrayEquals(pack(second), mergeAll(new byte[][]{pack(second)}));
+    assertArrayEquals(pack(empty), mergeAll(new byte[0][]));
+  }
+
+  @Test
+  public void testRanks() throws Exception {
+    byte[] all = pack(allWords);
+    assertArrayEquals(new int[]{0, 4, 7, 8, 10}, ranks(pack(third), all));
+    assertArrayEquals(new int[]{0, 1, 2}, ranks(pack(first), all));
+    assertArrayEquals(new int[0], ranks(pack(empty), all));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRanksOfMissingWord() throws Exception {
+    ranks(pack("neo", "zzz"), pack(second));
+  }
+
   private static byte[] merge(String[] s1, String[] s2) {
     return PackedDomains.merge(pack(s1), pack(s2));
   }
@@ -0,0 +1,206 @@
+package water.parser;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.*;
+import water.fvec.ByteVec;
+import water.fvec.C1NChunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ParallelGunzipTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static String makeCsv(int rows) {
+    Random r = new Random(0x5EED);
+    StringBuilder sb = new StringBuilder("id,x,name\n");
+    for (int i = 0; i < rows; i++)
+      sb.append(i).append(',').append(r.nextGaussian()).append(",level").append(r.nextInt(20)).append('\n');
+    return sb.toString();
+  }
+
+  // BGZF: gzip members of at most memberSize uncompressed bytes with their length in a BC extra field, then the
+  // empty end-of-file member
+  private static byte[] bgzf(byte[] data, int memberSize) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int off = 0; off < data.length; off += memberSize)
+      writeMember(out, Arrays.copyOfRange(data, off, Math.min(data.length, off + memberSize)));
+    writeMember(out, new byte[0]);
+    return out.toByteArray();
+  }
+
+  private static void writeMember(ByteArrayOutputStream out, byte[] data) {
+    Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    def.setInput(data);
+    def.finish();
+    byte[] buf = new byte[data.length + 1024];
+    int clen = def.deflate(buf);
+    def.end();
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    int bsize = 18 + clen + 8 - 1;
+    out.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+        (byte) bsize, (byte) (bsize >>> 8)}, 0, 18);
+    out.write(buf, 0, clen);
+    writeInt(out, (int) crc.getValue());
+    writeInt(out, data.length);
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int v) {
+    for (int i = 0; i < 4; i++) out.write(v >>> (8 * i));
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) { gz.write(data); }
+    return out.toByteArray();
+  }
+
+  // Zstandard frame of the bytes, null without zstd-jni on the classpath
+  private static byte[] zstd(byte[] data) throws Exception {
+    Class<?> clz;
+    try {
+      clz = Class.forName("com.github.luben.zstd.ZstdOutputStream");
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream zs = (OutputStream) clz.getConstructor(OutputStream.class).newInstance(out)) { zs.write(data); }
+    return out.toByteArray();
+  }
+
+  // ByteVec of the bytes, split in nchunks chunks of about the same size
+  private static Key<Vec> makeByteVec(byte[] bits, int nchunks) {
+    Futures fs = new Futures();
+    long[] espc = new long[nchunks + 1];
+    for (int i = 1; i <= nchunks; i++) espc[i] = (long) bits.length * i / nchunks;
+    Key<Vec> k = Vec.newKey();
+    ByteVec bv = new ByteVec(k, Vec.ESPC.rowLayout(k, espc));
+    DKV.put(k, bv, fs);
+    for (int i = 0; i < nchunks; i++) {
+      Key ck = bv.chunkKey(i);
+      DKV.put(ck, new Value(ck, new C1NChunk(Arrays.copyOfRange(bits, (int) espc[i], (int) espc[i + 1]))), fs);
+    }
+    fs.blockForPending();
+    return k;
+  }
+
+  @Test public void testDetectsBlockedGzip() throws IOException {
+    byte[] data = StringUtils.bytesOf(makeCsv(100));
+    byte[] blocked = bgzf(data, 1000);
+    assertTrue(ParallelGunzip.isBlocked(blocked));
+    assertEquals(ZipUtil.Compression.GZIP, ZipUtil.guessCompressionMethod(blocked));
+    assertFalse(ParallelGunzip.isBlocked(gzip(data)));
+    assertFalse(ParallelGunzip.isBlocked(data));
+    // Any gzip reader reads the members as one stream
+    assertArrayEquals(data, Arrays.copyOf(ZipUtil.unzipBytes(blocked, ZipUtil.Compression.GZIP, 1 << 20), data.length));
+  }
+
+  @Test public void testInflatesInParallel() {
+    byte[] data = StringUtils.bytesOf(makeCsv(5000));
+    Key<Vec> k = makeByteVec(bgzf(data, 3000), 7);
+    ByteVec unzipped = null;
+    try {
+      unzipped = ParallelGunzip.inflate((ByteVec) DKV.getGet(k), null);
+      assertNotNull(unzipped);
+      assertEquals(7, unzipped.nChunks());
+      assertEquals(data.length, unzipped.length());
+      byte[] res = new byte[data.length];
+      for (int i = 0, off = 0; i < unzipped.nChunks(); i++) {
+        byte[] bits = unzipped.chunkForChunkIdx(i).getBytes();
+        System.arraycopy(bits, 0, res, off, bits.length);
+        off += bits.length;
+      }
+      assertArrayEquals(data, res);
+    } finally {
+      if (unzipped != null) unzipped.remove();
+      ((Vec) DKV.getGet(k)).remove();
+    }
+  }
+
+  @Test public void testNotBlockedEverywhere() throws IOException {
+    byte[] data = StringUtils.bytesOf(makeCsv(5000));
+    // A plain gzip member after the blocked ones
+    byte[] blocked = bgzf(data, 3000), plain = gzip(data);
+    byte[] mixed = Arrays.copyOf(blocked, blocked.length + plain.length);
+    System.arraycopy(plain, 0, mixed, blocked.length, plain.length);
+    Key<Vec> k = makeByteVec(mixed, 3);
+    // Members larger than the chunks: some chunks have no member to inflate
+    byte[] small = StringUtils.bytesOf(makeCsv(1000));
+    Key<Vec> k2 = makeByteVec(bgzf(small, small.length), 3);
+    try {
+      assertNull(ParallelGunzip.inflate((ByteVec) DKV.getGet(k), null));
+      assertNull(ParallelGunzip.inflate((ByteVec) DKV.getGet(k2), null));
+    } finally {
+      ((Vec) DKV.getGet(k)).remove();
+      ((Vec) DKV.getGet(k2)).remove();
+    }
+  }
+
+  @Test public void testParsesLikeUncompressed() throws IOException {
+    String csv = makeCsv(20000);
+    byte[] data = StringUtils.bytesOf(csv);
+    Frame expected = null, actual = null, streamed = null;
+    try {
+      expected = ParseDataset.parse(Key.make(), ParserTest.makeByteVec(csv));
+      actual = ParseDataset.parse(Key.make(), makeByteVec(bgzf(data, 10000), 5));
+      streamed = ParseDataset.parse(Key.make(), makeByteVec(gzip(data), 5));
+      assertEquals(5, actual.anyVec().nChunks());
+      assertEquals(expected.numRows(), actual.numRows());
+      assertArrayEquals(expected.names(), actual.names());
+      assertTrue(isBitIdentical(expected, actual));
+      assertTrue(isBitIdentical(streamed, actual));
+    } finally {
+      if (expected != null) expected.delete();
+      if (actual != null) actual.delete();
+      if (streamed != null) streamed.delete();
+    }
+  }
+
+  @Test public void testDetectsZstd() {
+    byte[] frame = {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0, 0, 0, 0};
+    assertEquals(ZipUtil.Compression.ZSTD, ZipUtil.guessCompressionMethod(frame));
+  }
+
+  @Test public void testZstdTruncated() throws Exception {
+    Random r = new Random(0x5EED);
+    byte[] data = new byte[1 << 20];
+    for (int i = 0; i < data.length; i++) data[i] = (byte) (i % 80 == 79 ? '\n' : 'a' + r.nextInt(26));
+    byte[] zst = zstd(data);
+    Assume.assumeTrue("zstd-jni is not on the classpath", zst != null);
+    assertTrue("Poorly compressible", zst.length * 2 > data.length);
+    // The first chunk of the file, as read to guess the setup: the frame is cut short
+    byte[] head = Arrays.copyOf(zst, zst.length / 4);
+    byte[] bits = ZipUtil.unzipBytes(head, ZipUtil.Compression.ZSTD, 1 << 22);
+    assertArrayEquals(Arrays.copyOf(data, 1000), Arrays.copyOf(bits, 1000));
+  }
+
+  @Test public void testParsesZstd() throws Exception {
+    String csv = makeCsv(20000);
+    byte[] zst = zstd(StringUtils.bytesOf(csv));
+    Assume.assumeTrue("zstd-jni is not on the classpath", zst != null);
+    Frame expected = null, actual = null;
+    try {
+      expected = ParseDataset.parse(Key.make(), ParserTest.makeByteVec(csv));
+      actual = ParseDataset.parse(Key.make(), makeByteVec(zst, 5));
+      assertArrayEquals(expected.names(), actual.names());
+      assertTrue(isBitIdentical(expected, actual));
+    } finally {
+      if (expected != null) expected.delete();
+      if (actual != null) actual.delete();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Key;
+import water.TestUtil;
+import water.exceptions.H2OIllegalArgumentException;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class ParseAppendTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testAppendKeepsExistingChunksAndLevels() {
+    Frame fr = null;
+    try {
+      Key[] src = {ParserTest.makeByteVec("n,c,t\n1,x,a\n2,y,b\n", "3,y,c\n")};
+      ParseSetup ps = ParseSetup.guessSetup(src, false, ParseSetup.HAS_HEADER);
+      ps._column_types = new byte[]{Vec.T_NUM, Vec.T_CAT, Vec.T_CAT};
+      fr = ParseDataset.parse(Key.make(), src, true, ps);
+      final Key[] keys = fr.keys();
+      final int nchunks = fr.anyVec().nChunks();
+      assertEquals(2, fr.vec("n").mean(), 0);
+
+      ParseDataset.append(fr, ParserTest.makeByteVec("n,c,t\n4,z,d\n", "5,x,e\n6,w,f\n"));
+
+      assertArrayEquals(keys, fr.keys());
+      assertEquals(6, fr.numRows());
+      assertEquals(nchunks + 2, fr.anyVec().nChunks());
+      assertTrue(fr.vec("n").isCompatibleWith(fr.vec("c")));
+      assertEquals(3.5, fr.vec("n").mean(), 0);   // Rollups of the longer Vec
+      assertEquals(6, fr.vec("n").max(), 0);
+      // Existing levels keep their codes, new levels come after them
+      Vec c = fr.vec("c");
+      assertArrayEquals(new String[]{"x", "y", "w", "z"}, c.domain());
+      assertArrayEquals(new long[]{0, 1, 1, 3, 0, 2}, new long[]{c.at8(0), c.at8(1), c.at8(2), c.at8(3), c.at8(4), c.at8(5)});
+      assertEquals("f", fr.vec("t").factor(fr.vec("t").at8(5)));
+      assertEquals(6, fr.vec("t").cardinality());
+      // Still a proper frame in the DKV
+      Frame fr2 = fr._key.get();
+      assertEquals(6, fr2.numRows());
+      assertEquals("w", fr2.vec("c").factor(fr2.vec("c").at8(5)));
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testAppendSameAsParsingAll() {
+    Frame fr = null, all = null;
+    try {
+      fr = ParseDataset.parse(Key.make(), ParserTest.makeByteVec("a,b\n1,1.5\n2,NA\n"));
+      ParseDataset.append(fr, ParserTest.makeByteVec("3,-2.25\n4,1e3\n"));
+      ParseDataset.append(fr, ParserTest.makeByteVec("5,0\n"));
+      all = ParseDataset.parse(Key.make(), ParserTest.makeByteVec("a,b\n1,1.5\n2,NA\n", "3,-2.25\n4,1e3\n", "5,0\n"));
+      assertEquals(3, fr.anyVec().nChunks());
+      assertTrue(isBitIdentical(all, fr));
+      assertEquals(1, fr.vec("b").naCnt());
+    } finally {
+      if (fr != null) fr.delete();
+      if (all != null) all.delete();
+    }
+  }
+
+  @Test public void testAppendChecksColumns() {
+    Frame fr = null;
+    Key k = null;
+    try {
+      fr = ParseDataset.parse(Key.make(), ParserTest.makeByteVec("a,b\n1,2\n"));
+      k = ParserTest.makeByteVec("1,2,3\n4,5,6\n");
+      try {
+        ParseDataset.append(fr, k);
+        fail("Appended 3 columns to 2");
+      } catch (H2OIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("3 columns"));
+      }
+      assertEquals(1, fr.numRows());
+    } finally {
+      if (fr != null) fr.delete();
+      if (k != null) k.remove();
+    }
+  }
+}
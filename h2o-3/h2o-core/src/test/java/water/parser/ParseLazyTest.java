@@ -0,0 +1,140 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.Keyed;
+import water.MRTask;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.LazyVec;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class ParseLazyTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static class Sum extends MRTask<Sum> {
+    double _sum;
+    @Override public void map(Chunk c) {
+      for (int i = 0; i < c._len; i++)
+        if (!c.isNA(i)) _sum += c.atd(i);
+    }
+    @Override public void reduce(Sum s) { _sum += s._sum; }
+  }
+
+  private static Key[] data() {
+    return new Key[]{ParserTest.makeByteVec("n,c,s,x\n1,b,foo,1.5\n2,a,bar,NA\n", "3,b,baz,-2\n4,c,,7\n")};
+  }
+
+  @Test public void testLazyColumnsSameAsEager() {
+    Frame fr = null, all = null;
+    Key[] src = data();
+    Key<LazyVec.Source> srcKey = null;
+    try {
+      ParseSetup ps = ParseSetup.guessSetup(src, false, ParseSetup.HAS_HEADER);
+      ps.setLazyColumns(new int[]{1, 3});
+      fr = ParseDataset.parse(Key.make(), src, true, ps);
+      assertNotNull("Inputs of lazy columns are kept", DKV.get(src[0]));
+      assertFalse(fr.vec("n") instanceof LazyVec);
+      assertFalse(fr.vec("s") instanceof LazyVec);
+      assertTrue(fr.vec("c") instanceof LazyVec);
+      assertTrue(fr.vec("x") instanceof LazyVec);
+      srcKey = ((LazyVec) fr.vec("c")).sourceKey();
+      assertEquals(4, fr.numRows());
+      assertTrue(fr.vec("c").isCategorical());
+      assertNull(DKV.get(fr.vec("x").chunkKey(0)));   // Nothing parsed yet
+
+      // MRTasks see the materialized column
+      assertEquals(6.5, new Sum().doAll(fr.vec("x"))._sum, 1e-10);
+      assertFalse(DKV.<Vec>getGet(fr.vec("x")._key) instanceof LazyVec);
+      assertEquals(1, fr.vec("x").naCnt());
+
+      // Domain on first access
+      assertArrayEquals(new String[]{"a", "b", "c"}, fr.vec("c").domain());
+      assertEquals(3, fr.vec("c").cardinality());
+      assertEquals("c", fr.vec("c").factor(fr.vec("c").at8(3)));
+
+      // All lazy columns parsed: their inputs are deleted, as asked
+      assertNull(DKV.get(srcKey));
+      assertNull(DKV.get(src[0]));
+      Key[] again = data();
+      all = ParseDataset.parse(Key.make(), again, true, ParseSetup.guessSetup(again, false, ParseSetup.HAS_HEADER));
+      fr = fr._key.get();
+      assertTrue(isBitIdentical(all, fr));
+    } finally {
+      if (fr != null) fr.delete();
+      if (all != null) all.delete();
+      if (srcKey != null) Keyed.remove(srcKey);
+      for (Key k : src) Keyed.remove(k);
+    }
+  }
+
+  @Test public void testLazyColumnNextToUntypedColumn() {
+    Frame fr = null;
+    Key[] src = new Key[]{ParserTest.makeByteVec("n,e,x\n1,,1.5\n2,,NA\n", "3,,-2\n4,,7\n")};
+    Key<LazyVec.Source> srcKey = null;
+    try {
+      ParseSetup ps = ParseSetup.guessSetup(src, false, ParseSetup.HAS_HEADER);
+      assertEquals(Vec.T_BAD, ps._column_types[1]);   // All missing, no type guessed
+      ps.setLazyColumns(new int[]{2});
+      fr = ParseDataset.parse(Key.make(), src, true, ps);
+      srcKey = ((LazyVec) fr.vec("x")).sourceKey();
+      // The materialization parse skips the untyped column
+      assertEquals(6.5, new Sum().doAll(fr.vec("x"))._sum, 1e-10);
+      assertEquals(1, fr.vec("x").naCnt());
+      assertEquals(4, fr.vec("e").naCnt());
+    } finally {
+      if (fr != null) fr.delete();
+      if (srcKey != null) Keyed.remove(srcKey);
+      for (Key k : src) Keyed.remove(k);
+    }
+  }
+
+  @Test public void testSourceRemovedWithLastLazyColumn() {
+    Frame fr = null;
+    Key[] src = data();
+    try {
+      ParseSetup ps = ParseSetup.guessSetup(src, false, ParseSetup.HAS_HEADER);
+      ps.setLazyColumns(new int[]{1, 3});
+      fr = ParseDataset.parse(Key.make(), src, true, ps);
+      Key<LazyVec.Source> srcKey = ((LazyVec) fr.vec("c")).sourceKey();
+      assertEquals(6.5, new Sum().doAll(fr.vec("x"))._sum, 1e-10);
+      assertNotNull("Kept for the other lazy column", DKV.get(srcKey));
+      assertNotNull(DKV.get(src[0]));
+      // The last lazy column goes: so do its source, and the inputs the parse was to delete
+      fr.remove("c").remove();
+      assertNull(DKV.get(srcKey));
+      assertNull(DKV.get(src[0]));
+
+      fr.delete();
+      src = data();
+      ps = ParseSetup.guessSetup(src, false, ParseSetup.HAS_HEADER);
+      ps.setLazyColumns(new int[]{1, 3});
+      fr = ParseDataset.parse(Key.make(), src, false, ps);
+      srcKey = ((LazyVec) fr.vec("c")).sourceKey();
+      assertArrayEquals(new String[]{"a", "b", "c"}, fr.vec("c").domain());
+      assertEquals(1, fr.vec("x").naCnt());
+      assertNull("All lazy columns parsed", DKV.get(srcKey));
+      assertNotNull(DKV.get(src[0]));
+    } finally {
+      if (fr != null) fr.delete();
+      for (Key k : src) Keyed.remove(k);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAllColumnsLazy() {
+    Key[] src = data();
+    try {
+      ParseSetup ps = ParseSetup.guessSetup(src, false, ParseSetup.HAS_HEADER);
+      ps.setLazyColumns(new int[]{0, 1, 2, 3});
+      ParseDataset.parse(Key.make(), src, false, ps);
+    } finally {
+      for (Key k : src) Keyed.remove(k);
+    }
+  }
+}
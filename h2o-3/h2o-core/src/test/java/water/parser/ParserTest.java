@@ -173,6 +173,38 @@ public class ParserTest extends TestUtil {
     }
   }
 
+  // Long digit runs and unquoted strings, which are scanned 8 bytes at a time, cut at every chunk boundary
+  @Test public void testLongTokensAcrossChunkBoundaries() {
+    String[] nums = {"1", "-12345678", "123456789012345678", "9223372036854775807", "99999999999999999999999",
+                     "0.000000001234567891", "-3.14159265358979", "12345678.87654321", "1.2345678912e+8", "123456789%"};
+    String[] strs = {"abcdefghijklmnopqrstuvwxyz", "longer_token_without_spaces_1234", "x", "a b c d e f g h i j",
+                     "\"quoted, with separator and a long tail\"", "0123456789abcdef", "z", "tail", "na me", "q"};
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < nums.length; i++)
+      sb.append(nums[i]).append(',').append(strs[i]).append(',').append(nums[nums.length - 1 - i]).append('\n');
+    String data = sb.toString();
+    for (int split = data.indexOf('\n') + 1; split < data.length(); split += 3) { // The setup is guessed from the 1st line
+      Key k = makeByteVec(data.substring(0, split), data.substring(split));
+      Frame fr = ParseDataset.parse(Key.make(), k);
+      try {
+        assertEquals(nums.length, fr.numRows());
+        Vec s = fr.vec(1);
+        for (int i = 0; i < nums.length; i++) {
+          String exp = strs[i].startsWith("\"") ? strs[i].substring(1, strs[i].length() - 1) : strs[i];
+          assertEquals(exp, s.isCategorical() ? s.domain()[(int) s.at8(i)] : s.atStr(new BufferedString(), i).toString());
+        }
+        for (int c = 0; c < 3; c += 2)
+          for (int i = 0; i < nums.length; i++) {
+            String n = nums[c == 0 ? i : nums.length - 1 - i];
+            double exp = n.endsWith("%") ? Double.parseDouble(n.substring(0, n.length() - 1)) / 100 : Double.parseDouble(n);
+            Assert.assertTrue(split + ": " + n + " -- " + fr.vec(c).at(i), compareDoubles(exp, fr.vec(c).at(i), 1e-12));
+          }
+      } finally {
+        fr.delete();
+      }
+    }
+  }
+
   @Test public void testChunkBoundariesMixedLineEndings() {
     String[] data = new String[] {
       "1|2|3\n4|5|6\n7|8|9",
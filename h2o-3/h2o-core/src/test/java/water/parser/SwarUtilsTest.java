@@ -0,0 +1,63 @@
+package water.parser;
+
+import org.junit.Test;
+import water.util.StringUtils;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SwarUtilsTest {
+
+  @Test
+  public void testEightDigits() {
+    assertEquals(12345678, SwarUtils.eightDigits(StringUtils.bytesOf("12345678"), 0));
+    assertEquals(0, SwarUtils.eightDigits(StringUtils.bytesOf("00000000"), 0));
+    assertEquals(99999999, SwarUtils.eightDigits(StringUtils.bytesOf("x99999999"), 1));
+    assertEquals(-1, SwarUtils.eightDigits(StringUtils.bytesOf("1234567."), 0));
+    assertEquals(-1, SwarUtils.eightDigits(StringUtils.bytesOf(":1234567"), 0));
+    assertEquals(-1, SwarUtils.eightDigits(StringUtils.bytesOf("/1234567"), 0));
+    assertEquals(-1, SwarUtils.eightDigits(StringUtils.bytesOf("1234 678"), 0));
+    Random r = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      long v = (long) r.nextInt(100000000);
+      byte[] bits = StringUtils.bytesOf(String.format("%08d", v));
+      assertEquals(v, SwarUtils.eightDigits(bits, 0));
+      bits[r.nextInt(8)] = (byte) r.nextInt(256);
+      boolean digits = true;
+      for (byte b : bits) digits &= b >= '0' && b <= '9';
+      if (!digits) assertEquals(-1, SwarUtils.eightDigits(bits, 0));
+    }
+  }
+
+  @Test
+  public void testIndexOfAny() {
+    long a = SwarUtils.broadcast(','), b = SwarUtils.broadcast('\n'), c = SwarUtils.broadcast('\r'), d = SwarUtils.broadcast(0);
+    Random r = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      byte[] bits = new byte[r.nextInt(40)];
+      for (int j = 0; j < bits.length; j++)
+        bits[j] = (byte) (r.nextInt(20) == 0 ? ",\n\r\0".charAt(r.nextInt(4)) : 1 + r.nextInt(255));
+      int from = bits.length == 0 ? 0 : r.nextInt(bits.length);
+      int to = from + r.nextInt(bits.length - from + 1);
+      int expected = from;
+      while (expected < to && bits[expected] != ',' && bits[expected] != '\n' && bits[expected] != '\r' && bits[expected] != 0)
+        expected++;
+      assertEquals(expected, SwarUtils.indexOfAny(bits, from, to, a, b, c, d));
+    }
+  }
+
+  @Test
+  public void testAnyNonAscii() {
+    byte[] bits = StringUtils.bytesOf("abcdefghijklmnopqrstuvwxyz");
+    assertFalse(SwarUtils.anyNonAscii(bits, 0, bits.length));
+    for (int i = 0; i < bits.length; i++) {
+      byte old = bits[i];
+      bits[i] = (byte) 0xE5;
+      assertTrue(SwarUtils.anyNonAscii(bits, 0, bits.length));
+      assertTrue(SwarUtils.anyNonAscii(bits, i, i + 1));
+      assertFalse(SwarUtils.anyNonAscii(bits, i + 1, bits.length));
+      bits[i] = old;
+    }
+  }
+}
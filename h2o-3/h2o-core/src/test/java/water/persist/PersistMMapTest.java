@@ -0,0 +1,68 @@
+package water.persist;
+
+import org.junit.*;
+import water.*;
+
+import java.io.File;
+
+public class PersistMMapTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @After public void removeSegments() {
+    File[] fs = new PersistMMap((PersistFS) H2O.getPM().getIce())._segDir.listFiles();
+    if (fs != null) for (File f : fs) f.delete();
+  }
+
+  private static Value makeValue(int len, int seed) {
+    byte[] b = new byte[len];
+    for (int i = 0; i < len; i++) b[i] = (byte) (i * seed);
+    return new Value(Key.make(), b);
+  }
+
+  private static int segmentFiles(PersistMMap p) {
+    File[] fs = p._segDir.listFiles();
+    return fs == null ? 0 : fs.length;
+  }
+
+  @Test public void testStoreLoadDelete() throws Exception {
+    PersistMMap p = new PersistMMap((PersistFS) H2O.getPM().getIce(), 4096);
+    Value[] vs = new Value[5];
+    byte[][] expected = new byte[vs.length][];
+    try {
+      for (int i = 0; i < vs.length; i++) {
+        vs[i] = makeValue(1500, i + 3);
+        expected[i] = vs[i].memOrLoad().clone();
+        p.store(vs[i]);
+        vs[i].setDsk();
+      }
+      // 2 values per 4K segment
+      Assert.assertEquals(3, segmentFiles(p));
+      for (int i = 0; i < vs.length; i++)
+        Assert.assertArrayEquals(expected[i], p.load(vs[i]));
+      // Emptying a full segment removes its file
+      p.delete(vs[0]);
+      Assert.assertEquals(3, segmentFiles(p));
+      p.delete(vs[1]);
+      Assert.assertEquals(2, segmentFiles(p));
+      Assert.assertArrayEquals(expected[2], p.load(vs[2]));
+    } finally {
+      for (Value v : vs) if (v != null) p.delete(v);
+    }
+  }
+
+  @Test public void testLargeValueGoesToFile() throws Exception {
+    PersistFS fs = (PersistFS) H2O.getPM().getIce();
+    PersistMMap p = new PersistMMap(fs, 4096);
+    Value v = makeValue(10000, 7);
+    byte[] expected = v.memOrLoad().clone();
+    try {
+      p.store(v);
+      v.setDsk();
+      Assert.assertTrue(fs.getFile(v).exists());
+      Assert.assertArrayEquals(expected, p.load(v));
+    } finally {
+      p.delete(v);
+    }
+    Assert.assertFalse(fs.getFile(v).exists());
+  }
+}
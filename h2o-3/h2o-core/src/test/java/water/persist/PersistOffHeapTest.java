@@ -0,0 +1,67 @@
+package water.persist;
+
+import org.junit.*;
+import water.*;
+
+import java.util.Arrays;
+
+public class PersistOffHeapTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private int _offheap_mb;
+  @Before public void setBudget() { _offheap_mb = H2O.ARGS.offheap_mb; H2O.ARGS.offheap_mb = 1; }
+  @After  public void resetBudget() { H2O.ARGS.offheap_mb = _offheap_mb; }
+
+  private static Value makeValue(int len) {
+    byte[] b = new byte[len];
+    for (int i = 0; i < len; i++) b[i] = (byte) (i * 31);
+    return new Value(Key.make(), b);
+  }
+
+  @Test public void testStoreLoadDelete() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(H2O.getPM().getIce());
+    long used0 = MemoryManager.offHeapUsed();
+    Value v = makeValue(1000);
+    byte[] expected = v.memOrLoad().clone();
+    p.store(v);
+    v.setDsk();
+    Assert.assertEquals(1, p.size());
+    Assert.assertEquals(used0 + 1000, MemoryManager.offHeapUsed());
+    Assert.assertArrayEquals(expected, p.load(v));
+    p.delete(v);
+    Assert.assertEquals(0, p.size());
+    Assert.assertEquals(used0, MemoryManager.offHeapUsed());
+  }
+
+  @Test public void testFallsBackToDiskOverBudget() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(H2O.getPM().getIce());
+    long used0 = MemoryManager.offHeapUsed();
+    Value v = makeValue(2 << 20); // Larger than the 1MB budget
+    byte[] expected = v.memOrLoad().clone();
+    try {
+      p.store(v);
+      v.setDsk();
+      Assert.assertEquals(0, p.size());
+      Assert.assertEquals(used0, MemoryManager.offHeapUsed());
+      Assert.assertTrue(Arrays.equals(expected, p.load(v)));
+    } finally {
+      p.delete(v);
+    }
+  }
+
+  @Test public void testStaleValueIsNotServed() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(H2O.getPM().getIce());
+    Value v1 = makeValue(100);
+    Value v2 = new Value(v1._key, new byte[]{1, 2, 3});
+    p.store(v1);
+    v1.setDsk();
+    p.store(v2);
+    v2.setDsk();
+    Assert.assertEquals(1, p.size());
+    Assert.assertArrayEquals(new byte[]{1, 2, 3}, p.load(v2));
+    p.delete(v1); // Deleting the stale Value must not drop the live copy
+    Assert.assertEquals(1, p.size());
+    p.delete(v2);
+    Assert.assertEquals(0, p.size());
+  }
+}
@@ -0,0 +1,79 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.CategoricalWrappedVec;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class BroadcastJoinTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static Frame left() {
+    return Scope.track(new TestFrameBuilder()
+        .withColNames("k", "n", "v")
+        .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, ar("a", "a", "b", "b", "c", "d", null))
+        .withDataForCol(1, ard(1, 1, 2, 3, 1, 1, 1))
+        .withDataForCol(2, ard(10, 11, 12, 13, 14, 15, 16))
+        .withChunkLayout(3, 4)
+        .build());
+  }
+
+  private static Frame rite() {
+    return Scope.track(new TestFrameBuilder()
+        .withColNames("k", "n", "w")
+        .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, ar("a", "b", "a", null, "c", "b"))
+        .withDataForCol(1, ard(1, 2, 1, 1, 5, 3))
+        .withDataForCol(2, ard(100, 101, 102, 103, 104, Double.NaN))
+        .withChunkLayout(2, 2, 2)
+        .build());
+  }
+
+  private static int[][] idMaps(Frame l, Frame r) {
+    return new int[][]{CategoricalWrappedVec.computeMap(l.vec(0).domain(), r.vec(0).domain()), null};
+  }
+
+  @Test public void testAllLeft() {
+    Scope.enter();
+    try {
+      Frame l = left(), r = rite();
+      Frame res = Scope.track(BroadcastJoin.join(l, r, 2, true, idMaps(l, r)));
+      assertArrayEquals(new String[]{"k", "n", "v", "w"}, res.names());
+      assertArrayEquals(l.vec(0).domain(), res.vec(0).domain());
+      // Left row order, right duplicates in right order, unmatched and missing keys kept
+      assertVecEquals(dvec(10, 10, 11, 11, 12, 13, 14, 15, 16), res.vec("v"), 0);
+      assertVecEquals(dvec(100, 102, 100, 102, 101, Double.NaN, Double.NaN, Double.NaN, Double.NaN), res.vec("w"), 0);
+      assertEquals(1, res.vec("k").naCnt());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testInner() {
+    Scope.enter();
+    try {
+      Frame l = left(), r = rite();
+      Frame res = Scope.track(BroadcastJoin.join(l, r, 2, false, idMaps(l, r)));
+      assertVecEquals(dvec(10, 10, 11, 11, 12, 13), res.vec("v"), 0);
+      assertVecEquals(dvec(100, 102, 100, 102, 101, Double.NaN), res.vec("w"), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testSmallLeftNotPreferred() {
+    Scope.enter();
+    try {
+      assertFalse(BroadcastJoin.preferred(left(), rite(), 2));
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.vals.ValFrame;
+
+import static org.junit.Assert.*;
+
+public class FusionTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static Frame frame(Session sess) {
+    return Scope.track(new TestFrameBuilder()
+        .withName("$fr", sess)
+        .withColNames("a", "b", "c")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+        .withDataForCol(0, ard(1, 2, Double.NaN, 4))
+        .withDataForCol(1, ard(0.5, -1, 3, 8))
+        .withDataForCol(2, ar("x", "y", "x", "z"))
+        .build());
+  }
+
+  @Test public void testFusedChain() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      Frame fr = frame(sess);
+      Vec.VectorGroup vg = fr.anyVec().group();
+      int keys = DKV.<Vec.VectorGroup>getGet(vg._key).len();
+      Val val = Rapids.exec("(log (+ (* (cols $fr [0 1]) 2) 1))", sess);
+      assertTrue(val instanceof ValFrame);
+      Frame res = Scope.track(val.getFrame());
+      // A single pass, no intermediate Vecs
+      assertEquals(keys + 2, DKV.<Vec.VectorGroup>getGet(vg._key).len());
+      assertArrayEquals(new String[]{"log(a)", "log(b)"}, res.names());
+      assertVecEquals(res.vec(0), dvec(Math.log(3), Math.log(5), Double.NaN, Math.log(9)), 0);
+      assertVecEquals(res.vec(1), dvec(Math.log(2), Math.log(-1), Math.log(7), Math.log(17)), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testBroadcastColumn() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      frame(sess);
+      Frame res = Scope.track(Rapids.exec("(* (- (cols $fr [0 1]) (cols $fr [1])) (- 3 1))", sess).getFrame());
+      assertArrayEquals(new String[]{"a", "b"}, res.names());
+      assertVecEquals(res.vec(0), dvec(1, 6, Double.NaN, -8), 0);
+      assertVecEquals(res.vec(1), dvec(0, 0, 0, 0), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testCategoricalNotFused() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      frame(sess);
+      // Arithmetic on a categorical column gives NAs, as without fusion
+      Frame res = Scope.track(Rapids.exec("(+ (* $fr 2) 1)", sess).getFrame());
+      assertArrayEquals(new String[]{"a", "b", "c"}, res.names());
+      assertVecEquals(res.vec(0), dvec(3, 5, Double.NaN, 9), 0);
+      assertVecEquals(res.vec(1), dvec(2, -1, 7, 17), 0);
+      assertEquals(4, res.vec(2).naCnt());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testNamesAsUnfused() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      frame(sess);
+      Frame eq = Scope.track(Rapids.exec("(== (* (cols $fr [0 1]) 2) 4)", sess).getFrame());
+      assertArrayEquals(new String[]{"C1", "C2"}, eq.names());
+      assertVecEquals(eq.vec(0), dvec(0, 1, 0, 0), 0);
+      Frame ne = Scope.track(Rapids.exec("(!= (* (cols $fr [0 1]) 2) 4)", sess).getFrame());
+      assertArrayEquals(new String[]{"C1", "C2"}, ne.names());
+      assertVecEquals(ne.vec(1), dvec(1, 1, 1, 1), 0);
+      Frame eqLeft = Scope.track(Rapids.exec("(== 4 (* (cols $fr [0 1]) 2))", sess).getFrame());
+      assertArrayEquals(new String[]{"a", "b"}, eqLeft.names());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testConstantsFolded() {
+    Val val = Rapids.exec("(sqrt (+ (* 2 6) 4))");
+    assertEquals(4, val.getNum(), 0);
+  }
+}
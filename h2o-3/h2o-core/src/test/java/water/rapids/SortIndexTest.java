@@ -0,0 +1,159 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SortIndexTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static SortIndex pin(Frame fr, int col) {
+    return SortIndex.find(fr, new int[]{col}, true, new int[1][], new int[]{1});
+  }
+
+  private static SortIndex find(Frame fr) {
+    SortIndex idx = pin(fr, 0);
+    if (idx != null) SortIndex.unpin(idx._name);
+    return idx;
+  }
+
+  @Test public void testSortReusesIndex() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(new TestFrameBuilder()
+          .withColNames("k", "v")
+          .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+          .withDataForCol(0, ard(5, 3, 9, 1, 3, 7))
+          .withDataForCol(1, ard(0, 1, 2, 3, 4, 5))
+          .withChunkLayout(2, 4)
+          .build());
+      assertNull(find(fr));
+      Frame first = Scope.track(Merge.sort(fr, new int[]{0}));
+      SortIndex idx = find(fr);
+      assertNotNull(idx);
+
+      // Same index, same result
+      Frame second = Scope.track(Merge.sort(fr, new int[]{0}));
+      assertEquals(idx._key, find(fr)._key);
+      assertTrue(isBitIdentical(first, second));
+      assertVecEquals(dvec(3, 1, 4, 0, 5, 2), second.vec("v"), 0);
+
+      // Writing to the column invalidates its index
+      Vec.Writer w = fr.vec(0).open();
+      w.set(0, 0);
+      w.close();
+      assertNull(find(fr));
+      assertNull(DKV.get(idx._key));
+      Frame third = Scope.track(Merge.sort(fr, new int[]{0}));
+      assertVecEquals(dvec(0, 3, 1, 4, 5, 2), third.vec("v"), 0);
+
+      // Swapping two values keeps the checksum, but also invalidates the index
+      idx = find(fr);
+      assertNotNull(idx);
+      w = fr.vec(0).open();
+      w.set(0, 9);
+      w.set(2, 0);
+      w.close();
+      assertNull(find(fr));
+      assertNull(DKV.get(idx._key));
+      Frame fourth = Scope.track(Merge.sort(fr, new int[]{0}));
+      assertVecEquals(dvec(2, 3, 1, 4, 5, 0), fourth.vec("v"), 0);
+
+      // Removing the column removes its index
+      idx = find(fr);
+      assertNotNull(idx);
+      fr.delete();
+      assertNull(DKV.get(idx._key));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testPinnedIndexKept() {
+    Scope.enter();
+    try {
+      int ncols = SortIndex.MAX_INDEXES + 1;
+      TestFrameBuilder b = new TestFrameBuilder();
+      String[] names = new String[ncols];
+      byte[] types = new byte[ncols];
+      for (int c = 0; c < ncols; c++) {
+        names[c] = "c" + c;
+        types[c] = Vec.T_NUM;
+        b.withDataForCol(c, ard(c, 5, 3, 9, 1));
+      }
+      Frame fr = Scope.track(b.withColNames(names).withVecTypes(types).build());
+      Scope.track(Merge.sort(fr, new int[]{0}));
+      SortIndex idx = pin(fr, 0);
+      assertNotNull(idx);
+
+      // Not evicted while pinned, by as many newer indexes as are kept
+      for (int c = 1; c < ncols; c++)
+        Scope.track(Merge.sort(fr, new int[]{c}));
+      assertNotNull(DKV.get(idx._key));
+
+      // Written to while pinned: no longer found, removed once unpinned
+      Vec.Writer w = fr.vec(0).open();
+      w.set(0, 7);
+      w.close();
+      assertNull(find(fr));
+      assertNotNull(DKV.get(idx._key));
+      SortIndex.unpin(idx._name);
+      assertNull(DKV.get(idx._key));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testConcurrentPins() throws InterruptedException {
+    Scope.enter();
+    try {
+      final Frame fr = Scope.track(new TestFrameBuilder()
+          .withColNames("k")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(5, 3, 9, 1, 3, 7))
+          .build());
+      Scope.track(Merge.sort(fr, new int[]{0}));
+      final AtomicReference<Throwable> failure = new AtomicReference<>();
+      Thread[] threads = new Thread[8];
+      for (int t = 0; t < threads.length; t++) {
+        threads[t] = new Thread() {
+          @Override public void run() {
+            try {
+              for (int i = 0; i < 50; i++) {
+                SortIndex idx = pin(fr, 0);
+                assertNotNull(idx);
+                SortIndex.unpin(idx._name);
+              }
+            } catch (Throwable e) {
+              failure.compareAndSet(null, e);
+            }
+          }
+        };
+        threads[t].start();
+      }
+      for (Thread t : threads) t.join();
+      assertNull(failure.get());
+
+      // Every pin was released once: pinned once more, the index outlives a write until unpinned
+      SortIndex idx = pin(fr, 0);
+      assertNotNull(idx);
+      Vec.Writer w = fr.vec(0).open();
+      w.set(0, 0);
+      w.close();
+      assertNotNull(DKV.get(idx._key));
+      SortIndex.unpin(idx._name);
+      assertNull(DKV.get(idx._key));
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.WindowFunctions.Agg;
+import water.rapids.WindowFunctions.Fcn;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class WindowFunctionsTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  // Sorted by g then t, in small chunks so that windows and partitions span chunks
+  private static final double[] G = ard(0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1);
+  private static final double[] T = ard(1, 2, 4, 7, 8, 9, Double.NaN, 1, 2, 3, 5);
+  private static final double[] X = ard(Double.NaN, 20, 30, 40, 10, 50, 7, 1, 2, Double.NaN, 4);
+
+  private static Frame sorted() {
+    return Scope.track(new TestFrameBuilder()
+        .withColNames("g", "t", "x")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, G)
+        .withDataForCol(1, T)
+        .withDataForCol(2, X)
+        .withChunkLayout(1, 2, 3, 1, 4)
+        .build());
+  }
+
+  // Each window function computed row by row over the whole data
+  private static double[] expected(boolean range, Agg agg) {
+    double[] res = new double[X.length];
+    for (int r = 0; r < X.length; r++) {
+      if (!agg._fcn.isAggregate()) {
+        int s = agg._fcn == Fcn.lag ? r - (int) agg._pre : r + (int) agg._fol;
+        res[r] = s >= 0 && s < X.length && G[s] == G[r] ? X[s] : Double.NaN;
+        continue;
+      }
+      if (range && Double.isNaN(T[r])) {
+        res[r] = Double.NaN;
+        continue;
+      }
+      ArrayList<Double> vals = new ArrayList<>();
+      for (int s = 0; s < X.length; s++) {
+        if (G[s] != G[r] || Double.isNaN(X[s])) continue;
+        boolean in = range
+            ? !Double.isNaN(T[s]) && (agg._pre < 0 || T[s] >= T[r] - agg._pre) && T[s] <= T[r] + agg._fol
+            : (agg._pre < 0 || s >= r - agg._pre) && s <= r + agg._fol;
+        if (in) vals.add(X[s]);
+      }
+      double n = vals.size(), sum = 0, sumsq = 0, min = Double.NaN, max = Double.NaN;
+      for (double v : vals) {
+        sum += v;
+        sumsq += v * v;
+        min = Double.isNaN(min) ? v : Math.min(min, v);
+        max = Double.isNaN(max) ? v : Math.max(max, v);
+      }
+      switch (agg._fcn) {
+        case count: res[r] = n; break;
+        case sum:   res[r] = sum; break;
+        case mean:  res[r] = n == 0 ? Double.NaN : sum / n; break;
+        case min:   res[r] = min; break;
+        case max:   res[r] = max; break;
+        case sdev:  res[r] = n < 2 ? Double.NaN : Math.sqrt((sumsq - sum * sum / n) / (n - 1)); break;
+      }
+    }
+    return res;
+  }
+
+  private static void check(boolean range, Agg[] aggs) {
+    Frame res = Scope.track(WindowFunctions.windowSorted(sorted(), new int[]{0}, 1, range, aggs));
+    assertEquals(3 + aggs.length, res.numCols());
+    for (int a = 0; a < aggs.length; a++) {
+      double[] exp = expected(range, aggs[a]);
+      for (int r = 0; r < exp.length; r++)
+        assertEquals(aggs[a]._fcn + " at row " + r, exp[r], res.vec(3 + a).at(r), 1e-9);
+    }
+  }
+
+  @Test public void testRows() {
+    Scope.enter();
+    try {
+      check(false, new Agg[]{
+          new Agg(Fcn.mean, 2, 1, 1),
+          new Agg(Fcn.sum, 2, -1, 0),
+          new Agg(Fcn.min, 2, 2, 0),
+          new Agg(Fcn.max, 2, -1, 0),
+          new Agg(Fcn.count, 2, 3, 0),
+          new Agg(Fcn.sdev, 2, 1, 2),
+          new Agg(Fcn.min, 2, -1, 1),
+          new Agg(Fcn.lag, 2, 2, 0),
+          new Agg(Fcn.lead, 2, 0, 3)});
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testRange() {
+    Scope.enter();
+    try {
+      check(true, new Agg[]{
+          new Agg(Fcn.mean, 2, 2, 0),
+          new Agg(Fcn.sum, 2, -1, 0),
+          new Agg(Fcn.count, 2, 1, 1),
+          new Agg(Fcn.max, 2, 3, 2),
+          new Agg(Fcn.mean, 2, -1, 0),
+          new Agg(Fcn.lag, 2, 1, 0)});
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testRapids() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      Scope.track(new TestFrameBuilder()
+          .withName("$fr", sess)
+          .withColNames("g", "t", "x")
+          .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+          .withDataForCol(0, ar("b", "a", "a", "b", "a"))
+          .withDataForCol(1, ard(2, 3, 1, 1, 2))
+          .withDataForCol(2, ard(20, 3, 1, 10, 2))
+          .withChunkLayout(2, 3)
+          .build());
+      Frame res = Scope.track(Rapids.exec("(window $fr [0] 1 \"rows\" \"sum\" 2 -1 0 \"lag\" 2 1 0)", sess).getFrame());
+      assertArrayEquals(new String[]{"g", "t", "x", "sum_x", "lag_x"}, res.names());
+      assertVecEquals(dvec(1, 2, 3, 10, 20), res.vec("x"), 0);
+      assertVecEquals(dvec(1, 3, 6, 10, 30), res.vec("sum_x"), 0);
+      assertVecEquals(dvec(Double.NaN, 1, 2, Double.NaN, 10), res.vec("lag_x"), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOrderInPartition() {
+    Scope.enter();
+    try {
+      WindowFunctions.window(sorted(), new int[]{0, 1}, 1, false, new Agg[]{new Agg(Fcn.sum, 2, 1, 0)});
+    } finally {
+      Scope.exit();
+    }
+  }
+}
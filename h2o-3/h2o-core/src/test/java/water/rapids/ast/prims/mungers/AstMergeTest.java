@@ -7,9 +7,13 @@ import water.TestUtil;
 import water.fvec.Frame;
 import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
+import water.rapids.BroadcastJoin;
+import water.rapids.Merge;
 import water.rapids.Rapids;
 import water.rapids.Val;
 
+import static org.junit.Assert.*;
+
 /***
  * This test is written by Andrey Spiridonov in JIRA PUBDEV-5924.
  */
@@ -291,4 +295,50 @@ public class AstMergeTest extends TestUtil {
       System.out.println("");
     }
   }
+
+  @Test
+  public void broadcastSameRowsAsRadixTest() {
+    Scope.enter();
+    try {
+      final int n = 5000;
+      double[] lk = new double[n], lv = new double[n];
+      for (int i = 0; i < n; i++) {
+        lk[i] = (i * 7919L) % 100;  // Unsorted keys, half of them without a match
+        lv[i] = i;
+      }
+      double[] rk = new double[60], rw = new double[60];
+      for (int i = 0; i < rk.length; i++) {
+        rk[i] = (i * 13) % 50;      // Duplicated keys
+        rw[i] = i;
+      }
+      Frame l = Scope.track(new TestFrameBuilder()
+              .withName("bigLeft")
+              .withColNames("k", "v")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, lk)
+              .withDataForCol(1, lv)
+              .withChunkLayout(1500, 1500, 2000)
+              .build());
+      Frame r = Scope.track(new TestFrameBuilder()
+              .withName("smallRight")
+              .withColNames("k", "w")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, rk)
+              .withDataForCol(1, rw)
+              .build());
+      // Method auto takes the broadcast join from MIN_LEFT_ROWS left rows on: it has the rows of the radix
+      // merge, in the left row order, so both are compared once sorted
+      int[] all = new int[]{0, 1, 2};
+      for (boolean allLeft : new boolean[]{true, false}) {
+        Frame bcast = Scope.track(BroadcastJoin.join(l, r, 1, allLeft, new int[1][]));
+        Frame radix = Scope.track(Rapids.exec("(merge bigLeft smallRight " + (allLeft ? "TRUE" : "FALSE") +
+                " FALSE [0] [0] 'radix')").getFrame());
+        assertArrayEquals(radix.names(), bcast.names());
+        assertTrue("all_left=" + allLeft,
+                isBitIdentical(Scope.track(Merge.sort(radix, all)), Scope.track(Merge.sort(bcast, all))));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
 }
@@ -0,0 +1,98 @@
+package water.rapids.ast.prims.mungers;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Rapids;
+import water.rapids.Session;
+import water.rapids.ast.prims.mungers.AstGroup.AGG;
+import water.rapids.ast.prims.mungers.AstGroup.FCN;
+import water.rapids.ast.prims.mungers.AstGroup.NAHandling;
+
+import static org.junit.Assert.*;
+
+public class HashGroupByTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static Frame frame(Session sess) {
+    return Scope.track(new TestFrameBuilder()
+        .withName("$fr", sess)
+        .withColNames("k", "c", "x", "m")
+        .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_NUM, Vec.T_CAT)
+        .withDataForCol(0, ard(3, 1, Double.NaN, 3, 1, 2, Double.NaN, 3))
+        .withDataForCol(1, ar("a", "b", "a", "a", "b", "b", "a", null))
+        .withDataForCol(2, ard(1.5, 2, 7, Double.NaN, -4, 0.25, 3, 9))
+        .withDataForCol(3, ar("u", "v", "v", "u", "u", "w", "v", "u"))
+        .withChunkLayout(3, 3, 2)
+        .build());
+  }
+
+  @Test public void testSameAsGroupBy() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      Frame fr = frame(sess);
+      AGG[] aggs = new AGG[]{
+          new AGG(FCN.nrow, 2, NAHandling.ALL, 0),
+          new AGG(FCN.mean, 2, NAHandling.RM, 0),
+          new AGG(FCN.sum, 2, NAHandling.ALL, 0),
+          new AGG(FCN.sdev, 2, NAHandling.IGNORE, 0),
+          new AGG(FCN.min, 2, NAHandling.RM, 0),
+          new AGG(FCN.max, 2, NAHandling.RM, 0),
+          new AGG(FCN.mode, 3, NAHandling.ALL, (int) fr.vec(3).max() + 1)};
+      String[] fcnames = new String[]{"nrow", "mean_x", "sum_x", "sdev_x", "min_x", "max_x", "mode_m"};
+      Vec.VectorGroup vg = fr.anyVec().group();
+      int keys = DKV.<Vec.VectorGroup>getGet(vg._key).len();
+      Frame hashed = Scope.track(HashGroupBy.groupBy(fr, new int[]{0, 1}, aggs, fcnames));
+      assertEquals("No Vec added to the group of the input", keys, DKV.<Vec.VectorGroup>getGet(vg._key).len());
+      Frame expected = Scope.track(Rapids.exec("(GB $fr [0 1] nrow 2 \"all\" mean 2 \"rm\" sum 2 \"all\" " +
+          "sdev 2 \"ignore\" min 2 \"rm\" max 2 \"rm\" mode 3 \"all\")", sess).getFrame());
+      assertArrayEquals(expected.names(), hashed.names());
+      assertArrayEquals(expected.vec(1).domain(), hashed.vec(1).domain());
+      assertEquals(5, hashed.numRows());
+      assertTrue(isIdenticalUpToRelTolerance(expected, hashed, 1e-12));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testNoAggregates() {
+    Scope.enter();
+    try {
+      Session sess = new Session();
+      double[] k = new double[300];
+      for (int i = 0; i < k.length; i++) k[i] = (i * 37) % 100; // More groups than the initial capacity
+      Frame fr = Scope.track(new TestFrameBuilder()
+          .withName("$keys", sess)
+          .withColNames("k")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, k)
+          .withChunkLayout(100, 100, 100)
+          .build());
+      Frame hashed = Scope.track(HashGroupBy.groupBy(fr, new int[]{0}, new AGG[0], new String[0]));
+      Frame expected = Scope.track(Rapids.exec("(GB $keys [0])", sess).getFrame());
+      assertArrayEquals(expected.names(), hashed.names());
+      assertEquals(100, hashed.numRows());
+      assertTrue(isBitIdentical(expected, hashed));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testPreferred() {
+    Scope.enter();
+    try {
+      Frame fr = frame(new Session());
+      AGG[] aggs = new AGG[]{new AGG(FCN.sum, 2, NAHandling.ALL, 0)};
+      assertFalse(HashGroupBy.preferred(fr, new int[0], aggs));
+      assertFalse(HashGroupBy.preferred(fr, new int[]{0, 1}, aggs));
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -216,6 +216,110 @@ public abstract class GenModel implements IGenModel, IGeneratedModel, Serializab
     throw new UnsupportedOperationException("`offset` column is not supported");
   }
 
+  /** Scores a block of rows given column-by-column.
+   *  <p>
+   *  {@code cols[c][r]} is the value of input column {@code c} (in the order
+   *  expected by {@link #score0(double[], double[])}) for row {@code r};
+   *  categoricals are encoded as level indices and NAs as NaN.  The predictions
+   *  of row {@code r} are written to {@code preds[r*p .. r*p+p-1]} where
+   *  {@code p = getPredsSize(getModelCategory())}.  Neither the input columns
+   *  nor the output buffer are modified beyond the first {@code nrows} rows,
+   *  so both can be re-used from block to block.
+   *  </p>
+   *  The default implementation scores the rows one by one through
+   *  {@link #score0(double[], double, double[])}; models override it to amortize
+   *  per-row overhead across the block.
+   *
+   *  @param cols input columns, at least {@link #nfeatures()} of them
+   *  @param offsets per-row offsets, or null if the model has no offset column
+   *  @param nrows number of rows in the block
+   *  @param preds output buffer of at least {@code nrows * p} elements
+   */
+  public void scoreBlock(double[][] cols, double[] offsets, int nrows, double[] preds) {
+    final int psize = checkBlock(cols, offsets, nrows, preds);
+    final BlockWorkspace ws = blockWorkspace();
+    double[] row = ws.doubles(0, nfeatures());
+    double[] p = ws.doubles(1, psize);
+    for (int r = 0; r < nrows; r++) {
+      blockRow(cols, r, row);
+      if (offsets == null) score0(row, p);
+      else score0(row, offsets[r], p);
+      System.arraycopy(p, 0, preds, r * psize, psize);
+    }
+  }
+
+  /** Validates the arguments of {@link #scoreBlock} and returns the number of predictions per row. */
+  protected final int checkBlock(double[][] cols, double[] offsets, int nrows, double[] preds) {
+    final int psize = getPredsSize(getModelCategory());
+    if (cols.length < nfeatures())
+      throw new IllegalArgumentException("Expected " + nfeatures() + " input columns, got " + cols.length);
+    if (offsets != null && offsets.length < nrows)
+      throw new IllegalArgumentException("Expected " + nrows + " offsets, got " + offsets.length);
+    if (preds.length < nrows * psize)
+      throw new IllegalArgumentException("Predictions buffer too small: " + preds.length + " < " + nrows * psize);
+    return psize;
+  }
+
+  /** Scratch buffers of {@link #scoreBlock}, one set per scoring thread. */
+  private transient volatile ThreadLocal<BlockWorkspace> _blockWorkspace;
+
+  /** @return the scratch buffers of {@link #scoreBlock} of the calling thread */
+  protected final BlockWorkspace blockWorkspace() {
+    ThreadLocal<BlockWorkspace> tl = _blockWorkspace;
+    if (tl == null) {
+      synchronized (this) {
+        if ((tl = _blockWorkspace) == null) _blockWorkspace = tl = new ThreadLocal<>();
+      }
+    }
+    BlockWorkspace ws = tl.get();
+    if (ws == null) tl.set(ws = new BlockWorkspace());
+    return ws;
+  }
+
+  /**
+   * Scratch buffers for block scoring, kept by slot.  A buffer is allocated
+   * the first time a slot is asked for, and re-allocated only when a larger
+   * one is needed, so scoring block after block of the same size does not
+   * allocate.  Buffers are not cleared between uses.
+   */
+  protected static final class BlockWorkspace {
+    private double[][][] _rows = new double[0][][];
+    private double[][] _doubles = new double[0][];
+    private int[][] _ints = new int[0][];
+
+    /** @return {@code nrows} buffers of exactly {@code ncols} values, in slot {@code slot} */
+    public double[][] rows(int slot, int nrows, int ncols) {
+      if (slot >= _rows.length) _rows = Arrays.copyOf(_rows, slot + 1);
+      double[][] rows = _rows[slot];
+      if (rows == null || rows.length < nrows || (rows.length > 0 && rows[0].length != ncols))
+        _rows[slot] = rows = new double[nrows][ncols];
+      return rows;
+    }
+
+    /** @return a buffer of exactly {@code len} values, in slot {@code slot} */
+    public double[] doubles(int slot, int len) {
+      if (slot >= _doubles.length) _doubles = Arrays.copyOf(_doubles, slot + 1);
+      double[] d = _doubles[slot];
+      if (d == null || d.length != len) _doubles[slot] = d = new double[len];
+      return d;
+    }
+
+    /** @return a buffer of exactly {@code len} values, in slot {@code slot} */
+    public int[] ints(int slot, int len) {
+      if (slot >= _ints.length) _ints = Arrays.copyOf(_ints, slot + 1);
+      int[] i = _ints[slot];
+      if (i == null || i.length != len) _ints[slot] = i = new int[len];
+      return i;
+    }
+  }
+
+  /** Copies row {@code r} of a columnar block into {@code row}. */
+  protected static double[] blockRow(double[][] cols, int r, double[] row) {
+    for (int c = 0; c < row.length; c++)
+      row[c] = cols[c][r];
+    return row;
+  }
+
   /** Subclasses implement calibration of class probabilities. The input is array of
    *  predictions returned by the scoring function (score0). Supports classification
    *  models that were trained with calibration enabled. Original probabilities
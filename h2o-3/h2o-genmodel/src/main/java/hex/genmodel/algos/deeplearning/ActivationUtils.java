@@ -8,16 +8,30 @@ public class ActivationUtils {
     double[] eval(double[] x, double drop_out_ratio, int maxOutk);  // for MaxoutDropout
   }
 
-  public static class LinearOut implements ActivationFunctions {
+  // One output per input: can be evaluated into a given array, possibly the input itself
+  public interface InPlaceActivationFunctions extends ActivationFunctions {
+    void evalTo(double[] x, double drop_out_ratio, double[] output);
+  }
+
+  public static class LinearOut implements InPlaceActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {  // do nothing
       return input;
     }
+
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      if (output != input) System.arraycopy(input, 0, output, 0, input.length);
+    }
   }
 
-  public static class SoftmaxOut implements ActivationFunctions {
+  public static class SoftmaxOut implements InPlaceActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
+      double[] output = new double[input.length];
+      evalTo(input, drop_out_ratio, output);
+      return output;
+    }
+
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
       int nodeSize = input.length;
-      double[] output = new double[nodeSize];
       double scaling = 0;
       double max = maxArray(input);
 
@@ -28,8 +42,6 @@ public class ActivationUtils {
 
       for (int index = 0; index < nodeSize; index++)
         output[index] /= scaling;
-
-      return output;
     }
   }
 
@@ -48,6 +60,11 @@ public class ActivationUtils {
       applyDropout(output, drop_out_ratio, input.length);
       return output;
     }
+
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      super.evalTo(input, drop_out_ratio, output);
+      applyDropout(output, drop_out_ratio, output.length);
+    }
   }
 
   public static double[] applyDropout(double[] input, double drop_out_ratio, int nodeSize) {
@@ -60,27 +77,30 @@ public class ActivationUtils {
     return input;
   }
 
-  public static class ExpRectifierOut implements ActivationFunctions {
+  public static class ExpRectifierOut implements InPlaceActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      int nodeSize = input.length;
-      double[] output = new double[nodeSize];
+      double[] output = new double[input.length];
+      evalTo(input, drop_out_ratio, output);
+      return output;
+    }
 
-      for (int index = 0; index < nodeSize; index++) {
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      for (int index = 0; index < input.length; index++) {
         output[index] = input[index] >= 0 ? input[index] : Math.exp(input[index]) - 1;
       }
-      return output;
     }
   }
 
-  public static class RectifierOut implements ActivationFunctions {
+  public static class RectifierOut implements InPlaceActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      int nodeSize = input.length;
-      double[] output = new double[nodeSize];
+      double[] output = new double[input.length];
+      evalTo(input, drop_out_ratio, output);
+      return output;
+    }
 
-      for (int index = 0; index < nodeSize; index++)
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      for (int index = 0; index < input.length; index++)
         output[index] = 0.5f * (input[index] + Math.abs(input[index])); // clever.  Copied from Neurons.java
-
-      return output;
     }
   }
 
@@ -90,6 +110,11 @@ public class ActivationUtils {
       applyDropout(output, drop_out_ratio, input.length);
       return output;
     }
+
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      super.evalTo(input, drop_out_ratio, output);
+      applyDropout(output, drop_out_ratio, output.length);
+    }
   }
 
   public static class MaxoutDropoutOut extends MaxoutOut {
@@ -125,17 +150,23 @@ public class ActivationUtils {
       applyDropout(output, drop_out_ratio, input.length);
       return output;
     }
+
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      super.evalTo(input, drop_out_ratio, output);
+      applyDropout(output, drop_out_ratio, output.length);
+    }
   }
 
-  public static class TanhOut implements ActivationFunctions {
+  public static class TanhOut implements InPlaceActivationFunctions {
     public double[] eval(double[] input, double drop_out_ratio, int maxOutk) {
-      int nodeSize = input.length;
-      double[] output = new double[nodeSize];
+      double[] output = new double[input.length];
+      evalTo(input, drop_out_ratio, output);
+      return output;
+    }
 
-      for (int index=0; index < nodeSize; index++)
+    public void evalTo(double[] input, double drop_out_ratio, double[] output) {
+      for (int index=0; index < input.length; index++)
         output[index] = 1.-2./(1.+Math.exp(2.*input[index]));
-
-      return output;
     }
   }
 }
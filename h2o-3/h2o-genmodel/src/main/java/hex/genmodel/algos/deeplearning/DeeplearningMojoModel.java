@@ -79,6 +79,33 @@ public class DeeplearningMojoModel extends MojoModel {
     return modifyOutputs(neuronsInput, preds, dataRow);
   }
 
+  /***
+   * Propagates the whole block through the network layer by layer, so that the weights of a layer
+   * are read once per block instead of once per row.
+   */
+  @Override
+  public void scoreBlock(double[][] cols, double[] offsets, int nrows, double[] preds) {
+    final int psize = checkBlock(cols, offsets, nrows, preds);
+    if (nrows == 0) return;
+    final BlockWorkspace ws = blockWorkspace();
+    double[][] rows = ws.rows(0, nrows, nfeatures());
+    double[][] neuronsInput = ws.rows(1, nrows, _units[0]);
+    double[] nums = ws.doubles(0, _nums);
+    int[] cats = ws.ints(0, _cats);
+    for (int r = 0; r < nrows; r++) {
+      blockRow(cols, r, rows[r]);
+      setInput(rows[r], neuronsInput[r], nums, cats, _nums, _cats, _catoffsets, _normmul, _normsub, _use_all_factor_levels, true);
+    }
+    for (int layer = 0; layer < _numLayers; layer++)
+      neuronsInput = NeuralNetwork.fpropBlock(_allActivations[layer], _all_drop_out_ratios[layer],
+              _weightsAndBias[layer], neuronsInput, nrows, _units[layer + 1], ws.rows(2 + layer, nrows, _units[layer + 1]));
+    double[] p = ws.doubles(1, psize);
+    for (int r = 0; r < nrows; r++) {
+      modifyOutputs(neuronsInput[r], p, rows[r]);
+      System.arraycopy(p, 0, preds, r * psize, psize);
+    }
+  }
+
   public double[] modifyOutputs(double[] out, double[] preds, double[] dataRow) {
     if (this.isAutoEncoder()) { // only perform unscale numerical value if need
       if (_normmul != null && _normmul.length > 0) { // undo the standardization on output
@@ -106,6 +106,61 @@ public class NeuralNetwork {  // represent one layer of neural network
   }
 
   public ActivationFunctions createActFuns(String activation) {
+    return activationFunction(activation);
+  }
+
+  /**
+   * Forward propagation of a whole block of rows through one layer.  Each row of the weight matrix is
+   * walked once for all rows of the block, the per-row sums are accumulated in the same order as in
+   * {@link #formNNInputs()}.  The activations are written into {@code outputs}, {@code nrows} arrays of
+   * {@code outSize} values, and no memory is allocated.  Maxout layers are propagated row by row, with
+   * freshly allocated outputs.
+   */
+  static double[][] fpropBlock(String activation, double drop_out_ratio, DeeplearningMojoModel.StoreWeightsBias weightsAndBias,
+                               double[][] inputs, int nrows, int outSize, double[][] outputs) {
+    ActivationFunctions act = activationFunction(activation);
+    if (weightsAndBias._bValues.length != outSize || !(act instanceof InPlaceActivationFunctions)) { // Maxout
+      for (int r = 0; r < nrows; r++)
+        outputs[r] = new NeuralNetwork(activation, drop_out_ratio, weightsAndBias, inputs[r], outSize).fprop1Layer();
+      return outputs;
+    }
+    float[] w = weightsAndBias._wValues;
+    int cols = inputs[0].length;
+    for (int row = 0, idx = 0; row < outSize; row++, idx += cols) {
+      double bias = weightsAndBias._bValues[row];
+      for (int r = 0; r < nrows; r++)
+        outputs[r][row] = dot(w, idx, inputs[r], cols) + bias;
+    }
+    for (int r = 0; r < nrows; r++)
+      ((InPlaceActivationFunctions) act).evalTo(outputs[r], drop_out_ratio, outputs[r]);
+    return outputs;
+  }
+
+  // Same 8-way unrolled summation as formNNInputs, bias not included
+  private static double dot(float[] w, int idx, double[] in, int cols) {
+    int extra = cols - cols % 8;
+    int multiple = (cols / 8) * 8 - 1;
+    double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+    for (int col = 0; col < multiple; col += 8) {
+      int off = idx + col;
+      psum0 += w[off    ] * in[col    ];
+      psum1 += w[off + 1] * in[col + 1];
+      psum2 += w[off + 2] * in[col + 2];
+      psum3 += w[off + 3] * in[col + 3];
+      psum4 += w[off + 4] * in[col + 4];
+      psum5 += w[off + 5] * in[col + 5];
+      psum6 += w[off + 6] * in[col + 6];
+      psum7 += w[off + 7] * in[col + 7];
+    }
+    double sum = 0;
+    sum += psum0 + psum1 + psum2 + psum3;
+    sum += psum4 + psum5 + psum6 + psum7;
+    for (int col = extra; col < cols; col++)
+      sum += w[idx + col] * in[col];
+    return sum;
+  }
+
+  static ActivationFunctions activationFunction(String activation) {
     switch (activation) {
       case "Linear":
         return new LinearOut();
@@ -3,6 +3,7 @@ package hex.genmodel.algos.glm;
 import hex.genmodel.GenModel;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 public class GlmMojoModel extends GlmMojoModelBase {
 
@@ -63,6 +64,61 @@ public class GlmMojoModel extends GlmMojoModelBase {
     return preds;
   }
 
+  /**
+   * Computes the linear predictor of a whole block column by column, so that each coefficient
+   * is applied to a contiguous array. The terms are added in the same order as in
+   * {@link #glmScore0(double[], double[])}, the results are identical. Input columns are not
+   * modified, missing values are imputed on the fly.
+   */
+  @Override
+  public void scoreBlock(double[][] cols, double[] offsets, int nrows, double[] preds) {
+    if (offsets != null) { // not supported, let the default implementation fail the same way as score0
+      super.scoreBlock(cols, offsets, nrows, preds);
+      return;
+    }
+    final int psize = checkBlock(cols, offsets, nrows, preds);
+    final double[] eta = blockWorkspace().doubles(0, nrows);
+    Arrays.fill(eta, 0);
+    final int skip = _useAllFactorLevels ? 0 : 1; // skip level 0 of all factors
+    for (int i = 0; i < _catOffsets.length - 1; ++i) {
+      final double[] col = cols[i];
+      for (int r = 0; r < nrows; r++) {
+        double d = col[r];
+        if (_meanImputation && Double.isNaN(d)) d = _catModes[i];
+        if (skip == 1 && d == 0) continue;
+        int ival = (int) d - skip;
+        if (ival != d - skip) throw new IllegalArgumentException("categorical value out of range");
+        ival += _catOffsets[i];
+        if (ival < _catOffsets[i + 1])
+          eta[r] += _beta[ival];
+      }
+    }
+    final int noff = _catOffsets[_cats] - _cats;
+    for (int i = _cats; i < _beta.length - 1 - noff; ++i) {
+      final double[] col = cols[i];
+      final double b = _beta[noff + i];
+      if (_meanImputation) {
+        final double mean = _numMeans[i - _cats];
+        for (int r = 0; r < nrows; r++)
+          eta[r] += b * (Double.isNaN(col[r]) ? mean : col[r]);
+      } else {
+        for (int r = 0; r < nrows; r++)
+          eta[r] += b * col[r];
+      }
+    }
+    final double intercept = _beta[_beta.length - 1];
+    for (int r = 0, pos = 0; r < nrows; r++, pos += psize) {
+      double mu = _linkFn.eval(eta[r] + intercept);
+      if (_binomial) {
+        preds[pos] = (mu >= _defaultThreshold) ? 1 : 0;
+        preds[pos + 1] = 1.0 - mu;
+        preds[pos + 2] = mu;
+      } else {
+        preds[pos] = mu;
+      }
+    }
+  }
+
   /**
    * Applies GLM coefficients to a given row of data to calculate
    * feature contributions.
@@ -0,0 +1,259 @@
+package hex.genmodel.algos.tree;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Flattened ("struct-of-arrays") representation of all trees of a {@link SharedTreeMojoModel}.
+ *
+ * The compressed trees are decoded once, when the model is loaded, into parallel arrays indexed by node id
+ * (split column, split value, NA handling, bitset location, child ids). Leaves are referenced by negative
+ * ids ({@code ~leafIndex}). Scoring a row is then a tight loop over these arrays, with none of the variable-length
+ * decoding done by {@link SharedTreeMojoModel#scoreTree}, which it matches bit for bit.
+ *
+ * Only the current tree encoding (mojo version 1.2 and up) is supported; {@link #compile} returns null for
+ * anything it cannot represent and the model keeps scoring the compressed trees.
+ */
+final class FlatForest implements Serializable {
+  static final int NO_TREE = Integer.MIN_VALUE;
+
+  // Node flags
+  static final byte NA_VS_REST = 1;
+  static final byte NA_LEFT = 2;
+  static final byte BITSET = 4;
+
+  final int[] _roots;       // Root of each tree (in the order of _compressed_trees), NO_TREE for empty trees
+  final int[] _cols;        // Split column of each node
+  final float[] _splits;    // Split value of numeric splits
+  final byte[] _flags;
+  final int[] _left;        // Child ids; negative ids are leaves
+  final int[] _right;
+  final int[] _bsByteOff;   // Bitset of categorical splits, located in _bits
+  final int[] _bsBitOff;
+  final int[] _bsNBits;
+  final byte[] _bits;
+  final float[] _leaves;
+  final int[] _domainLen;   // Size of the domain of each column, MAX_VALUE for numeric columns
+
+  // Trees compiled to bytecode by ForestCompiler; null entries are walked
+  private transient GeneratedTrees[] _code;
+  private transient int[] _codeIndex;
+
+  private FlatForest(Builder b, int[] roots, int[] domainLen) {
+    _roots = roots;
+    _cols = Arrays.copyOf(b._cols, b._nnodes);
+    _splits = Arrays.copyOf(b._splits, b._nnodes);
+    _flags = Arrays.copyOf(b._flags, b._nnodes);
+    _left = Arrays.copyOf(b._left, b._nnodes);
+    _right = Arrays.copyOf(b._right, b._nnodes);
+    _bsByteOff = Arrays.copyOf(b._bsByteOff, b._nnodes);
+    _bsBitOff = Arrays.copyOf(b._bsBitOff, b._nnodes);
+    _bsNBits = Arrays.copyOf(b._bsNBits, b._nnodes);
+    _bits = Arrays.copyOf(b._bits, b._nbits);
+    _leaves = Arrays.copyOf(b._leaves, b._nleaves);
+    _domainLen = domainLen;
+  }
+
+  /**
+   * Decodes the given compressed trees.
+   * @return flat forest, or null if some tree uses an encoding that is not supported
+   */
+  static FlatForest compile(byte[][] trees, int nclasses, String[][] domains) {
+    int[] domainLen = new int[domains == null ? 0 : domains.length];
+    for (int i = 0; i < domainLen.length; i++)
+      domainLen[i] = domains[i] == null ? Integer.MAX_VALUE : domains[i].length;
+    Builder b = new Builder();
+    int[] roots = new int[trees.length];
+    for (int i = 0; i < trees.length; i++) {
+      if (trees[i] == null) {
+        roots[i] = NO_TREE;
+        continue;
+      }
+      roots[i] = b.addTree(trees[i], nclasses);
+      if (roots[i] == NO_TREE)
+        return null;
+    }
+    return new FlatForest(b, roots, domainLen);
+  }
+
+  void setCode(GeneratedTrees[] code, int[] codeIndex) {
+    _codeIndex = codeIndex;
+    _code = code;
+  }
+
+  int ntrees() {
+    return _roots.length;
+  }
+
+  boolean hasTree(int treeIndex) {
+    return _roots[treeIndex] != NO_TREE;
+  }
+
+  /** Equivalent of {@code SharedTreeMojoModel.scoreTree(tree, row, nclasses, false, domains)}. */
+  double scoreTree(int treeIndex, double[] row) {
+    if (_code != null && _code[treeIndex] != null)
+      return _code[treeIndex].scoreTree(_codeIndex[treeIndex], row, _bits);
+    int node = _roots[treeIndex];
+    while (node >= 0) {
+      final double d = row[_cols[node]];
+      final int flags = _flags[node];
+      final boolean right;
+      if (Double.isNaN(d) || ((flags & BITSET) != 0 && !inRange(node, (int) d)) || (_cols[node] < _domainLen.length && _domainLen[_cols[node]] <= (int) d))
+        right = (flags & NA_LEFT) == 0;
+      else
+        right = (flags & NA_VS_REST) == 0 && ((flags & BITSET) == 0 ? d >= _splits[node] : contains(node, (int) d));
+      node = right ? _right[node] : _left[node];
+    }
+    return _leaves[~node];
+  }
+
+  /**
+   * Adds the predictions of the given tree to {@code preds[k + r*stride]} for all rows of a block.
+   */
+  void scoreTree(int treeIndex, double[][] rows, int nrows, double[] preds, int k, int stride) {
+    for (int r = 0, pos = k; r < nrows; r++, pos += stride)
+      preds[pos] += scoreTree(treeIndex, rows[r]);
+  }
+
+  private boolean inRange(int node, int b) {
+    b -= _bsBitOff[node];
+    return b >= 0 && b < _bsNBits[node];
+  }
+
+  private boolean contains(int node, int idx) {
+    idx -= _bsBitOff[node];
+    return (_bits[_bsByteOff[node] + (idx >> 3)] & ((byte) 1 << (idx & 7))) != 0;
+  }
+
+  // Growable node arrays, filled while decoding the trees
+  private static final class Builder {
+    int _nnodes, _nleaves, _nbits;
+    int[] _cols = new int[64];
+    float[] _splits = new float[64];
+    byte[] _flags = new byte[64];
+    int[] _left = new int[64];
+    int[] _right = new int[64];
+    int[] _bsByteOff = new int[64];
+    int[] _bsBitOff = new int[64];
+    int[] _bsNBits = new int[64];
+    byte[] _bits = new byte[64];
+    float[] _leaves = new float[64];
+
+    private int newNode() {
+      if (_nnodes == _cols.length) {
+        int len = _nnodes << 1;
+        _cols = Arrays.copyOf(_cols, len);
+        _splits = Arrays.copyOf(_splits, len);
+        _flags = Arrays.copyOf(_flags, len);
+        _left = Arrays.copyOf(_left, len);
+        _right = Arrays.copyOf(_right, len);
+        _bsByteOff = Arrays.copyOf(_bsByteOff, len);
+        _bsBitOff = Arrays.copyOf(_bsBitOff, len);
+        _bsNBits = Arrays.copyOf(_bsNBits, len);
+      }
+      return _nnodes++;
+    }
+
+    private int newLeaf(float value) {
+      if (_nleaves == _leaves.length) _leaves = Arrays.copyOf(_leaves, _nleaves << 1);
+      _leaves[_nleaves] = value;
+      return ~(_nleaves++);
+    }
+
+    private int copyBits(byte[] tree, int off, int len) {
+      while (_nbits + len > _bits.length) _bits = Arrays.copyOf(_bits, _bits.length << 1);
+      System.arraycopy(tree, off, _bits, _nbits, len);
+      _nbits += len;
+      return _nbits - len;
+    }
+
+    // Node (or leaf stored as a node) starting at position pos
+    private int child(ByteBuffer bb, int pos, int[] stack, int sp) {
+      if (bb.getChar(pos + 1) == 65535)
+        return newLeaf(bb.getFloat(pos + 3));
+      int id = newNode();
+      stack[sp] = pos;
+      stack[sp + 1] = id;
+      return id;
+    }
+
+    /** Decodes one tree, mirroring the walk of {@link SharedTreeMojoModel#scoreTree}; returns the root id. */
+    int addTree(byte[] tree, int nclasses) {
+      ByteBuffer bb = ByteBuffer.wrap(tree).order(ByteOrder.nativeOrder());
+      int[] stack = new int[64];
+      int sp = 0;
+      int root = child(bb, 0, stack, sp);
+      if (root >= 0) sp += 2;
+      while (sp > 0) {
+        sp -= 2;
+        int pos = stack[sp];
+        int id = stack[sp + 1];
+        if (sp + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length << 1);
+
+        int nodeType = bb.get(pos) & 0xFF;
+        _cols[id] = bb.getChar(pos + 1);
+        int naSplitDir = bb.get(pos + 3) & 0xFF;
+        pos += 4;
+        boolean naVsRest = naSplitDir == NaSplitDir.NAvsREST.value();
+        boolean leftward = naSplitDir == NaSplitDir.NALeft.value() || naSplitDir == NaSplitDir.Left.value();
+        int lmask = nodeType & 51;
+        int equal = nodeType & 12;
+        byte flags = (byte) ((naVsRest ? NA_VS_REST : 0) | (leftward ? NA_LEFT : 0));
+        if (naVsRest) {
+          if (equal != 0) return NO_TREE; // the byte walker would test a stale bitset here
+        } else if (equal == 0) {
+          _splits[id] = bb.getFloat(pos);
+          pos += 4;
+        } else if (equal == 8) {
+          flags |= BITSET;
+          _bsByteOff[id] = copyBits(tree, pos, 4);
+          _bsBitOff[id] = 0;
+          _bsNBits[id] = 32;
+          pos += 4;
+        } else if (equal == 12) {
+          flags |= BITSET;
+          int bitoff = bb.getChar(pos);
+          int nbits = bb.getInt(pos + 2);
+          int nbytes = ((nbits - 1) >> 3) + 1;
+          _bsByteOff[id] = copyBits(tree, pos + 6, nbytes);
+          _bsBitOff[id] = bitoff;
+          _bsNBits[id] = nbits;
+          pos += 6 + nbytes;
+        } else {
+          return NO_TREE;
+        }
+        _flags[id] = flags;
+
+        int rightPos;
+        switch (lmask) {
+          case 0:  rightPos = pos + 1 + (bb.get(pos) & 0xFF);  break;
+          case 1:  rightPos = pos + 2 + bb.getChar(pos);  break;
+          case 2:  rightPos = pos + 3 + ((bb.get(pos) & 0xFF) | ((bb.get(pos + 1) & 0xFF) << 8) | ((bb.get(pos + 2) & 0xFF) << 16));  break;
+          case 3:  rightPos = pos + 4 + bb.getInt(pos);  break;
+          case 16: rightPos = pos + (nclasses < 256 ? 1 : 2);  break;
+          case 48: rightPos = pos + 4;  break;
+          default: return NO_TREE;
+        }
+        // Children are decoded into locals first: allocating a node may grow the arrays
+        int left, right;
+        if (lmask <= 3) {
+          left = child(bb, pos + lmask + 1, stack, sp);
+          if (left >= 0) sp += 2;
+        } else {
+          left = newLeaf(bb.getFloat(pos));
+        }
+        if ((((nodeType & 0xC0) >> 2) & 16) != 0) {
+          right = newLeaf(bb.getFloat(rightPos));
+        } else {
+          right = child(bb, rightPos, stack, sp);
+          if (right >= 0) sp += 2;
+        }
+        _left[id] = left;
+        _right[id] = right;
+      }
+      return root;
+    }
+  }
+}
@@ -0,0 +1,365 @@
+package hex.genmodel.algos.tree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles the trees of a {@link FlatForest} to JVM bytecode at runtime.
+ *
+ * Every tree becomes a static method made of nested compare-and-branch instructions with the split values and
+ * leaf predictions inlined as constants - the same shape as the POJO code generated by TreeJCodeGen, but
+ * emitted directly as class files (no javac, no third party bytecode library) and loaded by a dedicated class
+ * loader, which can be collected together with the model. Trees are packed into generated classes implementing
+ * {@link GeneratedTrees}, as many per class as the constant pool allows.
+ *
+ * Trees whose code would exceed the given size limit are left to the array walker of {@link FlatForest}; the
+ * default limit is the size above which HotSpot refuses to JIT-compile a method, so the generated code never ends
+ * up interpreted. The emitted branches replicate {@link FlatForest#scoreTree(int, double[])} exactly.
+ */
+final class ForestCompiler {
+
+  /** HotSpot does not JIT-compile methods with more bytecode than this (see -XX:-DontCompileHugeMethods). */
+  static final int DEFAULT_MAX_TREE_CODE_SIZE = 8000;
+
+  private static final int MAX_CONSTANTS = 60000;   // Start a new class past this many constant pool slots
+  private static final int MAX_TREES_PER_CLASS = 4096;
+
+  private static final String PACKAGE = "hex/genmodel/algos/tree/";
+  private static final String TREE_DESC = "([D[B)D";
+  private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+  private final FlatForest _forest;
+  private final int _maxCodeSize;
+
+  private ForestCompiler(FlatForest forest, int maxCodeSize) {
+    _forest = forest;
+    _maxCodeSize = Math.min(maxCodeSize, Short.MAX_VALUE); // Branch offsets are 16 bit
+  }
+
+  /**
+   * Generates code for the trees of the given forest and installs it in the forest.
+   * @return number of trees compiled; the remaining ones keep being walked
+   */
+  static int compile(FlatForest forest, int maxCodeSize) {
+    return new ForestCompiler(forest, maxCodeSize).compile();
+  }
+
+  private int compile() {
+    final int ntrees = _forest.ntrees();
+    GeneratedTrees[] code = new GeneratedTrees[ntrees];
+    int[] codeIndex = new int[ntrees];
+    Loader loader = new Loader(GeneratedTrees.class.getClassLoader());
+    int compiled = 0;
+    int t = 0;
+    try {
+      while (t < ntrees) {
+        ClassGen cg = new ClassGen(PACKAGE + "GeneratedTrees$" + CLASS_COUNTER.getAndIncrement());
+        List<Integer> trees = new ArrayList<>();
+        for (; t < ntrees && cg._cp._count < MAX_CONSTANTS && trees.size() < MAX_TREES_PER_CLASS; t++) {
+          if (!_forest.hasTree(t)) continue;
+          byte[] body = treeCode(cg._cp, _forest._roots[t]);
+          if (body == null) continue; // Too large, keep walking it
+          cg.addTree(body);
+          trees.add(t);
+        }
+        if (trees.isEmpty()) continue;
+        GeneratedTrees gt = (GeneratedTrees) loader.define(cg._name.replace('/', '.'), cg.toByteArray()).newInstance();
+        for (int i = 0; i < trees.size(); i++) {
+          code[trees.get(i)] = gt;
+          codeIndex[trees.get(i)] = i;
+        }
+        compiled += trees.size();
+      }
+    } catch (IOException | ReflectiveOperationException | LinkageError e) {
+      return 0; // Leave the forest walked
+    }
+    if (compiled > 0)
+      _forest.setCode(code, codeIndex);
+    return compiled;
+  }
+
+  private static final class Loader extends ClassLoader {
+    Loader(ClassLoader parent) { super(parent); }
+    Class<?> define(String name, byte[] b) { return defineClass(name, b, 0, b.length); }
+  }
+
+  //--------------------------------------------------------------------------------------------------------------------
+  // Tree code
+  //--------------------------------------------------------------------------------------------------------------------
+
+  private static final class TooLarge extends Exception {
+    TooLarge() { super(null, null, false, false); }
+  }
+
+  // Locals of a tree method: 0 = row, 1 = bits, 2-3 = value of the split column, 4 = bit index
+  private byte[] treeCode(ConstantPool cp, int root) {
+    Code c = new Code();
+    try {
+      emitNode(cp, c, root);
+    } catch (TooLarge e) {
+      return null;
+    }
+    return c._len > _maxCodeSize ? null : c.toByteArray();
+  }
+
+  private void emitNode(ConstantPool cp, Code c, int node) throws TooLarge {
+    if (c._len > _maxCodeSize) throw new TooLarge();
+    final FlatForest f = _forest;
+    if (node < 0) {
+      c.op(Op.LDC2_W).u2(cp.dbl(f._leaves[~node]));
+      c.op(Op.DRETURN);
+      return;
+    }
+    final int col = f._cols[node];
+    final int flags = f._flags[node];
+    final boolean bitset = (flags & FlatForest.BITSET) != 0;
+    List<Integer> naSites = new ArrayList<>();
+    // d = row[col]; NaN?
+    c.op(Op.ALOAD_0);
+    c.pushInt(cp, col);
+    c.op(Op.DALOAD).op(Op.DSTORE_2);
+    c.op(Op.DLOAD_2).op(Op.DLOAD_2).op(Op.DCMPL);
+    naSites.add(c.branch(Op.IFNE));
+    // Level outside of the training domain?
+    if (col < f._domainLen.length && f._domainLen[col] != Integer.MAX_VALUE) {
+      c.op(Op.DLOAD_2).op(Op.D2I);
+      c.pushInt(cp, f._domainLen[col]);
+      naSites.add(c.branch(Op.IF_ICMPGE));
+    }
+    // Level outside of the bitset?
+    if (bitset) {
+      c.op(Op.DLOAD_2).op(Op.D2I);
+      c.pushInt(cp, f._bsBitOff[node]);
+      c.op(Op.ISUB).op(Op.ISTORE).u1(4);
+      c.op(Op.ILOAD).u1(4);
+      naSites.add(c.branch(Op.IFLT));
+      c.op(Op.ILOAD).u1(4);
+      c.pushInt(cp, f._bsNBits[node]);
+      naSites.add(c.branch(Op.IF_ICMPGE));
+    }
+    int rightSite = -1;
+    if ((flags & FlatForest.NA_VS_REST) == 0) {
+      if (bitset) { // (bits[byteOff + (idx >> 3)] & (1 << (idx & 7))) != 0
+        c.op(Op.ALOAD_1).op(Op.ILOAD).u1(4).op(Op.ICONST_3).op(Op.ISHR);
+        c.pushInt(cp, f._bsByteOff[node]);
+        c.op(Op.IADD).op(Op.BALOAD);
+        c.op(Op.ICONST_1).op(Op.ILOAD).u1(4).op(Op.BIPUSH).u1(7).op(Op.IAND).op(Op.ISHL).op(Op.IAND);
+        rightSite = c.branch(Op.IFNE);
+      } else { // d >= split
+        c.op(Op.DLOAD_2).op(Op.LDC2_W).u2(cp.dbl(f._splits[node])).op(Op.DCMPL);
+        rightSite = c.branch(Op.IFGE);
+      }
+    }
+    final int leftPos = c._len;
+    emitNode(cp, c, f._left[node]);
+    final int rightPos = c._len;
+    emitNode(cp, c, f._right[node]);
+    if (rightSite >= 0) c.patch(rightSite, rightPos);
+    final int naPos = (flags & FlatForest.NA_LEFT) != 0 ? leftPos : rightPos;
+    for (int site : naSites) c.patch(site, naPos);
+  }
+
+  //--------------------------------------------------------------------------------------------------------------------
+  // Class file writing (class file version 49, which needs no stack map frames)
+  //--------------------------------------------------------------------------------------------------------------------
+
+  private static final class Op {
+    static final int ICONST_M1 = 0x02, ICONST_1 = 0x04, ICONST_3 = 0x06, DCONST_0 = 0x0e;
+    static final int BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13, LDC2_W = 0x14;
+    static final int ILOAD = 0x15, DLOAD_2 = 0x28, ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c, ALOAD_3 = 0x2d;
+    static final int DALOAD = 0x31, BALOAD = 0x33, ISTORE = 0x36, DSTORE_2 = 0x49;
+    static final int IADD = 0x60, ISUB = 0x64, ISHL = 0x78, ISHR = 0x7a, IAND = 0x7e, D2I = 0x8e, DCMPL = 0x97;
+    static final int IFNE = 0x9a, IFLT = 0x9b, IFGE = 0x9c, IF_ICMPGE = 0xa2, TABLESWITCH = 0xaa;
+    static final int DRETURN = 0xaf, RETURN = 0xb1, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8;
+  }
+
+  private static final class Code {
+    byte[] _buf = new byte[256];
+    int _len;
+
+    private void ensure(int n) {
+      if (_len + n > _buf.length) {
+        byte[] b = new byte[Math.max(_buf.length << 1, _len + n)];
+        System.arraycopy(_buf, 0, b, 0, _len);
+        _buf = b;
+      }
+    }
+    Code u1(int v) { ensure(1); _buf[_len++] = (byte) v; return this; }
+    Code u2(int v) { return u1(v >> 8).u1(v); }
+    Code u4(int v) { return u2(v >> 16).u2(v); }
+    Code op(int opcode) { return u1(opcode); }
+
+    void pushInt(ConstantPool cp, int v) {
+      if (v >= -1 && v <= 5) op(Op.ICONST_M1 + v + 1);
+      else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) op(Op.BIPUSH).u1(v);
+      else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) op(Op.SIPUSH).u2(v);
+      else op(Op.LDC_W).u2(cp.integer(v));
+    }
+
+    // Emits a branch with a placeholder offset, returns its position for patch()
+    int branch(int opcode) {
+      int at = _len;
+      op(opcode).u2(0);
+      return at;
+    }
+    void patch(int at, int target) {
+      int off = target - at;
+      _buf[at + 1] = (byte) (off >> 8);
+      _buf[at + 2] = (byte) off;
+    }
+
+    byte[] toByteArray() {
+      byte[] b = new byte[_len];
+      System.arraycopy(_buf, 0, b, 0, _len);
+      return b;
+    }
+  }
+
+  private static final class ConstantPool {
+    final ByteArrayOutputStream _bytes = new ByteArrayOutputStream();
+    final DataOutputStream _out = new DataOutputStream(_bytes);
+    final Map<Object, Integer> _index = new HashMap<>();
+    int _count = 1;
+
+    private int entry(Object key, int slots) {
+      Integer idx = _index.get(key);
+      if (idx != null) return -idx;
+      _index.put(key, _count);
+      _count += slots;
+      return _count - slots;
+    }
+
+    int utf8(String s) {
+      int idx = entry("U" + s, 1);
+      if (idx < 0) return -idx;
+      write(1); writeUTF(s);
+      return idx;
+    }
+    int cls(String name) {
+      int nameIdx = utf8(name);
+      int idx = entry("C" + name, 1);
+      if (idx < 0) return -idx;
+      write(7); write2(nameIdx);
+      return idx;
+    }
+    int integer(int v) {
+      int idx = entry(v, 1);
+      if (idx < 0) return -idx;
+      write(3); write4(v);
+      return idx;
+    }
+    int dbl(double v) {
+      long bits = Double.doubleToRawLongBits(v);
+      int idx = entry(bits, 2);
+      if (idx < 0) return -idx;
+      write(6); write4((int) (bits >>> 32)); write4((int) bits);
+      return idx;
+    }
+    int method(String owner, String name, String desc) {
+      int clsIdx = cls(owner);
+      int ntIdx = nameAndType(name, desc);
+      int idx = entry("M" + owner + "." + name + desc, 1);
+      if (idx < 0) return -idx;
+      write(10); write2(clsIdx); write2(ntIdx);
+      return idx;
+    }
+    private int nameAndType(String name, String desc) {
+      int n = utf8(name), d = utf8(desc);
+      int idx = entry("N" + name + desc, 1);
+      if (idx < 0) return -idx;
+      write(12); write2(n); write2(d);
+      return idx;
+    }
+
+    private void write(int b) { _bytes.write(b); }
+    private void write2(int v) { write(v >> 8); write(v); }
+    private void write4(int v) { write2(v >> 16); write2(v); }
+    private void writeUTF(String s) {
+      try {
+        _out.writeUTF(s);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static final class ClassGen {
+    final String _name;
+    final ConstantPool _cp = new ConstantPool();
+    final ByteArrayOutputStream _methods = new ByteArrayOutputStream();
+    final DataOutputStream _mout = new DataOutputStream(_methods);
+    final List<Integer> _treeMethods = new ArrayList<>();
+    int _nmethods;
+
+    ClassGen(String name) { _name = name; }
+
+    void addTree(byte[] body) throws IOException {
+      String name = "t" + _treeMethods.size();
+      _treeMethods.add(_cp.method(_name, name, TREE_DESC));
+      method(0x000A /* private static */, name, TREE_DESC, 4, 5, body);
+    }
+
+    private void method(int access, String name, String desc, int maxStack, int maxLocals, byte[] code) throws IOException {
+      _mout.writeShort(access);
+      _mout.writeShort(_cp.utf8(name));
+      _mout.writeShort(_cp.utf8(desc));
+      _mout.writeShort(1);
+      _mout.writeShort(_cp.utf8("Code"));
+      _mout.writeInt(12 + code.length);
+      _mout.writeShort(maxStack);
+      _mout.writeShort(maxLocals);
+      _mout.writeInt(code.length);
+      _mout.write(code);
+      _mout.writeShort(0); // exception table
+      _mout.writeShort(0); // attributes
+      _nmethods++;
+    }
+
+    byte[] toByteArray() throws IOException {
+      // Default constructor
+      Code init = new Code();
+      init.op(Op.ALOAD_0).op(Op.INVOKESPECIAL).u2(_cp.method("java/lang/Object", "<init>", "()V")).op(Op.RETURN);
+      method(0x0001, "<init>", "()V", 1, 1, init.toByteArray());
+      // double scoreTree(int treeIndex, double[] row, byte[] bits) { switch (treeIndex) { case i: return t<i>(row, bits); } }
+      Code sw = new Code();
+      int n = _treeMethods.size();
+      sw.op(0x1b /* iload_1 */).op(Op.TABLESWITCH);
+      while ((sw._len & 3) != 0) sw.u1(0);
+      int firstCase = sw._len + 12 + 4 * n; // Each case is 6 bytes long, offsets are relative to the tableswitch at 1
+      sw.u4(firstCase + 6 * n - 1).u4(0).u4(n - 1);
+      for (int i = 0; i < n; i++)
+        sw.u4(firstCase + 6 * i - 1);
+      for (int i = 0; i < n; i++)
+        sw.op(Op.ALOAD_2).op(Op.ALOAD_3).op(Op.INVOKESTATIC).u2(_treeMethods.get(i)).op(Op.DRETURN);
+      sw.op(Op.DCONST_0).op(Op.DRETURN);
+      method(0x0001, "scoreTree", "(I[D[B)D", 2, 4, sw.toByteArray());
+
+      int thisIdx = _cp.cls(_name);
+      int superIdx = _cp.cls("java/lang/Object");
+      int ifaceIdx = _cp.cls(GeneratedTrees.class.getName().replace('.', '/'));
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(49);
+      out.writeShort(_cp._count);
+      _cp._bytes.writeTo(out);
+      out.writeShort(0x0031); // public final super
+      out.writeShort(thisIdx);
+      out.writeShort(superIdx);
+      out.writeShort(1);
+      out.writeShort(ifaceIdx);
+      out.writeShort(0); // fields
+      out.writeShort(_nmethods);
+      _methods.writeTo(out);
+      out.writeShort(0); // attributes
+      return bytes.toByteArray();
+    }
+  }
+}
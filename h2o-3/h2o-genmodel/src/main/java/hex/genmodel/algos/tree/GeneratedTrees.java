@@ -0,0 +1,19 @@
+package hex.genmodel.algos.tree;
+
+/**
+ * Implemented by the classes {@link ForestCompiler} generates at runtime. Each generated class holds the code of
+ * a group of trees.
+ *
+ * Public only because the generated classes live in their own class loader; not meant to be implemented by hand.
+ */
+public interface GeneratedTrees {
+
+  /**
+   * @param treeIndex index of the tree within this group
+   * @param row input row
+   * @param bits bitsets of the categorical splits of the forest
+   * @return prediction of the tree
+   */
+  double scoreTree(int treeIndex, double[] row, byte[] bits);
+
+}
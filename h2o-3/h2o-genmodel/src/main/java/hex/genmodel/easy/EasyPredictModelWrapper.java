@@ -694,6 +694,86 @@ public class EasyPredictModelWrapper implements Serializable {
     return predict(data, offset, new double[m.getPredsSize(c)]);
   }
 
+  /**
+   * Converts a block of rows into the columnar layout expected by {@link GenModel#scoreBlock}.
+   *
+   * The name lookups, categorical level mapping and error handling are the same as for the single-row predict calls.
+   * The columns buffer is re-used if it is large enough, so converting block after block of rows into the same
+   * buffer does not allocate.
+   *
+   * @param rows rows to convert, only the first nrows are used
+   * @param nrows number of rows in the block
+   * @param cols columns buffer to fill, may be null
+   * @return the columns buffer, {@code cols[c][r]} holds the value of model column c for row r
+   * @throws PredictException
+   */
+  public double[][] fillColumns(RowData[] rows, int nrows, double[][] cols) throws PredictException {
+    final int nfeatures = m.nfeatures();
+    if (cols == null || cols.length < nfeatures)
+      cols = new double[nfeatures][];
+    for (int c = 0; c < nfeatures; c++)
+      if (cols[c] == null || cols[c].length < nrows)
+        cols[c] = new double[nrows];
+    double[] rawData = blockRawData(nfeatures);
+    for (int r = 0; r < nrows; r++) {
+      Arrays.fill(rawData, Double.NaN);
+      if (fillRawData(rows[r], rawData) != rawData)
+        throw new PredictException("Block scoring is not supported for image data.");
+      for (int c = 0; c < nfeatures; c++)
+        cols[c][r] = rawData[c];
+    }
+    return cols;
+  }
+
+  // Row buffer of fillColumns, one per thread
+  private transient volatile ThreadLocal<double[]> _blockRawData;
+
+  private double[] blockRawData(int nfeatures) {
+    ThreadLocal<double[]> tl = _blockRawData;
+    if (tl == null) {
+      synchronized (this) {
+        if ((tl = _blockRawData) == null) _blockRawData = tl = new ThreadLocal<>();
+      }
+    }
+    double[] rawData = tl.get();
+    if (rawData == null || rawData.length != nfeatures) tl.set(rawData = new double[nfeatures]);
+    return rawData;
+  }
+
+  /**
+   * Scores a block of rows already converted by {@link #fillColumns}.
+   *
+   * The raw predictions of row r are stored in {@code preds[r*p .. r*p+p-1]}, where p is the size of the predictions
+   * array of the single-row calls; their layout is the same as of the {@code preds} array used by those calls.
+   * The predictions buffer is re-used if it is large enough.
+   *
+   * @param cols model input columns
+   * @param nrows number of rows in the block
+   * @param preds predictions buffer, may be null
+   * @return the predictions buffer
+   */
+  public double[] predictBlock(double[][] cols, int nrows, double[] preds) {
+    final int psize = m.getPredsSize(m.getModelCategory());
+    if (preds == null || preds.length < nrows * psize)
+      preds = new double[nrows * psize];
+    m.scoreBlock(cols, null, nrows, preds);
+    return preds;
+  }
+
+  /**
+   * Converts and scores a block of rows, see {@link #fillColumns} and {@link #predictBlock}.
+   *
+   * @param rows rows to score, only the first nrows are used
+   * @param nrows number of rows in the block
+   * @param cols columns buffer, may be null
+   * @param preds predictions buffer, may be null
+   * @return the predictions buffer
+   * @throws PredictException
+   */
+  public double[] predictBlock(RowData[] rows, int nrows, double[][] cols, double[] preds) throws PredictException {
+    return predictBlock(fillColumns(rows, nrows, cols), nrows, preds);
+  }
+
   private static double[] nanArray(int len) {
     double[] arr = new double[len];
     for (int i = 0; i < len; i++) {
@@ -91,6 +91,46 @@ public class GbmMojoModelTest {
     assertArrayEquals(new double[]{0.3920402, 0.6079598}, pred.calibratedClassProbabilities, 1e-5);
   }
 
+  @Test
+  public void testPredictBlock() throws Exception {
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(mojo12);
+
+    RowData[] rows = new RowData[]{
+            new RowData() {{
+              put("SegSumT", 18.7);
+              put("SegTSeas", 1.51);
+              put("SegLowFlow", 1.003);
+              put("DSDist", 132.53);
+              put("DSMaxSlope", 1.15);
+              put("USAvgT", 0.2);
+              put("USRainDays", 1.153);
+              put("USSlope", 8.3);
+              put("USNative", 0.34);
+              put("DSDam", 0.0);
+              put("Method", "electric");
+            }},
+            new RowData(),
+            new RowData() {{
+              put("SegSumT", 16.0);
+              put("DSDist", 20.0);
+              put("Method", "net");
+            }}
+    };
+    double[][] cols = wrapper.fillColumns(rows, rows.length, null);
+    double[] preds = wrapper.predictBlock(cols, rows.length, null);
+    assertEquals(rows.length * 3, preds.length);
+
+    for (int i = 0; i < rows.length; i++) {
+      BinomialModelPrediction pred = wrapper.predictBinomial(rows[i]);
+      assertEquals(pred.labelIndex, (int) preds[i * 3]);
+      assertArrayEquals(pred.classProbabilities, new double[]{preds[i * 3 + 1], preds[i * 3 + 2]}, 0);
+    }
+
+    // buffers are re-used
+    assertSame(cols, wrapper.fillColumns(rows, 2, cols));
+    assertSame(preds, wrapper.predictBlock(rows, 2, cols, preds));
+  }
+
   @Test
   public void testPredictWithLeafAssignments() throws IOException, PredictException {
     EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(
@@ -8,6 +8,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -53,6 +54,35 @@ public class GlmMojoModelTest {
     }
   }
 
+  @Test
+  public void testScoreBlock() throws Exception {
+    double[][] data = new double[][]{
+            new double[]{2,73,2,1,7.9,18,6},
+            new double[]{1,51,3,1,8.9,0,6},
+            new double[]{2,57,3,1,3.4,30.8,6},
+            new double[]{1,Double.NaN,1,1,5.4,34,5} // value should be imputed
+    };
+    double[][] cols = new double[data[0].length][data.length];
+    for (int i = 0; i < data.length; i++)
+      for (int c = 0; c < cols.length; c++)
+        cols[c][i] = data[i][c];
+
+    GlmMojoModel mojo = (GlmMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    double[] blockPreds = new double[data.length * 3];
+    mojo.scoreBlock(cols, null, data.length, blockPreds);
+
+    assertTrue("input must not be modified", Double.isNaN(cols[1][3]));
+    for (int i = 0; i < data.length; i++) {
+      double preds[] = mojo.score0(data[i], new double[3]);
+      assertArrayEquals("Predictions for row #" + i, preds, Arrays.copyOfRange(blockPreds, i * 3, i * 3 + 3), 0);
+    }
+
+    // scratch buffers are re-used by the next block
+    double[] again = new double[2 * 3];
+    mojo.scoreBlock(cols, null, 2, again);
+    assertArrayEquals(Arrays.copyOf(blockPreds, 2 * 3), again, 0);
+  }
+
   private static class ClasspathReaderBackend implements MojoReaderBackend {
     @Override
     public BufferedReader getTextFile(String filename) throws IOException {
@@ -0,0 +1,109 @@
+package hex.genmodel.algos.tree;
+
+import com.google.common.io.ByteStreams;
+import hex.genmodel.ModelMojoReader;
+import hex.genmodel.MojoReaderBackend;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FlatForestTest {
+
+  @Test
+  public void testScoreStump() {
+    byte[] tree = new byte[7];
+    ByteBuffer bb = ByteBuffer.wrap(tree, 0, tree.length).order(ByteOrder.nativeOrder());
+    bb.put((byte) 0);
+    bb.putChar((char) 65535);
+    bb.putFloat(4.2f);
+
+    FlatForest forest = FlatForest.compile(new byte[][]{null, tree}, 1, null);
+    assertNotNull(forest);
+    assertFalse(forest.hasTree(0));
+    assertTrue(forest.hasTree(1));
+    assertEquals(4.2f, forest.scoreTree(1, null), 0.0);
+  }
+
+  @Test
+  public void testMatchesCompressedTrees() throws Exception {
+    SharedTreeMojoModel mojo = (SharedTreeMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    FlatForest forest = FlatForest.compile(mojo._compressed_trees, mojo._nclasses, mojo._domains);
+    assertNotNull(forest);
+
+    Random rnd = new Random(0xF1A7);
+    double[] row = new double[mojo.nfeatures()];
+    for (int i = 0; i < 10000; i++) {
+      for (int c = 0; c < row.length; c++) {
+        if (rnd.nextInt(10) == 0) row[c] = Double.NaN;
+        else if (mojo._domains[c] != null) row[c] = rnd.nextInt(mojo._domains[c].length + 2) - 1; // includes unseen levels
+        else row[c] = rnd.nextGaussian() * 50;
+      }
+      for (int t = 0; t < mojo._compressed_trees.length; t++) {
+        double expected = SharedTreeMojoModel.scoreTree(mojo._compressed_trees[t], row, mojo._nclasses, false, mojo._domains);
+        assertEquals("Tree #" + t + ", row #" + i, expected, forest.scoreTree(t, row), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testCompiledTreesMatchCompressedTrees() throws Exception {
+    SharedTreeMojoModel mojo = (SharedTreeMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    FlatForest forest = FlatForest.compile(mojo._compressed_trees, mojo._nclasses, mojo._domains);
+    assertEquals(mojo._compressed_trees.length, ForestCompiler.compile(forest, ForestCompiler.DEFAULT_MAX_TREE_CODE_SIZE));
+    assertMatches(mojo, forest);
+  }
+
+  @Test
+  public void testHugeTreesAreNotCompiled() throws Exception {
+    SharedTreeMojoModel mojo = (SharedTreeMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    FlatForest forest = FlatForest.compile(mojo._compressed_trees, mojo._nclasses, mojo._domains);
+    assertEquals(0, ForestCompiler.compile(forest, 16));
+    assertMatches(mojo, forest);
+  }
+
+  private static void assertMatches(SharedTreeMojoModel mojo, FlatForest forest) {
+    Random rnd = new Random(0xC0DE);
+    double[] row = new double[mojo.nfeatures()];
+    for (int i = 0; i < 10000; i++) {
+      for (int c = 0; c < row.length; c++) {
+        if (rnd.nextInt(10) == 0) row[c] = Double.NaN;
+        else if (mojo._domains[c] != null) row[c] = rnd.nextInt(mojo._domains[c].length + 2) - 1;
+        else row[c] = rnd.nextGaussian() * 50;
+      }
+      for (int t = 0; t < mojo._compressed_trees.length; t++) {
+        double expected = SharedTreeMojoModel.scoreTree(mojo._compressed_trees[t], row, mojo._nclasses, false, mojo._domains);
+        assertEquals("Tree #" + t + ", row #" + i, expected, forest.scoreTree(t, row), 0);
+      }
+    }
+  }
+
+  private static class ClasspathReaderBackend implements MojoReaderBackend {
+    private static final String ROOT = "/hex/genmodel/algos/gbm/calibrated/";
+
+    @Override
+    public BufferedReader getTextFile(String filename) throws IOException {
+      InputStream is = FlatForestTest.class.getResourceAsStream(ROOT + filename);
+      return new BufferedReader(new InputStreamReader(is));
+    }
+
+    @Override
+    public byte[] getBinaryFile(String filename) throws IOException {
+      InputStream is = FlatForestTest.class.getResourceAsStream(ROOT + filename);
+      return ByteStreams.toByteArray(is);
+    }
+
+    @Override
+    public boolean exists(String name) {
+      return true;
+    }
+  }
+
+}
@@ -38,8 +38,9 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                       "learn_rate_annealing", "distribution", "quantile_alpha", "tweedie_power", "huber_alpha",
                       "checkpoint", "sample_rate", "sample_rate_per_class", "col_sample_rate",
                       "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
-                      "histogram_type", "max_abs_leafnode_pred", "pred_noise_bandwidth", "categorical_encoding",
-                      "calibrate_model", "calibration_frame", "custom_metric_func"}
+                      "histogram_type", "max_abs_leafnode_pred", "pred_noise_bandwidth", "goss_top_rate",
+                      "goss_other_rate", "exclusive_feature_bundling", "categorical_encoding", "calibrate_model",
+                      "calibration_frame", "custom_metric_func"}
         if "Lambda" in kwargs: kwargs["lambda_"] = kwargs.pop("Lambda")
         for pname, pvalue in kwargs.items():
             if pname == 'model_id':
@@ -801,6 +802,53 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["pred_noise_bandwidth"] = pred_noise_bandwidth
 
 
+    @property
+    def goss_top_rate(self):
+        """
+        Gradient-based One-Side Sampling: fraction of rows with the largest absolute gradients kept for each tree (0
+        disables GOSS, from 0.0 to 1.0)
+
+        Type: ``float``  (default: ``0``).
+        """
+        return self._parms.get("goss_top_rate")
+
+    @goss_top_rate.setter
+    def goss_top_rate(self, goss_top_rate):
+        assert_is_type(goss_top_rate, None, numeric)
+        self._parms["goss_top_rate"] = goss_top_rate
+
+
+    @property
+    def goss_other_rate(self):
+        """
+        Gradient-based One-Side Sampling: fraction of rows randomly sampled (and up-weighted) from the rows with smaller
+        gradients
+
+        Type: ``float``  (default: ``0.1``).
+        """
+        return self._parms.get("goss_other_rate")
+
+    @goss_other_rate.setter
+    def goss_other_rate(self, goss_other_rate):
+        assert_is_type(goss_other_rate, None, numeric)
+        self._parms["goss_other_rate"] = goss_other_rate
+
+
+    @property
+    def exclusive_feature_bundling(self):
+        """
+        Bundle mutually exclusive sparse binary columns to build their histograms in a single pass
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("exclusive_feature_bundling")
+
+    @exclusive_feature_bundling.setter
+    def exclusive_feature_bundling(self, exclusive_feature_bundling):
+        assert_is_type(exclusive_feature_bundling, None, bool)
+        self._parms["exclusive_feature_bundling"] = exclusive_feature_bundling
+
+
     @property
     def categorical_encoding(self):
         """